@@ -0,0 +1,144 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.plugin.nitf;
+
+import java.awt.Transparency;
+import java.awt.color.ColorSpace;
+import java.awt.image.BandedSampleModel;
+import java.awt.image.BufferedImage;
+import java.awt.image.ComponentColorModel;
+import java.awt.image.DataBuffer;
+import java.awt.image.Raster;
+import java.awt.image.WritableRaster;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * An RGB image whose pixels are stored in a memory mapped temporary file instead of the heap. The
+ * operating system pages the pixels in and out as they are drawn and read, so the heap needed to
+ * render a NITF at full resolution does not depend on its dimensions. Each band is stored in its
+ * own bank, which allows images of up to {@link Integer#MAX_VALUE} pixels.
+ */
+class MappedImage implements Closeable {
+
+  private static final int RGB_BAND_COUNT = 3;
+
+  private final Path file;
+
+  private final FileChannel channel;
+
+  private final BufferedImage image;
+
+  MappedImage(int width, int height) throws IOException {
+    if (!fits(width, height)) {
+      throw new IllegalArgumentException(
+          String.format("A %d x %d image is too large to be mapped.", width, height));
+    }
+
+    file = Files.createTempFile("nitf-original-", ".raw");
+    try {
+      channel =
+          FileChannel.open(
+              file, StandardOpenOption.READ, StandardOpenOption.WRITE);
+    } catch (IOException | RuntimeException e) {
+      Files.deleteIfExists(file);
+      throw e;
+    }
+
+    try {
+      MappedDataBuffer dataBuffer = new MappedDataBuffer(channel, width * height, RGB_BAND_COUNT);
+      WritableRaster raster =
+          Raster.createWritableRaster(
+              new BandedSampleModel(DataBuffer.TYPE_BYTE, width, height, RGB_BAND_COUNT),
+              dataBuffer,
+              null);
+      ComponentColorModel colorModel =
+          new ComponentColorModel(
+              ColorSpace.getInstance(ColorSpace.CS_sRGB),
+              false,
+              false,
+              Transparency.OPAQUE,
+              DataBuffer.TYPE_BYTE);
+      image = new BufferedImage(colorModel, raster, false, null);
+    } catch (IOException | RuntimeException e) {
+      close();
+      throw e;
+    }
+  }
+
+  /** Returns {@code true} if an image of the given size can be mapped. */
+  static boolean fits(long width, long height) {
+    return width > 0 && height > 0 && width * height <= Integer.MAX_VALUE;
+  }
+
+  BufferedImage getImage() {
+    return image;
+  }
+
+  /**
+   * Close and delete the backing file. The mapping itself is released when the image is garbage
+   * collected, so the image must not be used after this call.
+   */
+  @Override
+  public void close() throws IOException {
+    try {
+      channel.close();
+    } finally {
+      Files.deleteIfExists(file);
+    }
+  }
+
+  /** A byte {@link DataBuffer} whose banks are split across mappings of at most 1 GiB. */
+  private static class MappedDataBuffer extends DataBuffer {
+
+    private static final int CHUNK_SHIFT = 30;
+
+    private static final int CHUNK_SIZE = 1 << CHUNK_SHIFT;
+
+    private static final int CHUNK_MASK = CHUNK_SIZE - 1;
+
+    private final MappedByteBuffer[][] chunks;
+
+    MappedDataBuffer(FileChannel channel, int size, int bankCount) throws IOException {
+      super(TYPE_BYTE, size, bankCount);
+      int chunkCount = (int) (((long) size + CHUNK_SIZE - 1) >> CHUNK_SHIFT);
+      chunks = new MappedByteBuffer[bankCount][chunkCount];
+      for (int bank = 0; bank < bankCount; bank++) {
+        for (int chunk = 0; chunk < chunkCount; chunk++) {
+          long offset = (long) chunk << CHUNK_SHIFT;
+          chunks[bank][chunk] =
+              channel.map(
+                  FileChannel.MapMode.READ_WRITE,
+                  (long) bank * size + offset,
+                  Math.min(CHUNK_SIZE, size - offset));
+        }
+      }
+    }
+
+    @Override
+    public int getElem(int bank, int i) {
+      return chunks[bank][i >>> CHUNK_SHIFT].get(i & CHUNK_MASK) & 0xFF;
+    }
+
+    @Override
+    public void setElem(int bank, int i, int val) {
+      chunks[bank][i >>> CHUNK_SHIFT].put(i & CHUNK_MASK, (byte) val);
+    }
+  }
+}
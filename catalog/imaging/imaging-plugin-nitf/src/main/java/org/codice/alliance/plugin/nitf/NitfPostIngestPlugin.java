@@ -18,6 +18,8 @@ import com.github.jaiimageio.jpeg2000.impl.J2KImageReaderSpi;
 import com.github.jaiimageio.jpeg2000.impl.J2KImageWriter;
 import com.github.jaiimageio.jpeg2000.impl.J2KImageWriterSpi;
 import com.google.common.io.ByteSource;
+import com.google.common.io.FileBackedOutputStream;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import ddf.catalog.CatalogFramework;
 import ddf.catalog.content.data.ContentItem;
 import ddf.catalog.content.data.impl.ContentItemImpl;
@@ -43,35 +45,47 @@ import ddf.catalog.resource.ResourceNotSupportedException;
 import ddf.catalog.source.IngestException;
 import ddf.catalog.source.SourceUnavailableException;
 import java.awt.Graphics2D;
+import java.awt.RenderingHints;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
 import java.util.AbstractMap;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
 import java.util.Set;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.Semaphore;
-import java.util.function.Function;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 import javax.imageio.IIOImage;
 import javax.imageio.ImageIO;
 import javax.imageio.ImageWriteParam;
 import javax.imageio.spi.IIORegistry;
+import javax.imageio.stream.FileCacheImageOutputStream;
+import javax.imageio.stream.ImageInputStream;
 import javax.imageio.stream.ImageOutputStream;
-import javax.imageio.stream.MemoryCacheImageOutputStream;
 import net.coobird.thumbnailator.Thumbnails;
 import org.apache.commons.io.FilenameUtils;
 import org.apache.commons.lang.StringUtils;
-import org.apache.commons.lang3.tuple.ImmutablePair;
-import org.apache.commons.lang3.tuple.Pair;
-import org.codice.alliance.imaging.nitf.api.NitfParserService;
+import org.codice.imaging.nitf.core.HeapStrategy;
 import org.codice.imaging.nitf.core.common.NitfFormatException;
+import org.codice.imaging.nitf.core.common.impl.NitfInputStreamReader;
+import org.codice.imaging.nitf.core.header.impl.NitfParser;
 import org.codice.imaging.nitf.core.image.ImageSegment;
+import org.codice.imaging.nitf.core.impl.SlottedParseStrategy;
 import org.codice.imaging.nitf.render.NitfRenderer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -80,6 +94,14 @@ import org.slf4j.LoggerFactory;
  * This post-ingest plugin creates and stores the NITF thumbnail and NITF overview images. The
  * thumbnail is stored with the Metacard while the overview and original are stored in the content
  * store.
+ *
+ * <p>The metacards of a response are processed in parallel on a worker pool, and the number of
+ * NITFs being rendered at once is bounded by a semaphore. The parser copies the image data into a
+ * temporary file and the renderer reads it back block by block. The original is rendered into a
+ * memory mapped {@link MappedImage} and encoded tile by tile, and the overview is scaled from it a
+ * strip at a time. When the original image is not stored, each block is drawn directly into an
+ * image of the overview size. The heap needed to render a NITF therefore does not depend on its
+ * size.
  */
 public class NitfPostIngestPlugin implements PostIngestPlugin {
 
@@ -97,6 +119,9 @@ public class NitfPostIngestPlugin implements PostIngestPlugin {
 
   private static final long MEGABYTE = 1024L * 1024L;
 
+  /** Encoded images larger than this are buffered in a temporary file instead of the heap. */
+  private static final int DERIVED_IMAGE_MEMORY_THRESHOLD = (int) MEGABYTE;
+
   private static final String JPG = "jpg";
 
   private static final String JP2 = "jp2";
@@ -114,25 +139,25 @@ public class NitfPostIngestPlugin implements PostIngestPlugin {
 
   private static final double DEFAULT_MAX_SIDE_LENGTH = 1024.0;
 
-  private static final int ARGB_COMPONENT_COUNT = 4;
+  /** Width and height of the JPEG 2000 tiles of the original image. */
+  private static final int ORIGINAL_TILE_SIZE = 1024;
 
-  private static final int DEFAULT_MAX_NITF_SIZE = 120;
+  /** Number of pixels of the original that are copied onto the heap at once to scale it. */
+  private static final int OVERVIEW_STRIP_PIXELS = 4 * 1024 * 1024;
 
   private static final int MAX_THREAD_COUNT =
       Integer.parseInt(System.getProperty("default.nitf.thread.count", "3"));
 
-  private int maxNitfSizeMB = DEFAULT_MAX_NITF_SIZE;
-
   private boolean createOverview = true;
 
   private boolean storeOriginalImage = true;
 
   private CatalogFramework catalogFramework;
 
-  private NitfParserService nitfParserService;
-
   private Semaphore lock;
 
+  private final ExecutorService executorService;
+
   static {
     IIORegistry.getDefaultInstance().registerServiceProvider(new J2KImageReaderSpi());
   }
@@ -145,6 +170,17 @@ public class NitfPostIngestPlugin implements PostIngestPlugin {
 
   public NitfPostIngestPlugin(Semaphore lock) {
     this.lock = lock;
+    this.executorService =
+        Executors.newFixedThreadPool(
+            MAX_THREAD_COUNT,
+            new ThreadFactoryBuilder()
+                .setNameFormat("nitf-post-ingest-%d")
+                .setDaemon(true)
+                .build());
+  }
+
+  public void destroy() {
+    executorService.shutdownNow();
   }
 
   @Override
@@ -188,14 +224,31 @@ public class NitfPostIngestPlugin implements PostIngestPlugin {
 
   private void updateContent(Set<Metacard> metacards, Map<String, Serializable> properties)
       throws InterruptedException {
-    List<Metacard> metacardUpdates = new ArrayList<>();
-    List<ContentItem> contentUpdates = new ArrayList<>();
-    for (Metacard mcard : metacards) {
-      if (shouldGenerateContentItems(mcard, properties)) {
-        generateImages(mcard, metacardUpdates, contentUpdates);
+    List<GeneratedImages> generatedImages = new ArrayList<>();
+    try {
+      for (Metacard mcard : metacards) {
+        if (shouldGenerateContentItems(mcard, properties)) {
+          submitImageGeneration(mcard).ifPresent(generatedImages::add);
+        }
       }
+
+      List<Metacard> metacardUpdates = new ArrayList<>();
+      List<ContentItem> contentUpdates = new ArrayList<>();
+      for (GeneratedImages images : generatedImages) {
+        List<ContentItem> contentItems = images.getContentItems();
+        contentUpdates.addAll(contentItems);
+        if (contentItems.isEmpty() && images.isThumbnailChanged()) {
+          metacardUpdates.add(images.metacard);
+        }
+      }
+
+      submitUpdates(metacardUpdates, contentUpdates);
+    } finally {
+      generatedImages.forEach(GeneratedImages::close);
     }
+  }
 
+  private void submitUpdates(List<Metacard> metacardUpdates, List<ContentItem> contentUpdates) {
     Map<String, Serializable> reprocessProperties = new HashMap<>();
     reprocessProperties.put(NITF_PROCESSING_KEY, true);
 
@@ -235,114 +288,204 @@ public class NitfPostIngestPlugin implements PostIngestPlugin {
         && !(boolean) properties.getOrDefault(NITF_PROCESSING_KEY, false);
   }
 
-  private void generateImages(
-      Metacard metacard, List<Metacard> metacardUpdates, List<ContentItem> contentUpdates)
+  /**
+   * The resource is retrieved on the calling thread, which carries the security subject of the
+   * request, and the images are rendered on the worker pool. The caller blocks while the maximum
+   * number of NITFs are being rendered. Once submitted, the permit and the resource are owned by
+   * the {@link GeneratedImages}.
+   */
+  private Optional<GeneratedImages> submitImageGeneration(Metacard metacard)
       throws InterruptedException {
     lock.acquire();
+
+    GeneratedImages generatedImages;
     try {
-      ResourceResponse response;
-      try {
-        response = catalogFramework.getLocalResource(new ResourceRequestById(metacard.getId()));
-      } catch (ResourceNotFoundException | ResourceNotSupportedException | IOException e) {
-        LOGGER.debug("Error retrieving resource for thumbnail/overview/original creation", e);
-        return;
-      }
+      ResourceResponse response =
+          catalogFramework.getLocalResource(new ResourceRequestById(metacard.getId()));
+      generatedImages =
+          new GeneratedImages(metacard, response.getResource().getInputStream(), lock);
+    } catch (ResourceNotFoundException | ResourceNotSupportedException | IOException e) {
+      LOGGER.debug("Error retrieving resource for thumbnail/overview/original creation", e);
+      lock.release();
+      return Optional.empty();
+    } catch (RuntimeException e) {
+      lock.release();
+      throw e;
+    }
 
-      byte[] originalThumbnail = metacard.getThumbnail();
+    try {
+      generatedImages.future = executorService.submit(() -> generateImages(generatedImages));
+    } catch (RejectedExecutionException e) {
+      LOGGER.debug("Unable to render thumbnail/overview/original, the plugin is stopped", e);
+      generatedImages.close();
+      return Optional.empty();
+    }
 
-      int contentCount = contentUpdates.size();
-      process(metacard, response.getResource().getInputStream(), contentUpdates);
+    return Optional.of(generatedImages);
+  }
 
-      if (contentCount == contentUpdates.size() && metacard.getThumbnail() != originalThumbnail) {
-        metacardUpdates.add(metacard);
-      }
+  private void generateImages(GeneratedImages generatedImages) {
+    if (!generatedImages.start()) {
+      return;
+    }
+    try {
+      process(generatedImages.metacard, generatedImages.inputStream, generatedImages);
     } finally {
       lock.release();
     }
   }
 
-  private void process(Metacard metacard, InputStream input, List<ContentItem> contentItems) {
+  private void process(Metacard metacard, InputStream input, GeneratedImages generatedImages) {
+    TempFileHeapStrategy imageData = new TempFileHeapStrategy();
     try (InputStream source = input) {
-      if (getResourceSizeInMB(metacard) > maxNitfSizeMB) {
+      Optional<ImageSegment> imageSegment = parseFirstImageSegment(source, imageData);
+      if (imageSegment.isPresent()) {
+        createDerivedImages(metacard, imageSegment.get(), generatedImages);
+      }
+    } catch (IOException | NitfFormatException | RuntimeException e) {
+      LOGGER.debug("Error creating and storing thumbnail/overview/original: {}", e.getMessage(), e);
+    } finally {
+      imageData.cleanUp();
+    }
+  }
+
+  /**
+   * Parse the NITF and return its first image segment. The image data of the segments is copied
+   * into temporary files by {@code imageData}, so only the headers are held on the heap.
+   */
+  private Optional<ImageSegment> parseFirstImageSegment(
+      InputStream source, HeapStrategy<ImageInputStream> imageData) throws NitfFormatException {
+    SlottedParseStrategy parseStrategy = new SlottedParseStrategy();
+    parseStrategy.setImageHeapStrategy(imageData);
+
+    NitfParser.parse(new NitfInputStreamReader(source), parseStrategy);
+
+    return parseStrategy.getDataSource().getImageSegments().stream().findFirst();
+  }
+
+  private void createDerivedImages(
+      Metacard metacard, ImageSegment imageSegment, GeneratedImages generatedImages)
+      throws IOException {
+    NitfRenderer renderer = getNitfRenderer();
+    long width = imageSegment.getNumberOfColumns();
+    long height = imageSegment.getNumberOfRows();
+
+    BufferedImage overview;
+    ContentItem originalImageContentItem = null;
+    if (storeOriginalImage && MappedImage.fits(width, height)) {
+      try (MappedImage original = new MappedImage((int) width, (int) height)) {
+        renderOriginal(imageSegment, renderer, original.getImage());
+        overview = scaleToOverviewSize(original.getImage());
+        originalImageContentItem =
+            createOriginalImage(metacard.getId(), original.getImage(), metacard, generatedImages);
+      }
+    } else {
+      if (storeOriginalImage) {
         LOGGER.debug(
-            "Skipping large ({} MB) content item: {}",
-            getResourceSizeInMB(metacard),
+            "The {} x {} image of {} is too large to store the original.",
+            width,
+            height,
             metacard.getId());
-        return;
       }
+      overview = renderScaled(imageSegment, renderer);
+    }
 
-      BufferedImage renderedImage = renderImageUsingOriginalDataModel(source);
+    if (overview == null) {
+      return;
+    }
 
-      if (renderedImage != null) {
-        addThumbnailToMetacard(metacard, renderedImage);
+    addThumbnailToMetacard(metacard, overview);
 
-        if (createOverview) {
-          ContentItem overviewContentItem =
-              createDerivedImage(
-                  metacard.getId(),
-                  OVERVIEW,
-                  renderedImage,
-                  metacard,
-                  calculateOverviewWidth(renderedImage),
-                  calculateOverviewHeight(renderedImage));
+    if (createOverview) {
+      ContentItem overviewContentItem =
+          createDerivedImage(
+              metacard.getId(),
+              OVERVIEW,
+              overview,
+              metacard,
+              overview.getWidth(),
+              overview.getHeight());
 
-          contentItems.add(overviewContentItem);
-        }
+      generatedImages.contentItems.add(overviewContentItem);
+    }
 
-        if (storeOriginalImage) {
-          ContentItem originalImageContentItem =
-              createOriginalImage(metacard.getId(), renderedImage, metacard);
+    if (originalImageContentItem != null) {
+      generatedImages.contentItems.add(originalImageContentItem);
+    }
+  }
 
-          contentItems.add(originalImageContentItem);
-        }
-      }
-    } catch (NumberFormatException e) {
-      LOGGER.debug("Error getting resource size {}", e.getMessage(), e);
-    } catch (IOException | NitfFormatException | RuntimeException e) {
-      LOGGER.debug("Error creating and storing thumbnail/overview/original: {}", e.getMessage(), e);
+  /** Draw the image segment block by block into the full resolution image. */
+  private void renderOriginal(
+      ImageSegment imageSegment, NitfRenderer renderer, BufferedImage original)
+      throws IOException {
+    Graphics2D graphics = original.createGraphics();
+    try {
+      renderer.render(imageSegment, graphics);
+    } finally {
+      graphics.dispose();
     }
   }
 
-  private BufferedImage renderImageUsingOriginalDataModel(InputStream source)
-      throws NitfFormatException {
+  /**
+   * Draw the image segment block by block into an image of the overview size. Only the block being
+   * drawn and the target image are held in memory.
+   */
+  private BufferedImage renderScaled(ImageSegment imageSegment, NitfRenderer renderer)
+      throws IOException {
+    int width = (int) imageSegment.getNumberOfColumns();
+    int height = (int) imageSegment.getNumberOfRows();
+
+    if (width <= 0 || height <= 0) {
+      return null;
+    }
 
-    return render(
-        source,
-        input -> {
-          try {
-            return input.getRight().renderToClosestDataModel(input.getLeft());
-          } catch (IOException e) {
-            LOGGER.debug(e.getMessage(), e);
-          }
-          return null;
-        });
+    BufferedImage overview = createOverviewImage(width, height);
+    Graphics2D graphics = createScalingGraphics(overview, width, height);
+    try {
+      renderer.render(imageSegment, graphics);
+    } finally {
+      graphics.dispose();
+    }
+
+    return overview;
   }
 
-  private BufferedImage render(
-      InputStream inputStream,
-      Function<Pair<ImageSegment, NitfRenderer>, BufferedImage> imageSegmentFunction)
-      throws NitfFormatException {
+  /**
+   * Scale the full resolution image to the overview size one strip at a time, so that only a strip
+   * of the memory mapped original is copied onto the heap.
+   */
+  private BufferedImage scaleToOverviewSize(BufferedImage original) {
+    int width = original.getWidth();
+    int height = original.getHeight();
+    int stripHeight = Math.max(1, OVERVIEW_STRIP_PIXELS / width);
+
+    BufferedImage overview = createOverviewImage(width, height);
+    Graphics2D graphics = createScalingGraphics(overview, width, height);
+    try {
+      for (int y = 0; y < height; y += stripHeight) {
+        graphics.drawImage(
+            original.getSubimage(0, y, width, Math.min(stripHeight, height - y)), 0, y, null);
+      }
+    } finally {
+      graphics.dispose();
+    }
 
-    final ThreadLocal<BufferedImage> bufferedImage = new ThreadLocal<>();
+    return overview;
+  }
 
-    if (inputStream != null) {
-      NitfRenderer renderer = getNitfRenderer();
-      nitfParserService
-          .parseNitf(inputStream, true)
-          .forEachImageSegment(
-              segment -> {
-                if (bufferedImage.get() == null) {
-                  BufferedImage bi =
-                      imageSegmentFunction.apply(new ImmutablePair<>(segment, renderer));
-                  if (bi != null) {
-                    bufferedImage.set(bi);
-                  }
-                }
-              })
-          .end();
-    }
+  private BufferedImage createOverviewImage(int width, int height) {
+    return new BufferedImage(
+        Math.max(1, calculateOverviewWidth(width, height)),
+        Math.max(1, calculateOverviewHeight(width, height)),
+        BufferedImage.TYPE_3BYTE_BGR);
+  }
 
-    return bufferedImage.get();
+  private Graphics2D createScalingGraphics(BufferedImage overview, int width, int height) {
+    Graphics2D graphics = overview.createGraphics();
+    graphics.setRenderingHint(
+        RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+    graphics.scale((double) overview.getWidth() / width, (double) overview.getHeight() / height);
+    return graphics;
   }
 
   private void addThumbnailToMetacard(Metacard metacard, BufferedImage bufferedImage) {
@@ -388,12 +531,17 @@ public class NitfPostIngestPlugin implements PostIngestPlugin {
     return null;
   }
 
-  private ContentItem createOriginalImage(String id, BufferedImage image, Metacard metacard) {
+  private ContentItem createOriginalImage(
+      String id, BufferedImage image, Metacard metacard, GeneratedImages generatedImages) {
 
     try {
-      byte[] originalBytes = renderToJpeg2k(image);
+      FileBackedOutputStream originalBytes =
+          new FileBackedOutputStream(DERIVED_IMAGE_MEMORY_THRESHOLD, true);
+      generatedImages.buffers.add(originalBytes);
 
-      ByteSource source = ByteSource.wrap(originalBytes);
+      renderToJpeg2k(image, originalBytes);
+
+      ByteSource source = originalBytes.asByteSource();
       ContentItem contentItem =
           new ContentItemImpl(
               id,
@@ -401,7 +549,7 @@ public class NitfPostIngestPlugin implements PostIngestPlugin {
               source,
               IMAGE_JPEG2K,
               buildDerivedImageTitle(metacard.getTitle(), ORIGINAL, JP2),
-              originalBytes.length,
+              source.size(),
               metacard);
 
       addDerivedResourceAttribute(metacard, contentItem);
@@ -446,22 +594,12 @@ public class NitfPostIngestPlugin implements PostIngestPlugin {
     return thumbnailBytes;
   }
 
-  private byte[] renderToJpeg2k(final BufferedImage bufferedImage) throws IOException {
-
-    BufferedImage imageToCompress = bufferedImage;
-
-    if (bufferedImage.getColorModel().getNumComponents() == ARGB_COMPONENT_COUNT) {
-
-      imageToCompress =
-          new BufferedImage(
-              bufferedImage.getWidth(), bufferedImage.getHeight(), BufferedImage.TYPE_3BYTE_BGR);
-
-      Graphics2D g = imageToCompress.createGraphics();
-
-      g.drawImage(bufferedImage, 0, 0, null);
-    }
-
-    ByteArrayOutputStream os = new ByteArrayOutputStream();
+  /**
+   * Encode the image as tiled JPEG 2000. The encoder reads the source one tile at a time, so the
+   * memory mapped original is never copied onto the heap as a whole.
+   */
+  private void renderToJpeg2k(final BufferedImage bufferedImage, OutputStream os)
+      throws IOException {
 
     J2KImageWriter writer = new J2KImageWriter(new J2KImageWriterSpi());
     J2KImageWriteParam writeParams = (J2KImageWriteParam) writer.getDefaultWriteParam();
@@ -469,22 +607,15 @@ public class NitfPostIngestPlugin implements PostIngestPlugin {
     writeParams.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
     writeParams.setCompressionType("JPEG2000");
     writeParams.setCompressionQuality(0.0f);
+    writeParams.setTilingMode(ImageWriteParam.MODE_EXPLICIT);
+    writeParams.setTiling(ORIGINAL_TILE_SIZE, ORIGINAL_TILE_SIZE, 0, 0);
 
-    ImageOutputStream ios = new MemoryCacheImageOutputStream(os);
-    writer.setOutput(ios);
-    writer.write(null, new IIOImage(imageToCompress, null, null), writeParams);
-    writer.dispose();
-    ios.close();
-
-    return os.toByteArray();
-  }
-
-  private long getResourceSizeInMB(Metacard metacard) {
-    long size = 0;
-    if (metacard.getResourceSize() != null) {
-      size = Long.parseLong(metacard.getResourceSize());
+    try (ImageOutputStream ios = new FileCacheImageOutputStream(os, null)) {
+      writer.setOutput(ios);
+      writer.write(null, new IIOImage(bufferedImage, null, null), writeParams);
+    } finally {
+      writer.dispose();
     }
-    return size / MEGABYTE;
   }
 
   private void addDerivedResourceAttribute(Metacard metacard, ContentItem contentItem) {
@@ -500,10 +631,7 @@ public class NitfPostIngestPlugin implements PostIngestPlugin {
     metacard.setAttribute(attribute);
   }
 
-  private int calculateOverviewHeight(BufferedImage image) {
-    final int width = image.getWidth();
-    final int height = image.getHeight();
-
+  private int calculateOverviewHeight(int width, int height) {
     if (width >= height) {
       return (int) Math.round(height * (maxSideLength / width));
     }
@@ -511,10 +639,7 @@ public class NitfPostIngestPlugin implements PostIngestPlugin {
     return Math.min(height, (int) maxSideLength);
   }
 
-  private int calculateOverviewWidth(BufferedImage image) {
-    final int width = image.getWidth();
-    final int height = image.getHeight();
-
+  private int calculateOverviewWidth(int width, int height) {
     if (width >= height) {
       return Math.min(width, (int) maxSideLength);
     }
@@ -535,8 +660,15 @@ public class NitfPostIngestPlugin implements PostIngestPlugin {
     }
   }
 
+  /**
+   * The memory needed to render a NITF no longer depends on its size, so NITFs of any size are
+   * rendered and this value is ignored.
+   *
+   * @deprecated kept so that existing configurations still apply
+   */
+  @Deprecated
   public void setMaxNitfSizeMB(int maxNitfSizeMB) {
-    this.maxNitfSizeMB = maxNitfSizeMB;
+    LOGGER.debug("Ignoring maxNitfSizeMB [{}], NITFs of any size are rendered.", maxNitfSizeMB);
   }
 
   public void setCreateOverview(boolean createOverview) {
@@ -555,7 +687,78 @@ public class NitfPostIngestPlugin implements PostIngestPlugin {
     this.catalogFramework = catalogFramework;
   }
 
-  public void setNitfParserService(NitfParserService nitfParserService) {
-    this.nitfParserService = nitfParserService;
+  /**
+   * The images generated for a metacard by a worker thread. The rendering task and {@link #close()}
+   * race to {@link #start()}; whichever wins closes the resource and releases the permit.
+   */
+  private static class GeneratedImages {
+
+    private final Metacard metacard;
+
+    private final InputStream inputStream;
+
+    private final Semaphore lock;
+
+    private final byte[] originalThumbnail;
+
+    private final AtomicBoolean started = new AtomicBoolean();
+
+    private final List<ContentItem> contentItems = new ArrayList<>();
+
+    private final List<FileBackedOutputStream> buffers = new ArrayList<>();
+
+    private Future<?> future;
+
+    GeneratedImages(Metacard metacard, InputStream inputStream, Semaphore lock) {
+      this.metacard = metacard;
+      this.inputStream = inputStream;
+      this.lock = lock;
+      this.originalThumbnail = metacard.getThumbnail();
+    }
+
+    /** Returns {@code true} if the caller is the first to start, and so owns the permit. */
+    boolean start() {
+      return started.compareAndSet(false, true);
+    }
+
+    /** Wait for the worker thread and return the content items that it created. */
+    List<ContentItem> getContentItems() throws InterruptedException {
+      try {
+        future.get();
+      } catch (ExecutionException | CancellationException e) {
+        LOGGER.debug("Error creating thumbnail/overview/original", e);
+        return Collections.emptyList();
+      }
+      return contentItems;
+    }
+
+    boolean isThumbnailChanged() {
+      return metacard.getThumbnail() != originalThumbnail;
+    }
+
+    void close() {
+      if (future != null) {
+        future.cancel(true);
+      }
+      if (start()) {
+        // the task never ran, so it will neither close the resource nor release the permit
+        try {
+          if (inputStream != null) {
+            inputStream.close();
+          }
+        } catch (IOException e) {
+          LOGGER.debug("Unable to close the resource", e);
+        } finally {
+          lock.release();
+        }
+      }
+      for (FileBackedOutputStream buffer : buffers) {
+        try {
+          buffer.reset();
+        } catch (IOException e) {
+          LOGGER.debug("Unable to delete the temporary file of a derived image", e);
+        }
+      }
+    }
   }
 }
@@ -0,0 +1,90 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.plugin.nitf;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import javax.imageio.stream.FileImageInputStream;
+import javax.imageio.stream.ImageInputStream;
+import org.codice.imaging.nitf.core.HeapStrategy;
+import org.codice.imaging.nitf.core.common.NitfFormatException;
+import org.codice.imaging.nitf.core.common.NitfReader;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link HeapStrategy} that copies the data of each segment into a temporary file in small
+ * chunks, so the heap needed to parse a NITF does not depend on the size of its image data. The
+ * renderer reads the blocks back from the file. {@link #cleanUp()} closes the streams and deletes
+ * the files.
+ */
+class TempFileHeapStrategy implements HeapStrategy<ImageInputStream> {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(TempFileHeapStrategy.class);
+
+  private static final int COPY_BUFFER_SIZE = 64 * 1024;
+
+  private final List<Path> files = new ArrayList<>();
+
+  private final List<ImageInputStream> streams = new ArrayList<>();
+
+  @Override
+  public ImageInputStream handleSegment(NitfReader reader, long length) throws NitfFormatException {
+    try {
+      Path file = Files.createTempFile("nitf-segment-", ".dat");
+      files.add(file);
+
+      try (OutputStream outputStream = Files.newOutputStream(file)) {
+        long remaining = length;
+        while (remaining > 0) {
+          byte[] bytes = reader.readBytesRaw((int) Math.min(COPY_BUFFER_SIZE, remaining));
+          outputStream.write(bytes);
+          remaining -= bytes.length;
+        }
+      }
+
+      ImageInputStream imageInputStream = new FileImageInputStream(file.toFile());
+      streams.add(imageInputStream);
+      return imageInputStream;
+    } catch (IOException e) {
+      throw new UncheckedIOException("Unable to buffer the NITF segment data", e);
+    }
+  }
+
+  @Override
+  public void cleanUp() {
+    for (ImageInputStream stream : streams) {
+      try {
+        stream.close();
+      } catch (IOException e) {
+        LOGGER.debug("Unable to close the NITF segment data", e);
+      }
+    }
+    streams.clear();
+
+    for (Path file : files) {
+      try {
+        Files.deleteIfExists(file);
+      } catch (IOException e) {
+        LOGGER.debug("Unable to delete the temporary file {}", file, e);
+      }
+    }
+    files.clear();
+  }
+}
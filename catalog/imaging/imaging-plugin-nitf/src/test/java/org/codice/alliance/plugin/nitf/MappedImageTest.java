@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.plugin.nitf;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+import java.awt.image.Raster;
+import org.junit.Test;
+
+public class MappedImageTest {
+
+  @Test
+  public void testDrawnPixelsAreReadBack() throws Exception {
+    try (MappedImage mappedImage = new MappedImage(300, 200)) {
+      BufferedImage image = mappedImage.getImage();
+      Graphics2D graphics = image.createGraphics();
+      graphics.setColor(Color.RED);
+      graphics.fillRect(0, 0, 150, 200);
+      graphics.setColor(Color.BLUE);
+      graphics.fillRect(250, 150, 50, 50);
+      graphics.dispose();
+
+      assertThat(image.getRGB(10, 10), is(Color.RED.getRGB()));
+      assertThat(image.getRGB(275, 175), is(Color.BLUE.getRGB()));
+      assertThat(image.getRGB(200, 10), is(Color.BLACK.getRGB()));
+    }
+  }
+
+  @Test
+  public void testTileIsCopiedFromTheMapping() throws Exception {
+    try (MappedImage mappedImage = new MappedImage(300, 200)) {
+      BufferedImage image = mappedImage.getImage();
+      Graphics2D graphics = image.createGraphics();
+      graphics.setColor(Color.BLUE);
+      graphics.fillRect(250, 150, 50, 50);
+      graphics.dispose();
+
+      Raster tile = image.getData(new Rectangle(250, 150, 50, 50));
+
+      assertThat(tile.getSample(260, 160, 0), is(0));
+      assertThat(tile.getSample(260, 160, 2), is(255));
+    }
+  }
+
+  @Test
+  public void testFits() {
+    assertThat(MappedImage.fits(46340, 46340), is(true));
+    assertThat(MappedImage.fits(46341, 46341), is(false));
+    assertThat(MappedImage.fits(0, 10), is(false));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testImageTooLarge() throws Exception {
+    new MappedImage(65536, 65536);
+  }
+}
@@ -20,6 +20,7 @@ import static org.hamcrest.CoreMatchers.nullValue;
 import static org.junit.Assert.assertNotNull;
 import static org.junit.Assert.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
@@ -27,6 +28,7 @@ import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import ddf.catalog.CatalogFramework;
+import ddf.catalog.content.data.ContentItem;
 import ddf.catalog.content.operation.UpdateStorageRequest;
 import ddf.catalog.data.Attribute;
 import ddf.catalog.data.Metacard;
@@ -45,9 +47,16 @@ import ddf.catalog.operation.impl.UpdateImpl;
 import ddf.catalog.plugin.PluginExecutionException;
 import ddf.catalog.resource.Resource;
 import ddf.catalog.resource.impl.ResourceImpl;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
 import java.io.InputStream;
 import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
@@ -55,10 +64,11 @@ import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Semaphore;
 import java.util.stream.Collectors;
-import org.codice.alliance.imaging.nitf.api.NitfParserService;
+import java.util.stream.Stream;
+import javax.imageio.ImageIO;
 import org.codice.imaging.nitf.core.image.ImageSegment;
-import org.codice.imaging.nitf.fluent.impl.NitfParserInputFlowImpl;
 import org.codice.imaging.nitf.render.NitfRenderer;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
@@ -71,8 +81,6 @@ public class NitfPostIngestPluginTest {
 
   private CatalogFramework catalogFramework = null;
 
-  private NitfParserService nitfParserService = null;
-
   private CreateResponse createResponse = null;
 
   private CreateRequest createRequest = null;
@@ -95,12 +103,10 @@ public class NitfPostIngestPluginTest {
   public void setUp() throws Exception {
 
     this.catalogFramework = mock(CatalogFramework.class);
-    this.nitfParserService = mock(NitfParserService.class);
 
     this.lock = mock(Semaphore.class);
     this.nitfPostIngestPlugin = new NitfPostIngestPlugin(lock);
     this.nitfPostIngestPlugin.setCatalogFramework(catalogFramework);
-    this.nitfPostIngestPlugin.setNitfParserService(nitfParserService);
 
     this.updateStorageCaptor = ArgumentCaptor.forClass(UpdateStorageRequest.class);
     this.updateMetacardCaptor = ArgumentCaptor.forClass(UpdateRequest.class);
@@ -123,13 +129,11 @@ public class NitfPostIngestPluginTest {
     when(updateRequest.getProperties()).thenReturn(requestProperties);
     when(catalogFramework.getLocalResource(any(ResourceRequest.class)))
         .thenAnswer(invocationOnMock -> getInputStream(GEO_NITF));
+  }
 
-    when(nitfParserService.parseNitf(any(InputStream.class), any()))
-        .thenAnswer(
-            invocationOnMock ->
-                new NitfParserInputFlowImpl()
-                    .inputStream(invocationOnMock.getArgument(0))
-                    .allData());
+  @After
+  public void tearDown() {
+    nitfPostIngestPlugin.destroy();
   }
 
   @Test
@@ -144,8 +148,9 @@ public class NitfPostIngestPluginTest {
           }
         };
     npip.setCatalogFramework(catalogFramework);
-    npip.setNitfParserService(nitfParserService);
-    when(nitfRenderer.render(any(ImageSegment.class))).thenThrow(RuntimeException.class);
+    doThrow(RuntimeException.class)
+        .when(nitfRenderer)
+        .render(any(ImageSegment.class), any(Graphics2D.class));
     npip.process(createResponse);
     verify(catalogFramework, never()).update(any(UpdateStorageRequest.class));
     verify(catalogFramework, never()).update(any(UpdateRequest.class));
@@ -179,15 +184,84 @@ public class NitfPostIngestPluginTest {
   }
 
   @Test
-  public void testTooLargeCreateResponse() throws Exception {
+  public void testMaxNitfSizeIsIgnored() throws Exception {
     nitfPostIngestPlugin.setMaxNitfSizeMB(0);
     nitfPostIngestPlugin.process(createResponse);
+    validate();
+    verify(lock).acquire();
+    verify(lock).release();
+  }
+
+  @Test
+  public void testOriginalIsStoredAtFullResolution() throws Exception {
+    nitfPostIngestPlugin.setCreateOverview(false);
+    nitfPostIngestPlugin.process(createResponse);
+    verify(catalogFramework, times(1)).update(updateStorageCaptor.capture());
+
+    ContentItem original = updateStorageCaptor.getValue().getContentItems().get(0);
+    assertThat(original.getQualifier(), is("original"));
+    BufferedImage originalImage = ImageIO.read(original.getInputStream());
+    assertThat(originalImage.getWidth(), is(1024));
+    assertThat(originalImage.getHeight(), is(1024));
+  }
+
+  @Test
+  public void testTemporaryFilesAreDeleted() throws Exception {
+    Set<Path> temporaryFiles = listTemporaryFiles();
+
+    nitfPostIngestPlugin.process(createResponse);
+
+    validate();
+    assertThat(listTemporaryFiles(), is(temporaryFiles));
+  }
+
+  @Test
+  public void testStoppedPluginReleasesPermit() throws Exception {
+    InputStream resourceStream = mock(InputStream.class);
+    Resource resource = new ResourceImpl(resourceStream, GEO_NITF);
+    when(catalogFramework.getLocalResource(any(ResourceRequest.class)))
+        .thenReturn(new ResourceResponseImpl(resource));
+
+    nitfPostIngestPlugin.destroy();
+    nitfPostIngestPlugin.process(createResponse);
+
     assertThat(metacard.getThumbnail(), is(nullValue()));
-    assertThat(metacard.getAttribute(Core.DERIVED_RESOURCE_URI), is(nullValue()));
+    verify(catalogFramework, never()).update(any(UpdateStorageRequest.class));
+    verify(resourceStream).close();
     verify(lock).acquire();
     verify(lock).release();
   }
 
+  @Test
+  public void testOverviewIsRenderedAtOverviewSize() throws Exception {
+    nitfPostIngestPlugin.setStoreOriginalImage(false);
+    nitfPostIngestPlugin.setMaxSideLength(64);
+    nitfPostIngestPlugin.process(createResponse);
+    verify(catalogFramework, times(1)).update(updateStorageCaptor.capture());
+
+    ContentItem overview = updateStorageCaptor.getValue().getContentItems().get(0);
+    BufferedImage overviewImage = ImageIO.read(overview.getInputStream());
+    assertThat(Math.max(overviewImage.getWidth(), overviewImage.getHeight()), is(64));
+  }
+
+  @Test
+  public void testMultipleNitfsAreRenderedInParallel() throws Exception {
+    MetacardImpl otherMetacard = new MetacardImpl();
+    otherMetacard.setId("654321");
+    otherMetacard.setResourceSize("1048576");
+    otherMetacard.setAttribute(Media.TYPE, NitfPostIngestPlugin.IMAGE_NITF);
+    when(createResponse.getCreatedMetacards()).thenReturn(Arrays.asList(metacard, otherMetacard));
+
+    nitfPostIngestPlugin.process(createResponse);
+
+    verify(catalogFramework, times(1)).update(updateStorageCaptor.capture());
+    assertThat(updateStorageCaptor.getValue().getContentItems().size(), is(4));
+    assertThat(metacard.getThumbnail(), is(notNullValue()));
+    assertThat(otherMetacard.getThumbnail(), is(notNullValue()));
+    verify(lock, times(2)).acquire();
+    verify(lock, times(2)).release();
+  }
+
   @Test
   public void testCreateResponseNoOverview() throws Exception {
     nitfPostIngestPlugin.setCreateOverview(false);
@@ -283,10 +357,10 @@ public class NitfPostIngestPluginTest {
           }
         };
     npip.setCatalogFramework(catalogFramework);
-    npip.setNitfParserService(nitfParserService);
-    when(nitfRenderer.render(any(ImageSegment.class)))
-        .thenThrow(RuntimeException.class)
-        .thenCallRealMethod();
+    doThrow(RuntimeException.class)
+        .doCallRealMethod()
+        .when(nitfRenderer)
+        .render(any(ImageSegment.class), any(Graphics2D.class));
 
     this.createResponse = mock(CreateResponse.class);
     this.createRequest = mock(CreateRequest.class);
@@ -323,6 +397,17 @@ public class NitfPostIngestPluginTest {
     assertThat(qualifiers.contains("original"), is(true));
   }
 
+  private Set<Path> listTemporaryFiles() throws IOException {
+    try (Stream<Path> files = Files.list(Paths.get(System.getProperty("java.io.tmpdir")))) {
+      return files
+          .filter(
+              file ->
+                  file.getFileName().toString().startsWith("nitf-segment-")
+                      || file.getFileName().toString().startsWith("nitf-original-"))
+          .collect(Collectors.toSet());
+    }
+  }
+
   private ResourceResponse getInputStream(String filename) {
     assertNotNull("Test file missing", getClass().getResource(filename));
     Resource resource = new ResourceImpl(getClass().getResourceAsStream(filename), filename);
@@ -0,0 +1,50 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.imaging.chip.service.api;
+
+import ddf.catalog.data.Metacard;
+import java.awt.image.BufferedImage;
+
+/**
+ * A DecodedImageCache holds recently decoded derived images, such as the overview that every chip
+ * request is scaled against, so that the components that need the same image share one decode.
+ * Images are keyed by the metacard id, the metacard modified date and the qualifier of the derived
+ * resource, so an updated metacard never returns a stale image.
+ */
+public interface DecodedImageCache {
+
+  /**
+   * @param metacard must be non-null
+   * @param qualifier must be non-null
+   * @return the cached image or <code>null</code> if the image is not cached
+   */
+  BufferedImage get(Metacard metacard, String qualifier);
+
+  /**
+   * Cache an image. The cache may decline to store an image, for example because it is larger than
+   * the cache.
+   *
+   * @param metacard must be non-null
+   * @param qualifier must be non-null
+   * @param image the decoded image, <code>null</code> is not cached
+   * @return the image, so the call can be used as a Camel expression
+   */
+  BufferedImage put(Metacard metacard, String qualifier, BufferedImage image);
+
+  /** @return the number of calls to {@link #get(Metacard, String)} that returned an image */
+  long getHitCount();
+
+  /** @return the number of calls to {@link #get(Metacard, String)} that returned null */
+  long getMissCount();
+}
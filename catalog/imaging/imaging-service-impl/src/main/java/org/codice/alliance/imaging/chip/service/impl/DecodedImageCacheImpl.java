@@ -0,0 +1,552 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.imaging.chip.service.impl;
+
+import static org.apache.commons.lang3.Validate.inclusiveBetween;
+import static org.apache.commons.lang3.Validate.notNull;
+
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.types.Core;
+import java.awt.image.BufferedImage;
+import java.awt.image.DataBuffer;
+import java.io.File;
+import java.io.IOException;
+import java.io.Serializable;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.imageio.ImageIO;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanRegistrationException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
+import org.apache.commons.lang3.StringUtils;
+import org.codice.alliance.imaging.chip.service.api.DecodedImageCache;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link DecodedImageCache} that is bounded by the size of the decoded pixel data and evicts the
+ * least recently used images first. When a spill directory is configured, evicted images are
+ * written to it as lossless PNG files and read back on the next request instead of being fetched
+ * and decoded again. The spill directory is bounded by the size of the files and also evicts the
+ * least recently used images first. Spilled images are read and written outside of the cache lock.
+ *
+ * <p>The counters and sizes are exposed through the {@link DecodedImageCacheImplMBean}.
+ */
+public class DecodedImageCacheImpl implements DecodedImageCache, DecodedImageCacheImplMBean {
+
+  public static final long DEFAULT_MAX_SIZE_BYTES = 64L * 1024 * 1024;
+
+  public static final long MIN_MAX_SIZE_BYTES = 0;
+
+  public static final long MAX_MAX_SIZE_BYTES = 4L * 1024 * 1024 * 1024;
+
+  public static final long DEFAULT_MAX_SPILL_SIZE_BYTES = 512L * 1024 * 1024;
+
+  public static final long MIN_MAX_SPILL_SIZE_BYTES = 0;
+
+  public static final long MAX_MAX_SPILL_SIZE_BYTES = 64L * 1024 * 1024 * 1024;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(DecodedImageCacheImpl.class);
+
+  private static final String SPILL_FORMAT = "png";
+
+  private static final String SPILL_FILE_PREFIX = "decoded-image-";
+
+  private final Map<Key, BufferedImage> images = new LinkedHashMap<>(16, 0.75f, true);
+
+  private final Map<Key, SpilledImage> spilledImages = new LinkedHashMap<>(16, 0.75f, true);
+
+  private final AtomicLong hitCount = new AtomicLong();
+
+  private final AtomicLong missCount = new AtomicLong();
+
+  private final AtomicLong spillHitCount = new AtomicLong();
+
+  private final AtomicLong evictionCount = new AtomicLong();
+
+  private long maxSizeBytes;
+
+  private long sizeBytes;
+
+  /** The spill directory or <code>null</code> if spilling is disabled. */
+  private File spillDirectory;
+
+  private long maxSpillSizeBytes = DEFAULT_MAX_SPILL_SIZE_BYTES;
+
+  private long spillSizeBytes;
+
+  private ObjectName objectName;
+
+  private MBeanServer mBeanServer;
+
+  public DecodedImageCacheImpl() {
+    this(DEFAULT_MAX_SIZE_BYTES);
+  }
+
+  /**
+   * @param maxSizeBytes maximum size of the cached pixel data, must be &gt;={@link
+   *     #MIN_MAX_SIZE_BYTES} and &lt;={@link #MAX_MAX_SIZE_BYTES}, zero disables the cache
+   */
+  public DecodedImageCacheImpl(long maxSizeBytes) {
+    inclusiveBetween(
+        MIN_MAX_SIZE_BYTES,
+        MAX_MAX_SIZE_BYTES,
+        maxSizeBytes,
+        String.format(
+            "maxSizeBytes must be >=%d and <=%d", MIN_MAX_SIZE_BYTES, MAX_MAX_SIZE_BYTES));
+    this.maxSizeBytes = maxSizeBytes;
+  }
+
+  @Override
+  public BufferedImage get(Metacard metacard, String qualifier) {
+    Key key = new Key(metacard, qualifier);
+
+    BufferedImage image;
+    SpilledImage spilledImage = null;
+    synchronized (this) {
+      image = images.get(key);
+      if (image == null) {
+        spilledImage = removeSpilledImage(key);
+      }
+    }
+
+    if (spilledImage != null) {
+      image = readSpilledImage(spilledImage);
+      if (image != null) {
+        spillHitCount.incrementAndGet();
+        cache(key, image);
+      }
+    }
+
+    (image == null ? missCount : hitCount).incrementAndGet();
+    LOGGER.trace(
+        "decoded image cache {} for {}:{}",
+        image == null ? "miss" : "hit",
+        metacard.getId(),
+        qualifier);
+    return image;
+  }
+
+  @Override
+  public BufferedImage put(Metacard metacard, String qualifier, BufferedImage image) {
+    Key key = new Key(metacard, qualifier);
+
+    if (image == null) {
+      return null;
+    }
+
+    long imageSize = getSizeBytes(image);
+    if (imageSize > getMaxSizeBytes()) {
+      LOGGER.debug(
+          "decoded image for {}:{} is larger than the cache ({} bytes), not caching it",
+          metacard.getId(),
+          qualifier,
+          imageSize);
+      return image;
+    }
+
+    cache(key, image);
+    return image;
+  }
+
+  private void cache(Key key, BufferedImage image) {
+    Map<Key, BufferedImage> evicted;
+    SpilledImage staleSpilledImage;
+    synchronized (this) {
+      BufferedImage previous = images.put(key, image);
+      if (previous != null) {
+        sizeBytes -= getSizeBytes(previous);
+      }
+      sizeBytes += getSizeBytes(image);
+
+      // the image in memory supersedes a spilled copy
+      staleSpilledImage = removeSpilledImage(key);
+      evicted = evictImages();
+    }
+
+    if (staleSpilledImage != null) {
+      delete(staleSpilledImage.file);
+    }
+    spill(evicted);
+  }
+
+  /** Must be called while holding the lock. */
+  private Map<Key, BufferedImage> evictImages() {
+    Map<Key, BufferedImage> evicted = new LinkedHashMap<>();
+    Iterator<Map.Entry<Key, BufferedImage>> iterator = images.entrySet().iterator();
+    while (sizeBytes > maxSizeBytes && iterator.hasNext()) {
+      Map.Entry<Key, BufferedImage> eldest = iterator.next();
+      iterator.remove();
+      sizeBytes -= getSizeBytes(eldest.getValue());
+      evicted.put(eldest.getKey(), eldest.getValue());
+      evictionCount.incrementAndGet();
+    }
+    return evicted;
+  }
+
+  /** Must be called while holding the lock. */
+  private SpilledImage removeSpilledImage(Key key) {
+    SpilledImage spilledImage = spilledImages.remove(key);
+    if (spilledImage != null) {
+      spillSizeBytes -= spilledImage.sizeBytes;
+    }
+    return spilledImage;
+  }
+
+  /** Must be called while holding the lock. */
+  private List<File> evictSpilledImages() {
+    List<File> evicted = new ArrayList<>();
+    Iterator<SpilledImage> iterator = spilledImages.values().iterator();
+    while (spillSizeBytes > maxSpillSizeBytes && iterator.hasNext()) {
+      SpilledImage eldest = iterator.next();
+      iterator.remove();
+      spillSizeBytes -= eldest.sizeBytes;
+      evicted.add(eldest.file);
+    }
+    return evicted;
+  }
+
+  private void spill(Map<Key, BufferedImage> evicted) {
+    File directory;
+    synchronized (this) {
+      directory = spillDirectory;
+    }
+
+    if (directory == null) {
+      return;
+    }
+
+    evicted.forEach((key, image) -> spill(directory, key, image));
+  }
+
+  private void spill(File directory, Key key, BufferedImage image) {
+    File file = null;
+    try {
+      file = File.createTempFile(SPILL_FILE_PREFIX, "." + SPILL_FORMAT, directory);
+      if (!ImageIO.write(image, SPILL_FORMAT, file)) {
+        LOGGER.debug("unable to spill decoded image for {}:{}, no writer", key.id, key.qualifier);
+        delete(file);
+        return;
+      }
+    } catch (IOException e) {
+      LOGGER.debug("unable to spill decoded image for {}:{}", key.id, key.qualifier, e);
+      if (file != null) {
+        delete(file);
+      }
+      return;
+    }
+
+    List<File> stale = new ArrayList<>();
+    synchronized (this) {
+      if (!directory.equals(spillDirectory) || images.containsKey(key)) {
+        // the spill directory changed or the image was cached again while it was being written
+        stale.add(file);
+      } else {
+        SpilledImage spilledImage = new SpilledImage(file, file.length());
+        SpilledImage previous = spilledImages.put(key, spilledImage);
+        if (previous != null) {
+          spillSizeBytes -= previous.sizeBytes;
+          stale.add(previous.file);
+        }
+        spillSizeBytes += spilledImage.sizeBytes;
+        stale.addAll(evictSpilledImages());
+      }
+    }
+
+    stale.forEach(DecodedImageCacheImpl::delete);
+  }
+
+  private static BufferedImage readSpilledImage(SpilledImage spilledImage) {
+    try {
+      return ImageIO.read(spilledImage.file);
+    } catch (IOException e) {
+      LOGGER.debug("unable to read spilled decoded image {}", spilledImage.file, e);
+      return null;
+    } finally {
+      delete(spilledImage.file);
+    }
+  }
+
+  private static void delete(File file) {
+    try {
+      Files.deleteIfExists(file.toPath());
+    } catch (IOException e) {
+      LOGGER.debug("unable to delete spilled decoded image {}", file, e);
+    }
+  }
+
+  public void init() {
+    registerMbean();
+  }
+
+  /** Unregister the MBean and {@link #clear()} the cache. */
+  public void destroy() {
+    try {
+      if (objectName != null && mBeanServer != null) {
+        mBeanServer.unregisterMBean(objectName);
+      }
+    } catch (Exception e) {
+      LOGGER.info("Exception unregistering MBean: ", e);
+    }
+    clear();
+  }
+
+  private void registerMbean() {
+    try {
+      objectName = new ObjectName(DecodedImageCacheImpl.class.getName() + ":service=cache");
+      mBeanServer = ManagementFactory.getPlatformMBeanServer();
+    } catch (MalformedObjectNameException e) {
+      LOGGER.info("Unable to create Decoded Image Cache MBean.", e);
+    }
+    if (mBeanServer == null) {
+      return;
+    }
+    try {
+      try {
+        mBeanServer.registerMBean(this, objectName);
+        LOGGER.debug("Registered Decoded Image Cache MBean under object name: {}", objectName);
+      } catch (InstanceAlreadyExistsException e) {
+        mBeanServer.unregisterMBean(objectName);
+        mBeanServer.registerMBean(this, objectName);
+        LOGGER.debug("Re-registered Decoded Image Cache MBean", e);
+      }
+    } catch (MBeanRegistrationException
+        | InstanceNotFoundException
+        | InstanceAlreadyExistsException
+        | NotCompliantMBeanException e) {
+      LOGGER.info("Could not register MBean [{}].", objectName, e);
+    }
+  }
+
+  /** Remove every image from the cache and delete the spilled images. */
+  public void clear() {
+    List<File> spilledFiles = new ArrayList<>();
+    synchronized (this) {
+      images.clear();
+      sizeBytes = 0;
+      spilledImages.values().forEach(spilledImage -> spilledFiles.add(spilledImage.file));
+      spilledImages.clear();
+      spillSizeBytes = 0;
+    }
+    spilledFiles.forEach(DecodedImageCacheImpl::delete);
+  }
+
+  /**
+   * @param maxSizeBytes maximum size of the cached pixel data, values outside of &gt;={@link
+   *     #MIN_MAX_SIZE_BYTES} and &lt;={@link #MAX_MAX_SIZE_BYTES} are replaced by {@link
+   *     #DEFAULT_MAX_SIZE_BYTES}
+   */
+  public void setMaxSizeBytes(long maxSizeBytes) {
+    if (maxSizeBytes < MIN_MAX_SIZE_BYTES || maxSizeBytes > MAX_MAX_SIZE_BYTES) {
+      LOGGER.debug(
+          "Invalid `maxSizeBytes` value [{}], must be >={} and <={}. Default value [{}] will be used instead.",
+          maxSizeBytes,
+          MIN_MAX_SIZE_BYTES,
+          MAX_MAX_SIZE_BYTES,
+          DEFAULT_MAX_SIZE_BYTES);
+      maxSizeBytes = DEFAULT_MAX_SIZE_BYTES;
+    }
+
+    Map<Key, BufferedImage> evicted;
+    synchronized (this) {
+      this.maxSizeBytes = maxSizeBytes;
+      evicted = evictImages();
+    }
+    spill(evicted);
+  }
+
+  /**
+   * @param spillDirectory directory for evicted images, blank disables spilling. The images that
+   *     were spilled to the previous directory are deleted.
+   */
+  public void setSpillDirectory(String spillDirectory) {
+    File directory = null;
+    if (StringUtils.isNotBlank(spillDirectory)) {
+      directory = new File(spillDirectory.trim());
+      try {
+        Files.createDirectories(directory.toPath());
+      } catch (IOException e) {
+        LOGGER.info(
+            "Unable to create the decoded image spill directory [{}], spilling is disabled.",
+            directory,
+            e);
+        directory = null;
+      }
+    }
+
+    List<File> spilledFiles = new ArrayList<>();
+    synchronized (this) {
+      if (Objects.equals(this.spillDirectory, directory)) {
+        return;
+      }
+      this.spillDirectory = directory;
+      spilledImages.values().forEach(spilledImage -> spilledFiles.add(spilledImage.file));
+      spilledImages.clear();
+      spillSizeBytes = 0;
+    }
+    spilledFiles.forEach(DecodedImageCacheImpl::delete);
+  }
+
+  /**
+   * @param maxSpillSizeBytes maximum size of the spilled image files, values outside of
+   *     &gt;={@link #MIN_MAX_SPILL_SIZE_BYTES} and &lt;={@link #MAX_MAX_SPILL_SIZE_BYTES} are
+   *     replaced by {@link #DEFAULT_MAX_SPILL_SIZE_BYTES}
+   */
+  public void setMaxSpillSizeBytes(long maxSpillSizeBytes) {
+    if (maxSpillSizeBytes < MIN_MAX_SPILL_SIZE_BYTES
+        || maxSpillSizeBytes > MAX_MAX_SPILL_SIZE_BYTES) {
+      LOGGER.debug(
+          "Invalid `maxSpillSizeBytes` value [{}], must be >={} and <={}. Default value [{}] will be used instead.",
+          maxSpillSizeBytes,
+          MIN_MAX_SPILL_SIZE_BYTES,
+          MAX_MAX_SPILL_SIZE_BYTES,
+          DEFAULT_MAX_SPILL_SIZE_BYTES);
+      maxSpillSizeBytes = DEFAULT_MAX_SPILL_SIZE_BYTES;
+    }
+
+    List<File> evicted;
+    synchronized (this) {
+      this.maxSpillSizeBytes = maxSpillSizeBytes;
+      evicted = evictSpilledImages();
+    }
+    evicted.forEach(DecodedImageCacheImpl::delete);
+  }
+
+  @Override
+  public long getHitCount() {
+    return hitCount.get();
+  }
+
+  @Override
+  public long getMissCount() {
+    return missCount.get();
+  }
+
+  @Override
+  public long getSpillHitCount() {
+    return spillHitCount.get();
+  }
+
+  @Override
+  public long getEvictionCount() {
+    return evictionCount.get();
+  }
+
+  @Override
+  public synchronized int getImageCount() {
+    return images.size();
+  }
+
+  @Override
+  public synchronized long getSizeBytes() {
+    return sizeBytes;
+  }
+
+  @Override
+  public synchronized long getMaxSizeBytes() {
+    return maxSizeBytes;
+  }
+
+  @Override
+  public synchronized int getSpilledImageCount() {
+    return spilledImages.size();
+  }
+
+  @Override
+  public synchronized long getSpillSizeBytes() {
+    return spillSizeBytes;
+  }
+
+  @Override
+  public synchronized long getMaxSpillSizeBytes() {
+    return maxSpillSizeBytes;
+  }
+
+  static long getSizeBytes(BufferedImage image) {
+    DataBuffer dataBuffer = image.getRaster().getDataBuffer();
+    return (long) dataBuffer.getSize()
+        * dataBuffer.getNumBanks()
+        * DataBuffer.getDataTypeSize(dataBuffer.getDataType())
+        / Byte.SIZE;
+  }
+
+  private static class SpilledImage {
+
+    private final File file;
+
+    private final long sizeBytes;
+
+    private SpilledImage(File file, long sizeBytes) {
+      this.file = file;
+      this.sizeBytes = sizeBytes;
+    }
+  }
+
+  private static class Key {
+
+    private final String id;
+
+    private final Serializable modified;
+
+    private final String qualifier;
+
+    private Key(Metacard metacard, String qualifier) {
+      notNull(metacard, "metacard must be non-null");
+      notNull(qualifier, "qualifier must be non-null");
+      this.id = metacard.getId();
+      this.modified = getModified(metacard);
+      this.qualifier = qualifier;
+    }
+
+    /** @return the {@link Core#MODIFIED} date, or {@link Core#METACARD_MODIFIED} if it is not set */
+    private static Serializable getModified(Metacard metacard) {
+      Attribute modified = metacard.getAttribute(Core.MODIFIED);
+      if (modified == null || modified.getValue() == null) {
+        modified = metacard.getAttribute(Core.METACARD_MODIFIED);
+      }
+      return modified == null ? null : modified.getValue();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+      if (this == o) {
+        return true;
+      }
+      if (o == null || getClass() != o.getClass()) {
+        return false;
+      }
+      Key key = (Key) o;
+      return Objects.equals(id, key.id)
+          && Objects.equals(modified, key.modified)
+          && qualifier.equals(key.qualifier);
+    }
+
+    @Override
+    public int hashCode() {
+      return Objects.hash(id, modified, qualifier);
+    }
+  }
+}
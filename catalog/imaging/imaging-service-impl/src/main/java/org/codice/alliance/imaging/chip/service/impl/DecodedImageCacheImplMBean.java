@@ -11,22 +11,30 @@
  * License is distributed along with this program and can be found at
  * <http://www.gnu.org/licenses/lgpl.html>.
  */
-package org.codice.alliance.video.stream.mpegts.plugins;
+package org.codice.alliance.imaging.chip.service.impl;
 
-import java.util.Timer;
-import java.util.function.Supplier;
-import org.codice.alliance.video.stream.mpegts.Context;
+/** Read-only view of the {@link DecodedImageCacheImpl} counters and sizes. */
+public interface DecodedImageCacheImplMBean {
 
-public class TimerStreamCreationPlugin extends BaseStreamCreationPlugin {
+  long getHitCount();
 
-  private final Supplier<Timer> timerSupplier;
+  long getMissCount();
 
-  public TimerStreamCreationPlugin(Supplier<Timer> timerSupplier) {
-    this.timerSupplier = timerSupplier;
-  }
+  /** @return the number of hits that were read back from the spill directory */
+  long getSpillHitCount();
 
-  @Override
-  protected void doOnCreate(Context context) throws StreamCreationException {
-    context.getUdpStreamProcessor().setTimer(timerSupplier.get());
-  }
+  /** @return the number of images that were evicted from memory */
+  long getEvictionCount();
+
+  int getImageCount();
+
+  long getSizeBytes();
+
+  long getMaxSizeBytes();
+
+  int getSpilledImageCount();
+
+  long getSpillSizeBytes();
+
+  long getMaxSpillSizeBytes();
 }
@@ -0,0 +1,288 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.imaging.chip.service.impl;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.CoreMatchers.sameInstance;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.types.Core;
+import java.awt.image.BufferedImage;
+import java.io.File;
+import java.lang.management.ManagementFactory;
+import java.util.Date;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class DecodedImageCacheImplTest {
+
+  private static final String OVERVIEW = "overview";
+
+  private static final String ORIGINAL = "original";
+
+  /** 10x10 pixels with 3 bytes per pixel. */
+  private static final long IMAGE_SIZE = 300;
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private Metacard metacard;
+
+  @Before
+  public void setup() {
+    metacard = metacard("id1", new Date(1000));
+  }
+
+  @Test
+  public void testGetSizeBytes() {
+    assertThat(DecodedImageCacheImpl.getSizeBytes(image()), is(IMAGE_SIZE));
+    assertThat(
+        DecodedImageCacheImpl.getSizeBytes(new BufferedImage(10, 10, BufferedImage.TYPE_INT_ARGB)),
+        is(400L));
+  }
+
+  @Test
+  public void testPutAndGet() {
+    DecodedImageCacheImpl cache = new DecodedImageCacheImpl();
+    BufferedImage image = image();
+
+    assertThat(cache.put(metacard, OVERVIEW, image), is(sameInstance(image)));
+
+    assertThat(cache.get(metacard, OVERVIEW), is(sameInstance(image)));
+    assertThat(cache.get(metacard, ORIGINAL), is(nullValue()));
+    assertThat(cache.get(metacard("id2", new Date(1000)), OVERVIEW), is(nullValue()));
+    assertThat(cache.getImageCount(), is(1));
+    assertThat(cache.getSizeBytes(), is(IMAGE_SIZE));
+  }
+
+  @Test
+  public void testModifiedMetacardIsNotFound() {
+    DecodedImageCacheImpl cache = new DecodedImageCacheImpl();
+    cache.put(metacard, OVERVIEW, image());
+
+    assertThat(cache.get(metacard("id1", new Date(2000)), OVERVIEW), is(nullValue()));
+  }
+
+  @Test
+  public void testMetacardModifiedIsUsedWithoutModified() {
+    DecodedImageCacheImpl cache = new DecodedImageCacheImpl();
+    Metacard metacard = mock(Metacard.class);
+    when(metacard.getId()).thenReturn("id1");
+    Attribute metacardModified = mock(Attribute.class);
+    when(metacardModified.getValue()).thenReturn(new Date(1000));
+    when(metacard.getAttribute(Core.METACARD_MODIFIED)).thenReturn(metacardModified);
+    cache.put(metacard, OVERVIEW, image());
+
+    assertThat(cache.get(metacard, OVERVIEW), is(notNullValue()));
+    when(metacardModified.getValue()).thenReturn(new Date(2000));
+    assertThat(cache.get(metacard, OVERVIEW), is(nullValue()));
+  }
+
+  @Test
+  public void testReplaceImage() {
+    DecodedImageCacheImpl cache = new DecodedImageCacheImpl();
+    BufferedImage image = image();
+    cache.put(metacard, OVERVIEW, image());
+
+    cache.put(metacard, OVERVIEW, image);
+
+    assertThat(cache.get(metacard, OVERVIEW), is(sameInstance(image)));
+    assertThat(cache.getImageCount(), is(1));
+    assertThat(cache.getSizeBytes(), is(IMAGE_SIZE));
+  }
+
+  @Test
+  public void testLeastRecentlyUsedImageIsEvicted() {
+    DecodedImageCacheImpl cache = new DecodedImageCacheImpl(2 * IMAGE_SIZE);
+    Metacard metacard2 = metacard("id2", new Date(1000));
+    Metacard metacard3 = metacard("id3", new Date(1000));
+    cache.put(metacard, OVERVIEW, image());
+    cache.put(metacard2, OVERVIEW, image());
+    cache.get(metacard, OVERVIEW);
+
+    cache.put(metacard3, OVERVIEW, image());
+
+    assertThat(cache.get(metacard2, OVERVIEW), is(nullValue()));
+    assertThat(cache.getImageCount(), is(2));
+    assertThat(cache.getSizeBytes(), is(2 * IMAGE_SIZE));
+  }
+
+  @Test
+  public void testImageLargerThanCacheIsNotCached() {
+    DecodedImageCacheImpl cache = new DecodedImageCacheImpl(IMAGE_SIZE - 1);
+    BufferedImage image = image();
+
+    assertThat(cache.put(metacard, OVERVIEW, image), is(sameInstance(image)));
+
+    assertThat(cache.get(metacard, OVERVIEW), is(nullValue()));
+    assertThat(cache.getSizeBytes(), is(0L));
+  }
+
+  @Test
+  public void testPutNullImage() {
+    DecodedImageCacheImpl cache = new DecodedImageCacheImpl();
+
+    assertThat(cache.put(metacard, OVERVIEW, null), is(nullValue()));
+
+    assertThat(cache.getImageCount(), is(0));
+  }
+
+  @Test
+  public void testHitAndMissCounts() {
+    DecodedImageCacheImpl cache = new DecodedImageCacheImpl();
+    cache.get(metacard, OVERVIEW);
+    cache.put(metacard, OVERVIEW, image());
+
+    cache.get(metacard, OVERVIEW);
+    cache.get(metacard, OVERVIEW);
+
+    assertThat(cache.getHitCount(), is(2L));
+    assertThat(cache.getMissCount(), is(1L));
+  }
+
+  @Test
+  public void testSetMaxSizeEvictsImages() {
+    DecodedImageCacheImpl cache = new DecodedImageCacheImpl();
+    cache.put(metacard, OVERVIEW, image());
+    cache.put(metacard("id2", new Date(1000)), OVERVIEW, image());
+
+    cache.setMaxSizeBytes(IMAGE_SIZE);
+
+    assertThat(cache.get(metacard, OVERVIEW), is(nullValue()));
+    assertThat(cache.getImageCount(), is(1));
+    assertThat(cache.getEvictionCount(), is(1L));
+  }
+
+  @Test
+  public void testInvalidMaxSizeUsesDefault() {
+    DecodedImageCacheImpl cache = new DecodedImageCacheImpl(IMAGE_SIZE);
+
+    cache.setMaxSizeBytes(-1);
+
+    assertThat(cache.getMaxSizeBytes(), is(DecodedImageCacheImpl.DEFAULT_MAX_SIZE_BYTES));
+  }
+
+  @Test
+  public void testEvictedImageIsSpilledAndReadBack() throws Exception {
+    DecodedImageCacheImpl cache = new DecodedImageCacheImpl(IMAGE_SIZE);
+    File spillDirectory = temporaryFolder.newFolder();
+    cache.setSpillDirectory(spillDirectory.getPath());
+    BufferedImage image = image();
+    image.setRGB(3, 4, 0x123456);
+    Metacard metacard2 = metacard("id2", new Date(1000));
+    cache.put(metacard, OVERVIEW, image);
+
+    cache.put(metacard2, OVERVIEW, image());
+
+    assertThat(cache.getSpilledImageCount(), is(1));
+    assertThat(spillDirectory.list().length, is(1));
+
+    BufferedImage spilledImage = cache.get(metacard, OVERVIEW);
+
+    assertThat(spilledImage.getWidth(), is(10));
+    assertThat(spilledImage.getHeight(), is(10));
+    assertThat(spilledImage.getRGB(3, 4) & 0xFFFFFF, is(0x123456));
+    assertThat(cache.getSpillHitCount(), is(1L));
+    assertThat(cache.getHitCount(), is(1L));
+    // reading the image back moved it to memory and spilled the other image
+    assertThat(cache.getImageCount(), is(1));
+    assertThat(cache.getSpilledImageCount(), is(1));
+    assertThat(spillDirectory.list().length, is(1));
+  }
+
+  @Test
+  public void testSpillIsBounded() throws Exception {
+    DecodedImageCacheImpl cache = new DecodedImageCacheImpl(IMAGE_SIZE);
+    File spillDirectory = temporaryFolder.newFolder();
+    cache.setSpillDirectory(spillDirectory.getPath());
+    cache.setMaxSpillSizeBytes(0);
+
+    cache.put(metacard, OVERVIEW, image());
+    cache.put(metacard("id2", new Date(1000)), OVERVIEW, image());
+
+    assertThat(cache.getSpilledImageCount(), is(0));
+    assertThat(cache.getSpillSizeBytes(), is(0L));
+    assertThat(spillDirectory.list().length, is(0));
+    assertThat(cache.get(metacard, OVERVIEW), is(nullValue()));
+  }
+
+  @Test
+  public void testClearDeletesSpilledImages() throws Exception {
+    DecodedImageCacheImpl cache = new DecodedImageCacheImpl(IMAGE_SIZE);
+    File spillDirectory = temporaryFolder.newFolder();
+    cache.setSpillDirectory(spillDirectory.getPath());
+    cache.put(metacard, OVERVIEW, image());
+    cache.put(metacard("id2", new Date(1000)), OVERVIEW, image());
+
+    cache.clear();
+
+    assertThat(cache.getImageCount(), is(0));
+    assertThat(cache.getSpilledImageCount(), is(0));
+    assertThat(spillDirectory.list().length, is(0));
+  }
+
+  @Test
+  public void testCountersAreExposedAsMBean() throws Exception {
+    DecodedImageCacheImpl cache = new DecodedImageCacheImpl();
+    ObjectName objectName =
+        new ObjectName(DecodedImageCacheImpl.class.getName() + ":service=cache");
+    MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+    cache.init();
+    try {
+      cache.put(metacard, OVERVIEW, image());
+      cache.get(metacard, OVERVIEW);
+
+      assertThat(mBeanServer.getAttribute(objectName, "HitCount"), is(1L));
+      assertThat(mBeanServer.getAttribute(objectName, "SizeBytes"), is(IMAGE_SIZE));
+    } finally {
+      cache.destroy();
+    }
+
+    assertThat(mBeanServer.isRegistered(objectName), is(false));
+    assertThat(cache.getImageCount(), is(0));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeMaxSize() {
+    new DecodedImageCacheImpl(-1);
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void testNullMetacard() {
+    new DecodedImageCacheImpl().get(null, OVERVIEW);
+  }
+
+  private static BufferedImage image() {
+    return new BufferedImage(10, 10, BufferedImage.TYPE_3BYTE_BGR);
+  }
+
+  private static Metacard metacard(String id, Date modified) {
+    Metacard metacard = mock(Metacard.class);
+    when(metacard.getId()).thenReturn(id);
+    Attribute modifiedAttribute = mock(Attribute.class);
+    when(modifiedAttribute.getValue()).thenReturn(modified);
+    when(metacard.getAttribute(Core.MODIFIED)).thenReturn(modifiedAttribute);
+    return metacard;
+  }
+}
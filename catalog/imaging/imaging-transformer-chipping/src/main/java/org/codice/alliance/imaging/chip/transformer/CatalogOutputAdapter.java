@@ -18,9 +18,9 @@ import static org.apache.commons.lang.Validate.notNull;
 import ddf.catalog.data.BinaryContent;
 import ddf.catalog.data.impl.BinaryContentImpl;
 import ddf.catalog.operation.ResourceResponse;
-import ddf.catalog.resource.Resource;
 import ddf.catalog.transform.CatalogTransformerException;
 import java.awt.Graphics2D;
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.io.BufferedInputStream;
 import java.io.ByteArrayInputStream;
@@ -29,20 +29,27 @@ import java.io.File;
 import java.io.FileInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Serializable;
 import java.util.Arrays;
 import java.util.HashSet;
+import java.util.Iterator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.Semaphore;
 import java.util.regex.Pattern;
 import javax.activation.MimeType;
 import javax.activation.MimeTypeParseException;
 import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.stream.ImageInputStream;
 import javax.imageio.stream.ImageOutputStream;
 import javax.imageio.stream.MemoryCacheImageOutputStream;
 import org.apache.commons.io.IOUtils;
 import org.apache.commons.lang.StringUtils;
+import org.codice.alliance.imaging.chip.service.api.ChipOutOfBoundsException;
 import org.codice.alliance.imaging.chip.service.impl.CoordinateConverter;
 import org.codice.ddf.platform.util.TemporaryFileBackedOutputStream;
 import org.codice.imaging.nitf.core.common.FileType;
@@ -103,6 +110,8 @@ public class CatalogOutputAdapter {
 
   private Semaphore lock;
 
+  private CropAdapter cropAdapter;
+
   /**
    * These are the SDEs that should be copied to the NITF chip. This list was assembled from
    * information gathered from ASDE, CSDE, and GEOSDE.
@@ -127,7 +136,12 @@ public class CatalogOutputAdapter {
   private static final String JPG = "jpg";
 
   public CatalogOutputAdapter(Semaphore lock) {
+    this(lock, new CropAdapter());
+  }
+
+  public CatalogOutputAdapter(Semaphore lock, CropAdapter cropAdapter) {
     this.lock = lock;
+    this.cropAdapter = cropAdapter;
   }
 
   /**
@@ -144,9 +158,7 @@ public class CatalogOutputAdapter {
     try (InputStream resourceStream = resourceResponse.getResource().getInputStream()) {
       validateObjectState(resourceStream, "resourceResponse.resource.inputStream");
 
-      Resource resource = resourceResponse.getResource();
-      try (InputStream inputStream = resource.getInputStream();
-          BufferedInputStream bufferedInputStream = new BufferedInputStream(inputStream)) {
+      try (BufferedInputStream bufferedInputStream = new BufferedInputStream(resourceStream)) {
         lock.acquire();
         try {
           image = ImageIO.read(bufferedInputStream);
@@ -161,6 +173,73 @@ public class CatalogOutputAdapter {
     return image;
   }
 
+  /**
+   * Decode only the part of the full-size image that is covered by the chip. Image readers that
+   * support source regions, such as the JPEG 2000 reader, skip the tiles outside of the chip, so
+   * the full-size image is never decoded in full.
+   *
+   * @param resourceResponse a ResourceResponse object for the full-size image returned by
+   *     CatalogFramework.
+   * @param overview a scaled-down version of the same image.
+   * @param args the chip as taken from the overview image, see {@link
+   *     CropAdapter#getSourceRegion(int, int, BufferedImage, Map)}.
+   * @return the chip and the region of the full-size image that it was decoded from.
+   * @throws IOException when there's a problem reading the image from the ResourceResponse
+   *     InputStream.
+   * @throws ChipOutOfBoundsException when the chip does not cover any pixels of the image.
+   */
+  @SuppressWarnings("unused")
+  public ImageRegion getImageRegion(
+      ResourceResponse resourceResponse, BufferedImage overview, Map<String, Serializable> args)
+      throws IOException, ChipOutOfBoundsException {
+    validateArgument(resourceResponse, "resourceResponse");
+    validateArgument(resourceResponse.getResource(), "resourceResponse.resource");
+    ImageRegion imageRegion = null;
+    try (InputStream resourceStream = resourceResponse.getResource().getInputStream()) {
+      validateObjectState(resourceStream, "resourceResponse.resource.inputStream");
+
+      lock.acquire();
+      try {
+        imageRegion = readImageRegion(resourceStream, overview, args);
+      } finally {
+        lock.release();
+      }
+    } catch (InterruptedException e) {
+      LOGGER.debug(INTERRUPT_IMAGE_PROCESSING, e);
+      Thread.currentThread().interrupt();
+    }
+    return imageRegion;
+  }
+
+  private ImageRegion readImageRegion(
+      InputStream inputStream, BufferedImage overview, Map<String, Serializable> args)
+      throws IOException, ChipOutOfBoundsException {
+    try (ImageInputStream imageInputStream = ImageIO.createImageInputStream(inputStream)) {
+      validateObjectState(imageInputStream, "imageInputStream");
+
+      Iterator<ImageReader> imageReaders = ImageIO.getImageReaders(imageInputStream);
+      if (!imageReaders.hasNext()) {
+        throw new IOException("No image reader is available for the resource.");
+      }
+
+      ImageReader imageReader = imageReaders.next();
+      try {
+        imageReader.setInput(imageInputStream, true, true);
+
+        Rectangle region =
+            cropAdapter.getSourceRegion(
+                imageReader.getWidth(0), imageReader.getHeight(0), overview, args);
+
+        ImageReadParam imageReadParam = imageReader.getDefaultReadParam();
+        imageReadParam.setSourceRegion(region);
+
+        return new ImageRegion(imageReader.read(0, imageReadParam), region);
+      } finally {
+        imageReader.dispose();
+      }
+    }
+  }
+
   /**
    * @param image the BufferedImage to be converted.
    * @return a BinaryContent object containing the image data.
@@ -13,9 +13,11 @@
  */
 package org.codice.alliance.imaging.chip.transformer;
 
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.io.Serializable;
 import java.util.Map;
+import org.codice.alliance.imaging.chip.service.api.ChipOutOfBoundsException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -37,6 +39,79 @@ public class CropAdapter {
   public int[] scaleChip(
       BufferedImage original, BufferedImage overview, Map<String, Serializable> args) {
 
+    double scaleFactor = 1.0;
+
+    if (original != null && overview != null) {
+      scaleFactor = original.getWidth() / ((double) overview.getWidth());
+    }
+
+    return scaleChip(scaleFactor, args);
+  }
+
+  /**
+   * Translate the chip to the region of the full-size image that must be decoded. The region is
+   * clipped to the image in the same way as {@link
+   * org.codice.alliance.imaging.chip.service.api.ChipService#crop}, so decoding only this region
+   * gives the same pixels as decoding the whole image and cropping it.
+   *
+   * @param originalWidth the width of the full-sized image that the chip will be taken from.
+   * @param originalHeight the height of the full-sized image that the chip will be taken from.
+   * @param overview a scaled-down version of the same image.
+   * @param args A map containing values for the top left corner of the chip (x, y) and the height
+   *     and width of the chip (w, h) as taken from the overview image.
+   * @return the region of the full-size image covered by the chip.
+   * @throws ChipOutOfBoundsException when the chip starts outside of the image or does not cover
+   *     any pixels of it.
+   */
+  public Rectangle getSourceRegion(
+      int originalWidth,
+      int originalHeight,
+      BufferedImage overview,
+      Map<String, Serializable> args)
+      throws ChipOutOfBoundsException {
+
+    double scaleFactor = 1.0;
+
+    if (overview != null) {
+      scaleFactor = originalWidth / ((double) overview.getWidth());
+    }
+
+    int[] scaledValues = scaleChip(scaleFactor, args);
+
+    int x = scaledValues[0];
+    int y = scaledValues[1];
+    int w = scaledValues[2];
+    int h = scaledValues[3];
+
+    if (w < 0 || h < 0) {
+      throw new ChipOutOfBoundsException(
+          String.format(
+              "method arguments 'w', 'h' may not be less than 0. Values were %s and %s.", w, h));
+    }
+
+    if (x > originalWidth || y > originalHeight) {
+      throw new ChipOutOfBoundsException(
+          String.format(
+              "method arguments 'x' and 'y' may not be greater than the width and height of the supplied image."
+                  + "\n   image width = %s, x = %s\n   image height = %s, y = %s",
+              originalWidth, x, originalHeight, y));
+    }
+
+    Rectangle region =
+        new Rectangle(x, y, w, h).intersection(new Rectangle(originalWidth, originalHeight));
+
+    if (region.isEmpty()) {
+      throw new ChipOutOfBoundsException(
+          String.format("the chip %s does not cover any pixels of the image.", region));
+    }
+
+    LOGGER.trace("chip source region: {}", region);
+
+    return region;
+  }
+
+  private int[] scaleChip(double scaleFactor, Map<String, Serializable> args) {
+
     if (args == null) {
       throw new IllegalArgumentException("method argument 'args' may not be null.");
     }
@@ -46,12 +121,6 @@ public class CropAdapter {
     int w = getArg(args, "w");
     int h = getArg(args, "h");
 
-    double scaleFactor = 1.0;
-
-    if (original != null && overview != null) {
-      scaleFactor = original.getWidth() / ((double) overview.getWidth());
-    }
-
     int scaledX = multiply(scaleFactor, x);
     int scaledY = multiply(scaleFactor, y);
     int scaledW = multiply(scaleFactor, w);
@@ -11,18 +11,29 @@
  * License is distributed along with this program and can be found at
  * <http://www.gnu.org/licenses/lgpl.html>.
  */
-package org.codice.alliance.video.stream.mpegts.plugins;
+package org.codice.alliance.imaging.chip.transformer;
 
-import static org.hamcrest.Matchers.notNullValue;
-import static org.junit.Assert.assertThat;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
 
-import org.junit.Test;
+/** The pixels of a chip and the region of the full-size image that they were decoded from. */
+public class ImageRegion {
 
-public class TimerFactoryTest {
+  private final BufferedImage image;
 
-  @Test
-  public void testGet() {
-    TimerFactory timerFactory = new TimerFactory();
-    assertThat(timerFactory.get(), notNullValue());
+  private final Rectangle region;
+
+  public ImageRegion(BufferedImage image, Rectangle region) {
+    this.image = image;
+    this.region = new Rectangle(region);
+  }
+
+  public BufferedImage getImage() {
+    return image;
+  }
+
+  /** @return a vector of [x, y, w, h] in the coordinates of the full size image. */
+  public int[] getScaledValues() {
+    return new int[] {region.x, region.y, region.width, region.height};
   }
 }
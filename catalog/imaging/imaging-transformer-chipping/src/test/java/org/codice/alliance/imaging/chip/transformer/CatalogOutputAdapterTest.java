@@ -23,6 +23,7 @@ import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.anyInt;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -34,15 +35,20 @@ import java.awt.image.BufferedImage;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Serializable;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
+import java.nio.charset.StandardCharsets;
 import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.concurrent.Semaphore;
 import java.util.regex.Pattern;
 import javax.activation.MimeTypeParseException;
 import javax.imageio.ImageIO;
+import org.codice.alliance.imaging.chip.service.api.ChipOutOfBoundsException;
 import org.codice.ddf.platform.util.TemporaryFileBackedOutputStream;
 import org.codice.imaging.nitf.core.DataSource;
 import org.codice.imaging.nitf.core.common.DateTime;
@@ -135,6 +141,75 @@ public class CatalogOutputAdapterTest {
     verify(lock).release();
   }
 
+  @Test
+  public void testGetImageOpensResourceOnce() throws IOException {
+    ResourceResponse resourceResponse = mock(ResourceResponse.class);
+    Resource resource = mock(Resource.class);
+    when(resourceResponse.getResource()).thenReturn(resource);
+    when(resource.getInputStream()).thenReturn(getInputStream(I_3001A));
+
+    catalogOutputAdapter.getImage(resourceResponse);
+
+    verify(resource, times(1)).getInputStream();
+  }
+
+  @Test
+  public void testGetImageRegion()
+      throws IOException, InterruptedException, ChipOutOfBoundsException {
+    BufferedImage expected = ImageIO.read(getInputStream(I_3001A)).getSubimage(40, 80, 120, 160);
+    ResourceResponse resourceResponse = mock(ResourceResponse.class);
+    Resource resource = mock(Resource.class);
+    when(resourceResponse.getResource()).thenReturn(resource);
+    when(resource.getInputStream()).thenReturn(getInputStream(I_3001A));
+    BufferedImage overview = new BufferedImage(256, 256, BufferedImage.TYPE_3BYTE_BGR);
+    Map<String, Serializable> args = new HashMap<>();
+    args.put("x", 10);
+    args.put("y", 20);
+    args.put("w", 30);
+    args.put("h", 40);
+
+    ImageRegion imageRegion = catalogOutputAdapter.getImageRegion(resourceResponse, overview, args);
+
+    assertThat(imageRegion.getScaledValues(), is(new int[] {40, 80, 120, 160}));
+    BufferedImage image = imageRegion.getImage();
+    assertThat(image.getWidth(), is(120));
+    assertThat(image.getHeight(), is(160));
+    for (int y = 0; y < image.getHeight(); y++) {
+      for (int x = 0; x < image.getWidth(); x++) {
+        assertThat(image.getRGB(x, y), is(expected.getRGB(x, y)));
+      }
+    }
+    verify(resource, times(1)).getInputStream();
+    verify(lock).acquire();
+    verify(lock).release();
+  }
+
+  @Test(expected = ChipOutOfBoundsException.class)
+  public void testGetImageRegionOutOfBounds() throws IOException, ChipOutOfBoundsException {
+    ResourceResponse resourceResponse = mock(ResourceResponse.class);
+    Resource resource = mock(Resource.class);
+    when(resourceResponse.getResource()).thenReturn(resource);
+    when(resource.getInputStream()).thenReturn(getInputStream(I_3001A));
+    Map<String, Serializable> args = new HashMap<>();
+    args.put("x", 2048);
+    args.put("y", 0);
+    args.put("w", 30);
+    args.put("h", 40);
+
+    catalogOutputAdapter.getImageRegion(resourceResponse, null, args);
+  }
+
+  @Test(expected = IOException.class)
+  public void testGetImageRegionNotAnImage() throws IOException, ChipOutOfBoundsException {
+    ResourceResponse resourceResponse = mock(ResourceResponse.class);
+    Resource resource = mock(Resource.class);
+    when(resourceResponse.getResource()).thenReturn(resource);
+    when(resource.getInputStream())
+        .thenReturn(new ByteArrayInputStream("not an image".getBytes(StandardCharsets.UTF_8)));
+
+    catalogOutputAdapter.getImageRegion(resourceResponse, null, new HashMap<>());
+  }
+
   @Test(expected = IllegalArgumentException.class)
   public void testGetBinaryContentNullImage() throws IOException, MimeTypeParseException {
     catalogOutputAdapter.getBinaryContent(null);
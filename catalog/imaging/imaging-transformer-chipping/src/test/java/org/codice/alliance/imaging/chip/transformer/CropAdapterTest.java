@@ -18,10 +18,12 @@ import static org.hamcrest.core.Is.is;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
+import java.awt.Rectangle;
 import java.awt.image.BufferedImage;
 import java.io.Serializable;
 import java.util.Map;
 import org.apache.commons.collections.map.HashedMap;
+import org.codice.alliance.imaging.chip.service.api.ChipOutOfBoundsException;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -131,4 +133,72 @@ public class CropAdapterTest {
       assertThat(scaledValues[i], is(values[i] * 2));
     }
   }
+
+  @Test
+  public void testGetSourceRegion() throws ChipOutOfBoundsException {
+    when(overviewImage.getWidth()).thenReturn(1024);
+    args.put("x", 100);
+    args.put("y", 50);
+    args.put("w", 400);
+    args.put("h", 200);
+
+    Rectangle region = cropAdapter.getSourceRegion(2048, 1024, overviewImage, args);
+
+    assertThat(region, is(new Rectangle(200, 100, 800, 400)));
+  }
+
+  @Test
+  public void testGetSourceRegionIsClippedToImage() throws ChipOutOfBoundsException {
+    when(overviewImage.getWidth()).thenReturn(1024);
+    args.put("x", -100);
+    args.put("y", 900);
+    args.put("w", 400);
+    args.put("h", 400);
+
+    Rectangle region = cropAdapter.getSourceRegion(2048, 2048, overviewImage, args);
+
+    assertThat(region, is(new Rectangle(0, 1800, 600, 248)));
+  }
+
+  @Test
+  public void testGetSourceRegionNullOverview() throws ChipOutOfBoundsException {
+    args.put("x", 10);
+    args.put("y", 20);
+    args.put("w", 30);
+    args.put("h", 40);
+
+    Rectangle region = cropAdapter.getSourceRegion(1024, 1024, null, args);
+
+    assertThat(region, is(new Rectangle(10, 20, 30, 40)));
+  }
+
+  @Test(expected = ChipOutOfBoundsException.class)
+  public void testGetSourceRegionOutsideOfImage() throws ChipOutOfBoundsException {
+    args.put("x", 1025);
+    args.put("y", 0);
+    args.put("w", 30);
+    args.put("h", 40);
+
+    cropAdapter.getSourceRegion(1024, 1024, null, args);
+  }
+
+  @Test(expected = ChipOutOfBoundsException.class)
+  public void testGetSourceRegionNegativeSize() throws ChipOutOfBoundsException {
+    args.put("x", 0);
+    args.put("y", 0);
+    args.put("w", -30);
+    args.put("h", 40);
+
+    cropAdapter.getSourceRegion(1024, 1024, null, args);
+  }
+
+  @Test(expected = ChipOutOfBoundsException.class)
+  public void testGetSourceRegionEmpty() throws ChipOutOfBoundsException {
+    args.put("x", 1024);
+    args.put("y", 0);
+    args.put("w", 30);
+    args.put("h", 40);
+
+    cropAdapter.getSourceRegion(1024, 1024, null, args);
+  }
 }
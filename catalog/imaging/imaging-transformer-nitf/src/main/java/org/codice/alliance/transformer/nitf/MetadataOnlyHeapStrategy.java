@@ -0,0 +1,51 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.transformer.nitf;
+
+import javax.imageio.stream.ImageInputStream;
+import org.codice.imaging.nitf.core.HeapStrategy;
+import org.codice.imaging.nitf.core.common.NitfFormatException;
+import org.codice.imaging.nitf.core.common.NitfReader;
+
+/**
+ * A {@link HeapStrategy} for parsers that only need the headers and TREs of a NITF. The segment
+ * data is skipped using the length declared in the file header instead of being copied, so the
+ * heap needed to parse a NITF does not depend on the size of its image data. The segments do not
+ * have any data after parsing.
+ */
+public class MetadataOnlyHeapStrategy implements HeapStrategy<ImageInputStream> {
+
+  private long skippedByteCount;
+
+  @Override
+  public ImageInputStream handleSegment(NitfReader reader, long length) throws NitfFormatException {
+    reader.skip(length);
+    skippedByteCount += length;
+    return null;
+  }
+
+  @Override
+  public void cleanUp() {
+    // nothing is retained
+  }
+
+  /**
+   * Return the number of segment data bytes that were skipped.
+   *
+   * @return number of bytes
+   */
+  long getSkippedByteCount() {
+    return skippedByteCount;
+  }
+}
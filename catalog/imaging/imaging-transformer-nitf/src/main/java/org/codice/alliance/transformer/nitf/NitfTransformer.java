@@ -20,7 +20,6 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.util.List;
 import javax.imageio.stream.ImageInputStream;
-import javax.imageio.stream.MemoryCacheImageInputStream;
 import org.codice.alliance.transformer.nitf.common.NitfHeaderTransformer;
 import org.codice.alliance.transformer.nitf.gmti.GmtiMetacardType;
 import org.codice.alliance.transformer.nitf.gmti.NitfGmtiTransformer;
@@ -32,17 +31,26 @@ import org.codice.imaging.nitf.core.common.NitfFormatException;
 import org.codice.imaging.nitf.core.common.impl.NitfInputStreamReader;
 import org.codice.imaging.nitf.core.header.NitfHeader;
 import org.codice.imaging.nitf.core.header.impl.NitfParser;
-import org.codice.imaging.nitf.core.impl.InMemoryHeapStrategy;
 import org.codice.imaging.nitf.core.impl.SlottedParseStrategy;
 import org.codice.imaging.nitf.core.tre.Tre;
 import org.codice.imaging.nitf.core.tre.TreCollection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
+/**
+ * Creates image and GMTI metacards from the headers and TREs of a NITF. The image data is skipped
+ * while parsing (see {@link MetadataOnlyHeapStrategy}).
+ */
 public class NitfTransformer implements InputTransformer {
 
+  private static final Logger LOGGER = LoggerFactory.getLogger(NitfTransformer.class);
+
   private final MetacardFactory imageMetacardFactory = new MetacardFactory(new ImageMetacardType());
 
   private final MetacardFactory gmtiMetacardFactory = new MetacardFactory(new GmtiMetacardType());
 
+  private final NitfGmtiTransformer gmtiTransformer = new NitfGmtiTransformer();
+
   @Override
   public Metacard transform(InputStream inputStream)
       throws IOException, CatalogTransformerException {
@@ -53,8 +61,7 @@ public class NitfTransformer implements InputTransformer {
     try {
       NitfInputStreamReader nitfReader = new NitfInputStreamReader(inputStream);
 
-      HeapStrategy<ImageInputStream> imageDataStrategy =
-          new InMemoryHeapStrategy(this::createMemoryCacheImageInputStream);
+      HeapStrategy<ImageInputStream> imageDataStrategy = new MetadataOnlyHeapStrategy();
 
       SlottedParseStrategy parseStrategy = new SlottedParseStrategy();
       parseStrategy.setImageHeapStrategy(imageDataStrategy);
@@ -71,7 +78,6 @@ public class NitfTransformer implements InputTransformer {
         NitfHeaderTransformer segmentHandler = new NitfHeaderTransformer();
         segmentHandler.transform(nitfHeaders, metacard);
 
-        NitfGmtiTransformer gmtiTransformer = new NitfGmtiTransformer();
         gmtiTransformer.transform(metacard);
       } else {
         metacard = imageMetacardFactory.createMetacard(null);
@@ -82,7 +88,6 @@ public class NitfTransformer implements InputTransformer {
         NitfImageTransformer imageTransformer = new NitfImageTransformer();
         imageTransformer.transform(nitfDataSource, metacard);
 
-        NitfGmtiTransformer gmtiTransformer = new NitfGmtiTransformer();
         gmtiTransformer.transform(metacard);
       }
 
@@ -94,16 +99,27 @@ public class NitfTransformer implements InputTransformer {
     }
   }
 
-  private Object createMemoryCacheImageInputStream(Object o) {
-    return new MemoryCacheImageInputStream((InputStream) o);
-  }
-
   @Override
   public Metacard transform(InputStream inputStream, String s)
       throws IOException, CatalogTransformerException {
     return null;
   }
 
+  /**
+   * Merge GMTI targets that are close together into one point of the target location, see {@link
+   * NitfGmtiTransformer#setTargetClusterDistance(double)}.
+   *
+   * @param targetClusterDistance size of the cluster grid in degrees, 0 disables clustering
+   */
+  public void setTargetClusterDistance(double targetClusterDistance) {
+    try {
+      gmtiTransformer.setTargetClusterDistance(targetClusterDistance);
+    } catch (IllegalArgumentException e) {
+      LOGGER.debug("Invalid target cluster distance, disabling target clustering.", e);
+      gmtiTransformer.setTargetClusterDistance(0);
+    }
+  }
+
   private boolean isGmtiRoute(DataSource dataSource, NitfHeader headers) {
     boolean tresExist = tresExist(headers);
     boolean imagesExist = dataSource.getImageSegments().size() > 0;
@@ -27,25 +27,58 @@ import java.util.Map;
 import java.util.Optional;
 import java.util.function.BiFunction;
 import javax.imageio.ImageIO;
+import org.codice.alliance.imaging.chip.service.api.DecodedImageCache;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Supplies the decoded overview image of a metacard. When a {@link DecodedImageCache} is given, the
+ * overview is decoded once and shared with the other users of the cache, such as the chipping
+ * transformers.
+ */
 public class OverviewSupplier
     implements BiFunction<Metacard, Map<String, Serializable>, Optional<BufferedImage>> {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(OverviewSupplier.class);
 
+  private static final String OVERVIEW = "overview";
+
   private final MetacardTransformer resourceMetacardTransformer;
 
+  private final DecodedImageCache decodedImageCache;
+
   public OverviewSupplier(MetacardTransformer resourceMetacardTransformer) {
+    this(resourceMetacardTransformer, null);
+  }
+
+  /**
+   * @param resourceMetacardTransformer transformer that returns the derived resources of a metacard
+   * @param decodedImageCache cache of decoded overviews, may be null to decode on every call
+   */
+  public OverviewSupplier(
+      MetacardTransformer resourceMetacardTransformer, DecodedImageCache decodedImageCache) {
     this.resourceMetacardTransformer = resourceMetacardTransformer;
+    this.decodedImageCache = decodedImageCache;
   }
 
   @Override
   public Optional<BufferedImage> apply(Metacard metacard, Map<String, Serializable> arguments) {
+    if (decodedImageCache == null) {
+      return readOverview(metacard);
+    }
+
+    BufferedImage overview = decodedImageCache.get(metacard, OVERVIEW);
+    if (overview != null) {
+      return Optional.of(overview);
+    }
+
+    return readOverview(metacard).map(image -> decodedImageCache.put(metacard, OVERVIEW, image));
+  }
+
+  private Optional<BufferedImage> readOverview(Metacard metacard) {
     try {
       final Map<String, Serializable> resourceTransformerArguments = new HashMap<>();
-      resourceTransformerArguments.put(ContentItem.QUALIFIER_KEYWORD, "overview");
+      resourceTransformerArguments.put(ContentItem.QUALIFIER_KEYWORD, OVERVIEW);
       final BinaryContent overviewContent =
           resourceMetacardTransformer.transform(metacard, resourceTransformerArguments);
       try (final InputStream inputStream = overviewContent.getInputStream()) {
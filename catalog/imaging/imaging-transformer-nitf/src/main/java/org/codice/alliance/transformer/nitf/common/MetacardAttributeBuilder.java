@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.transformer.nitf.common;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.AttributeImpl;
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Collects the values of metacard attributes while a NITF is transformed and sets each attribute on
+ * the metacard once, when {@link #build()} is called. Appending to an attribute of the metacard
+ * directly copies every value it already has, so a NITF with many segments or repeated TREs would
+ * copy each multi-valued attribute once per value.
+ *
+ * <p>Values are appended to the values the metacard has when an attribute is first added. An
+ * attribute must not be set directly on the metacard between that point and {@link #build()},
+ * because it would be replaced by the collected values.
+ */
+public class MetacardAttributeBuilder {
+
+  private final Metacard metacard;
+
+  private final Map<String, List<Serializable>> attributeValues = new LinkedHashMap<>();
+
+  /** @param metacard the metacard that receives the attributes (must be non-null) */
+  public MetacardAttributeBuilder(Metacard metacard) {
+    notNull(metacard, "metacard must be non-null");
+    this.metacard = metacard;
+  }
+
+  /** @return the metacard that receives the attributes */
+  public Metacard getMetacard() {
+    return metacard;
+  }
+
+  /**
+   * Append a value to an attribute.
+   *
+   * @param attributeName must be non-null
+   * @param value the value to append
+   * @return this builder
+   */
+  public MetacardAttributeBuilder addValue(String attributeName, Serializable value) {
+    notNull(attributeName, "attributeName must be non-null");
+    attributeValues.computeIfAbsent(attributeName, this::getMetacardValues).add(value);
+    return this;
+  }
+
+  private List<Serializable> getMetacardValues(String attributeName) {
+    List<Serializable> values = new ArrayList<>();
+    Attribute attribute = metacard.getAttribute(attributeName);
+    if (attribute != null && attribute.getValues() != null) {
+      values.addAll(attribute.getValues());
+    }
+    return values;
+  }
+
+  /**
+   * Set every collected attribute on the metacard. The builder is empty afterwards and may be used
+   * to collect more attributes.
+   *
+   * @return the metacard
+   */
+  public Metacard build() {
+    attributeValues.forEach(
+        (attributeName, values) -> metacard.setAttribute(new AttributeImpl(attributeName, values)));
+    attributeValues.clear();
+    return metacard;
+  }
+}
@@ -39,7 +39,9 @@ public class NitfHeaderTransformer extends SegmentHandler {
   }
 
   private void handleNitfHeader(Metacard metacard, NitfHeader header) {
-    handleSegmentHeader(metacard, header, NitfHeaderAttribute.getAttributes());
-    handleTres(metacard, header);
+    MetacardAttributeBuilder metacardBuilder = new MetacardAttributeBuilder(metacard);
+    handleSegmentHeader(metacardBuilder, header, NitfHeaderAttribute.getAttributes());
+    handleTres(metacardBuilder, header);
+    metacardBuilder.build();
   }
 }
@@ -13,10 +13,7 @@
  */
 package org.codice.alliance.transformer.nitf.common;
 
-import ddf.catalog.data.Attribute;
 import ddf.catalog.data.AttributeDescriptor;
-import ddf.catalog.data.Metacard;
-import ddf.catalog.data.impl.AttributeImpl;
 import ddf.catalog.data.impl.BasicTypes;
 import ddf.catalog.data.types.Validation;
 import java.io.Serializable;
@@ -38,41 +35,49 @@ public class SegmentHandler {
   private static final Logger LOGGER = LoggerFactory.getLogger(SegmentHandler.class);
 
   protected <T> void handleSegmentHeader(
-      Metacard metacard, T segment, List<NitfAttribute<T>> attributes) {
-    attributes.forEach(attribute -> handleValue(metacard, attribute, segment));
+      MetacardAttributeBuilder metacardBuilder, T segment, List<NitfAttribute<T>> attributes) {
+    attributes.forEach(attribute -> handleValue(metacardBuilder, attribute, segment));
   }
 
-  protected <T> void handleSegmentHeader(Metacard metacard, T segment, NitfAttribute[] attributes) {
-    handleSegmentHeader(metacard, segment, Arrays.asList(attributes));
+  protected <T> void handleSegmentHeader(
+      MetacardAttributeBuilder metacardBuilder, T segment, NitfAttribute[] attributes) {
+    handleSegmentHeader(metacardBuilder, segment, Arrays.asList(attributes));
   }
 
   protected void handleTres(
-      Metacard metacard, TaggedRecordExtensionHandler taggedRecordextensionHandler) {
+      MetacardAttributeBuilder metacardBuilder,
+      TaggedRecordExtensionHandler taggedRecordextensionHandler) {
     List<Tre> tres = taggedRecordextensionHandler.getTREsRawStructure().getTREs();
 
     tres.forEach(
         tre ->
             Optional.ofNullable(TreDescriptor.forName(tre.getName().trim()))
-                .ifPresent(treDescriptor -> handleTre(metacard, tre, treDescriptor.getValues())));
+                .ifPresent(
+                    treDescriptor ->
+                        handleTre(metacardBuilder, tre, treDescriptor.getValues())));
   }
 
-  private <T> void handleTre(Metacard metacard, Tre tre, List<NitfAttribute<T>> treValues) {
-    treValues.forEach(attribute -> handleTreValues(metacard, attribute, tre));
+  private <T> void handleTre(
+      MetacardAttributeBuilder metacardBuilder, Tre tre, List<NitfAttribute<T>> treValues) {
+    treValues.forEach(attribute -> handleTreValues(metacardBuilder, attribute, tre));
   }
 
-  private void handleTreValues(Metacard metacard, NitfAttribute attribute, Tre tre) {
+  private void handleTreValues(
+      MetacardAttributeBuilder metacardBuilder, NitfAttribute attribute, Tre tre) {
     NitfAttributeImpl treAttribute = (NitfAttributeImpl) attribute;
     List<NitfAttribute<TreGroup>> indexedAttributes = treAttribute.getIndexedAttributes();
     if (indexedAttributes != null && !indexedAttributes.isEmpty()) {
       List<TreGroup> treGroups = TreUtility.getTreGroups(tre, attribute.getShortName());
       if (treGroups != null) {
-        treGroups.forEach(treGroup -> handleSegmentHeader(metacard, treGroup, indexedAttributes));
+        treGroups.forEach(
+            treGroup -> handleSegmentHeader(metacardBuilder, treGroup, indexedAttributes));
       }
     }
-    handleValue(metacard, attribute, tre);
+    handleValue(metacardBuilder, attribute, tre);
   }
 
-  private <T> void handleValue(Metacard metacard, NitfAttribute attribute, T segment) {
+  private <T> void handleValue(
+      MetacardAttributeBuilder metacardBuilder, NitfAttribute attribute, T segment) {
     Function<T, Serializable> accessor = attribute.getAccessorFunction();
 
     Serializable value;
@@ -82,11 +87,11 @@ public class SegmentHandler {
       LOGGER.debug(
           "Error accessing NITF attribute value. Skipping attribute [{}] on Metacard with ID [{}]",
           attribute.getLongName(),
-          metacard.getId(),
+          metacardBuilder.getMetacard().getId(),
           e);
 
       if (!ExtNitfUtility.isExtAttribute(attribute)) {
-        handleBadAttribute(metacard, attribute, e.getOriginalValue());
+        handleBadAttribute(metacardBuilder, attribute, e.getOriginalValue());
       }
       return;
     }
@@ -117,25 +122,27 @@ public class SegmentHandler {
     for (AttributeDescriptor descriptor : descriptors) {
       if (descriptor.getName().contains(ExtNitfUtility.EXT_NITF_PREFIX)) {
         if (extValue != null) {
-          setMetacardAttribute(metacard, descriptor.getName(), extValue);
+          setMetacardAttribute(metacardBuilder, descriptor.getName(), extValue);
         }
       } else {
         if (value != null) {
-          setMetacardAttribute(metacard, descriptor.getName(), value);
+          setMetacardAttribute(metacardBuilder, descriptor.getName(), value);
         }
       }
     }
   }
 
   private void handleBadAttribute(
-      Metacard metacard, NitfAttribute attribute, Serializable originalValue) {
+      MetacardAttributeBuilder metacardBuilder,
+      NitfAttribute attribute,
+      Serializable originalValue) {
     Set<AttributeDescriptor> attributeDescriptors = attribute.getAttributeDescriptors();
 
     for (AttributeDescriptor descriptor : attributeDescriptors) {
-      setMetacardAttribute(metacard, descriptor.getName(), originalValue);
+      setMetacardAttribute(metacardBuilder, descriptor.getName(), originalValue);
     }
 
-    attachValidationWarning(metacard, attribute);
+    attachValidationWarning(metacardBuilder, attribute);
   }
 
   /**
@@ -143,26 +150,19 @@ public class SegmentHandler {
    * descriptors are defined in the {@link
    * org.codice.alliance.transformer.nitf.AbstractNitfMetacardType}
    */
-  private void attachValidationWarning(Metacard metacard, NitfAttribute attribute) {
+  private void attachValidationWarning(
+      MetacardAttributeBuilder metacardBuilder, NitfAttribute attribute) {
     String warningMessage =
         String.format(
             "Error while processing NITF attribute %s (%s). This NITF attribute was set to its original value and needs to be fixed manually.",
             attribute.getLongName(), attribute.getShortName());
 
-    setMetacardAttribute(metacard, Validation.VALIDATION_WARNINGS, warningMessage);
+    setMetacardAttribute(metacardBuilder, Validation.VALIDATION_WARNINGS, warningMessage);
   }
 
-  private void setMetacardAttribute(Metacard metacard, String attributeName, Serializable value) {
-    Attribute currentAttribute = metacard.getAttribute(attributeName);
-
-    if (currentAttribute == null) {
-      currentAttribute = new AttributeImpl(attributeName, value);
-    } else {
-      AttributeImpl newAttribute = new AttributeImpl(currentAttribute);
-      newAttribute.addValue(value);
-      currentAttribute = newAttribute;
-    }
+  private void setMetacardAttribute(
+      MetacardAttributeBuilder metacardBuilder, String attributeName, Serializable value) {
     LOGGER.trace("Setting the metacard attribute [{}, {}]", attributeName, value);
-    metacard.setAttribute(currentAttribute);
+    metacardBuilder.addValue(attributeName, value);
   }
 }
@@ -13,8 +13,9 @@
  */
 package org.codice.alliance.transformer.nitf.common;
 
-import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import org.codice.alliance.transformer.nitf.complex.CmetaaAttribute;
 import org.codice.alliance.transformer.nitf.gmti.MtirpbAttribute;
 import org.codice.imaging.nitf.core.tre.Tre;
@@ -33,17 +34,29 @@ public enum TreDescriptor {
   PIATGB(PiatgbAttribute.getAttributes()),
   STDIDC(StdidcAttribute.getAttributes());
 
+  private static final Map<String, TreDescriptor> LOOKUP = new HashMap<>();
+
+  static {
+    for (TreDescriptor treDescriptor : values()) {
+      LOOKUP.put(treDescriptor.name(), treDescriptor);
+    }
+  }
+
   private final List<NitfAttribute<Tre>> nitfAttributes;
 
   TreDescriptor(List<NitfAttribute<Tre>> nitfAttributes) {
     this.nitfAttributes = nitfAttributes;
   }
 
+  /**
+   * Find the TreDescriptor for a TRE name. This is called for every TRE of every segment, so the
+   * descriptors are looked up in a table that is built once.
+   *
+   * @param name the TRE name without padding
+   * @return the TreDescriptor or null if the TRE is not supported
+   */
   public static TreDescriptor forName(String name) {
-    return Arrays.stream(TreDescriptor.values())
-        .filter(treDescriptor -> treDescriptor.name().equals(name))
-        .findFirst()
-        .orElse(null);
+    return LOOKUP.get(name);
   }
 
   public List<NitfAttribute<Tre>> getValues() {
@@ -0,0 +1,213 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.transformer.nitf.common;
+
+/**
+ * Decodes the BCS-A numeric and date fields of TREs by scanning their characters once, without
+ * regular expressions or intermediate objects. Only the plain forms that TREs are written with are
+ * decoded here. {@link TreUtility} hands every other value to the JDK parsers, so a field decodes
+ * to the same value it would with {@link Integer#valueOf(String)}, {@link Float#valueOf(String)} or
+ * the TRE date format.
+ */
+public final class TreFieldDecoder {
+
+  /** Returned by {@link #parseDate(String)} when the value is not a plain TRE date. */
+  static final long NO_DATE = Long.MIN_VALUE;
+
+  /** Every integer up to 2^24 can be represented exactly by a float. */
+  private static final long MAX_EXACT_FLOAT_MANTISSA = 1L << 24;
+
+  /** The powers of ten that can be represented exactly by a float. */
+  private static final float[] EXACT_FLOAT_POWERS_OF_TEN = {
+    1e0f, 1e1f, 1e2f, 1e3f, 1e4f, 1e5f, 1e6f, 1e7f, 1e8f, 1e9f, 1e10f
+  };
+
+  private static final int DATE_LENGTH = 14;
+
+  /** The Gregorian calendar is used from 1583, earlier dates are left to the date format. */
+  private static final int FIRST_GREGORIAN_YEAR = 1583;
+
+  private static final long MILLIS_PER_SECOND = 1000L;
+
+  private static final long SECONDS_PER_DAY = 86400L;
+
+  private static final int DAYS_PER_400_YEARS = 146097;
+
+  /** Days from 0000-03-01 to 1970-01-01 in the proleptic Gregorian calendar. */
+  private static final int DAYS_TO_EPOCH = 719468;
+
+  private TreFieldDecoder() {}
+
+  /**
+   * @param value must be non-null
+   * @return true if the value is an optional sign followed by one or more digits
+   */
+  public static boolean isInteger(String value) {
+    int length = value.length();
+    int start = isSign(value, 0) ? 1 : 0;
+    if (start == length) {
+      return false;
+    }
+    for (int i = start; i < length; i++) {
+      if (!isDigit(value.charAt(i))) {
+        return false;
+      }
+    }
+    return true;
+  }
+
+  /**
+   * @param value must be non-null
+   * @return true if the value is an optional sign followed by digits with an optional decimal
+   *     point, and has at least one digit
+   */
+  public static boolean isDecimal(String value) {
+    int length = value.length();
+    boolean hasDigit = false;
+    boolean hasPoint = false;
+    for (int i = isSign(value, 0) ? 1 : 0; i < length; i++) {
+      char c = value.charAt(i);
+      if (isDigit(c)) {
+        hasDigit = true;
+      } else if (c == '.' && !hasPoint) {
+        hasPoint = true;
+      } else {
+        return false;
+      }
+    }
+    return hasDigit;
+  }
+
+  /**
+   * Decode a value that was checked with {@link #isDecimal(String)}. When the digits and the
+   * number of decimal places are small enough for the quotient of two exact floats, the value is
+   * computed directly, which is exact because a float division is correctly rounded. Other values
+   * are decoded by {@link Float#parseFloat(String)}.
+   *
+   * @param value must be non-null and a decimal
+   * @return the nearest float
+   */
+  public static float parseDecimal(String value) {
+    int length = value.length();
+    boolean negative = value.charAt(0) == '-';
+    long mantissa = 0;
+    int decimalPlaces = 0;
+    boolean afterPoint = false;
+
+    for (int i = isSign(value, 0) ? 1 : 0; i < length; i++) {
+      char c = value.charAt(i);
+      if (c == '.') {
+        afterPoint = true;
+        continue;
+      }
+      mantissa = mantissa * 10 + (c - '0');
+      if (afterPoint) {
+        decimalPlaces++;
+      }
+      if (mantissa > MAX_EXACT_FLOAT_MANTISSA
+          || decimalPlaces >= EXACT_FLOAT_POWERS_OF_TEN.length) {
+        return Float.parseFloat(value);
+      }
+    }
+
+    float result = mantissa / EXACT_FLOAT_POWERS_OF_TEN[decimalPlaces];
+    return negative ? -result : result;
+  }
+
+  /**
+   * Decode a date in the TRE date format (yyyyMMddHHmmss, UTC). Only valid dates from {@link
+   * #FIRST_GREGORIAN_YEAR} are decoded. Other values, which the date format may still accept
+   * leniently, return {@link #NO_DATE}.
+   *
+   * @param value must be non-null
+   * @return milliseconds since the epoch or {@link #NO_DATE}
+   */
+  public static long parseDate(String value) {
+    if (value.length() != DATE_LENGTH) {
+      return NO_DATE;
+    }
+    for (int i = 0; i < DATE_LENGTH; i++) {
+      if (!isDigit(value.charAt(i))) {
+        return NO_DATE;
+      }
+    }
+
+    int year = parseDigits(value, 0, 4);
+    int month = parseDigits(value, 4, 6);
+    int day = parseDigits(value, 6, 8);
+    int hour = parseDigits(value, 8, 10);
+    int minute = parseDigits(value, 10, 12);
+    int second = parseDigits(value, 12, 14);
+
+    if (year < FIRST_GREGORIAN_YEAR
+        || month < 1
+        || month > 12
+        || day < 1
+        || day > daysInMonth(year, month)
+        || hour > 23
+        || minute > 59
+        || second > 59) {
+      return NO_DATE;
+    }
+
+    long seconds = daysSinceEpoch(year, month, day) * SECONDS_PER_DAY;
+    seconds += hour * 3600L + minute * 60L + second;
+    return seconds * MILLIS_PER_SECOND;
+  }
+
+  private static boolean isSign(String value, int index) {
+    if (index >= value.length()) {
+      return false;
+    }
+    char c = value.charAt(index);
+    return c == '+' || c == '-';
+  }
+
+  private static boolean isDigit(char c) {
+    return c >= '0' && c <= '9';
+  }
+
+  private static int parseDigits(String value, int from, int to) {
+    int result = 0;
+    for (int i = from; i < to; i++) {
+      result = result * 10 + (value.charAt(i) - '0');
+    }
+    return result;
+  }
+
+  private static int daysInMonth(int year, int month) {
+    switch (month) {
+      case 2:
+        boolean leapYear = (year % 4 == 0 && year % 100 != 0) || year % 400 == 0;
+        return leapYear ? 29 : 28;
+      case 4:
+      case 6:
+      case 9:
+      case 11:
+        return 30;
+      default:
+        return 31;
+    }
+  }
+
+  /** Count the days in the proleptic Gregorian calendar, with the year starting in March. */
+  private static long daysSinceEpoch(int year, int month, int day) {
+    int marchBasedYear = month <= 2 ? year - 1 : year;
+    int era = marchBasedYear / 400;
+    int yearOfEra = marchBasedYear - era * 400;
+    int dayOfYear = (153 * (month > 2 ? month - 3 : month + 9) + 2) / 5 + day - 1;
+    int dayOfEra = yearOfEra * 365 + yearOfEra / 4 - yearOfEra / 100 + dayOfYear;
+    return (long) era * DAYS_PER_400_YEARS + dayOfEra - DAYS_TO_EPOCH;
+  }
+}
@@ -31,7 +31,7 @@ import org.slf4j.LoggerFactory;
 
 public final class TreUtility {
 
-  static final String TRE_DATE_FORMAT = "yyyyMMddkkmmss";
+  public static final String TRE_DATE_FORMAT = "yyyyMMddkkmmss";
 
   private static final Logger LOGGER = LoggerFactory.getLogger(TreUtility.class);
 
@@ -65,9 +65,7 @@ public final class TreUtility {
           + DIGITS_REGEX
           + "))[fFdD]?))[\\x00-\\x20]*");
 
-  private static final Pattern FLOAT_PATTERN = Pattern.compile(FLOATING_POINT_REGEX);
-
-  private static final Pattern INTEGER_PATTERN = Pattern.compile("[+-]?\\d+");
+  public static final Pattern FLOAT_PATTERN = Pattern.compile(FLOATING_POINT_REGEX);
 
   private TreUtility() {}
 
@@ -108,7 +106,7 @@ public final class TreUtility {
   @Nullable
   public static Integer convertToInteger(Tre tre, String fieldName) {
     String value = TreUtility.getTreValue(tre, fieldName);
-    if (StringUtils.isNotEmpty(value) && INTEGER_PATTERN.matcher(value).matches()) {
+    if (StringUtils.isNotEmpty(value) && TreFieldDecoder.isInteger(value)) {
       return Integer.valueOf(value);
     }
     return null;
@@ -126,7 +124,13 @@ public final class TreUtility {
   @Nullable
   public static Float convertToFloat(Tre tre, String fieldName) {
     String value = TreUtility.getTreValue(tre, fieldName);
-    if (StringUtils.isNotEmpty(value) && FLOAT_PATTERN.matcher(value).matches()) {
+    if (StringUtils.isEmpty(value)) {
+      return null;
+    }
+    if (TreFieldDecoder.isDecimal(value)) {
+      return TreFieldDecoder.parseDecimal(value);
+    }
+    if (FLOAT_PATTERN.matcher(value).matches()) {
       return Float.valueOf(value);
     }
     return null;
@@ -146,6 +150,10 @@ public final class TreUtility {
   public static Date convertToDate(Tre tre, String fieldName) {
     String value = TreUtility.getTreValue(tre, fieldName);
     if (StringUtils.isNotEmpty(value)) {
+      long time = TreFieldDecoder.parseDate(value);
+      if (time != TreFieldDecoder.NO_DATE) {
+        return new Date(time);
+      }
       try {
         return DATE_FORMATTER.parse(value);
       } catch (ParseException e) {
@@ -0,0 +1,178 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.transformer.nitf.gmti;
+
+import java.io.Serializable;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.MultiPoint;
+import org.locationtech.jts.geom.PrecisionModel;
+
+/**
+ * Builds the target footprint of a GMTI product from the MTIRPB target locations. Each location is
+ * a fixed-width field with two coordinates, a sign, 2 digits, a decimal point and 6 or 7 decimal
+ * places followed by a sign, 3 digits, a decimal point and 6 or 7 decimal places (for example
+ * {@code +52.1234567-004.1234567}). The coordinates are read directly into a JTS coordinate, in the
+ * order they appear in the field.
+ *
+ * <p>Dense dwells can report many targets that are only meters apart. When a cluster distance is
+ * set, the targets that fall into the same grid cell of that size are replaced by their centroid.
+ */
+class GmtiTargetExtractor {
+
+  /** Disables clustering. */
+  static final double NO_CLUSTERING = 0;
+
+  /** Smallest cluster distance in degrees, about 10 cm at the equator. */
+  static final double MIN_CLUSTER_DISTANCE = 0.000001;
+
+  private static final int MIN_DECIMAL_PLACES = 6;
+
+  private static final int MAX_DECIMAL_PLACES = 7;
+
+  /** The first coordinate has 2 digits before the decimal point and the second one has 3. */
+  private static final int FIRST_INTEGER_DIGITS = 2;
+
+  private static final int SECOND_INTEGER_DIGITS = 3;
+
+  private static final double[] POWERS_OF_TEN = {1e6, 1e7};
+
+  private final GeometryFactory geometryFactory;
+
+  private final double clusterDistance;
+
+  /**
+   * @param geometryFactory must be non-null
+   * @param clusterDistance size of the cluster grid in degrees, {@link #NO_CLUSTERING} or at least
+   *     {@link #MIN_CLUSTER_DISTANCE}
+   */
+  GmtiTargetExtractor(GeometryFactory geometryFactory, double clusterDistance) {
+    if (geometryFactory == null) {
+      throw new IllegalArgumentException("argument 'geometryFactory' may not be null.");
+    }
+    this.geometryFactory = geometryFactory;
+    this.clusterDistance = clusterDistance;
+  }
+
+  /**
+   * @param targetLocations the MTIRPB target location fields (must be non-null)
+   * @return the targets, or empty if there are none or a location is malformed
+   */
+  Optional<MultiPoint> extract(Collection<Serializable> targetLocations) {
+    if (targetLocations.isEmpty()) {
+      return Optional.empty();
+    }
+
+    PrecisionModel precisionModel = geometryFactory.getPrecisionModel();
+    Coordinate[] coordinates = new Coordinate[targetLocations.size()];
+    int index = 0;
+    for (Serializable targetLocation : targetLocations) {
+      Coordinate coordinate =
+          targetLocation == null ? null : parseLocation(targetLocation.toString());
+      if (coordinate == null) {
+        return Optional.empty();
+      }
+      precisionModel.makePrecise(coordinate);
+      coordinates[index++] = coordinate;
+    }
+
+    if (clusterDistance != NO_CLUSTERING) {
+      coordinates = cluster(coordinates);
+    }
+
+    return Optional.of(
+        geometryFactory.createMultiPoint(
+            geometryFactory.getCoordinateSequenceFactory().create(coordinates)));
+  }
+
+  /**
+   * @param location must be non-null
+   * @return the coordinate, or null if the location is malformed
+   */
+  static Coordinate parseLocation(String location) {
+    int split = FIRST_INTEGER_DIGITS + MIN_DECIMAL_PLACES + 2;
+    if (location.length() > split && !isSign(location.charAt(split))) {
+      split++;
+    }
+
+    double x = parseCoordinate(location, 0, split, FIRST_INTEGER_DIGITS);
+    double y = parseCoordinate(location, split, location.length(), SECOND_INTEGER_DIGITS);
+
+    if (Double.isNaN(x) || Double.isNaN(y)) {
+      return null;
+    }
+    return new Coordinate(x, y);
+  }
+
+  /**
+   * The digits are read into a long and divided by a power of ten that a double represents exactly.
+   * A division is correctly rounded, so the result equals {@link Double#parseDouble(String)}.
+   *
+   * @return the coordinate or NaN if the characters are not a sign, {@code integerDigits} digits, a
+   *     decimal point and 6 or 7 decimal places
+   */
+  private static double parseCoordinate(String location, int from, int to, int integerDigits) {
+    int decimalPlaces = to - from - integerDigits - 2;
+    if (to > location.length()
+        || decimalPlaces < MIN_DECIMAL_PLACES
+        || decimalPlaces > MAX_DECIMAL_PLACES
+        || !isSign(location.charAt(from))
+        || location.charAt(from + integerDigits + 1) != '.') {
+      return Double.NaN;
+    }
+
+    long digits = 0;
+    for (int i = from + 1; i < to; i++) {
+      char c = location.charAt(i);
+      if (c >= '0' && c <= '9') {
+        digits = digits * 10 + (c - '0');
+      } else if (i != from + integerDigits + 1) {
+        return Double.NaN;
+      }
+    }
+
+    double value = digits / POWERS_OF_TEN[decimalPlaces - MIN_DECIMAL_PLACES];
+    return location.charAt(from) == '-' ? -value : value;
+  }
+
+  private static boolean isSign(char c) {
+    return c == '+' || c == '-';
+  }
+
+  /** Replace the coordinates in each grid cell by their centroid, in order of first appearance. */
+  private Coordinate[] cluster(Coordinate[] coordinates) {
+    Map<Long, double[]> cells = new LinkedHashMap<>();
+    for (Coordinate coordinate : coordinates) {
+      long cellX = (long) Math.floor(coordinate.x / clusterDistance);
+      long cellY = (long) Math.floor(coordinate.y / clusterDistance);
+      long cell = (cellX << 32) ^ (cellY & 0xFFFFFFFFL);
+      double[] sums = cells.computeIfAbsent(cell, key -> new double[3]);
+      sums[0] += coordinate.x;
+      sums[1] += coordinate.y;
+      sums[2]++;
+    }
+
+    Coordinate[] centroids = new Coordinate[cells.size()];
+    int index = 0;
+    for (double[] sums : cells.values()) {
+      centroids[index] = new Coordinate(sums[0] / sums[2], sums[1] / sums[2]);
+      geometryFactory.getPrecisionModel().makePrecise(centroids[index++]);
+    }
+    return centroids;
+  }
+}
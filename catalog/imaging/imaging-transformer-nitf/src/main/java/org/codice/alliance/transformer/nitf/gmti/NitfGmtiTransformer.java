@@ -18,13 +18,14 @@ import ddf.catalog.data.Metacard;
 import ddf.catalog.data.impl.AttributeImpl;
 import ddf.catalog.data.types.Core;
 import java.util.Objects;
+import java.util.Optional;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 import org.apache.commons.lang3.StringUtils;
 import org.codice.alliance.transformer.nitf.common.SegmentHandler;
 import org.codice.imaging.nitf.fluent.NitfSegmentsFlow;
-import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.MultiPoint;
 import org.locationtech.jts.io.ParseException;
 import org.locationtech.jts.io.WKTReader;
 import org.slf4j.Logger;
@@ -42,6 +43,8 @@ public class NitfGmtiTransformer extends SegmentHandler {
 
   private GeometryFactory geometryFactory;
 
+  private double targetClusterDistance = GmtiTargetExtractor.NO_CLUSTERING;
+
   public NitfGmtiTransformer() {
     geometryFactory = new GeometryFactory();
   }
@@ -71,31 +74,11 @@ public class NitfGmtiTransformer extends SegmentHandler {
     return metacard;
   }
 
+  /**
+   * Replace the target locations with a MULTIPOINT of the targets. The footprint is built directly
+   * from the location fields and converted to WKT once for every attribute it is written to.
+   */
   private void transformTargetLocation(Metacard metacard) {
-    String locationString = formatTargetLocation(metacard);
-
-    try {
-      LOGGER.debug("Formatted Target Location(s) = {}", locationString);
-
-      if (locationString != null) {
-        // validate the wkt
-        WKTReader wktReader = new WKTReader(geometryFactory);
-        Geometry geometry = wktReader.read(locationString);
-
-        LOGGER.debug("Setting the metacard attribute [{}, {}]", Core.LOCATION, geometry);
-        IndexedMtirpbAttribute.INDEXED_TARGET_LOCATION_ATTRIBUTE
-            .getAttributeDescriptors()
-            .forEach(
-                descriptor ->
-                    setMetacardAttribute(metacard, descriptor.getName(), geometry.toText()));
-      }
-
-    } catch (ParseException e) {
-      LOGGER.debug(e.getMessage(), e);
-    }
-  }
-
-  private String formatTargetLocation(Metacard metacard) {
     Attribute locationAttribute =
         IndexedMtirpbAttribute.INDEXED_TARGET_LOCATION_ATTRIBUTE.getAttributeDescriptors().stream()
             .map(descriptor -> metacard.getAttribute(descriptor.getName()))
@@ -103,23 +86,26 @@ public class NitfGmtiTransformer extends SegmentHandler {
             .findFirst()
             .orElse(null);
 
-    if (locationAttribute != null) {
-      StringBuilder stringBuilder = new StringBuilder("MULTIPOINT (");
+    if (locationAttribute == null || locationAttribute.getValues() == null) {
+      return;
+    }
 
-      locationAttribute
-          .getValues()
-          .forEach(
-              value -> {
-                parseLocation(stringBuilder, value.toString());
-                stringBuilder.append(",");
-              });
+    Optional<MultiPoint> targets =
+        new GmtiTargetExtractor(geometryFactory, targetClusterDistance)
+            .extract(locationAttribute.getValues());
 
-      stringBuilder.deleteCharAt(stringBuilder.lastIndexOf(","));
-      stringBuilder.append(")");
-      return stringBuilder.toString();
+    if (!targets.isPresent()) {
+      LOGGER.debug(
+          "Unable to read the target locations {}, the target location will not be set.",
+          locationAttribute.getValues());
+      return;
     }
 
-    return null;
+    String wkt = targets.get().toText();
+    LOGGER.debug("Setting the metacard attribute [{}, {}]", Core.LOCATION, wkt);
+    IndexedMtirpbAttribute.INDEXED_TARGET_LOCATION_ATTRIBUTE
+        .getAttributeDescriptors()
+        .forEach(descriptor -> setMetacardAttribute(metacard, descriptor.getName(), wkt));
   }
 
   private void transformAircraftLocation(Metacard metacard) {
@@ -188,6 +174,24 @@ public class NitfGmtiTransformer extends SegmentHandler {
     this.geometryFactory = geometryFactory;
   }
 
+  /**
+   * Merge targets that are close together into one point of the target location. Targets in the
+   * same grid cell of this size are replaced by their centroid. Clustering is disabled by default.
+   *
+   * @param targetClusterDistance size of the grid cells in degrees, 0 to disable clustering or at
+   *     least 0.000001
+   */
+  public void setTargetClusterDistance(double targetClusterDistance) {
+    if (targetClusterDistance != GmtiTargetExtractor.NO_CLUSTERING
+        && !(targetClusterDistance >= GmtiTargetExtractor.MIN_CLUSTER_DISTANCE)) {
+      throw new IllegalArgumentException(
+          String.format(
+              "argument 'targetClusterDistance' must be 0 or at least %s.",
+              GmtiTargetExtractor.MIN_CLUSTER_DISTANCE));
+    }
+    this.targetClusterDistance = targetClusterDistance;
+  }
+
   private void setMetacardAttribute(Metacard metacard, String attrName, String value) {
     LOGGER.trace("Setting the metacard attribute [{}, {}]", attrName, value);
     metacard.setAttribute(new AttributeImpl(attrName, value));
@@ -23,6 +23,7 @@ import java.util.List;
 import org.apache.commons.lang3.StringUtils;
 import org.codice.alliance.catalog.core.api.types.Isr;
 import org.codice.alliance.transformer.nitf.NitfAttributeConverters;
+import org.codice.alliance.transformer.nitf.common.MetacardAttributeBuilder;
 import org.codice.alliance.transformer.nitf.common.SegmentHandler;
 import org.codice.imaging.nitf.core.DataSource;
 import org.codice.imaging.nitf.core.image.ImageCoordinates;
@@ -60,20 +61,22 @@ public class NitfImageTransformer extends SegmentHandler {
     metacard.setAttribute(new AttributeImpl(Core.DATATYPE, IMAGE_DATATYPE));
     List<Polygon> polygons = new ArrayList<>();
     List<Date> imageDates = new ArrayList<>();
+    MetacardAttributeBuilder metacardBuilder = new MetacardAttributeBuilder(metacard);
 
     nitfSegmentsFlow
         .forEachImageSegment(
-            segment -> handleImageSegmentHeader(metacard, segment, polygons, imageDates))
+            segment -> handleImageSegmentHeader(metacardBuilder, segment, polygons, imageDates))
         .forEachGraphicSegment(
-            segment -> handleSegmentHeader(metacard, segment, GraphicAttribute.values()))
+            segment -> handleSegmentHeader(metacardBuilder, segment, GraphicAttribute.values()))
         .forEachTextSegment(
-            segment -> handleSegmentHeader(metacard, segment, TextAttribute.values()))
+            segment -> handleSegmentHeader(metacardBuilder, segment, TextAttribute.values()))
         .forEachSymbolSegment(
-            segment -> handleSegmentHeader(metacard, segment, SymbolAttribute.values()))
+            segment -> handleSegmentHeader(metacardBuilder, segment, SymbolAttribute.values()))
         .forEachLabelSegment(
-            segment -> handleSegmentHeader(metacard, segment, LabelAttribute.values()))
+            segment -> handleSegmentHeader(metacardBuilder, segment, LabelAttribute.values()))
         .end();
 
+    metacardBuilder.build();
     handleSegments(polygons, imageDates, metacard);
     return metacard;
   }
@@ -84,42 +87,44 @@ public class NitfImageTransformer extends SegmentHandler {
 
     List<Polygon> polygons = new ArrayList<>();
     List<Date> imageDates = new ArrayList<>();
+    MetacardAttributeBuilder metacardBuilder = new MetacardAttributeBuilder(metacard);
 
     nitfDataSource
         .getImageSegments()
         .forEach(
             imageSegment -> {
-              handleImageSegmentHeader(metacard, imageSegment, polygons, imageDates);
+              handleImageSegmentHeader(metacardBuilder, imageSegment, polygons, imageDates);
             });
 
     nitfDataSource
         .getGraphicSegments()
         .forEach(
             graphicSegment -> {
-              handleSegmentHeader(metacard, graphicSegment, GraphicAttribute.values());
+              handleSegmentHeader(metacardBuilder, graphicSegment, GraphicAttribute.values());
             });
 
     nitfDataSource
         .getTextSegments()
         .forEach(
             textSegment -> {
-              handleSegmentHeader(metacard, textSegment, GraphicAttribute.values());
+              handleSegmentHeader(metacardBuilder, textSegment, GraphicAttribute.values());
             });
 
     nitfDataSource
         .getSymbolSegments()
         .forEach(
             symbolSegment -> {
-              handleSegmentHeader(metacard, symbolSegment, GraphicAttribute.values());
+              handleSegmentHeader(metacardBuilder, symbolSegment, GraphicAttribute.values());
             });
 
     nitfDataSource
         .getLabelSegments()
         .forEach(
             labelSegment -> {
-              handleSegmentHeader(metacard, labelSegment, GraphicAttribute.values());
+              handleSegmentHeader(metacardBuilder, labelSegment, GraphicAttribute.values());
             });
 
+    metacardBuilder.build();
     handleSegments(polygons, imageDates, metacard);
     return metacard;
   }
@@ -159,17 +164,17 @@ public class NitfImageTransformer extends SegmentHandler {
   }
 
   private void handleImageSegmentHeader(
-      Metacard metacard,
+      MetacardAttributeBuilder metacardBuilder,
       ImageSegment imagesegmentHeader,
       List<Polygon> polygons,
       List<Date> imageDateAndTimeList) {
 
-    handleSegmentHeader(metacard, imagesegmentHeader, ImageAttribute.getAttributes());
+    handleSegmentHeader(metacardBuilder, imagesegmentHeader, ImageAttribute.getAttributes());
 
     // custom handling of image header fields
     handleGeometry(imagesegmentHeader, polygons);
-    handleComments(metacard, imagesegmentHeader.getImageComments());
-    handleTres(metacard, imagesegmentHeader);
+    handleComments(metacardBuilder.getMetacard(), imagesegmentHeader.getImageComments());
+    handleTres(metacardBuilder, imagesegmentHeader);
     imageDateAndTimeList.add(
         NitfAttributeConverters.nitfDate(imagesegmentHeader.getImageDateTime()));
   }
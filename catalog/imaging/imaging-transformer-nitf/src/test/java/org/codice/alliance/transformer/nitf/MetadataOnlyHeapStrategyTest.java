@@ -0,0 +1,42 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.transformer.nitf;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
+
+import org.codice.imaging.nitf.core.common.NitfReader;
+import org.junit.Test;
+
+public class MetadataOnlyHeapStrategyTest {
+
+  @Test
+  public void testSegmentDataIsSkipped() throws Exception {
+    NitfReader nitfReader = mock(NitfReader.class);
+
+    MetadataOnlyHeapStrategy heapStrategy = new MetadataOnlyHeapStrategy();
+
+    assertThat(heapStrategy.handleSegment(nitfReader, 1024), is(nullValue()));
+    assertThat(heapStrategy.handleSegment(nitfReader, 2048), is(nullValue()));
+
+    verify(nitfReader).skip(1024);
+    verify(nitfReader).skip(2048);
+    verifyNoMoreInteractions(nitfReader);
+    assertThat(heapStrategy.getSkippedByteCount(), is(3072L));
+  }
+}
@@ -14,6 +14,7 @@
 package org.codice.alliance.transformer.nitf;
 
 import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.junit.Assert.assertThat;
 
 import ddf.catalog.data.Metacard;
@@ -69,4 +70,33 @@ public class NitfTransformerTest {
 
     assertThat(metacard.getMetacardType().getName(), is("isr.gmti"));
   }
+
+  @Test
+  public void gmtiNitfWithTargetClustering() throws Exception {
+    nitfTransformer.setTargetClusterDistance(0.001);
+    InputStream nitfStream = getClass().getClassLoader().getResourceAsStream("gmti-test.ntf");
+    Metacard metacard = nitfTransformer.transform(nitfStream);
+
+    assertThat(metacard.getMetacardType().getName(), is("isr.gmti"));
+    assertThat(metacard.getLocation(), is(notNullValue()));
+  }
+
+  @Test
+  public void invalidTargetClusterDistanceDisablesClustering() throws Exception {
+    nitfTransformer.setTargetClusterDistance(-1);
+    InputStream nitfStream = getClass().getClassLoader().getResourceAsStream("gmti-test.ntf");
+    Metacard metacard = nitfTransformer.transform(nitfStream);
+
+    assertThat(metacard.getMetacardType().getName(), is("isr.gmti"));
+    assertThat(metacard.getLocation(), is(notNullValue()));
+  }
+
+  @Test
+  public void largeImageNitf() throws Exception {
+    InputStream nitfStream = getClass().getClassLoader().getResourceAsStream("i_3001a.ntf");
+    Metacard metacard = nitfTransformer.transform(nitfStream);
+
+    assertThat(metacard.getMetacardType().getName(), is("isr.image"));
+    assertThat(metacard.getLocation(), is(notNullValue()));
+  }
 }
@@ -14,13 +14,19 @@
 package org.codice.alliance.transformer.nitf;
 
 import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.sameInstance;
 import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.argThat;
 import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
 
 import ddf.catalog.content.data.ContentItem;
 import ddf.catalog.data.BinaryContent;
@@ -30,7 +36,11 @@ import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.data.types.Core;
 import ddf.catalog.transform.CatalogTransformerException;
 import ddf.catalog.transform.MetacardTransformer;
+import java.awt.image.BufferedImage;
 import java.util.Collections;
+import java.util.Date;
+import org.codice.alliance.imaging.chip.service.api.DecodedImageCache;
+import org.codice.alliance.imaging.chip.service.impl.DecodedImageCacheImpl;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentMatcher;
@@ -39,6 +49,8 @@ public class OverviewSupplierTest {
 
   private OverviewSupplier supplier;
 
+  private MetacardTransformer resourceMetacardTransformer;
+
   private class IsMetacardWithDerivedOverviewResource implements ArgumentMatcher<Metacard> {
     private final OverviewPredicate predicate = new OverviewPredicate();
 
@@ -65,7 +77,7 @@ public class OverviewSupplierTest {
         .when(overviewContent)
         .getInputStream();
 
-    final MetacardTransformer resourceMetacardTransformer = mock(MetacardTransformer.class);
+    resourceMetacardTransformer = mock(MetacardTransformer.class);
     doReturn(overviewContent)
         .when(resourceMetacardTransformer)
         .transform(
@@ -91,4 +103,66 @@ public class OverviewSupplierTest {
   public void testNoOverview() {
     assertThat(supplier.apply(new MetacardImpl(), null).isPresent(), is(false));
   }
+
+  @Test
+  public void testCachedOverview() throws CatalogTransformerException {
+    final Metacard metacard = overviewMetacard();
+    final BufferedImage cachedOverview = new BufferedImage(1, 1, BufferedImage.TYPE_3BYTE_BGR);
+    final DecodedImageCache decodedImageCache = mock(DecodedImageCache.class);
+    when(decodedImageCache.get(metacard, "overview")).thenReturn(cachedOverview);
+    supplier = new OverviewSupplier(resourceMetacardTransformer, decodedImageCache);
+
+    assertThat(supplier.apply(metacard, null).get(), is(sameInstance(cachedOverview)));
+    verify(resourceMetacardTransformer, never()).transform(any(), any());
+  }
+
+  @Test
+  public void testOverviewIsCached() {
+    final Metacard metacard = overviewMetacard();
+    final DecodedImageCache decodedImageCache = mock(DecodedImageCache.class);
+    when(decodedImageCache.put(eq(metacard), eq("overview"), any()))
+        .thenAnswer(invocationOnMock -> invocationOnMock.getArgument(2));
+    supplier = new OverviewSupplier(resourceMetacardTransformer, decodedImageCache);
+
+    assertThat(supplier.apply(metacard, null).isPresent(), is(true));
+    verify(decodedImageCache).put(eq(metacard), eq("overview"), any());
+  }
+
+  @Test
+  public void testSecondCallHitsTheCache() throws CatalogTransformerException {
+    final Metacard metacard = overviewMetacard();
+    metacard.setAttribute(new AttributeImpl(Core.ID, "abc123"));
+    metacard.setAttribute(new AttributeImpl(Core.MODIFIED, new Date(1000)));
+    final DecodedImageCacheImpl decodedImageCache = new DecodedImageCacheImpl();
+    supplier = new OverviewSupplier(resourceMetacardTransformer, decodedImageCache);
+
+    final BufferedImage first = supplier.apply(metacard, null).get();
+    final BufferedImage second = supplier.apply(metacard, null).get();
+
+    assertThat(second, is(sameInstance(first)));
+    assertThat(decodedImageCache.getHitCount(), is(1L));
+    verify(resourceMetacardTransformer, times(1)).transform(any(), any());
+  }
+
+  @Test
+  public void testModifiedMetacardIsDecodedAgain() throws CatalogTransformerException {
+    final Metacard metacard = overviewMetacard();
+    metacard.setAttribute(new AttributeImpl(Core.ID, "abc123"));
+    metacard.setAttribute(new AttributeImpl(Core.MODIFIED, new Date(1000)));
+    final DecodedImageCacheImpl decodedImageCache = new DecodedImageCacheImpl();
+    supplier = new OverviewSupplier(resourceMetacardTransformer, decodedImageCache);
+
+    supplier.apply(metacard, null);
+    metacard.setAttribute(new AttributeImpl(Core.MODIFIED, new Date(2000)));
+    supplier.apply(metacard, null);
+
+    assertThat(decodedImageCache.getHitCount(), is(0L));
+    verify(resourceMetacardTransformer, times(2)).transform(any(), any());
+  }
+
+  private static Metacard overviewMetacard() {
+    final Metacard metacard = new MetacardImpl();
+    metacard.setAttribute(new AttributeImpl(Core.DERIVED_RESOURCE_URI, "content:abc123#overview"));
+    return metacard;
+  }
 }
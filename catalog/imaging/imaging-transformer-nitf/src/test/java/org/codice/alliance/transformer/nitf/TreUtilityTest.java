@@ -21,6 +21,8 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import java.io.File;
+import java.time.Instant;
+import java.util.Date;
 import java.util.function.Consumer;
 import org.codice.alliance.transformer.nitf.common.TreUtility;
 import org.codice.imaging.nitf.core.common.DateTime;
@@ -106,6 +108,26 @@ public class TreUtilityTest {
     assertThat(TreUtility.convertToInteger(tre, "INTEGER_INVALID_3"), nullValue());
   }
 
+  @Test
+  public void testConvertToDate() {
+    Tre tre = TreFactory.getDefault("TestTre", TreSource.ImageExtendedSubheaderData);
+    tre.add(new TreEntryImpl("DATE_VALID_1", "20161013121212", "string"));
+    tre.add(new TreEntryImpl("DATE_VALID_2", "20160229000000", "string"));
+
+    tre.add(new TreEntryImpl("DATE_INVALID_1", "ABCDEFGHIJKLMN", "string"));
+    tre.add(new TreEntryImpl("DATE_INVALID_2", "not a date", "string"));
+
+    assertThat(
+        TreUtility.convertToDate(tre, "DATE_VALID_1"),
+        is(Date.from(Instant.parse("2016-10-13T12:12:12Z"))));
+    assertThat(
+        TreUtility.convertToDate(tre, "DATE_VALID_2"),
+        is(Date.from(Instant.parse("2016-02-29T00:00:00Z"))));
+
+    assertThat(TreUtility.convertToDate(tre, "DATE_INVALID_1"), nullValue());
+    assertThat(TreUtility.convertToDate(tre, "DATE_INVALID_2"), nullValue());
+  }
+
   public static void createFileIfNecessary(String filename, Consumer<String> consumer) {
     File file = new File(filename);
 
@@ -0,0 +1,71 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.transformer.nitf.common;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.AttributeImpl;
+import ddf.catalog.data.impl.MetacardImpl;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MetacardAttributeBuilderTest {
+
+  private static final String ATTRIBUTE_NAME = "test.attribute";
+
+  private Metacard metacard;
+
+  private MetacardAttributeBuilder metacardBuilder;
+
+  @Before
+  public void setUp() {
+    metacard = new MetacardImpl();
+    metacardBuilder = new MetacardAttributeBuilder(metacard);
+  }
+
+  @Test
+  public void testAttributesSetOnBuild() {
+    metacardBuilder.addValue(ATTRIBUTE_NAME, "a").addValue(ATTRIBUTE_NAME, "b");
+
+    assertThat(metacard.getAttribute(ATTRIBUTE_NAME), nullValue());
+    assertThat(metacardBuilder.build(), is(metacard));
+    assertThat(metacard.getAttribute(ATTRIBUTE_NAME).getValues(), contains("a", "b"));
+  }
+
+  @Test
+  public void testValuesAppendedToExistingAttribute() {
+    metacard.setAttribute(new AttributeImpl(ATTRIBUTE_NAME, "a"));
+
+    metacardBuilder.addValue(ATTRIBUTE_NAME, "b").build();
+
+    assertThat(metacard.getAttribute(ATTRIBUTE_NAME).getValues(), contains("a", "b"));
+  }
+
+  @Test
+  public void testBuildTwice() {
+    metacardBuilder.addValue(ATTRIBUTE_NAME, "a").build();
+    metacardBuilder.addValue(ATTRIBUTE_NAME, "b").build();
+
+    assertThat(metacard.getAttribute(ATTRIBUTE_NAME).getValues(), contains("a", "b"));
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void testNullMetacard() {
+    new MetacardAttributeBuilder(null);
+  }
+}
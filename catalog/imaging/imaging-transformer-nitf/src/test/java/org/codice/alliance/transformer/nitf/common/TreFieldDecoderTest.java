@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.transformer.nitf.common;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.core.Is.is;
+
+import java.time.Instant;
+import org.junit.Test;
+
+public class TreFieldDecoderTest {
+
+  @Test
+  public void testIsInteger() {
+    assertThat(TreFieldDecoder.isInteger("00120"), is(true));
+    assertThat(TreFieldDecoder.isInteger("+5"), is(true));
+    assertThat(TreFieldDecoder.isInteger("-5"), is(true));
+
+    assertThat(TreFieldDecoder.isInteger(""), is(false));
+    assertThat(TreFieldDecoder.isInteger("-"), is(false));
+    assertThat(TreFieldDecoder.isInteger("1.0"), is(false));
+    assertThat(TreFieldDecoder.isInteger("1-"), is(false));
+  }
+
+  @Test
+  public void testIsDecimal() {
+    assertThat(TreFieldDecoder.isDecimal("0009.9000"), is(true));
+    assertThat(TreFieldDecoder.isDecimal("-.5"), is(true));
+    assertThat(TreFieldDecoder.isDecimal("5."), is(true));
+    assertThat(TreFieldDecoder.isDecimal("+123"), is(true));
+
+    assertThat(TreFieldDecoder.isDecimal("."), is(false));
+    assertThat(TreFieldDecoder.isDecimal("+"), is(false));
+    assertThat(TreFieldDecoder.isDecimal("1.2.3"), is(false));
+    assertThat(TreFieldDecoder.isDecimal("1e5"), is(false));
+    assertThat(TreFieldDecoder.isDecimal("NaN"), is(false));
+  }
+
+  @Test
+  public void testParseDecimal() {
+    assertThat(TreFieldDecoder.parseDecimal("0009.9000"), is(9.9f));
+    assertThat(TreFieldDecoder.parseDecimal("-0009.9000"), is(-9.9f));
+    assertThat(TreFieldDecoder.parseDecimal("-.5"), is(-0.5f));
+    assertThat(TreFieldDecoder.parseDecimal("5."), is(5.0f));
+    assertThat(TreFieldDecoder.parseDecimal("-0.0"), is(-0.0f));
+  }
+
+  @Test
+  public void testParseDecimalBeyondExactFloat() {
+    assertThat(TreFieldDecoder.parseDecimal("123456789.123"), is(123456789.123f));
+    assertThat(TreFieldDecoder.parseDecimal("0.000000000001"), is(0.000000000001f));
+  }
+
+  @Test
+  public void testParseDate() {
+    assertThat(
+        TreFieldDecoder.parseDate("20161013121212"),
+        is(Instant.parse("2016-10-13T12:12:12Z").toEpochMilli()));
+    assertThat(
+        TreFieldDecoder.parseDate("20000229235959"),
+        is(Instant.parse("2000-02-29T23:59:59Z").toEpochMilli()));
+    assertThat(
+        TreFieldDecoder.parseDate("19600101000000"),
+        is(Instant.parse("1960-01-01T00:00:00Z").toEpochMilli()));
+  }
+
+  @Test
+  public void testParseDateLeftToDateFormat() {
+    assertThat(TreFieldDecoder.parseDate("2016101312121"), is(TreFieldDecoder.NO_DATE));
+    assertThat(TreFieldDecoder.parseDate("2016-10-13T121"), is(TreFieldDecoder.NO_DATE));
+    assertThat(TreFieldDecoder.parseDate("21000229000000"), is(TreFieldDecoder.NO_DATE));
+    assertThat(TreFieldDecoder.parseDate("20161301000000"), is(TreFieldDecoder.NO_DATE));
+    assertThat(TreFieldDecoder.parseDate("20161013240000"), is(TreFieldDecoder.NO_DATE));
+    assertThat(TreFieldDecoder.parseDate("15000101000000"), is(TreFieldDecoder.NO_DATE));
+  }
+}
@@ -0,0 +1,120 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.transformer.nitf.gmti;
+
+import static org.hamcrest.CoreMatchers.is;
+import static org.hamcrest.CoreMatchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Optional;
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.geom.MultiPoint;
+
+public class GmtiTargetExtractorTest {
+
+  private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+
+  @Test
+  public void testParseLocationSevenDecimalPlaces() {
+    Coordinate coordinate = GmtiTargetExtractor.parseLocation("+52.1234567-004.1234567");
+
+    assertThat(coordinate.x, is(52.1234567));
+    assertThat(coordinate.y, is(-4.1234567));
+  }
+
+  @Test
+  public void testParseLocationSixDecimalPlaces() {
+    Coordinate coordinate = GmtiTargetExtractor.parseLocation("-52.123456+179.123456");
+
+    assertThat(coordinate.x, is(-52.123456));
+    assertThat(coordinate.y, is(179.123456));
+  }
+
+  @Test
+  public void testParseLocationMalformed() {
+    assertThat(GmtiTargetExtractor.parseLocation(""), is(nullValue()));
+    assertThat(GmtiTargetExtractor.parseLocation("+52.1234567"), is(nullValue()));
+    assertThat(GmtiTargetExtractor.parseLocation("52.1234567-004.1234567"), is(nullValue()));
+    assertThat(GmtiTargetExtractor.parseLocation("+52.12345-004.1234567"), is(nullValue()));
+    assertThat(GmtiTargetExtractor.parseLocation("+52.1234567-004.12345678"), is(nullValue()));
+    assertThat(GmtiTargetExtractor.parseLocation("+52.12A4567-004.1234567"), is(nullValue()));
+    assertThat(GmtiTargetExtractor.parseLocation("+52,1234567-004.1234567"), is(nullValue()));
+  }
+
+  @Test
+  public void testExtract() {
+    Optional<MultiPoint> targets =
+        new GmtiTargetExtractor(GEOMETRY_FACTORY, GmtiTargetExtractor.NO_CLUSTERING)
+            .extract(Arrays.asList("+52.1234567-004.1234567", "+52.123457-004.123457"));
+
+    assertThat(targets.isPresent(), is(true));
+    assertThat(
+        targets.get().toText(),
+        is("MULTIPOINT ((52.1234567 -4.1234567), (52.123457 -4.123457))"));
+  }
+
+  @Test
+  public void testExtractEmpty() {
+    assertThat(
+        new GmtiTargetExtractor(GEOMETRY_FACTORY, GmtiTargetExtractor.NO_CLUSTERING)
+            .extract(Collections.emptyList())
+            .isPresent(),
+        is(false));
+  }
+
+  @Test
+  public void testExtractMalformed() {
+    assertThat(
+        new GmtiTargetExtractor(GEOMETRY_FACTORY, GmtiTargetExtractor.NO_CLUSTERING)
+            .extract(Arrays.asList("+52.1234567-004.1234567", "bad location"))
+            .isPresent(),
+        is(false));
+  }
+
+  @Test
+  public void testExtractNullLocation() {
+    assertThat(
+        new GmtiTargetExtractor(GEOMETRY_FACTORY, GmtiTargetExtractor.NO_CLUSTERING)
+            .extract(Arrays.asList("+52.1234567-004.1234567", (Serializable) null))
+            .isPresent(),
+        is(false));
+  }
+
+  @Test
+  public void testExtractClustered() {
+    Optional<MultiPoint> targets =
+        new GmtiTargetExtractor(GEOMETRY_FACTORY, 0.001)
+            .extract(
+                Arrays.asList(
+                    "+52.1232000-004.1238000",
+                    "+10.000000+020.000000",
+                    "+52.1234000-004.1236000"));
+
+    assertThat(targets.isPresent(), is(true));
+    assertThat(targets.get().getNumGeometries(), is(2));
+    assertThat(targets.get().getGeometryN(0).getCoordinate().x, is((52.1232 + 52.1234) / 2));
+    assertThat(targets.get().getGeometryN(0).getCoordinate().y, is((-4.1238 + -4.1236) / 2));
+    assertThat(targets.get().getGeometryN(1).getCoordinate(), is(new Coordinate(10, 20)));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNullGeometryFactory() {
+    new GmtiTargetExtractor(null, GmtiTargetExtractor.NO_CLUSTERING);
+  }
+}
@@ -25,15 +25,19 @@ import ddf.catalog.data.Attribute;
 import ddf.catalog.data.AttributeDescriptor;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.MetacardType;
+import ddf.catalog.data.impl.AttributeImpl;
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.data.impl.MetacardTypeImpl;
+import ddf.catalog.data.types.Core;
 import java.io.File;
 import java.io.FileInputStream;
 import java.io.FileNotFoundException;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.Serializable;
 import java.text.SimpleDateFormat;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.List;
@@ -50,7 +54,10 @@ import org.codice.imaging.nitf.fluent.NitfSegmentsFlow;
 import org.codice.imaging.nitf.fluent.impl.NitfParserInputFlowImpl;
 import org.junit.Before;
 import org.junit.Test;
+import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.GeometryFactory;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
 
 public class NitfGmtiTransformerTest {
 
@@ -88,6 +95,28 @@ public class NitfGmtiTransformerTest {
     nitfGmtiTransformer.transform(nitfSegmentsFlow, null);
   }
 
+  @Test(expected = IllegalArgumentException.class)
+  public void testTargetClusterDistanceTooSmall() {
+    nitfGmtiTransformer.setTargetClusterDistance(0.0000001);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testNegativeTargetClusterDistance() {
+    nitfGmtiTransformer.setTargetClusterDistance(-1);
+  }
+
+  @Test
+  public void testTargetsAreClusteredWhenConfigured() throws ParseException {
+    nitfGmtiTransformer.setTargetClusterDistance(0.001);
+
+    assertThat(transformTargets().getNumGeometries(), is(2));
+  }
+
+  @Test
+  public void testTargetsAreNotClusteredByDefault() throws ParseException {
+    assertThat(transformTargets().getNumGeometries(), is(3));
+  }
+
   @Test
   public void testTre() throws IOException, NitfFormatException {
     NitfSegmentsFlow nitfSegmentsFlow =
@@ -178,4 +207,17 @@ public class NitfGmtiTransformerTest {
     map.put(IndexedMtirpbAttribute.INDEXED_TARGET_RADIAL_VELOCITY_ATTRIBUTE, "+013");
     return map;
   }
+
+  private Geometry transformTargets() throws ParseException {
+    MetacardImpl metacard = new MetacardImpl();
+    metacard.setAttribute(
+        new AttributeImpl(
+            Core.LOCATION,
+            Arrays.<Serializable>asList(
+                "+52.1232000-004.1238000", "+10.000000+020.000000", "+52.1234000-004.1236000")));
+
+    nitfGmtiTransformer.transform(metacard);
+
+    return new WKTReader().read((String) metacard.getAttribute(Core.LOCATION).getValue());
+  }
 }
@@ -43,7 +43,7 @@ public class AeaMarking implements Serializable {
   public AeaMarking(String marking) {
     type = AeaType.lookupType(marking);
 
-    String[] split = marking.split("[-]");
+    String[] split = marking.split("-");
     if (split.length == 1) {
       criticalNuclearWeaponDesignInformation = false;
       sigmas = ImmutableList.of();
@@ -19,9 +19,11 @@ import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
-import java.util.function.Function;
+import java.util.function.BiPredicate;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 import org.apache.commons.lang.StringUtils;
@@ -48,6 +50,39 @@ public class BannerMarkings implements Serializable {
 
   protected static final String FGI = "FGI";
 
+  protected static final Pattern SEGMENT_PATTERN = Pattern.compile("//");
+
+  /** Segment processors in the order they are tried, the first one that accepts a segment wins. */
+  protected static final List<BiPredicate<BannerMarkings, String>> SEGMENT_PROCESSORS =
+      ImmutableList.of(
+          BannerMarkings::processUsFgi,
+          BannerMarkings::processSap,
+          BannerMarkings::processAea,
+          BannerMarkings::processOtherDissem,
+          BannerMarkings::processDisseminationControls,
+          BannerMarkings::processSciControls);
+
+  protected static final List<BiPredicate<BannerMarkings, String>> FGI_SEGMENT_PROCESSORS =
+      ImmutableList.<BiPredicate<BannerMarkings, String>>builder()
+          .add(BannerMarkings::processNato)
+          .addAll(SEGMENT_PROCESSORS)
+          .build();
+
+  private static final int MAX_CACHED_MARKINGS = 256;
+
+  /**
+   * Parsed and validated markings keyed by the input string, least recently used first. The
+   * markings are immutable once parsed, so the same instance can be returned to every caller.
+   */
+  private static final Map<String, BannerMarkings> PARSED_MARKINGS =
+      Collections.synchronizedMap(
+          new LinkedHashMap<String, BannerMarkings>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, BannerMarkings> eldest) {
+              return size() > MAX_CACHED_MARKINGS;
+            }
+          });
+
   protected String inputMarkings;
 
   protected ClassificationLevel classification;
@@ -265,7 +300,25 @@ public class BannerMarkings implements Serializable {
         && (COSMIC_FGI.equals(fgiAuthority) || NATO_FGI.equals(fgiAuthority)));
   }
 
+  /**
+   * Parse and validate banner markings. Valid markings are cached, so parsing a banner that was
+   * seen recently returns the same instance without parsing or validating it again.
+   *
+   * @param markings the banner markings
+   * @return the parsed markings
+   * @throws MarkingsValidationException if the markings are not valid
+   */
   public static BannerMarkings parseMarkings(String markings) throws MarkingsValidationException {
+    BannerMarkings bannerMarkings = PARSED_MARKINGS.get(markings);
+    if (bannerMarkings == null) {
+      bannerMarkings = parseUncachedMarkings(markings);
+      PARSED_MARKINGS.put(markings, bannerMarkings);
+    }
+    return bannerMarkings;
+  }
+
+  private static BannerMarkings parseUncachedMarkings(String markings)
+      throws MarkingsValidationException {
     MarkingType type;
     String trimmedMarkings;
     if (markings.startsWith("//JOINT")) {
@@ -279,24 +332,26 @@ public class BannerMarkings implements Serializable {
       trimmedMarkings = markings;
     }
 
-    String[] split = trimmedMarkings.split("[/][/]");
+    String[] split = SEGMENT_PATTERN.split(trimmedMarkings);
     BannerMarkings bannerMarkings = new BannerMarkings(type, split[0], markings);
 
-    List<Function<String, Boolean>> processors = new ArrayList<>();
-    if (type == MarkingType.FGI) {
-      processors.add(bannerMarkings::processNato);
-    }
+    processSegments(bannerMarkings, split);
 
-    processors.add(bannerMarkings::processUsFgi);
-    processors.add(bannerMarkings::processSap);
-    processors.add(bannerMarkings::processAea);
-    processors.add(bannerMarkings::processOtherDissem);
-    processors.add(bannerMarkings::processDisseminationControls);
-    processors.add(bannerMarkings::processSciControls);
+    BannerValidator.validate(bannerMarkings);
+    return bannerMarkings;
+  }
+
+  /**
+   * Run the segment processors over every segment after the classification and initialize the
+   * collections that no segment filled in.
+   */
+  protected static void processSegments(BannerMarkings bannerMarkings, String[] split) {
+    List<BiPredicate<BannerMarkings, String>> processors =
+        bannerMarkings.type == MarkingType.FGI ? FGI_SEGMENT_PROCESSORS : SEGMENT_PROCESSORS;
 
     for (int i = 1; i < split.length; i++) {
-      for (Function<String, Boolean> processor : processors) {
-        if (processor.apply(split[i])) {
+      for (BiPredicate<BannerMarkings, String> processor : processors) {
+        if (processor.test(bannerMarkings, split[i])) {
           break;
         }
       }
@@ -314,9 +369,6 @@ public class BannerMarkings implements Serializable {
     bannerMarkings.otherDissemControl =
         ensureCollectionInitialized(bannerMarkings.otherDissemControl);
     bannerMarkings.accm = ensureCollectionInitialized(bannerMarkings.accm);
-
-    BannerValidator.validate(bannerMarkings);
-    return bannerMarkings;
   }
 
   protected static <T> List<T> ensureCollectionInitialized(List<T> collection) {
@@ -334,7 +386,7 @@ public class BannerMarkings implements Serializable {
     if (segment.equals("HVSACO")) {
       sapControl = new SapControl();
     } else {
-      sapControl = new SapControl(segment.split("[-]")[1]);
+      sapControl = new SapControl(segment.split("-")[1]);
     }
     return true;
   }
@@ -389,7 +441,7 @@ public class BannerMarkings implements Serializable {
 
     // Process each OtherDissem control sequentially. If ACCM- is found, attempt to process
     // the next tokens as ACCM markers unless they are in the OTHER_DISSEM set
-    String[] tokens = segment.split("[/]");
+    String[] tokens = segment.split("/");
     HashSet<OtherDissemControl> tempOther = new HashSet<>();
     HashSet<String> tempAccm = new HashSet<>();
     boolean processingAccm = false;
@@ -419,7 +471,7 @@ public class BannerMarkings implements Serializable {
   }
 
   protected boolean processDisseminationControls(String segment) {
-    String[] split = segment.split("[/]");
+    String[] split = segment.split("/");
 
     if (!(split[0].startsWith(REL_TO)
         || split[0].startsWith(DISPLAY_ONLY)
@@ -449,7 +501,7 @@ public class BannerMarkings implements Serializable {
   }
 
   protected boolean processSciControls(String segment) {
-    String[] split = segment.split("[/]");
+    String[] split = segment.split("/");
 
     List<SciControl> tempSci = new ArrayList<>();
     for (String s : split) {
@@ -14,8 +14,9 @@
 package org.codice.alliance.security.banner.marking;
 
 import com.google.common.collect.ImmutableList;
-import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /** DisseminationControls */
 public enum DissemControl {
@@ -39,6 +40,21 @@ public enum DissemControl {
 
   private List<String> portionNames;
 
+  private static final Map<String, DissemControl> BANNER_NAME_LOOKUP = new HashMap<>();
+
+  private static final Map<String, DissemControl> PORTION_NAME_LOOKUP = new HashMap<>();
+
+  static {
+    for (DissemControl dc : DissemControl.values()) {
+      for (String bannerName : dc.bannerNames) {
+        BANNER_NAME_LOOKUP.putIfAbsent(bannerName, dc);
+      }
+      for (String portionName : dc.portionNames) {
+        PORTION_NAME_LOOKUP.putIfAbsent(portionName, dc);
+      }
+    }
+  }
+
   DissemControl(String[] bannerNames, String[] portionNames) {
     this.bannerNames = ImmutableList.copyOf(bannerNames);
     this.portionNames = ImmutableList.copyOf(portionNames);
@@ -56,10 +72,7 @@ public enum DissemControl {
    * @return
    */
   public static DissemControl lookupBannerName(String name) {
-    return Arrays.stream(DissemControl.values())
-        .filter(dc -> dc.bannerNames.contains(name))
-        .findFirst()
-        .orElse(null);
+    return BANNER_NAME_LOOKUP.get(name);
   }
 
   /**
@@ -69,9 +82,6 @@ public enum DissemControl {
    * @return
    */
   public static DissemControl lookupPortionName(String name) {
-    return Arrays.stream(DissemControl.values())
-        .filter(dc -> dc.portionNames.contains(name))
-        .findFirst()
-        .orElse(null);
+    return PORTION_NAME_LOOKUP.get(name);
   }
 }
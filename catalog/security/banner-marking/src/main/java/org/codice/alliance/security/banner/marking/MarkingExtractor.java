@@ -21,12 +21,13 @@ import com.google.common.collect.ImmutableMap;
 import ddf.catalog.content.operation.ContentMetadataExtractor;
 import ddf.catalog.data.Attribute;
 import ddf.catalog.data.Metacard;
-import java.io.BufferedReader;
-import java.io.ByteArrayInputStream;
+import ddf.catalog.data.impl.AttributeImpl;
+import ddf.catalog.data.types.Validation;
+import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
 import java.io.Serializable;
-import java.nio.charset.StandardCharsets;
+import java.io.StringReader;
+import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashSet;
 import java.util.List;
@@ -40,24 +41,35 @@ import org.slf4j.LoggerFactory;
 public abstract class MarkingExtractor implements ContentMetadataExtractor {
   private static final Logger LOGGER = LoggerFactory.getLogger(MarkingExtractor.class);
 
+  static final String BANNER_BELOW_PORTION_MARKING_MESSAGE =
+      "The banner classification %s is lower than the highest portion marking %s of the document.";
+
   private Map<String, BiFunction<Metacard, BannerMarkings, Attribute>> attProcessors;
 
+  private volatile MarkingScanner markingScanner = new MarkingScanner();
+
   @Override
   public void process(String input, Metacard metacard) {
-    process(new ByteArrayInputStream(input.getBytes(StandardCharsets.UTF_8)), metacard);
+    try {
+      process(markingScanner.scan(new StringReader(input)), metacard);
+    } catch (IOException e) {
+      LOGGER.debug("Unable to read document markings", e);
+    }
   }
 
   @Override
   public void process(InputStream input, Metacard metacard) {
-    BannerMarkings bannerMarkings = null;
     try {
-      Optional<String> bannerLine =
-          new BufferedReader(new InputStreamReader(input))
-              .lines()
-              .map(String::trim)
-              .filter(s -> !s.isEmpty())
-              .findFirst();
+      process(markingScanner.scan(input), metacard);
+    } catch (IOException e) {
+      LOGGER.debug("Unable to read document markings", e);
+    }
+  }
 
+  private void process(MarkingScanResult scanResult, Metacard metacard) {
+    BannerMarkings bannerMarkings = null;
+    try {
+      Optional<String> bannerLine = scanResult.getBannerLine();
       if (bannerLine.isPresent()) {
         bannerMarkings = BannerMarkings.parseMarkings(bannerLine.get());
       }
@@ -72,6 +84,35 @@ public abstract class MarkingExtractor implements ContentMetadataExtractor {
     for (BiFunction<Metacard, BannerMarkings, Attribute> attFunc : attProcessors.values()) {
       metacard.setAttribute(attFunc.apply(metacard, bannerMarkings));
     }
+
+    Optional<ClassificationLevel> highWaterMark = scanResult.getHighWaterMark();
+    if (highWaterMark.isPresent()
+        && highWaterMark.get().compareTo(bannerMarkings.getClassification()) > 0) {
+      LOGGER.debug(
+          "Banner classification {} is lower than the highest portion marking {} of the document",
+          bannerMarkings.getClassification(),
+          highWaterMark.get());
+      addValidationWarning(
+          metacard,
+          String.format(
+              BANNER_BELOW_PORTION_MARKING_MESSAGE,
+              bannerMarkings.getClassification().getShortName(),
+              highWaterMark.get().getShortName()));
+    }
+  }
+
+  /**
+   * Add a warning to the {@link Validation#VALIDATION_WARNINGS} of the metacard, keeping the
+   * warnings that are already there.
+   */
+  private void addValidationWarning(Metacard metacard, String warning) {
+    List<Serializable> warnings = new ArrayList<>();
+    Attribute currentWarnings = metacard.getAttribute(Validation.VALIDATION_WARNINGS);
+    if (currentWarnings != null && currentWarnings.getValues() != null) {
+      warnings.addAll(currentWarnings.getValues());
+    }
+    warnings.add(warning);
+    metacard.setAttribute(new AttributeImpl(Validation.VALIDATION_WARNINGS, warnings));
   }
 
   public String translateClassification(
@@ -106,6 +147,36 @@ public abstract class MarkingExtractor implements ContentMetadataExtractor {
     return builder.toString();
   }
 
+  /**
+   * Limit the search for the banner line to the start of the document.
+   *
+   * @param maxBannerPrefixChars number of characters to search, values that are not positive are
+   *     replaced by {@link MarkingScanner#DEFAULT_MAX_BANNER_PREFIX_CHARS}
+   */
+  public void setMaxBannerPrefixChars(int maxBannerPrefixChars) {
+    if (maxBannerPrefixChars <= 0) {
+      LOGGER.debug(
+          "Invalid `maxBannerPrefixChars` value [{}], must be greater than zero. Default value [{}] will be used instead.",
+          maxBannerPrefixChars,
+          MarkingScanner.DEFAULT_MAX_BANNER_PREFIX_CHARS);
+      maxBannerPrefixChars = MarkingScanner.DEFAULT_MAX_BANNER_PREFIX_CHARS;
+    }
+    markingScanner =
+        new MarkingScanner(maxBannerPrefixChars, markingScanner.isScanPortionMarkings());
+  }
+
+  /**
+   * Scan the whole document for portion marks and add a validation warning to the metacard when
+   * the banner is lower than the highest portion marking. Disabled by default, because it reads
+   * every document to the end.
+   *
+   * @param scanPortionMarkings true to scan the portion marks
+   */
+  public void setScanPortionMarkings(boolean scanPortionMarkings) {
+    markingScanner =
+        new MarkingScanner(markingScanner.getMaxBannerPrefixChars(), scanPortionMarkings);
+  }
+
   protected void setAttProcessors(
       Map<String, BiFunction<Metacard, BannerMarkings, Attribute>> attProcessors) {
     this.attProcessors = ImmutableMap.copyOf(attProcessors);
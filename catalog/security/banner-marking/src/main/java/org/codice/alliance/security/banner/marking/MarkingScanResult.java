@@ -0,0 +1,59 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.security.banner.marking;
+
+import java.util.Optional;
+
+/** The markings found by a {@link MarkingScanner}. */
+public class MarkingScanResult {
+
+  private final String bannerLine;
+
+  private final int portionMarkingCount;
+
+  private final ClassificationLevel highWaterMark;
+
+  MarkingScanResult(String bannerLine, int portionMarkingCount, ClassificationLevel highWaterMark) {
+    this.bannerLine = bannerLine;
+    this.portionMarkingCount = portionMarkingCount;
+    this.highWaterMark = highWaterMark;
+  }
+
+  /**
+   * Returns the first non-empty line of the document, trimmed.
+   *
+   * @return the banner line or empty if there is no complete non-empty line in the scanned prefix
+   */
+  public Optional<String> getBannerLine() {
+    return Optional.ofNullable(bannerLine);
+  }
+
+  /**
+   * Returns the number of valid portion marks in the document.
+   *
+   * @return the number of portion marks, always 0 if portion marks were not scanned
+   */
+  public int getPortionMarkingCount() {
+    return portionMarkingCount;
+  }
+
+  /**
+   * Returns the highest classification of the valid portion marks in the document.
+   *
+   * @return the high-water mark or empty if no valid portion marks were found
+   */
+  public Optional<ClassificationLevel> getHighWaterMark() {
+    return Optional.ofNullable(highWaterMark);
+  }
+}
@@ -0,0 +1,202 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.security.banner.marking;
+
+import java.io.BufferedInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.Reader;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Reads the markings of a document in a single pass. The banner line is the first non-empty line
+ * of the document and is only looked for in the first {@link #getMaxBannerPrefixChars()}
+ * characters, so a large binary or single-line document is never read into one string. When
+ * portion marks are scanned, the rest of the document is streamed through a {@link
+ * PortionMarkingMatcher} and the highest classification of the valid portion marks is kept.
+ * Otherwise reading stops as soon as the banner line is found.
+ *
+ * <p>Documents are decoded as UTF-8 unless they start with a UTF-8, UTF-16BE or UTF-16LE byte
+ * order mark.
+ */
+public class MarkingScanner {
+
+  public static final int DEFAULT_MAX_BANNER_PREFIX_CHARS = 8192;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(MarkingScanner.class);
+
+  private static final int BUFFER_SIZE = 8192;
+
+  /** Documents repeat a few portion marks many times, so parsed marks are remembered per scan. */
+  private static final int MAX_PARSED_PORTIONS = 256;
+
+  private final int maxBannerPrefixChars;
+
+  private final boolean scanPortionMarkings;
+
+  public MarkingScanner() {
+    this(DEFAULT_MAX_BANNER_PREFIX_CHARS, false);
+  }
+
+  /**
+   * @param maxBannerPrefixChars number of characters to search for the banner line, must be
+   *     positive
+   * @param scanPortionMarkings true to scan the whole document for portion marks
+   */
+  public MarkingScanner(int maxBannerPrefixChars, boolean scanPortionMarkings) {
+    if (maxBannerPrefixChars <= 0) {
+      throw new IllegalArgumentException("maxBannerPrefixChars must be positive");
+    }
+    this.maxBannerPrefixChars = maxBannerPrefixChars;
+    this.scanPortionMarkings = scanPortionMarkings;
+  }
+
+  /**
+   * @param input must be non-null, the stream is not closed
+   * @return the markings of the document
+   * @throws IOException if the document cannot be read
+   */
+  public MarkingScanResult scan(InputStream input) throws IOException {
+    BufferedInputStream bufferedInput = new BufferedInputStream(input);
+    return scan(new InputStreamReader(bufferedInput, readByteOrderMark(bufferedInput)));
+  }
+
+  /**
+   * @param reader must be non-null, the reader is not closed
+   * @return the markings of the document
+   * @throws IOException if the document cannot be read
+   */
+  public MarkingScanResult scan(Reader reader) throws IOException {
+    PortionScan portionScan = scanPortionMarkings ? new PortionScan() : null;
+    StringBuilder line = new StringBuilder();
+    String bannerLine = null;
+    boolean bannerDone = false;
+    long position = 0;
+
+    char[] buffer = new char[BUFFER_SIZE];
+    int length;
+    while ((length = reader.read(buffer)) != -1) {
+      for (int i = 0; i < length && !bannerDone; i++, position++) {
+        char c = buffer[i];
+        if (c == '\n' || c == '\r') {
+          bannerLine = trimToNull(line);
+          bannerDone = bannerLine != null;
+          line.setLength(0);
+        } else if (position >= maxBannerPrefixChars) {
+          LOGGER.debug("No banner line in the first {} characters", maxBannerPrefixChars);
+          bannerDone = true;
+        } else {
+          line.append(c);
+        }
+      }
+
+      if (portionScan != null) {
+        for (int i = 0; i < length; i++) {
+          portionScan.matcher.accept(buffer[i]);
+        }
+      } else if (bannerDone) {
+        break;
+      }
+    }
+
+    if (!bannerDone) {
+      bannerLine = trimToNull(line);
+    }
+
+    if (portionScan == null) {
+      return new MarkingScanResult(bannerLine, 0, null);
+    }
+    return new MarkingScanResult(bannerLine, portionScan.count, portionScan.highWaterMark);
+  }
+
+  public int getMaxBannerPrefixChars() {
+    return maxBannerPrefixChars;
+  }
+
+  public boolean isScanPortionMarkings() {
+    return scanPortionMarkings;
+  }
+
+  private static String trimToNull(StringBuilder line) {
+    String trimmed = line.toString().trim();
+    return trimmed.isEmpty() ? null : trimmed;
+  }
+
+  /** Skip the byte order mark, if any, and return the charset it names. */
+  private static Charset readByteOrderMark(BufferedInputStream input) throws IOException {
+    input.mark(3);
+    int first = input.read();
+    int second = input.read();
+
+    if (first == 0xFE && second == 0xFF) {
+      return StandardCharsets.UTF_16BE;
+    }
+    if (first == 0xFF && second == 0xFE) {
+      return StandardCharsets.UTF_16LE;
+    }
+    if (first == 0xEF && second == 0xBB && input.read() == 0xBF) {
+      return StandardCharsets.UTF_8;
+    }
+
+    input.reset();
+    return StandardCharsets.UTF_8;
+  }
+
+  /** The portion marks found by one scan. */
+  private static class PortionScan {
+
+    private final Map<String, ClassificationLevel> parsedPortions = new HashMap<>();
+
+    private final PortionMarkingMatcher matcher = new PortionMarkingMatcher(this::add);
+
+    private int count;
+
+    private ClassificationLevel highWaterMark;
+
+    private void add(String portion) {
+      ClassificationLevel classification = parsedPortions.get(portion);
+      if (classification == null && !parsedPortions.containsKey(portion)) {
+        classification = parse(portion);
+        if (parsedPortions.size() < MAX_PARSED_PORTIONS) {
+          parsedPortions.put(portion, classification);
+        }
+      }
+
+      if (classification == null) {
+        return;
+      }
+
+      count++;
+      if (highWaterMark == null || classification.compareTo(highWaterMark) > 0) {
+        highWaterMark = classification;
+      }
+    }
+
+    /** @return the classification of the portion mark, or null if it is not valid */
+    private static ClassificationLevel parse(String portion) {
+      try {
+        return PortionMarkings.parseMarkings(portion).getClassification();
+      } catch (MarkingsValidationException | RuntimeException e) {
+        LOGGER.trace("Ignoring invalid portion marking ({})", portion, e);
+        return null;
+      }
+    }
+  }
+}
@@ -14,8 +14,9 @@
 package org.codice.alliance.security.banner.marking;
 
 import com.google.common.collect.ImmutableList;
-import java.util.Arrays;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 
 /** Other dissemination controls */
 public enum OtherDissemControl {
@@ -36,6 +37,31 @@ public enum OtherDissemControl {
 
   private List<String> portionNames;
 
+  private static final Map<String, OtherDissemControl> BANNER_NAME_LOOKUP = new HashMap<>();
+
+  private static final Map<String, OtherDissemControl> PORTION_NAME_LOOKUP = new HashMap<>();
+
+  private static final List<String> ALL_BANNER_NAMES;
+
+  private static final List<String> ALL_PORTION_NAMES;
+
+  static {
+    ImmutableList.Builder<String> allBannerNames = ImmutableList.builder();
+    ImmutableList.Builder<String> allPortionNames = ImmutableList.builder();
+    for (OtherDissemControl odc : OtherDissemControl.values()) {
+      for (String bannerName : odc.bannerNames) {
+        BANNER_NAME_LOOKUP.putIfAbsent(bannerName, odc);
+      }
+      for (String portionName : odc.portionNames) {
+        PORTION_NAME_LOOKUP.putIfAbsent(portionName, odc);
+      }
+      allBannerNames.addAll(odc.bannerNames);
+      allPortionNames.addAll(odc.portionNames);
+    }
+    ALL_BANNER_NAMES = allBannerNames.build();
+    ALL_PORTION_NAMES = allPortionNames.build();
+  }
+
   OtherDissemControl(String[] bannerNames, String[] portionNames) {
     this.bannerNames = ImmutableList.copyOf(bannerNames);
     this.portionNames = ImmutableList.copyOf(portionNames);
@@ -47,28 +73,27 @@ public enum OtherDissemControl {
   }
 
   public static OtherDissemControl lookupBannerName(String name) {
-    return Arrays.stream(OtherDissemControl.values())
-        .filter(dc -> dc.bannerNames.contains(name))
-        .findFirst()
-        .orElse(null);
+    return BANNER_NAME_LOOKUP.get(name);
   }
 
   public static OtherDissemControl lookupPortionName(String name) {
-    return Arrays.stream(OtherDissemControl.values())
-        .filter(dc -> dc.portionNames.contains(name))
-        .findFirst()
-        .orElse(null);
+    return PORTION_NAME_LOOKUP.get(name);
   }
 
   public static boolean prefixBannerMatch(String value) {
-    return Arrays.stream(OtherDissemControl.values())
-        .flatMap(odc -> odc.bannerNames.stream())
-        .anyMatch(value::startsWith);
+    return startsWithAny(value, ALL_BANNER_NAMES);
   }
 
   public static boolean prefixPortionMatch(String value) {
-    return Arrays.stream(OtherDissemControl.values())
-        .flatMap(odc -> odc.portionNames.stream())
-        .anyMatch(value::startsWith);
+    return startsWithAny(value, ALL_PORTION_NAMES);
+  }
+
+  private static boolean startsWithAny(String value, List<String> prefixes) {
+    for (String prefix : prefixes) {
+      if (value.startsWith(prefix)) {
+        return true;
+      }
+    }
+    return false;
   }
 }
@@ -0,0 +1,165 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.security.banner.marking;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Finds portion marks such as {@code (S//NF)} in a stream of characters. The ways a portion mark
+ * can open, {@code (S)}, {@code (S//} and {@code (//} for FGI and JOINT marks, are compiled into an
+ * Aho-Corasick automaton, so every character is examined once however many openings there are.
+ * Once an opening is found, the characters up to the closing parenthesis are collected and the
+ * portion mark, without the parentheses, is passed to the consumer. Portion marks that span lines
+ * or are longer than {@link #MAX_PORTION_LENGTH} are ignored.
+ */
+class PortionMarkingMatcher {
+
+  static final int MAX_PORTION_LENGTH = 256;
+
+  private static final int ALPHABET_SIZE = 128;
+
+  private static final int ROOT = 0;
+
+  private static final Automaton AUTOMATON = new Automaton(getOpenings());
+
+  private final Consumer<String> consumer;
+
+  private final StringBuilder portion = new StringBuilder();
+
+  private int state = ROOT;
+
+  private boolean collecting;
+
+  /** @param consumer called with each portion mark, without the parentheses */
+  PortionMarkingMatcher(Consumer<String> consumer) {
+    this.consumer = consumer;
+  }
+
+  void accept(char c) {
+    if (collecting) {
+      if (c == ')') {
+        collecting = false;
+        consumer.accept(portion.toString());
+        return;
+      }
+      if (c != '\n' && c != '\r' && c != '(' && portion.length() < MAX_PORTION_LENGTH) {
+        portion.append(c);
+        return;
+      }
+      collecting = false;
+      state = ROOT;
+    }
+
+    state = AUTOMATON.next(state, c);
+    String opening = AUTOMATON.openings[state];
+    if (opening == null) {
+      return;
+    }
+
+    state = ROOT;
+    if (opening.endsWith(")")) {
+      consumer.accept(opening.substring(1, opening.length() - 1));
+    } else {
+      collecting = true;
+      portion.setLength(0);
+      portion.append(opening, 1, opening.length());
+    }
+  }
+
+  private static List<String> getOpenings() {
+    List<String> openings = new ArrayList<>();
+    for (ClassificationLevel classificationLevel : ClassificationLevel.values()) {
+      openings.add("(" + classificationLevel.getShortName() + ")");
+      openings.add("(" + classificationLevel.getShortName() + "//");
+    }
+    // FGI and JOINT portion marks
+    openings.add("(//");
+    return openings;
+  }
+
+  /** A deterministic Aho-Corasick automaton over ASCII, non-ASCII characters reset it. */
+  private static class Automaton {
+
+    private final int[][] transitions;
+
+    /** The opening that ends in each state, or null. */
+    private final String[] openings;
+
+    private Automaton(List<String> patterns) {
+      List<int[]> trie = new ArrayList<>();
+      List<String> outputs = new ArrayList<>();
+      trie.add(newState());
+      outputs.add(null);
+
+      for (String pattern : patterns) {
+        int state = ROOT;
+        for (int i = 0; i < pattern.length(); i++) {
+          char c = pattern.charAt(i);
+          if (trie.get(state)[c] < 0) {
+            trie.get(state)[c] = trie.size();
+            trie.add(newState());
+            outputs.add(null);
+          }
+          state = trie.get(state)[c];
+        }
+        outputs.set(state, pattern);
+      }
+
+      transitions = trie.toArray(new int[0][]);
+      openings = outputs.toArray(new String[0]);
+
+      // breadth first, so the failure state of every state is complete before it is used
+      int[] failures = new int[transitions.length];
+      Deque<Integer> queue = new ArrayDeque<>();
+      for (int c = 0; c < ALPHABET_SIZE; c++) {
+        if (transitions[ROOT][c] < 0) {
+          transitions[ROOT][c] = ROOT;
+        } else {
+          queue.add(transitions[ROOT][c]);
+        }
+      }
+
+      while (!queue.isEmpty()) {
+        int state = queue.remove();
+        if (openings[state] == null) {
+          openings[state] = openings[failures[state]];
+        }
+        for (int c = 0; c < ALPHABET_SIZE; c++) {
+          int next = transitions[state][c];
+          if (next < 0) {
+            transitions[state][c] = transitions[failures[state]][c];
+          } else {
+            failures[next] = transitions[failures[state]][c];
+            queue.add(next);
+          }
+        }
+      }
+    }
+
+    private int next(int state, char c) {
+      return c < ALPHABET_SIZE ? transitions[state][c] : ROOT;
+    }
+
+    private static int[] newState() {
+      int[] state = new int[ALPHABET_SIZE];
+      Arrays.fill(state, -1);
+      return state;
+    }
+  }
+}
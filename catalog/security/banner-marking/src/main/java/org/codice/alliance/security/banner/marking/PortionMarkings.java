@@ -14,11 +14,9 @@
 package org.codice.alliance.security.banner.marking;
 
 import com.google.common.collect.ImmutableList;
-import java.util.ArrayList;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /** Handles parsing the classification in the short form portion marking syntax. */
@@ -49,42 +47,10 @@ public class PortionMarkings extends BannerMarkings {
       trimmedMarkings = markings;
     }
 
-    String[] split = trimmedMarkings.split("[/][/]");
+    String[] split = SEGMENT_PATTERN.split(trimmedMarkings);
     PortionMarkings portionMarkings = new PortionMarkings(type, split[0], markings);
 
-    List<Function<String, Boolean>> processors = new ArrayList<>();
-    if (type == MarkingType.FGI) {
-      processors.add(portionMarkings::processNato);
-    }
-
-    processors.add(portionMarkings::processUsFgi);
-    processors.add(portionMarkings::processSap);
-    processors.add(portionMarkings::processAea);
-    processors.add(portionMarkings::processOtherDissem);
-    processors.add(portionMarkings::processDisseminationControls);
-    processors.add(portionMarkings::processSciControls);
-
-    for (int i = 1; i < split.length; i++) {
-      for (Function<String, Boolean> processor : processors) {
-        if (processor.apply(split[i])) {
-          break;
-        }
-      }
-    }
-
-    // Ensure that all Collection types have been initialized
-    portionMarkings.jointAuthorities =
-        ensureCollectionInitialized(portionMarkings.jointAuthorities);
-    portionMarkings.usFgiCountryCodes =
-        ensureCollectionInitialized(portionMarkings.usFgiCountryCodes);
-    portionMarkings.sciControls = ensureCollectionInitialized(portionMarkings.sciControls);
-    portionMarkings.disseminationControls =
-        ensureCollectionInitialized(portionMarkings.disseminationControls);
-    portionMarkings.relTo = ensureCollectionInitialized(portionMarkings.relTo);
-    portionMarkings.displayOnly = ensureCollectionInitialized(portionMarkings.displayOnly);
-    portionMarkings.otherDissemControl =
-        ensureCollectionInitialized(portionMarkings.otherDissemControl);
-    portionMarkings.accm = ensureCollectionInitialized(portionMarkings.accm);
+    processSegments(portionMarkings, split);
 
     BannerValidator.validate(portionMarkings);
     return portionMarkings;
@@ -98,7 +64,7 @@ public class PortionMarkings extends BannerMarkings {
 
     // Process each OtherDissem control sequentially. If ACCM- is found, attempt to process
     // the next tokens as ACCM markers unless they are in the OTHER_DISSEM set
-    String[] tokens = segment.split("[/]");
+    String[] tokens = segment.split("/");
     HashSet<OtherDissemControl> tempOther = new HashSet<>();
     HashSet<String> tempAccm = new HashSet<>();
     boolean processingAccm = false;
@@ -134,7 +100,7 @@ public class PortionMarkings extends BannerMarkings {
 
   @Override
   protected boolean processDisseminationControls(String segment) {
-    String[] split = segment.split("[/]");
+    String[] split = segment.split("/");
 
     if (!(split[0].startsWith(REL_TO)
         || split[0].startsWith(DISPLAY_ONLY)
@@ -29,7 +29,7 @@ public class SciControl implements Serializable {
   private final Map<String, List<String>> compartments;
 
   public SciControl(String marking) {
-    String[] split = marking.split("[-]");
+    String[] split = marking.split("-");
     control = split[0];
 
     if (split.length == 1) {
@@ -606,4 +606,74 @@ class BannerMarkingsSpec extends Specification {
         'UNCLASSIFIED//DOD UNCLASSIFIED CONTROLLED NUCLEAR INFORMATION'   | DOD_UCNI  | true | false
         'UNCLASSIFIED//DOE UNCLASSIFIED CONTROLLED NUCLEAR INFORMATION'   | DOE_UCNI  | false | true
     }
+
+    def 'test repeated markings are parsed once'() {
+        when:
+        def first = BannerMarkings.parseMarkings('SECRET//TK//RD-N//NOFORN')
+        def second = BannerMarkings.parseMarkings('SECRET//TK//RD-N//NOFORN')
+
+        then:
+        first.is(second)
+        second.classification == SECRET
+        second.disseminationControls == [NOFORN]
+    }
+
+    def 'test repeated invalid markings are validated each time'() {
+        when:
+        BannerMarkings.parseMarkings('SECRET//EXDIS/NODIS')
+
+        then:
+        thrown(MarkingsValidationException)
+
+        when:
+        BannerMarkings.parseMarkings('SECRET//EXDIS/NODIS')
+
+        then:
+        thrown(MarkingsValidationException)
+    }
+
+    def 'test portion markings are not served from the banner cache'() {
+        when:
+        def bannerMarkings = BannerMarkings.parseMarkings('SECRET')
+        def portionMarkings = PortionMarkings.parseMarkings('SECRET')
+
+        then:
+        !bannerMarkings.is(portionMarkings)
+        portionMarkings instanceof PortionMarkings
+    }
+
+    @Unroll
+    def 'test dissemination control lookup #name'() {
+        expect:
+        DissemControl.lookupBannerName(name) == banner
+        DissemControl.lookupPortionName(name) == portion
+
+        where:
+        name                                          | banner    | portion
+        'NOFORN'                                      | NOFORN    | null
+        'NOT RELEASABLE TO FOREIGN NATIONALS'         | NOFORN    | null
+        'NF'                                          | null      | NOFORN
+        'RELIDO'                                      | RELIDO    | RELIDO
+        'FOUO'                                        | FOUO      | FOUO
+        'UNKNOWN'                                     | null      | null
+    }
+
+    @Unroll
+    def 'test other dissemination control lookup #name'() {
+        expect:
+        OtherDissemControl.lookupBannerName(name) == banner
+        OtherDissemControl.lookupPortionName(name) == portion
+        OtherDissemControl.prefixBannerMatch(name) == bannerPrefix
+        OtherDissemControl.prefixPortionMatch(name) == portionPrefix
+
+        where:
+        name                     | banner     | portion    | bannerPrefix | portionPrefix
+        'EXDIS'                  | EXDIS      | null       | true         | false
+        'XD'                     | null       | EXDIS      | false        | true
+        'SBU NOFORN'             | SBU_NOFORN | null       | true         | true
+        'SBU-NF'                 | null       | SBU_NOFORN | true         | true
+        'ACCM-FOOBAR'            | null       | null       | true         | true
+        'LIMITED DISTRIBUTION/X' | null       | null       | true         | false
+        'UNKNOWN'                | null       | null       | false        | false
+    }
 }
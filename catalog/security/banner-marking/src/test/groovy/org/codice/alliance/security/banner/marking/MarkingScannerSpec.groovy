@@ -0,0 +1,110 @@
+/**
+ * Copyright (c) Codice Foundation
+ * <p/>
+ * This is free software: you can redistribute it and/or modify it under the terms of the GNU Lesser
+ * General Public License as published by the Free Software Foundation, either version 3 of the
+ * License, or any later version.
+ * <p/>
+ * This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY; without
+ * even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the GNU
+ * Lesser General Public License for more details. A copy of the GNU Lesser General Public License
+ * is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.security.banner.marking
+
+import spock.lang.Specification
+import spock.lang.Unroll
+
+import java.nio.charset.StandardCharsets
+
+import static org.codice.alliance.security.banner.marking.ClassificationLevel.*
+
+class MarkingScannerSpec extends Specification {
+
+    @Unroll
+    def 'test banner line of #document'() {
+        when:
+        def result = new MarkingScanner().scan(new StringReader(document))
+
+        then:
+        result.bannerLine.orElse(null) == bannerLine
+        result.portionMarkingCount == 0
+        !result.highWaterMark.present
+
+        where:
+        document                         || bannerLine
+        'SECRET//NOFORN\nbody'           || 'SECRET//NOFORN'
+        '\n  \r\n  SECRET  \r\nbody'     || 'SECRET'
+        'TOP SECRET'                     || 'TOP SECRET'
+        ''                               || null
+        ' \n\t\n'                        || null
+    }
+
+    def 'test banner line must be inside the prefix'() {
+        expect:
+        !new MarkingScanner(5, false).scan(new StringReader('SECRET\nbody')).bannerLine.present
+        new MarkingScanner(6, false).scan(new StringReader('SECRET\nbody')).bannerLine.get() == 'SECRET'
+        !new MarkingScanner().scan(new StringReader('x' * 100000)).bannerLine.present
+    }
+
+    @Unroll
+    def 'test byte order mark #bom'() {
+        given:
+        def bytes = new ByteArrayOutputStream()
+        bytes.write(bom as byte[])
+        bytes.write('SECRET//NOFORN\nbody'.getBytes(charset))
+
+        when:
+        def result = new MarkingScanner().scan(new ByteArrayInputStream(bytes.toByteArray()))
+
+        then:
+        result.bannerLine.get() == 'SECRET//NOFORN'
+
+        where:
+        bom                || charset
+        []                 || StandardCharsets.UTF_8
+        [0xEF, 0xBB, 0xBF] || StandardCharsets.UTF_8
+        [0xFE, 0xFF]       || StandardCharsets.UTF_16BE
+        [0xFF, 0xFE]       || StandardCharsets.UTF_16LE
+    }
+
+    @Unroll
+    def 'test portion markings of #document'() {
+        when:
+        def result = new MarkingScanner(8192, true).scan(new StringReader('SECRET\n' + document))
+
+        then:
+        result.bannerLine.get() == 'SECRET'
+        result.portionMarkingCount == count
+        result.highWaterMark.orElse(null) == highWaterMark
+
+        where:
+        document                                  || count | highWaterMark
+        '(U) one. (U) two.'                       || 2     | UNCLASSIFIED
+        '(U) one. (S//NF) two. (C) three.'        || 3     | SECRET
+        '(TS//SI-G ABCD//NF) one.\n(R) two.'      || 2     | TOP_SECRET
+        '(//NATO SECRET) one. (//CTS) two.'       || 2     | TOP_SECRET
+        '(U//FOUO) one. (see above) (S) two.'     || 2     | SECRET
+        '(S//\nNF) spans lines (XX//NF) (C'       || 0     | null
+        '((S//NF) nested (C(S) restart'           || 2     | SECRET
+        'no portion markings'                     || 0     | null
+    }
+
+    def 'test long portion marking is ignored'() {
+        when:
+        def result = new MarkingScanner(8192, true)
+                .scan(new StringReader('SECRET\n(S//' + 'X' * PortionMarkingMatcher.MAX_PORTION_LENGTH + ')'))
+
+        then:
+        result.portionMarkingCount == 0
+    }
+
+    def 'test invalid prefix length'() {
+        when:
+        new MarkingScanner(0, false)
+
+        then:
+        thrown(IllegalArgumentException)
+    }
+}
@@ -0,0 +1,87 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.security.banner.marking;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.AttributeImpl;
+import ddf.catalog.data.impl.MetacardImpl;
+import ddf.catalog.data.types.Validation;
+import org.codice.alliance.catalog.core.api.types.Security;
+import org.junit.Before;
+import org.junit.Test;
+
+public class MarkingExtractorTest {
+
+  private static final String DOCUMENT =
+      "CONFIDENTIAL\n(U) An unclassified paragraph.\n(S) A secret paragraph.\nCONFIDENTIAL\n";
+
+  private static final String WARNING =
+      String.format(MarkingExtractor.BANNER_BELOW_PORTION_MARKING_MESSAGE, "C", "S");
+
+  private MarkingExtractor markingExtractor;
+
+  private Metacard metacard;
+
+  @Before
+  public void setup() {
+    markingExtractor = new BannerCommonMarkingExtractor();
+    metacard = new MetacardImpl();
+  }
+
+  @Test
+  public void testBannerBelowPortionMarkingAddsValidationWarning() {
+    markingExtractor.setScanPortionMarkings(true);
+
+    markingExtractor.process(DOCUMENT, metacard);
+
+    assertThat(metacard.getAttribute(Security.CLASSIFICATION).getValue(), is("C"));
+    assertThat(
+        metacard.getAttribute(Validation.VALIDATION_WARNINGS).getValues(), contains(WARNING));
+  }
+
+  @Test
+  public void testExistingValidationWarningsAreKept() {
+    metacard.setAttribute(new AttributeImpl(Validation.VALIDATION_WARNINGS, "existing warning"));
+    markingExtractor.setScanPortionMarkings(true);
+
+    markingExtractor.process(DOCUMENT, metacard);
+
+    assertThat(
+        metacard.getAttribute(Validation.VALIDATION_WARNINGS).getValues(),
+        contains("existing warning", WARNING));
+  }
+
+  @Test
+  public void testBannerAtPortionMarkingHasNoValidationWarning() {
+    markingExtractor.setScanPortionMarkings(true);
+
+    markingExtractor.process("SECRET\n(U) A paragraph.\n(S) A paragraph.\nSECRET\n", metacard);
+
+    assertThat(metacard.getAttribute(Security.CLASSIFICATION).getValue(), is("S"));
+    assertThat(metacard.getAttribute(Validation.VALIDATION_WARNINGS), is(nullValue()));
+  }
+
+  @Test
+  public void testPortionMarkingsAreNotScannedByDefault() {
+    markingExtractor.process(DOCUMENT, metacard);
+
+    assertThat(metacard.getAttribute(Security.CLASSIFICATION).getValue(), is("C"));
+    assertThat(metacard.getAttribute(Validation.VALIDATION_WARNINGS), is(nullValue()));
+  }
+}
@@ -54,6 +54,8 @@ public class StreamMonitorHelper implements StreamMonitorHelperMBean {
 
   private static final String ID = "id";
 
+  private static final String METRICS = "metrics";
+
   private static final Predicate<InetAddress> IPV4_FILTER =
       inetAddress -> inetAddress instanceof Inet4Address;
 
@@ -155,6 +157,7 @@ public class StreamMonitorHelper implements StreamMonitorHelperMBean {
               map.put(
                   UdpStreamMonitor.METATYPE_FILENAME_TEMPLATE,
                   udpStreamMonitor.getFileNameTemplate());
+              map.put(METRICS, udpStreamMonitor.getStreamMetrics().toMap());
               return map;
             })
         .collect(Collectors.toList());
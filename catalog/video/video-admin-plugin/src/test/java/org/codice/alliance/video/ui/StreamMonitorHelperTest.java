@@ -13,6 +13,7 @@
  */
 package org.codice.alliance.video.ui;
 
+import static org.hamcrest.Matchers.hasEntry;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
@@ -42,6 +43,7 @@ import java.util.Map;
 import java.util.Optional;
 import org.codice.alliance.video.stream.mpegts.StreamMonitor;
 import org.codice.alliance.video.stream.mpegts.UdpStreamMonitor;
+import org.codice.alliance.video.stream.mpegts.metrics.StreamMetrics;
 import org.codice.alliance.video.ui.service.StreamMonitorHelper;
 import org.junit.Before;
 import org.junit.Test;
@@ -63,6 +65,8 @@ public class StreamMonitorHelperTest {
 
   private boolean isMonitoring;
 
+  private StreamMetrics streamMetrics = new StreamMetrics();
+
   @Before
   public void setUp() throws Exception {
     bundleContext = mock(BundleContext.class);
@@ -77,6 +81,7 @@ public class StreamMonitorHelperTest {
     when(udpStreamMonitor.getTitle()).thenReturn(Optional.of("test"));
     when(udpStreamMonitor.getStreamId()).thenReturn("stream123");
     when(udpStreamMonitor.getStreamUri()).thenReturn(Optional.of(uri));
+    when(udpStreamMonitor.getStreamMetrics()).thenReturn(streamMetrics);
     // when(udpStreamMonitor.startMonitoring()).thenReturn(Optional.of(uri));
     doAnswer(
             invocation -> {
@@ -132,6 +137,19 @@ public class StreamMonitorHelperTest {
     assertThat(objectMap.get(UdpStreamMonitor.METATYPE_MONITORED_ADDRESS), is(TEST_URL));
   }
 
+  @Test
+  @SuppressWarnings("unchecked")
+  public void testStreamMonitorsMetrics() {
+    streamMetrics.recordDatagram();
+    streamMetrics.recordContinuityError();
+
+    Map<String, Object> metrics =
+        (Map<String, Object>) stream.udpStreamMonitors().get(0).get("metrics");
+
+    assertThat(metrics, hasEntry(StreamMetrics.DATAGRAMS_RECEIVED, (Object) 1L));
+    assertThat(metrics, hasEntry(StreamMetrics.CONTINUITY_ERRORS, (Object) 1L));
+  }
+
   @Test
   public void testStreamMonitorsNullBundleContext() {
     StreamMonitorHelper stream = new StreamMonitorHelper();
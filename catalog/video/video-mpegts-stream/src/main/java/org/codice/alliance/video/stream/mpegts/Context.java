@@ -13,28 +13,62 @@
  */
 package org.codice.alliance.video.stream.mpegts;
 
+import static org.apache.commons.lang3.Validate.isTrue;
 import static org.apache.commons.lang3.Validate.notNull;
 
 import ddf.catalog.data.Metacard;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileAttribute;
+import java.nio.file.attribute.PosixFilePermission;
+import java.nio.file.attribute.PosixFilePermissions;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Function;
+import org.codice.alliance.libs.klv.FootprintAccumulator;
 import org.codice.alliance.libs.klv.GeometryOperator;
+import org.codice.alliance.video.stream.mpegts.metrics.StreamMetrics;
 import org.codice.alliance.video.stream.mpegts.netty.UdpStreamProcessor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
-/** This class supplies data used by different parts of the stream processor. */
+/**
+ * This class supplies data used by different parts of the stream processor. It is shared by the
+ * netty pipeline, the rollover queue, the stream-end plugins and the stream monitor, so it is
+ * thread-safe. The parent metacard is replaced as a whole and never modified in place through this
+ * class, and the counters are atomic. The parent lock (see {@link #modifyParentOrChild(Function)})
+ * only guards the dirty flag and in-memory merges such as the parent aggregate, so that catalog
+ * calls made by one thread never block another thread that works on the same stream.
+ */
 public class Context {
 
-  private static final ThreadLocal<Boolean> IN_MODIFY_PARENT =
-      new ThreadLocal<Boolean>() {
-        @Override
-        protected Boolean initialValue() {
-          return false;
-        }
-      };
+  /** Minimum time between two snapshots of the same parent aggregate. */
+  public static final long DEFAULT_PARENT_AGGREGATE_SAVE_INTERVAL_MILLIS =
+      TimeUnit.MINUTES.toMillis(1);
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(Context.class);
+
+  private static final FileAttribute<Set<PosixFilePermission>> OWNER_ONLY_DIRECTORY =
+      PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rwx------"));
+
+  private static final FileAttribute<Set<PosixFilePermission>> OWNER_ONLY_FILE =
+      PosixFilePermissions.asFileAttribute(PosixFilePermissions.fromString("rw-------"));
 
   private final UdpStreamProcessor udpStreamProcessor;
 
+  private final ReentrantLock parentLock = new ReentrantLock();
+
   /**
    * Certain metacard fields in the parent are updated when the stream ends (either manually or by
    * timeout). When the parent is updated, this field is set to FALSE. If a child video chunk is
@@ -45,13 +79,35 @@ public class Context {
    */
   private final AtomicBoolean isParentDirty = new AtomicBoolean(false);
 
-  private Optional<Metacard> parentMetacard = Optional.empty();
+  private final AtomicReference<Optional<Metacard>> parentMetacard =
+      new AtomicReference<>(Optional.empty());
 
   private final GeometryOperator.Context geometryOperatorContext = new GeometryOperator.Context();
 
-  private int nextRecordingCount = 1;
+  private final StreamMetrics streamMetrics = new StreamMetrics();
+
+  /** Guarded by {@link #parentLock}. */
+  private ParentAggregate parentAggregate;
+
+  /** Snapshots are disabled when this is null. */
+  private volatile File parentAggregateDirectory = getDefaultParentAggregateDirectory();
+
+  private volatile long parentAggregateSaveIntervalMillis =
+      DEFAULT_PARENT_AGGREGATE_SAVE_INTERVAL_MILLIS;
+
+  /** Guarded by {@link #parentLock}. */
+  private String savedParentId;
 
-  private int nextSegmentCount = 1;
+  /** Guarded by {@link #parentLock}. */
+  private long savedParentNanos;
+
+  private final AtomicInteger nextRecordingCount = new AtomicInteger(1);
+
+  private final AtomicInteger nextSegmentCount = new AtomicInteger(1);
+
+  private volatile long segmentStart = -1;
+
+  private volatile long segmentEnd = -1;
 
   /** @param udpStreamProcessor must be non-null */
   public Context(UdpStreamProcessor udpStreamProcessor) {
@@ -63,20 +119,194 @@ public class Context {
     return udpStreamProcessor;
   }
 
+  public StreamMetrics getStreamMetrics() {
+    return streamMetrics;
+  }
+
+  /**
+   * The parent metacard is read and replaced atomically. Callers that change attributes of the
+   * returned metacard must do so through {@link #modifyParentOrChild(Function)}, and should publish
+   * the updated parent with {@link #setParentMetacard(Metacard)}.
+   *
+   * @return the latest parent metacard
+   */
   public Optional<Metacard> getParentMetacard() {
-    return parentMetacard;
+    return parentMetacard.get();
   }
 
   /** @param parentMetacard must be non-null */
   public void setParentMetacard(Metacard parentMetacard) {
     notNull(parentMetacard, "parentMetacard must be non-null");
-    this.parentMetacard = Optional.of(parentMetacard);
+    this.parentMetacard.set(Optional.of(parentMetacard));
   }
 
   public GeometryOperator.Context getGeometryOperatorContext() {
     return geometryOperatorContext;
   }
 
+  /**
+   * Return the running aggregate of the children of a parent metacard. Only the aggregate of the
+   * most recent parent is kept, asking for a different parent starts a new aggregate, which is read
+   * from the snapshot of that parent if one exists. The aggregate is not thread-safe, so callers
+   * must use it through {@link #modifyParentOrChild(Function)}.
+   *
+   * @param parentId must be non-null
+   * @return the aggregate of the parent
+   */
+  public ParentAggregate getParentAggregate(String parentId) {
+    notNull(parentId, "parentId must be non-null");
+    parentLock.lock();
+    try {
+      if (parentAggregate == null || !parentId.equals(parentAggregate.getParentId())) {
+        parentAggregate = readParentAggregate(parentId);
+      }
+      return parentAggregate;
+    } finally {
+      parentLock.unlock();
+    }
+  }
+
+  private ParentAggregate readParentAggregate(String parentId) {
+    File directory = parentAggregateDirectory;
+    if (directory == null) {
+      return new ParentAggregate(parentId);
+    }
+
+    File snapshotFile = ParentAggregate.getSnapshotFile(directory, parentId);
+    if (snapshotFile.isFile()) {
+      try {
+        ParentAggregate snapshot = ParentAggregate.read(snapshotFile);
+        if (parentId.equals(snapshot.getParentId())) {
+          return snapshot;
+        }
+      } catch (IOException e) {
+        LOGGER.debug("unable to read parent aggregate snapshot: file={}", snapshotFile, e);
+      }
+    }
+    return new ParentAggregate(parentId);
+  }
+
+  /**
+   * Return the running union of the child locations of a parent metacard (see {@link
+   * #getParentAggregate(String)}).
+   *
+   * @param parentId must be non-null
+   * @return the footprint of the parent
+   */
+  public FootprintAccumulator getParentFootprint(String parentId) {
+    return getParentAggregate(parentId).getFootprint();
+  }
+
+  /**
+   * Save a snapshot of the current parent aggregate. The snapshot is taken under the parent lock
+   * and written after the lock is released. Each snapshot rewrites the whole aggregate, so a
+   * snapshot of the same parent is only taken once per save interval. Failures are logged and
+   * otherwise ignored, the in-memory aggregate is still used. Children that are missing from a
+   * restored snapshot are found again by the stream-end query.
+   */
+  public void saveParentAggregate() {
+    File directory = parentAggregateDirectory;
+    if (directory == null) {
+      return;
+    }
+
+    ParentAggregate aggregate;
+    String snapshot;
+    parentLock.lock();
+    try {
+      if (parentAggregate == null) {
+        return;
+      }
+      long now = System.nanoTime();
+      if (parentAggregate.getParentId().equals(savedParentId)
+          && now - savedParentNanos
+              < TimeUnit.MILLISECONDS.toNanos(parentAggregateSaveIntervalMillis)) {
+        return;
+      }
+      savedParentId = parentAggregate.getParentId();
+      savedParentNanos = now;
+      aggregate = parentAggregate;
+      snapshot = parentAggregate.toSnapshot();
+    } finally {
+      parentLock.unlock();
+    }
+
+    File snapshotFile = ParentAggregate.getSnapshotFile(directory, aggregate.getParentId());
+    try {
+      writeSnapshot(snapshotFile.toPath(), snapshot);
+    } catch (IOException e) {
+      LOGGER.debug("unable to save parent aggregate snapshot: file={}", snapshotFile, e);
+    }
+  }
+
+  /**
+   * The snapshot holds the child ids and locations of the stream, so only the owner may read the
+   * directory and the files where the file system supports it.
+   */
+  private static void writeSnapshot(Path snapshotFile, String snapshot) throws IOException {
+    Path tempFile = Paths.get(snapshotFile + ".tmp");
+    if (FileSystems.getDefault().supportedFileAttributeViews().contains("posix")) {
+      Files.createDirectories(snapshotFile.getParent(), OWNER_ONLY_DIRECTORY);
+      Files.deleteIfExists(tempFile);
+      Files.createFile(tempFile, OWNER_ONLY_FILE);
+    } else {
+      Files.createDirectories(snapshotFile.getParent());
+    }
+    Files.write(tempFile, snapshot.getBytes(StandardCharsets.UTF_8));
+    Files.move(tempFile, snapshotFile, StandardCopyOption.REPLACE_EXISTING);
+  }
+
+  /** Delete the snapshot of the current parent aggregate, if there is one. */
+  public void deleteParentAggregateSnapshot() {
+    File directory = parentAggregateDirectory;
+    if (directory == null) {
+      return;
+    }
+
+    getParentMetacard()
+        .map(Metacard::getId)
+        .map(parentId -> ParentAggregate.getSnapshotFile(directory, parentId))
+        .ifPresent(
+            snapshotFile -> {
+              try {
+                Files.deleteIfExists(snapshotFile.toPath());
+              } catch (IOException e) {
+                LOGGER.debug(
+                    "unable to delete parent aggregate snapshot: file={}", snapshotFile, e);
+              }
+            });
+  }
+
+  /**
+   * The snapshots are kept in <code>data/video/parent-aggregates</code> of <code>ddf.home</code>.
+   *
+   * @return the directory or null to disable snapshots when <code>ddf.home</code> is not set
+   */
+  private static File getDefaultParentAggregateDirectory() {
+    String ddfHome = System.getProperty("ddf.home");
+    if (ddfHome == null) {
+      return null;
+    }
+    return Paths.get(ddfHome, "data", "video", "parent-aggregates").toFile();
+  }
+
+  /** @param parentAggregateDirectory must be non-null, directory of the aggregate snapshots */
+  public void setParentAggregateDirectory(File parentAggregateDirectory) {
+    notNull(parentAggregateDirectory, "parentAggregateDirectory must be non-null");
+    this.parentAggregateDirectory = parentAggregateDirectory;
+  }
+
+  /**
+   * @param parentAggregateSaveIntervalMillis must be non-negative, minimum time between two
+   *     snapshots of the same parent aggregate
+   */
+  public void setParentAggregateSaveIntervalMillis(long parentAggregateSaveIntervalMillis) {
+    isTrue(
+        parentAggregateSaveIntervalMillis >= 0,
+        "parentAggregateSaveIntervalMillis must be non-negative");
+    this.parentAggregateSaveIntervalMillis = parentAggregateSaveIntervalMillis;
+  }
+
   /**
    * Callers that wish to modify the parent or child metacards should perform their actions with the
    * {@link Function} passed into this method. The function will be passed an {@link AtomicBoolean}
@@ -84,33 +314,64 @@ public class Context {
    * the AtomicBoolean outside the context of this method call. Callers may modify the AtomicBoolean
    * within the context of this method call.
    *
+   * <p>The function runs under the parent lock, so it must only work in memory. Catalog queries,
+   * creates and updates must be made before or after this call, never from the function.
+   *
    * @param function must be non-null
    * @param <T> the return type of this method and the Function
    * @return the return value of the Function
    */
   public <T> T modifyParentOrChild(Function<AtomicBoolean, T> function) {
-    synchronized (isParentDirty) {
+    notNull(function, "function must be non-null");
+    parentLock.lock();
+    try {
       return function.apply(isParentDirty);
+    } finally {
+      parentLock.unlock();
     }
   }
 
+  /**
+   * Record that a child was stored, so the parent is out of sync with its children. This does not
+   * take the parent lock.
+   */
+  public void markParentDirty() {
+    isParentDirty.set(true);
+  }
+
+  /**
+   * Rollover actions run in the background, after the packet buffer may have started another
+   * segment, so the times of the segment being ingested are recorded here when it is queued.
+   *
+   * @param segmentStart start time of the segment in milliseconds, or -1 if unknown
+   * @param segmentEnd end time of the segment in milliseconds, or -1 if unknown
+   */
+  public void setSegmentInterval(long segmentStart, long segmentEnd) {
+    this.segmentStart = segmentStart;
+    this.segmentEnd = segmentEnd;
+  }
+
+  public long getSegmentStart() {
+    return segmentStart;
+  }
+
+  public long getSegmentEnd() {
+    return segmentEnd;
+  }
+
   public int getNextRecordingCount() {
-    int val = nextRecordingCount;
-    nextRecordingCount++;
-    return val;
+    return nextRecordingCount.getAndIncrement();
   }
 
   public void resetRecordingCount() {
-    this.nextRecordingCount = 1;
+    nextRecordingCount.set(1);
   }
 
   public int getNextSegmentCount() {
-    int val = nextSegmentCount;
-    nextSegmentCount++;
-    return val;
+    return nextSegmentCount.getAndIncrement();
   }
 
   public void resetSegmentCount() {
-    this.nextSegmentCount = 1;
+    nextSegmentCount.set(1);
   }
 }
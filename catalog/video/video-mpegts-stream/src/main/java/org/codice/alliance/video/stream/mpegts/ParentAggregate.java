@@ -0,0 +1,280 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.video.stream.mpegts;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.StringReader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import javax.annotation.concurrent.NotThreadSafe;
+import org.codice.alliance.libs.klv.FootprintAccumulator;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+import org.locationtech.jts.io.WKTWriter;
+
+/**
+ * The running aggregates of the children of a parent metacard. The aggregates are updated as each
+ * child is stored by the rollover action, so that the parent can be updated at the end of the
+ * stream without finding and reading every child again. The aggregate keeps the union of the child
+ * locations, the frame-center coordinates of the children in the order they were stored, and the
+ * ids of the children that have been merged. It can be saved to a snapshot file (see {@link
+ * #toSnapshot()} and {@link #read(File)}). The snapshot is text with one <code>type,value</code>
+ * record per line.
+ */
+@NotThreadSafe
+public class ParentAggregate {
+
+  public static final String FILE_PREFIX = "mpegts-parent-";
+
+  public static final String FILE_EXTENSION = ".aggregate";
+
+  private static final String PARENT_RECORD = "parent";
+
+  private static final String CHILD_RECORD = "child";
+
+  private static final String LOCATION_CHILD_RECORD = "location-child";
+
+  private static final String LOCATION_RECORD = "location";
+
+  private static final String FRAME_CENTER_CHILD_RECORD = "frame-center-child";
+
+  private static final String FRAME_CENTER_RECORD = "frame-center";
+
+  private final String parentId;
+
+  private final FootprintAccumulator footprint = new FootprintAccumulator();
+
+  private final Set<String> childIds = new LinkedHashSet<>();
+
+  private final Set<String> frameCenterIds = new HashSet<>();
+
+  private final List<Coordinate> frameCenterCoordinates = new ArrayList<>();
+
+  /** @param parentId must be non-null */
+  public ParentAggregate(String parentId) {
+    notNull(parentId, "parentId must be non-null");
+    this.parentId = parentId;
+  }
+
+  /**
+   * Get the snapshot file of a parent. Characters of the parent id that are not safe in a file name
+   * are replaced.
+   *
+   * @param directory must be non-null
+   * @param parentId must be non-null
+   * @return the snapshot file, which may not exist
+   */
+  public static File getSnapshotFile(File directory, String parentId) {
+    notNull(directory, "directory must be non-null");
+    notNull(parentId, "parentId must be non-null");
+    return new File(
+        directory, FILE_PREFIX + parentId.replaceAll("[^A-Za-z0-9._-]", "_") + FILE_EXTENSION);
+  }
+
+  /**
+   * @param snapshotFile must be non-null
+   * @return the aggregate read from the file
+   * @throws IOException if the file cannot be read or is malformed
+   */
+  public static ParentAggregate read(File snapshotFile) throws IOException {
+    notNull(snapshotFile, "snapshotFile must be non-null");
+    return fromSnapshot(
+        new String(Files.readAllBytes(snapshotFile.toPath()), StandardCharsets.UTF_8));
+  }
+
+  /**
+   * @param snapshot must be non-null
+   * @return the aggregate read from a snapshot created by {@link #toSnapshot()}
+   * @throws IOException if the snapshot is malformed
+   */
+  public static ParentAggregate fromSnapshot(String snapshot) throws IOException {
+    notNull(snapshot, "snapshot must be non-null");
+
+    try (BufferedReader reader = new BufferedReader(new StringReader(snapshot))) {
+      String line = reader.readLine();
+      if (line == null || !line.startsWith(PARENT_RECORD + ",")) {
+        throw new IOException("not a parent aggregate snapshot");
+      }
+
+      ParentAggregate parentAggregate =
+          new ParentAggregate(line.substring(PARENT_RECORD.length() + 1));
+      WKTReader wktReader = new WKTReader();
+
+      while ((line = reader.readLine()) != null) {
+        int comma = line.indexOf(',');
+        if (comma < 0) {
+          throw new IOException(String.format("malformed parent aggregate record: %s", line));
+        }
+        parentAggregate.readRecord(line.substring(0, comma), line.substring(comma + 1), wktReader);
+      }
+
+      return parentAggregate;
+    }
+  }
+
+  private void readRecord(String type, String value, WKTReader wktReader) throws IOException {
+    try {
+      switch (type) {
+        case CHILD_RECORD:
+          childIds.add(value);
+          break;
+        case LOCATION_CHILD_RECORD:
+          footprint.add(value, null);
+          break;
+        case LOCATION_RECORD:
+          footprint.add(null, wktReader.read(value));
+          break;
+        case FRAME_CENTER_CHILD_RECORD:
+          frameCenterIds.add(value);
+          break;
+        case FRAME_CENTER_RECORD:
+          int space = value.indexOf(' ');
+          frameCenterCoordinates.add(
+              new Coordinate(
+                  Double.parseDouble(value.substring(0, space)),
+                  Double.parseDouble(value.substring(space + 1))));
+          break;
+        default:
+          throw new IOException(String.format("unknown parent aggregate record: type=%s", type));
+      }
+    } catch (ParseException | NumberFormatException | IndexOutOfBoundsException e) {
+      throw new IOException(
+          String.format("malformed parent aggregate record: type=%s value=%s", type, value), e);
+    }
+  }
+
+  public String getParentId() {
+    return parentId;
+  }
+
+  /**
+   * Return the running union of the child locations.
+   *
+   * @return the footprint
+   */
+  public FootprintAccumulator getFootprint() {
+    return footprint;
+  }
+
+  /**
+   * Record that the child has been merged into the aggregate.
+   *
+   * @param childId must be non-null
+   * @return false if the child had already been merged
+   */
+  public boolean addChild(String childId) {
+    notNull(childId, "childId must be non-null");
+    return childIds.add(childId);
+  }
+
+  /**
+   * @param childIds must be non-null
+   * @return true if every child has been merged into the aggregate
+   */
+  public boolean containsChildren(Collection<String> childIds) {
+    notNull(childIds, "childIds must be non-null");
+    return this.childIds.containsAll(childIds);
+  }
+
+  public int getChildCount() {
+    return childIds.size();
+  }
+
+  /**
+   * Append the coordinates of a child frame-center. Null and empty geometries are ignored.
+   *
+   * @param childId identifies the child, may be null if the child cannot be identified
+   * @param geometry may be null
+   * @return false if the frame-center of the child has already been added, otherwise true
+   */
+  public boolean addFrameCenter(String childId, Geometry geometry) {
+    if (childId != null && !frameCenterIds.add(childId)) {
+      return false;
+    }
+    if (geometry != null && !geometry.isEmpty()) {
+      Collections.addAll(frameCenterCoordinates, geometry.getCoordinates());
+    }
+    return true;
+  }
+
+  /**
+   * @param childId may be null
+   * @return true if the frame-center of the child has already been added
+   */
+  public boolean containsFrameCenter(String childId) {
+    return childId != null && frameCenterIds.contains(childId);
+  }
+
+  /**
+   * Return the frame-center coordinates of the children in the order they were added.
+   *
+   * @return unmodifiable view of the coordinates
+   */
+  public List<Coordinate> getFrameCenterCoordinates() {
+    return Collections.unmodifiableList(frameCenterCoordinates);
+  }
+
+  /**
+   * Capture the aggregate as text. This only works in memory, so it can be called under the parent
+   * lock of the context and written to a file afterwards.
+   *
+   * @return the snapshot
+   */
+  public String toSnapshot() {
+    StringBuilder snapshot = new StringBuilder();
+    appendRecord(snapshot, PARENT_RECORD, parentId);
+    childIds.forEach(childId -> appendRecord(snapshot, CHILD_RECORD, childId));
+    footprint.getIds().forEach(childId -> appendRecord(snapshot, LOCATION_CHILD_RECORD, childId));
+    footprint
+        .getFootprint()
+        .ifPresent(
+            geometry -> appendRecord(snapshot, LOCATION_RECORD, new WKTWriter().write(geometry)));
+    frameCenterIds.forEach(childId -> appendRecord(snapshot, FRAME_CENTER_CHILD_RECORD, childId));
+    frameCenterCoordinates.forEach(
+        coordinate ->
+            appendRecord(snapshot, FRAME_CENTER_RECORD, coordinate.x + " " + coordinate.y));
+    return snapshot.toString();
+  }
+
+  private static void appendRecord(StringBuilder snapshot, String type, String value) {
+    snapshot.append(type).append(',').append(value).append('\n');
+  }
+
+  @Override
+  public String toString() {
+    return "ParentAggregate{"
+        + "parentId="
+        + parentId
+        + ", childCount="
+        + childIds.size()
+        + ", footprint="
+        + footprint
+        + ", frameCenterCount="
+        + frameCenterCoordinates.size()
+        + '}';
+  }
+}
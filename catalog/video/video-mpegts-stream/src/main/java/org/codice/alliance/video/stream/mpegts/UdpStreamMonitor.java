@@ -21,12 +21,11 @@ import ddf.catalog.CatalogFramework;
 import ddf.catalog.data.MetacardType;
 import io.netty.bootstrap.Bootstrap;
 import io.netty.channel.ChannelFuture;
+import io.netty.channel.ChannelFutureListener;
 import io.netty.channel.ChannelInitializer;
 import io.netty.channel.ChannelOption;
-import io.netty.channel.EventLoopGroup;
-import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.DatagramChannel;
 import io.netty.channel.socket.InternetProtocolFamily;
-import io.netty.channel.socket.nio.NioDatagramChannel;
 import java.net.Inet4Address;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
@@ -47,6 +46,8 @@ import org.apache.commons.lang3.tuple.ImmutablePair;
 import org.apache.commons.lang3.tuple.Pair;
 import org.codice.alliance.video.stream.mpegts.filename.FilenameGenerator;
 import org.codice.alliance.video.stream.mpegts.metacard.MetacardUpdater;
+import org.codice.alliance.video.stream.mpegts.metrics.StreamMetrics;
+import org.codice.alliance.video.stream.mpegts.netty.StreamRuntime;
 import org.codice.alliance.video.stream.mpegts.netty.UdpStreamProcessor;
 import org.codice.alliance.video.stream.mpegts.plugins.StreamCreationPlugin;
 import org.codice.alliance.video.stream.mpegts.plugins.StreamEndPlugin;
@@ -59,10 +60,12 @@ import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
- * Starts a Netty server with a pipeline specified by {@link UdpStreamProcessor}. The following
- * properties must be set:
+ * Binds a Netty channel with a pipeline specified by {@link UdpStreamProcessor}. The channel is
+ * registered with the event loop group of the shared {@link StreamRuntime}, so monitors do not own
+ * any threads. The following properties must be set:
  *
  * <ul>
+ *   <li>{@link #setStreamRuntime(StreamRuntime)}
  *   <li>{@link #setMonitoredAddress(String)}
  *   <li>{@link #setFilenameTemplate(String)}
  *   <li>{@link #setRolloverCondition(RolloverCondition)}
@@ -135,9 +138,7 @@ public class UdpStreamMonitor implements StreamMonitor {
 
   private Integer monitoredPort;
 
-  private EventLoopGroup eventLoopGroup;
-
-  private Thread serverThread;
+  private StreamRuntime streamRuntime;
 
   private String parentTitle;
 
@@ -253,13 +254,20 @@ public class UdpStreamMonitor implements StreamMonitor {
     udpStreamProcessor.setRolloverCondition(rolloverCondition);
   }
 
+  /** @param streamRuntime must be non-null */
+  public void setStreamRuntime(StreamRuntime streamRuntime) {
+    notNull(streamRuntime, "streamRuntime must be non-null");
+    this.streamRuntime = streamRuntime;
+    udpStreamProcessor.setStreamRuntime(streamRuntime);
+  }
+
   public void setUuidGenerator(final UuidGenerator uuidGenerator) {
     notNull(uuidGenerator, "uuidGenerator must be non-null");
     udpStreamProcessor.setUuidGenerator(uuidGenerator);
   }
 
   private boolean isReady() {
-    return monitoredAddress != null && udpStreamProcessor.isReady();
+    return monitoredAddress != null && streamRuntime != null && udpStreamProcessor.isReady();
   }
 
   /**
@@ -284,8 +292,7 @@ public class UdpStreamMonitor implements StreamMonitor {
     shutdown();
     if (isReady()) {
       udpStreamProcessor.init();
-      serverThread = new Thread(new Server());
-      serverThread.start();
+      startServer();
       monitoring = true;
       startTime = new Date();
     } else {
@@ -312,6 +319,15 @@ public class UdpStreamMonitor implements StreamMonitor {
     this.parentTitle = parentTitle;
   }
 
+  /**
+   * Get the live ingest metrics of the stream.
+   *
+   * @return non-null metrics
+   */
+  public StreamMetrics getStreamMetrics() {
+    return udpStreamProcessor.getStreamMetrics();
+  }
+
   public String getStartDateAsString() {
     if (startTime == null) {
       return "Not Started";
@@ -366,55 +382,23 @@ public class UdpStreamMonitor implements StreamMonitor {
   }
 
   private void shutdown() {
-    if (eventLoopGroup != null) {
-      try {
-        LOGGER.debug("Shutting down event loop group");
-        eventLoopGroup.shutdownGracefully().await(2000);
-        if (!eventLoopGroup.isShutdown()) {
-          eventLoopGroup.shutdownNow();
-        }
-      } catch (InterruptedException e) {
-        LOGGER.debug("Graceful shutdown of channel interrupted", e);
-        Thread.currentThread().interrupt();
-      }
-    }
-
     if (channelFuture != null) {
       try {
         LOGGER.debug("Shutting down channel future");
-        channelFuture.channel().closeFuture().await(2000);
-        if (channelFuture.channel().isOpen()) {
-          channelFuture.channel().close();
-        }
+        channelFuture.channel().close().await(2000);
       } catch (InterruptedException e) {
         LOGGER.debug("Graceful shutdown of channel future interrupted", e);
         Thread.currentThread().interrupt();
       }
     }
 
-    if (serverThread != null) {
-      LOGGER.debug("shutting down monitor server thread");
-      joinServerThread();
-      serverThread = null;
-    }
-
     if (udpStreamProcessor != null) {
       udpStreamProcessor.shutdown();
     }
 
     channelFuture = null;
-  }
-
-  private void joinServerThread() {
-    try {
-      serverThread.join();
-    } catch (InterruptedException e) {
-      LOGGER.debug("interrupted while waiting for server thread to join", e);
-      Thread.currentThread().interrupt();
-    } finally {
-      monitoring = false;
-      startTime = null;
-    }
+    monitoring = false;
+    startTime = null;
   }
 
   /**
@@ -617,80 +601,105 @@ public class UdpStreamMonitor implements StreamMonitor {
       Bootstrap bootstrap, NetworkInterface networkInterface, InetAddress inetAddress) {
 
     bootstrap
-        .group(eventLoopGroup)
-        .channelFactory(() -> new NioDatagramChannel(InternetProtocolFamily.IPv4))
+        .group(streamRuntime.getEventLoopGroup())
+        .channelFactory(() -> streamRuntime.createDatagramChannel(InternetProtocolFamily.IPv4))
         .handler(new Pipeline(udpStreamProcessor))
         .localAddress(inetAddress, monitoredPort)
         .option(ChannelOption.IP_MULTICAST_IF, networkInterface)
         .option(ChannelOption.SO_REUSEADDR, true);
 
-    try {
-      channelFuture = bootstrap.bind(monitoredPort).sync();
-      NioDatagramChannel ch = (NioDatagramChannel) channelFuture.channel();
-
-      ch.joinGroup(new InetSocketAddress(monitoredAddress, monitoredPort), networkInterface).sync();
-    } catch (InterruptedException e) {
-      LOGGER.debug("interrupted while waiting for shutdown", e);
-      Thread.currentThread().interrupt();
-    }
+    channelFuture = bootstrap.bind(monitoredPort);
+
+    channelFuture.addListener(
+        (ChannelFutureListener)
+            future -> {
+              if (future.isSuccess()) {
+                joinMulticastGroup((DatagramChannel) future.channel(), networkInterface);
+              } else {
+                LOGGER.debug(
+                    "unable to bind multicast server: address={} port={}",
+                    monitoredAddress,
+                    monitoredPort,
+                    future.cause());
+              }
+            });
+  }
+
+  private void joinMulticastGroup(DatagramChannel channel, NetworkInterface networkInterface) {
+    channel
+        .joinGroup(new InetSocketAddress(monitoredAddress, monitoredPort), networkInterface)
+        .addListener(
+            future -> {
+              if (!future.isSuccess()) {
+                LOGGER.debug(
+                    "unable to join multicast group: address={} port={}",
+                    monitoredAddress,
+                    monitoredPort,
+                    future.cause());
+              }
+            });
   }
 
   private void runUnicastServer(Bootstrap bootstrap) {
     bootstrap
-        .group(eventLoopGroup)
-        .channel(NioDatagramChannel.class)
+        .group(streamRuntime.getEventLoopGroup())
+        .channelFactory(streamRuntime::createDatagramChannel)
         .handler(new Pipeline(udpStreamProcessor));
-    try {
-      channelFuture = bootstrap.bind(monitoredAddress, monitoredPort).sync();
-    } catch (InterruptedException e) {
-      LOGGER.debug("interrupted while waiting for shutdown", e);
-      Thread.currentThread().interrupt();
-    }
-  }
 
-  private static class Pipeline extends ChannelInitializer<NioDatagramChannel> {
+    channelFuture = bootstrap.bind(monitoredAddress, monitoredPort);
 
-    private final UdpStreamProcessor udpStreamProcessor;
+    channelFuture.addListener(
+        future -> {
+          if (!future.isSuccess()) {
+            LOGGER.debug(
+                "unable to bind unicast server: address={} port={}",
+                monitoredAddress,
+                monitoredPort,
+                future.cause());
+          }
+        });
+  }
 
-    private Pipeline(UdpStreamProcessor udpStreamProcessor) {
-      this.udpStreamProcessor = udpStreamProcessor;
-    }
+  /**
+   * Bind the channel on the shared event loop group. Binding is asynchronous, so the caller is not
+   * blocked while the channel is registered.
+   */
+  private void startServer() {
 
-    @Override
-    protected void initChannel(NioDatagramChannel nioDatagramChannel) {
-      nioDatagramChannel.pipeline().addLast(udpStreamProcessor.createChannelHandlers());
-    }
-  }
+    LOGGER.debug("starting udp listener: address={} port={}", monitoredAddress, monitoredPort);
 
-  private class Server implements Runnable {
+    Bootstrap bootstrap = new Bootstrap();
 
-    @Override
-    public void run() {
+    if (isMulticast(monitoredAddress)) {
 
-      LOGGER.debug(
-          "starting udp listening thread: address={} port={}", monitoredAddress, monitoredPort);
+      Optional<Pair<NetworkInterface, InetAddress>> networkPair =
+          findLocalAddress(networkInterface);
 
-      Bootstrap bootstrap = new Bootstrap();
+      if (networkPair.isPresent()) {
 
-      eventLoopGroup = new NioEventLoopGroup();
+        runMulticastServer(bootstrap, networkPair.get().getKey(), networkPair.get().getValue());
+      } else {
+        LOGGER.debug(
+            "cannot start multicast server because the IPv4 address for interface '{}' cannot be found",
+            networkInterface);
+      }
 
-      if (isMulticast(monitoredAddress)) {
+    } else {
+      runUnicastServer(bootstrap);
+    }
+  }
 
-        Optional<Pair<NetworkInterface, InetAddress>> networkPair =
-            findLocalAddress(networkInterface);
+  private static class Pipeline extends ChannelInitializer<DatagramChannel> {
 
-        if (networkPair.isPresent()) {
+    private final UdpStreamProcessor udpStreamProcessor;
 
-          runMulticastServer(bootstrap, networkPair.get().getKey(), networkPair.get().getValue());
-        } else {
-          LOGGER.debug(
-              "cannot start multicast server because the IPv4 address for interface '{}' cannot be found",
-              networkInterface);
-        }
+    private Pipeline(UdpStreamProcessor udpStreamProcessor) {
+      this.udpStreamProcessor = udpStreamProcessor;
+    }
 
-      } else {
-        runUnicastServer(bootstrap);
-      }
+    @Override
+    protected void initChannel(DatagramChannel datagramChannel) {
+      datagramChannel.pipeline().addLast(udpStreamProcessor.createChannelHandlers());
     }
   }
 }
@@ -13,38 +13,64 @@
  */
 package org.codice.alliance.video.stream.mpegts.framework;
 
+import static org.apache.commons.lang3.Validate.notNull;
+
 import ddf.catalog.CatalogFramework;
 import ddf.catalog.operation.Update;
 import ddf.catalog.operation.UpdateRequest;
 import ddf.catalog.source.IngestException;
 import ddf.catalog.source.SourceUnavailableException;
+import ddf.security.Subject;
 import dev.failsafe.Failsafe;
 import dev.failsafe.RetryPolicy;
 import java.time.temporal.ChronoUnit;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.function.LongConsumer;
+import org.apache.shiro.subject.ExecutionException;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Submits catalog updates that are retried with backoff while the catalog is unavailable. The
+ * initial delay, the attempts and the backoff between them are scheduled on a {@link
+ * ScheduledExecutorService} instead of sleeping, so a stream whose catalog updates keep failing
+ * does not hold a thread that the other streams need.
+ */
 public class CatalogUpdateRetry {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(CatalogUpdateRetry.class);
 
-  public void submitUpdateRequestWithRetry(
+  /**
+   * Submit an update request after an initial delay and retry it with backoff if the catalog is
+   * unavailable. The attempts are executed as {@code subject} on {@code scheduler}.
+   *
+   * @param scheduler must be non-null
+   * @param subject must be non-null
+   * @param updateLatencyConsumer receives the nanoseconds taken by each update attempt, excluding
+   *     the initial delay and the backoff between attempts
+   * @return completes when the update succeeded, or exceptionally when the retries are exhausted or
+   *     the scheduler is shutdown
+   */
+  public CompletableFuture<Void> submitUpdateRequestWithRetry(
+      ScheduledExecutorService scheduler,
+      Subject subject,
       CatalogFramework catalogFramework,
       UpdateRequest updateRequest,
-      long initialSleepSeconds,
+      long initialDelaySeconds,
       long initialRetryWaitMilliseconds,
       long maxRetryMilliseconds,
-      Consumer<Update> updateConsumer) {
+      Consumer<Update> updateConsumer,
+      LongConsumer updateLatencyConsumer) {
+    notNull(scheduler, "scheduler must be non-null");
+    notNull(subject, "subject must be non-null");
 
-    if (sleep(TimeUnit.SECONDS.toMillis(initialSleepSeconds))) {
-      return;
-    }
-
-    RetryPolicy<Boolean> retryPolicy =
-        RetryPolicy.<Boolean>builder()
+    RetryPolicy<Void> retryPolicy =
+        RetryPolicy.<Void>builder()
             .handle(List.of(IngestException.class, SourceUnavailableException.class))
             .withBackoff(initialRetryWaitMilliseconds, maxRetryMilliseconds, ChronoUnit.MILLIS)
             .onFailedAttempt(
@@ -55,23 +81,55 @@ public class CatalogUpdateRetry {
                 event -> LOGGER.debug("failed to update catalog: updateRequest={}", updateRequest))
             .build();
 
-    Failsafe.with(retryPolicy)
-        .run(
-            () ->
-                catalogFramework
-                    .update(updateRequest)
-                    .getUpdatedMetacards()
-                    .forEach(updateConsumer));
+    CompletableFuture<Void> result = new CompletableFuture<>();
+    try {
+      scheduler.schedule(
+          () ->
+              Failsafe.with(retryPolicy)
+                  .with(scheduler)
+                  .runAsync(
+                      () -> {
+                        long start = System.nanoTime();
+                        try {
+                          update(subject, catalogFramework, updateRequest).forEach(updateConsumer);
+                        } finally {
+                          updateLatencyConsumer.accept(System.nanoTime() - start);
+                        }
+                      })
+                  .whenComplete(
+                      (ignored, e) -> {
+                        if (e == null) {
+                          result.complete(null);
+                        } else {
+                          result.completeExceptionally(e);
+                        }
+                      }),
+          initialDelaySeconds,
+          TimeUnit.SECONDS);
+    } catch (RejectedExecutionException e) {
+      LOGGER.debug("unable to schedule catalog update: updateRequest={}", updateRequest, e);
+      result.completeExceptionally(e);
+    }
+    return result;
   }
 
-  private boolean sleep(long sleep) {
+  private List<Update> update(
+      Subject subject, CatalogFramework catalogFramework, UpdateRequest updateRequest)
+      throws IngestException, SourceUnavailableException {
     try {
-      Thread.sleep(sleep);
-    } catch (InterruptedException e) {
-      LOGGER.trace("interrupted while waiting to attempt update request", e);
-      Thread.currentThread().interrupt();
-      return true;
+      return subject.execute(() -> catalogFramework.update(updateRequest).getUpdatedMetacards());
+    } catch (ExecutionException e) {
+      Throwable cause = e.getCause();
+      if (cause instanceof IngestException) {
+        throw (IngestException) cause;
+      }
+      if (cause instanceof SourceUnavailableException) {
+        throw (SourceUnavailableException) cause;
+      }
+      if (cause instanceof RuntimeException) {
+        throw (RuntimeException) cause;
+      }
+      throw e;
     }
-    return false;
   }
 }
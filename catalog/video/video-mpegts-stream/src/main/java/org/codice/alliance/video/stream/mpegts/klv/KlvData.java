@@ -20,13 +20,37 @@ public class KlvData {
 
   public static final String PARENT_ID_KEY = "parentId";
 
+  /** The presentation timestamp of KLV data that was not synchronized with the video. */
+  public static final long UNKNOWN_PTS = -1;
+
   private Map<String, KlvDataElement> klvMap;
 
   private Map<String, String> properties;
 
+  private final long timestamp;
+
+  private final long presentationTimestamp;
+
   public KlvData(Map<String, KlvDataElement> klvMap, Map<String, String> properties) {
+    this(klvMap, properties, System.currentTimeMillis(), UNKNOWN_PTS);
+  }
+
+  /**
+   * @param klvMap the decoded KLV data elements
+   * @param properties the stream properties
+   * @param timestamp the time the KLV data was received, in milliseconds since the epoch
+   * @param presentationTimestamp the PTS of the KLV data in 90kHz clock ticks or {@link
+   *     #UNKNOWN_PTS}
+   */
+  public KlvData(
+      Map<String, KlvDataElement> klvMap,
+      Map<String, String> properties,
+      long timestamp,
+      long presentationTimestamp) {
     this.klvMap = klvMap;
     this.properties = properties;
+    this.timestamp = timestamp;
+    this.presentationTimestamp = presentationTimestamp;
   }
 
   public Map<String, KlvDataElement> getKlvMap() {
@@ -40,4 +64,14 @@ public class KlvData {
   public String getProperty(String key) {
     return properties.get(key);
   }
+
+  /** @return the time the KLV data was received, in milliseconds since the epoch */
+  public long getTimestamp() {
+    return timestamp;
+  }
+
+  /** @return the PTS of the KLV data in 90kHz clock ticks or {@link #UNKNOWN_PTS} */
+  public long getPresentationTimestamp() {
+    return presentationTimestamp;
+  }
 }
@@ -0,0 +1,129 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.video.stream.mpegts.klv;
+
+import static org.apache.commons.lang3.Validate.inclusiveBetween;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A fixed-size ring buffer of the most recent KLV samples of one stream, oldest first. When the
+ * buffer is full, each new sample replaces the oldest one. The samples are indexed by the time they
+ * were received, so a time range is found with a binary search. If a sample's timestamp is earlier
+ * than the previous sample's (e.g. after a clock adjustment), it is indexed with the previous
+ * sample's timestamp to keep the index ordered. This implementation is thread-safe.
+ */
+class KlvSampleBuffer {
+
+  static final int MIN_CAPACITY = 1;
+
+  static final int MAX_CAPACITY = 65536;
+
+  private final KlvData[] samples;
+
+  private final long[] timestamps;
+
+  private int start = 0;
+
+  private int size = 0;
+
+  /** @param capacity must be &gt;={@link #MIN_CAPACITY} and &lt;={@link #MAX_CAPACITY} */
+  KlvSampleBuffer(int capacity) {
+    inclusiveBetween(
+        MIN_CAPACITY,
+        MAX_CAPACITY,
+        capacity,
+        String.format("capacity must be >=%d and <=%d", MIN_CAPACITY, MAX_CAPACITY));
+    this.samples = new KlvData[capacity];
+    this.timestamps = new long[capacity];
+  }
+
+  /** @param klvData must be non-null */
+  synchronized void add(KlvData klvData) {
+    long timestamp =
+        size == 0
+            ? klvData.getTimestamp()
+            : Math.max(klvData.getTimestamp(), timestamps[physicalIndex(size - 1)]);
+
+    int index;
+    if (size == samples.length) {
+      index = start;
+      start = (start + 1) % samples.length;
+    } else {
+      index = physicalIndex(size);
+      size++;
+    }
+
+    samples[index] = klvData;
+    timestamps[index] = timestamp;
+  }
+
+  /**
+   * @param timestamp milliseconds since the epoch
+   * @return the most recent sample if it was received at or after the timestamp, otherwise null
+   */
+  synchronized KlvData getLatestSince(long timestamp) {
+    if (size == 0) {
+      return null;
+    }
+    int last = physicalIndex(size - 1);
+    return timestamps[last] >= timestamp ? samples[last] : null;
+  }
+
+  /** @return the time the most recent sample was received, or -1 if the buffer is empty */
+  synchronized long getLatestTimestamp() {
+    return size == 0 ? -1 : timestamps[physicalIndex(size - 1)];
+  }
+
+  /**
+   * @param timestamp milliseconds since the epoch
+   * @return the samples received at or after the timestamp, oldest first
+   */
+  synchronized List<KlvData> getSince(long timestamp) {
+    int first = findFirstAtOrAfter(timestamp);
+    List<KlvData> result = new ArrayList<>(size - first);
+    for (int i = first; i < size; i++) {
+      result.add(samples[physicalIndex(i)]);
+    }
+    return result;
+  }
+
+  synchronized int size() {
+    return size;
+  }
+
+  int getCapacity() {
+    return samples.length;
+  }
+
+  /** Binary search for the logical index of the first sample received at or after a timestamp. */
+  private int findFirstAtOrAfter(long timestamp) {
+    int low = 0;
+    int high = size;
+    while (low < high) {
+      int middle = (low + high) >>> 1;
+      if (timestamps[physicalIndex(middle)] < timestamp) {
+        low = middle + 1;
+      } else {
+        high = middle;
+      }
+    }
+    return low;
+  }
+
+  private int physicalIndex(int logicalIndex) {
+    return (start + logicalIndex) % samples.length;
+  }
+}
@@ -13,45 +13,247 @@
  */
 package org.codice.alliance.video.stream.mpegts.klv;
 
-import com.google.common.cache.Cache;
-import com.google.common.cache.CacheBuilder;
+import static org.apache.commons.lang3.Validate.inclusiveBetween;
+import static org.apache.commons.lang3.Validate.notNull;
+
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.TimeUnit;
-import java.util.stream.Collectors;
+import java.util.function.LongSupplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Keeps the most recent KLV samples of each stream in a fixed-size {@link KlvSampleBuffer}, so the
+ * memory used per stream does not grow with the stream's KLV rate. A stream's KLV is current if
+ * its latest sample is less than {@link #CURRENT_KLV_TIMEOUT} milliseconds old. The streams are
+ * also indexed by the property values of their latest sample, so the queries by property only
+ * look at the streams that match. Streams that have not reported KLV for {@link
+ * #IDLE_STREAM_TIMEOUT} milliseconds are removed.
+ */
 public class KlvService implements KlvConsumer, KlvStreamService {
+
+  public static final int DEFAULT_SAMPLES_PER_STREAM = 512;
+
+  /** Number of milliseconds that the latest KLV sample of a stream stays current. */
+  public static final long CURRENT_KLV_TIMEOUT = TimeUnit.SECONDS.toMillis(2);
+
+  /** Number of milliseconds without KLV after which a stream and its samples are removed. */
+  public static final long IDLE_STREAM_TIMEOUT = TimeUnit.MINUTES.toMillis(1);
+
   private static final Logger LOGGER = LoggerFactory.getLogger(KlvService.class);
-  private Cache<String, KlvData> parentToKlv =
-      CacheBuilder.newBuilder().expireAfterWrite(2, TimeUnit.SECONDS).build();
+
+  private final ConcurrentMap<String, KlvSampleBuffer> parentToSamples = new ConcurrentHashMap<>();
+
+  /** Property key to property value to the parent ids of the streams with that value. */
+  private final ConcurrentMap<String, ConcurrentMap<String, Set<String>>> propertyIndex =
+      new ConcurrentHashMap<>();
+
+  /** The properties of each stream as they were added to {@link #propertyIndex}. */
+  private final ConcurrentMap<String, Map<String, String>> indexedProperties =
+      new ConcurrentHashMap<>();
+
+  private final Object indexLock = new Object();
+
+  private final int samplesPerStream;
+
+  private final LongSupplier clock;
+
+  private volatile long lastIdleCheck;
+
+  public KlvService() {
+    this(DEFAULT_SAMPLES_PER_STREAM);
+  }
+
+  /**
+   * @param samplesPerStream must be &gt;={@link KlvSampleBuffer#MIN_CAPACITY} and &lt;={@link
+   *     KlvSampleBuffer#MAX_CAPACITY}
+   */
+  public KlvService(int samplesPerStream) {
+    this(samplesPerStream, System::currentTimeMillis);
+  }
+
+  KlvService(int samplesPerStream, LongSupplier clock) {
+    inclusiveBetween(
+        KlvSampleBuffer.MIN_CAPACITY,
+        KlvSampleBuffer.MAX_CAPACITY,
+        samplesPerStream,
+        String.format(
+            "samplesPerStream must be >=%d and <=%d",
+            KlvSampleBuffer.MIN_CAPACITY, KlvSampleBuffer.MAX_CAPACITY));
+    notNull(clock, "clock must be non-null");
+    this.samplesPerStream = samplesPerStream;
+    this.clock = clock;
+    this.lastIdleCheck = clock.getAsLong();
+  }
 
   @Override
   public void postKlvForStream(KlvData klvData) {
-    if (klvData.getProperty(KlvData.PARENT_ID_KEY) != null) {
-      LOGGER.trace("Received KLV packet for {}", klvData.getProperty(KlvData.PARENT_ID_KEY));
-      parentToKlv.put(klvData.getProperty(KlvData.PARENT_ID_KEY), klvData);
+    String parentId = klvData.getProperty(KlvData.PARENT_ID_KEY);
+    if (parentId != null) {
+      LOGGER.trace("Received KLV packet for {}", parentId);
+      // the sample is added under the same map lock that the idle check removes the stream with
+      parentToSamples.compute(
+          parentId,
+          (id, samples) -> {
+            KlvSampleBuffer buffer =
+                samples == null ? new KlvSampleBuffer(samplesPerStream) : samples;
+            buffer.add(klvData);
+            return buffer;
+          });
+      indexProperties(parentId, klvData.getProperties());
+      removeIdleStreams();
     }
   }
 
   @Override
   public Collection<KlvData> getStreamsKlvByParam(String key, String value) {
-    return parentToKlv.asMap().values().stream()
-        .filter(klv -> value.equals(klv.getProperty(key)))
-        .collect(Collectors.toList());
+    Map<String, Set<String>> valueToParents = propertyIndex.get(key);
+    if (valueToParents == null) {
+      return Collections.emptyList();
+    }
+    return getCurrentKlv(valueToParents.getOrDefault(value, Collections.emptySet()));
   }
 
   @Override
   public Map<String, KlvData> getAllStreamsKlvByParent() {
-    return new HashMap<>(parentToKlv.asMap());
+    long currentSince = clock.getAsLong() - CURRENT_KLV_TIMEOUT;
+    Map<String, KlvData> result = new HashMap<>();
+    parentToSamples.forEach(
+        (parentId, samples) -> {
+          KlvData klvData = samples.getLatestSince(currentSince);
+          if (klvData != null) {
+            result.put(parentId, klvData);
+          }
+        });
+    return result;
   }
 
   @Override
   public Collection<KlvData> getAllStreamsKlvWithParam(String key) {
-    return parentToKlv.asMap().values().stream()
-        .filter(klv -> klv.getProperty(key) != null)
-        .collect(Collectors.toList());
+    Map<String, Set<String>> valueToParents = propertyIndex.get(key);
+    if (valueToParents == null) {
+      return Collections.emptyList();
+    }
+    List<KlvData> result = new ArrayList<>();
+    for (Set<String> parentIds : valueToParents.values()) {
+      result.addAll(getCurrentKlv(parentIds));
+    }
+    return result;
+  }
+
+  @Override
+  public List<KlvData> getStreamKlvHistory(String parentId, long duration, TimeUnit timeUnit) {
+    notNull(timeUnit, "timeUnit must be non-null");
+    KlvSampleBuffer samples = parentToSamples.get(parentId);
+    if (samples == null) {
+      return Collections.emptyList();
+    }
+    return samples.getSince(clock.getAsLong() - timeUnit.toMillis(duration));
+  }
+
+  private List<KlvData> getCurrentKlv(Collection<String> parentIds) {
+    long currentSince = clock.getAsLong() - CURRENT_KLV_TIMEOUT;
+    List<KlvData> result = new ArrayList<>(parentIds.size());
+    for (String parentId : parentIds) {
+      KlvSampleBuffer samples = parentToSamples.get(parentId);
+      KlvData klvData = samples == null ? null : samples.getLatestSince(currentSince);
+      if (klvData != null) {
+        result.add(klvData);
+      }
+    }
+    return result;
+  }
+
+  /**
+   * Stream properties rarely change, so the index is only locked when they do. The properties are
+   * copied because the producer may reuse the map.
+   */
+  private void indexProperties(String parentId, Map<String, String> properties) {
+    if (properties.equals(indexedProperties.get(parentId))) {
+      return;
+    }
+
+    synchronized (indexLock) {
+      removeFromIndex(parentId);
+
+      Map<String, String> copy = new HashMap<>(properties);
+      copy.forEach(
+          (key, value) -> {
+            if (value != null) {
+              propertyIndex
+                  .computeIfAbsent(key, k -> new ConcurrentHashMap<>())
+                  .computeIfAbsent(value, v -> ConcurrentHashMap.newKeySet())
+                  .add(parentId);
+            }
+          });
+      indexedProperties.put(parentId, copy);
+    }
+  }
+
+  /** Must be called while holding {@link #indexLock}. */
+  private void removeFromIndex(String parentId) {
+    Map<String, String> previous = indexedProperties.remove(parentId);
+    if (previous == null) {
+      return;
+    }
+
+    previous.forEach(
+        (key, value) -> {
+          Map<String, Set<String>> valueToParents = propertyIndex.get(key);
+          if (valueToParents == null || value == null) {
+            return;
+          }
+          Set<String> parentIds = valueToParents.get(value);
+          if (parentIds != null) {
+            parentIds.remove(parentId);
+            if (parentIds.isEmpty()) {
+              valueToParents.remove(value);
+            }
+          }
+          if (valueToParents.isEmpty()) {
+            propertyIndex.remove(key);
+          }
+        });
+  }
+
+  /**
+   * Checks for idle streams at most once every {@link #CURRENT_KLV_TIMEOUT} milliseconds. The last
+   * activity of a stream is checked again while its map entry is locked, so a sample that is posted
+   * concurrently either keeps the stream or is added to a new one.
+   */
+  private void removeIdleStreams() {
+    long now = clock.getAsLong();
+    if (now - lastIdleCheck < CURRENT_KLV_TIMEOUT) {
+      return;
+    }
+
+    synchronized (indexLock) {
+      if (now - lastIdleCheck < CURRENT_KLV_TIMEOUT) {
+        return;
+      }
+      lastIdleCheck = now;
+
+      long idleSince = now - IDLE_STREAM_TIMEOUT;
+      for (String parentId : parentToSamples.keySet()) {
+        parentToSamples.computeIfPresent(
+            parentId,
+            (id, samples) -> {
+              if (samples.getLatestTimestamp() >= idleSince) {
+                return samples;
+              }
+              LOGGER.debug("removing KLV samples of idle stream {}", id);
+              removeFromIndex(id);
+              return null;
+            });
+      }
+    }
   }
 }
@@ -14,7 +14,10 @@
 package org.codice.alliance.video.stream.mpegts.klv;
 
 import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 public interface KlvStreamService {
   /**
@@ -42,4 +45,19 @@ public interface KlvStreamService {
    * @return A map of klv data maps by the passed in key
    */
   Collection<KlvData> getAllStreamsKlvWithParam(String key);
+
+  /**
+   * Get the klv data a stream reported during the given period before now, oldest first. Only a
+   * fixed number of samples is kept for each stream, so the result may start later than requested.
+   * Implementations that keep no history return an empty list.
+   *
+   * @param parentId the parent id of the stream
+   * @param duration how far back to look
+   * @param timeUnit the unit of the duration
+   * @return the klv data of the stream. Will return an empty list if the stream has not reported
+   *     klv during the period.
+   */
+  default List<KlvData> getStreamKlvHistory(String parentId, long duration, TimeUnit timeUnit) {
+    return Collections.emptyList();
+  }
 }
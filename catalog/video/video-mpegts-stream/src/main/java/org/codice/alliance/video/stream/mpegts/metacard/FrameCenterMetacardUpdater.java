@@ -0,0 +1,54 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.video.stream.mpegts.metacard;
+
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.Metacard;
+import java.util.Optional;
+import org.apache.commons.lang3.StringUtils;
+import org.codice.alliance.libs.klv.AttributeNameConstants;
+import org.codice.alliance.libs.klv.GeometryUtility;
+import org.codice.alliance.video.stream.mpegts.Context;
+import org.codice.alliance.video.stream.mpegts.ParentAggregate;
+import org.locationtech.jts.io.WKTReader;
+
+/**
+ * Append the coordinates of the child frame-center to the running aggregate of the parent (see
+ * {@link Context#getParentAggregate(String)}). The parent frame-center is not changed here, it is
+ * written from the aggregate when the stream ends.
+ */
+public class FrameCenterMetacardUpdater implements MetacardUpdater {
+
+  @Override
+  public void update(Metacard parent, Metacard child, Context context) {
+    ParentAggregate parentAggregate = context.getParentAggregate(parent.getId());
+
+    if (parentAggregate.containsFrameCenter(child.getId())) {
+      return;
+    }
+
+    Optional.ofNullable(child.getAttribute(AttributeNameConstants.FRAME_CENTER))
+        .map(Attribute::getValue)
+        .filter(String.class::isInstance)
+        .map(String.class::cast)
+        .filter(StringUtils::isNotEmpty)
+        .flatMap(wkt -> GeometryUtility.wktToGeometry(wkt, new WKTReader()))
+        .ifPresent(geometry -> parentAggregate.addFrameCenter(child.getId(), geometry));
+  }
+
+  @Override
+  public String toString() {
+    return "FrameCenterMetacardUpdater{}";
+  }
+}
@@ -0,0 +1,66 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.video.stream.mpegts.metacard;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+import ddf.catalog.data.Metacard;
+import org.apache.commons.lang3.StringUtils;
+import org.codice.alliance.libs.klv.FootprintAccumulator;
+import org.codice.alliance.libs.klv.GeometryOperator;
+import org.codice.alliance.libs.klv.GeometryUtility;
+import org.codice.alliance.video.stream.mpegts.Context;
+import org.locationtech.jts.io.WKTReader;
+
+/**
+ * Add the child location to the running footprint of the parent (see {@link
+ * Context#getParentFootprint(String)}). The parent location is not changed here, it is written from
+ * the footprint when the stream ends, so the children do not need to be parsed and merged again at
+ * that point.
+ */
+public class LocationMetacardUpdater implements MetacardUpdater {
+
+  private final GeometryOperator preUnionGeometryOperator;
+
+  /**
+   * @param preUnionGeometryOperator must be non-null, applied to each child location before it is
+   *     added to the footprint
+   */
+  public LocationMetacardUpdater(GeometryOperator preUnionGeometryOperator) {
+    notNull(preUnionGeometryOperator, "preUnionGeometryOperator must be non-null");
+    this.preUnionGeometryOperator = preUnionGeometryOperator;
+  }
+
+  @Override
+  public void update(Metacard parent, Metacard child, Context context) {
+    String location = child.getLocation();
+
+    FootprintAccumulator footprint = context.getParentFootprint(parent.getId());
+
+    if (StringUtils.isEmpty(location) || footprint.contains(child.getId())) {
+      return;
+    }
+
+    GeometryUtility.wktToGeometry(location, new WKTReader())
+        .map(
+            geometry ->
+                preUnionGeometryOperator.apply(geometry, context.getGeometryOperatorContext()))
+        .ifPresent(geometry -> footprint.add(child.getId(), geometry));
+  }
+
+  @Override
+  public String toString() {
+    return "LocationMetacardUpdater{preUnionGeometryOperator=" + preUnionGeometryOperator + '}';
+  }
+}
@@ -0,0 +1,93 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.video.stream.mpegts.metrics;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Count, mean and maximum of a latency that is measured in nanoseconds. This implementation is
+ * thread-safe.
+ */
+public class LatencyStatistics {
+
+  private long count;
+
+  private long totalNanos;
+
+  private long maxNanos;
+
+  private long lastNanos;
+
+  /**
+   * Record one measurement. Negative values are ignored.
+   *
+   * @param nanos elapsed time in nanoseconds
+   */
+  public synchronized void record(long nanos) {
+    if (nanos < 0) {
+      return;
+    }
+    count++;
+    totalNanos += nanos;
+    maxNanos = Math.max(maxNanos, nanos);
+    lastNanos = nanos;
+  }
+
+  public synchronized long getCount() {
+    return count;
+  }
+
+  /**
+   * Get the mean latency in milliseconds. Returns 0 if nothing has been recorded.
+   *
+   * @return milliseconds
+   */
+  public synchronized double getMeanMillis() {
+    return count == 0 ? 0 : toMillis(totalNanos / (double) count);
+  }
+
+  /**
+   * Get the maximum latency in milliseconds. Returns 0 if nothing has been recorded.
+   *
+   * @return milliseconds
+   */
+  public synchronized double getMaxMillis() {
+    return toMillis(maxNanos);
+  }
+
+  /**
+   * Get the most recent latency in milliseconds. Returns 0 if nothing has been recorded.
+   *
+   * @return milliseconds
+   */
+  public synchronized double getLastMillis() {
+    return toMillis(lastNanos);
+  }
+
+  private static double toMillis(double nanos) {
+    return nanos / TimeUnit.MILLISECONDS.toNanos(1);
+  }
+
+  @Override
+  public synchronized String toString() {
+    return "LatencyStatistics{"
+        + "count="
+        + count
+        + ", meanMillis="
+        + getMeanMillis()
+        + ", maxMillis="
+        + getMaxMillis()
+        + '}';
+  }
+}
@@ -0,0 +1,488 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.video.stream.mpegts.metrics;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+import java.lang.management.ManagementFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import javax.management.InstanceAlreadyExistsException;
+import javax.management.InstanceNotFoundException;
+import javax.management.MBeanRegistrationException;
+import javax.management.MBeanServer;
+import javax.management.MalformedObjectNameException;
+import javax.management.NotCompliantMBeanException;
+import javax.management.ObjectName;
+import org.codice.alliance.video.stream.mpegts.rollover.RolloverQueue;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Live ingest metrics of one UDP video stream. Each stage of the stream pipeline records into the
+ * same instance: the datagram decoder records datagrams, discarded bytes and continuity counter
+ * gaps, the packet buffer records received packets and frameset flushes, the PES and KLV decoders
+ * record decode failures, and the rollover action records catalog latencies. The rollover queue
+ * depth is read from the stream's {@link RolloverQueue}.
+ *
+ * <p>Counters may be updated from any thread. The packet and byte rates are recomputed each time
+ * {@link #sample()} is called, which the stream processor does periodically. The metrics can be
+ * registered with the platform MBeanServer with {@link #registerMBean(String)}.
+ */
+public class StreamMetrics implements StreamMetricsMBean {
+
+  public static final String DATAGRAMS_RECEIVED = "datagramsReceived";
+
+  public static final String DROPPED_DATAGRAMS = "droppedDatagrams";
+
+  public static final String DISCARDED_BYTES = "discardedBytes";
+
+  public static final String PACKETS_RECEIVED = "packetsReceived";
+
+  public static final String BYTES_RECEIVED = "bytesReceived";
+
+  public static final String PACKETS_PER_SECOND = "packetsPerSecond";
+
+  public static final String BYTES_PER_SECOND = "bytesPerSecond";
+
+  public static final String CONTINUITY_ERRORS = "continuityErrors";
+
+  public static final String PES_DECODE_FAILURES = "pesDecodeFailures";
+
+  public static final String KLV_PACKETS_DECODED = "klvPacketsDecoded";
+
+  public static final String KLV_DECODE_FAILURES = "klvDecodeFailures";
+
+  public static final String BYTES_WRITTEN = "bytesWritten";
+
+  public static final String FILES_WRITTEN = "filesWritten";
+
+  public static final String FRAMESET_FLUSH_COUNT = "framesetFlushCount";
+
+  public static final String FRAMESET_FLUSH_MEAN_MILLIS = "framesetFlushMeanMillis";
+
+  public static final String FRAMESET_FLUSH_MAX_MILLIS = "framesetFlushMaxMillis";
+
+  public static final String ROLLOVER_QUEUE_DEPTH = "rolloverQueueDepth";
+
+  public static final String ROLLOVER_QUEUE_MAX_DEPTH = "rolloverQueueMaxDepth";
+
+  public static final String DEFERRED_ROLLOVERS = "deferredRollovers";
+
+  public static final String CATALOG_CREATE_COUNT = "catalogCreateCount";
+
+  public static final String CATALOG_CREATE_MEAN_MILLIS = "catalogCreateMeanMillis";
+
+  public static final String CATALOG_CREATE_MAX_MILLIS = "catalogCreateMaxMillis";
+
+  public static final String CATALOG_UPDATE_COUNT = "catalogUpdateCount";
+
+  public static final String CATALOG_UPDATE_MEAN_MILLIS = "catalogUpdateMeanMillis";
+
+  public static final String CATALOG_UPDATE_MAX_MILLIS = "catalogUpdateMaxMillis";
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(StreamMetrics.class);
+
+  private final LongSupplier nanoClock;
+
+  private final LongAdder datagramsReceived = new LongAdder();
+
+  private final LongAdder droppedDatagrams = new LongAdder();
+
+  private final LongAdder discardedBytes = new LongAdder();
+
+  private final LongAdder packetsReceived = new LongAdder();
+
+  private final LongAdder bytesReceived = new LongAdder();
+
+  private final LongAdder continuityErrors = new LongAdder();
+
+  private final LongAdder pesDecodeFailures = new LongAdder();
+
+  private final LongAdder klvPacketsDecoded = new LongAdder();
+
+  private final LongAdder klvDecodeFailures = new LongAdder();
+
+  private final LongAdder bytesWritten = new LongAdder();
+
+  private final LongAdder filesWritten = new LongAdder();
+
+  private final LatencyStatistics framesetFlushLatency = new LatencyStatistics();
+
+  private final LatencyStatistics catalogCreateLatency = new LatencyStatistics();
+
+  private final LatencyStatistics catalogUpdateLatency = new LatencyStatistics();
+
+  private volatile RolloverQueue rolloverQueue;
+
+  private volatile double packetsPerSecond;
+
+  private volatile double bytesPerSecond;
+
+  private long lastSampleTime = -1;
+
+  private long lastSamplePackets;
+
+  private long lastSampleBytes;
+
+  private ObjectName objectName;
+
+  private MBeanServer mBeanServer;
+
+  public StreamMetrics() {
+    this(System::nanoTime);
+  }
+
+  /** @param nanoClock must be non-null, source of the sample times in nanoseconds */
+  StreamMetrics(LongSupplier nanoClock) {
+    notNull(nanoClock, "nanoClock must be non-null");
+    this.nanoClock = nanoClock;
+  }
+
+  /** @param rolloverQueue the queue whose depth is reported, may be null */
+  public void setRolloverQueue(RolloverQueue rolloverQueue) {
+    this.rolloverQueue = rolloverQueue;
+  }
+
+  /** Record a datagram that was received from the network. */
+  public void recordDatagram() {
+    datagramsReceived.increment();
+  }
+
+  /** Record a datagram from which no MPEG-TS packet could be decoded. */
+  public void recordDroppedDatagram() {
+    droppedDatagrams.increment();
+  }
+
+  /** @param count number of bytes that were discarded while looking for a valid packet */
+  public void recordDiscardedBytes(long count) {
+    discardedBytes.add(count);
+  }
+
+  /** @param length length of an MPEG-TS packet that was accepted */
+  public void recordPacket(int length) {
+    packetsReceived.increment();
+    bytesReceived.add(length);
+  }
+
+  /** Record a gap in the continuity counter of a PID, which usually means packets were lost. */
+  public void recordContinuityError() {
+    continuityErrors.increment();
+  }
+
+  /** Record an MPEG-TS packet that could not be reassembled into a PES packet. */
+  public void recordPesDecodeFailure() {
+    pesDecodeFailures.increment();
+  }
+
+  /** Record a KLV packet that was decoded. */
+  public void recordKlvPacket() {
+    klvPacketsDecoded.increment();
+  }
+
+  /** Record a KLV packet that could not be decoded. */
+  public void recordKlvDecodeFailure() {
+    klvDecodeFailures.increment();
+  }
+
+  /** Record that a new temporary segment file was started. */
+  public void recordFileWritten() {
+    filesWritten.increment();
+  }
+
+  /**
+   * Record a frameset that was written to the temporary segment file.
+   *
+   * @param bytes number of bytes that were written
+   * @param nanos time taken to write the frameset
+   */
+  public void recordFramesetFlush(long bytes, long nanos) {
+    bytesWritten.add(bytes);
+    framesetFlushLatency.record(nanos);
+  }
+
+  /** @param nanos time taken by a catalog create request */
+  public void recordCatalogCreate(long nanos) {
+    catalogCreateLatency.record(nanos);
+  }
+
+  /** @param nanos time taken by a catalog update request, including retries */
+  public void recordCatalogUpdate(long nanos) {
+    catalogUpdateLatency.record(nanos);
+  }
+
+  /**
+   * Recompute the packet and byte rates from the counters recorded since the previous call. The
+   * first call only records the starting point.
+   */
+  public synchronized void sample() {
+    long now = nanoClock.getAsLong();
+    long packets = packetsReceived.sum();
+    long bytes = bytesReceived.sum();
+
+    if (lastSampleTime >= 0 && now > lastSampleTime) {
+      double seconds = (now - lastSampleTime) / (double) TimeUnit.SECONDS.toNanos(1);
+      packetsPerSecond = (packets - lastSamplePackets) / seconds;
+      bytesPerSecond = (bytes - lastSampleBytes) / seconds;
+    }
+
+    lastSampleTime = now;
+    lastSamplePackets = packets;
+    lastSampleBytes = bytes;
+  }
+
+  @Override
+  public long getDatagramsReceived() {
+    return datagramsReceived.sum();
+  }
+
+  @Override
+  public long getDroppedDatagrams() {
+    return droppedDatagrams.sum();
+  }
+
+  @Override
+  public long getDiscardedBytes() {
+    return discardedBytes.sum();
+  }
+
+  @Override
+  public long getPacketsReceived() {
+    return packetsReceived.sum();
+  }
+
+  @Override
+  public long getBytesReceived() {
+    return bytesReceived.sum();
+  }
+
+  @Override
+  public double getPacketsPerSecond() {
+    return packetsPerSecond;
+  }
+
+  @Override
+  public double getBytesPerSecond() {
+    return bytesPerSecond;
+  }
+
+  @Override
+  public long getContinuityErrors() {
+    return continuityErrors.sum();
+  }
+
+  @Override
+  public long getPesDecodeFailures() {
+    return pesDecodeFailures.sum();
+  }
+
+  @Override
+  public long getKlvPacketsDecoded() {
+    return klvPacketsDecoded.sum();
+  }
+
+  @Override
+  public long getKlvDecodeFailures() {
+    return klvDecodeFailures.sum();
+  }
+
+  @Override
+  public long getBytesWritten() {
+    return bytesWritten.sum();
+  }
+
+  @Override
+  public long getFilesWritten() {
+    return filesWritten.sum();
+  }
+
+  @Override
+  public long getFramesetFlushCount() {
+    return framesetFlushLatency.getCount();
+  }
+
+  @Override
+  public double getFramesetFlushMeanMillis() {
+    return framesetFlushLatency.getMeanMillis();
+  }
+
+  @Override
+  public double getFramesetFlushMaxMillis() {
+    return framesetFlushLatency.getMaxMillis();
+  }
+
+  @Override
+  public int getRolloverQueueDepth() {
+    RolloverQueue queue = rolloverQueue;
+    return queue == null ? 0 : queue.getPendingCount();
+  }
+
+  @Override
+  public int getRolloverQueueMaxDepth() {
+    RolloverQueue queue = rolloverQueue;
+    return queue == null ? 0 : queue.getMaxPendingCount();
+  }
+
+  @Override
+  public long getDeferredRollovers() {
+    RolloverQueue queue = rolloverQueue;
+    return queue == null ? 0 : queue.getDeferredRolloverCount();
+  }
+
+  @Override
+  public long getCatalogCreateCount() {
+    return catalogCreateLatency.getCount();
+  }
+
+  @Override
+  public double getCatalogCreateMeanMillis() {
+    return catalogCreateLatency.getMeanMillis();
+  }
+
+  @Override
+  public double getCatalogCreateMaxMillis() {
+    return catalogCreateLatency.getMaxMillis();
+  }
+
+  @Override
+  public long getCatalogUpdateCount() {
+    return catalogUpdateLatency.getCount();
+  }
+
+  @Override
+  public double getCatalogUpdateMeanMillis() {
+    return catalogUpdateLatency.getMeanMillis();
+  }
+
+  @Override
+  public double getCatalogUpdateMaxMillis() {
+    return catalogUpdateLatency.getMaxMillis();
+  }
+
+  /**
+   * Return a snapshot of the metrics, keyed by attribute name, in a form that can be returned by
+   * other MBeans.
+   *
+   * @return non-null map
+   */
+  public Map<String, Object> toMap() {
+    Map<String, Object> map = new LinkedHashMap<>();
+    map.put(DATAGRAMS_RECEIVED, getDatagramsReceived());
+    map.put(DROPPED_DATAGRAMS, getDroppedDatagrams());
+    map.put(DISCARDED_BYTES, getDiscardedBytes());
+    map.put(PACKETS_RECEIVED, getPacketsReceived());
+    map.put(BYTES_RECEIVED, getBytesReceived());
+    map.put(PACKETS_PER_SECOND, getPacketsPerSecond());
+    map.put(BYTES_PER_SECOND, getBytesPerSecond());
+    map.put(CONTINUITY_ERRORS, getContinuityErrors());
+    map.put(PES_DECODE_FAILURES, getPesDecodeFailures());
+    map.put(KLV_PACKETS_DECODED, getKlvPacketsDecoded());
+    map.put(KLV_DECODE_FAILURES, getKlvDecodeFailures());
+    map.put(BYTES_WRITTEN, getBytesWritten());
+    map.put(FILES_WRITTEN, getFilesWritten());
+    map.put(FRAMESET_FLUSH_COUNT, getFramesetFlushCount());
+    map.put(FRAMESET_FLUSH_MEAN_MILLIS, getFramesetFlushMeanMillis());
+    map.put(FRAMESET_FLUSH_MAX_MILLIS, getFramesetFlushMaxMillis());
+    map.put(ROLLOVER_QUEUE_DEPTH, getRolloverQueueDepth());
+    map.put(ROLLOVER_QUEUE_MAX_DEPTH, getRolloverQueueMaxDepth());
+    map.put(DEFERRED_ROLLOVERS, getDeferredRollovers());
+    map.put(CATALOG_CREATE_COUNT, getCatalogCreateCount());
+    map.put(CATALOG_CREATE_MEAN_MILLIS, getCatalogCreateMeanMillis());
+    map.put(CATALOG_CREATE_MAX_MILLIS, getCatalogCreateMaxMillis());
+    map.put(CATALOG_UPDATE_COUNT, getCatalogUpdateCount());
+    map.put(CATALOG_UPDATE_MEAN_MILLIS, getCatalogUpdateMeanMillis());
+    map.put(CATALOG_UPDATE_MAX_MILLIS, getCatalogUpdateMaxMillis());
+    return map;
+  }
+
+  public void logActivity() {
+    LOGGER.debug("stream metrics: {}", toMap());
+  }
+
+  /**
+   * Register the metrics with the platform MBeanServer. A previously registered MBean with the
+   * same name is replaced.
+   *
+   * @param name must be non-null, identifies the stream in the object name
+   */
+  public synchronized void registerMBean(String name) {
+    notNull(name, "name must be non-null");
+    unregisterMBean();
+    try {
+      objectName =
+          new ObjectName(
+              StreamMetrics.class.getName() + ":service=stream,name=" + ObjectName.quote(name));
+      mBeanServer = ManagementFactory.getPlatformMBeanServer();
+    } catch (MalformedObjectNameException e) {
+      LOGGER.info("Unable to create FMV Stream Metrics MBean.", e);
+      return;
+    }
+    try {
+      try {
+        mBeanServer.registerMBean(this, objectName);
+        LOGGER.debug("Registered FMV Stream Metrics MBean under object name: {}", objectName);
+      } catch (InstanceAlreadyExistsException e) {
+        mBeanServer.unregisterMBean(objectName);
+        mBeanServer.registerMBean(this, objectName);
+        LOGGER.debug("Re-registered FMV Stream Metrics MBean", e);
+      }
+    } catch (MBeanRegistrationException
+        | InstanceNotFoundException
+        | InstanceAlreadyExistsException
+        | NotCompliantMBeanException e) {
+      LOGGER.info("Could not register MBean [{}].", objectName, e);
+    }
+  }
+
+  /** Unregister the metrics from the platform MBeanServer if they were registered. */
+  public synchronized void unregisterMBean() {
+    try {
+      if (objectName != null && mBeanServer != null && mBeanServer.isRegistered(objectName)) {
+        mBeanServer.unregisterMBean(objectName);
+      }
+    } catch (MBeanRegistrationException | InstanceNotFoundException e) {
+      LOGGER.info("Exception unregistering MBean: ", e);
+    } finally {
+      objectName = null;
+    }
+  }
+
+  /**
+   * Get the object name the metrics are registered under.
+   *
+   * @return object name, or null if not registered
+   */
+  public synchronized ObjectName getObjectName() {
+    return objectName;
+  }
+
+  @Override
+  public String toString() {
+    return "StreamMetrics{"
+        + "packetsReceived="
+        + packetsReceived
+        + ", continuityErrors="
+        + continuityErrors
+        + ", framesetFlushLatency="
+        + framesetFlushLatency
+        + ", catalogCreateLatency="
+        + catalogCreateLatency
+        + ", catalogUpdateLatency="
+        + catalogUpdateLatency
+        + '}';
+  }
+}
@@ -0,0 +1,71 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.video.stream.mpegts.metrics;
+
+/**
+ * JMX view of the ingest metrics of one UDP video stream. Rates are averaged over the period
+ * between two calls to {@link StreamMetrics#sample()} and latencies are reported in milliseconds.
+ */
+public interface StreamMetricsMBean {
+
+  long getDatagramsReceived();
+
+  long getDroppedDatagrams();
+
+  long getDiscardedBytes();
+
+  long getPacketsReceived();
+
+  long getBytesReceived();
+
+  double getPacketsPerSecond();
+
+  double getBytesPerSecond();
+
+  long getContinuityErrors();
+
+  long getPesDecodeFailures();
+
+  long getKlvPacketsDecoded();
+
+  long getKlvDecodeFailures();
+
+  long getBytesWritten();
+
+  long getFilesWritten();
+
+  long getFramesetFlushCount();
+
+  double getFramesetFlushMeanMillis();
+
+  double getFramesetFlushMaxMillis();
+
+  int getRolloverQueueDepth();
+
+  int getRolloverQueueMaxDepth();
+
+  long getDeferredRollovers();
+
+  long getCatalogCreateCount();
+
+  double getCatalogCreateMeanMillis();
+
+  double getCatalogCreateMaxMillis();
+
+  long getCatalogUpdateCount();
+
+  double getCatalogUpdateMeanMillis();
+
+  double getCatalogUpdateMaxMillis();
+}
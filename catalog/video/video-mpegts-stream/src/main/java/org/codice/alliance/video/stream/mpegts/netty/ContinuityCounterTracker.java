@@ -0,0 +1,72 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.video.stream.mpegts.netty;
+
+import io.netty.buffer.ByteBuf;
+import java.util.Arrays;
+
+/**
+ * Tracks the continuity counter of each PID and detects gaps. The counter of a PID is incremented
+ * for every packet that carries a payload, so a gap means that packets were lost, usually because
+ * datagrams were dropped. A repeated counter is allowed once by the standard and is not a gap.
+ * Packets with the discontinuity indicator set restart the sequence. Like the datagram decoder that
+ * owns it, an instance is only used by one thread.
+ */
+final class ContinuityCounterTracker {
+
+  private static final int PID_COUNT = 0x2000;
+
+  private static final int NULL_PID = 0x1FFF;
+
+  private static final int UNKNOWN = -1;
+
+  private final int[] lastContinuityCounters = new int[PID_COUNT];
+
+  ContinuityCounterTracker() {
+    reset();
+  }
+
+  /**
+   * Check the continuity counter of a packet. The header must have been checked with {@link
+   * TsPacketHeader#isValid(ByteBuf, int)} first.
+   *
+   * @param byteBuf must be non-null and contain a valid packet at {@code index}
+   * @param index absolute index of the first byte of the packet
+   * @return true if the counter does not follow the previous counter of the same PID
+   */
+  boolean isGap(ByteBuf byteBuf, int index) {
+    int pid = TsPacketHeader.getPid(byteBuf, index);
+
+    if (pid == NULL_PID || !TsPacketHeader.hasPayload(byteBuf, index)) {
+      return false;
+    }
+
+    int continuityCounter = TsPacketHeader.getContinuityCounter(byteBuf, index);
+    int last = lastContinuityCounters[pid];
+    lastContinuityCounters[pid] = continuityCounter;
+
+    if (last == UNKNOWN
+        || continuityCounter == last
+        || TsPacketHeader.isDiscontinuity(byteBuf, index)) {
+      return false;
+    }
+
+    return continuityCounter != ((last + 1) & 0x0F);
+  }
+
+  /** Forget the counters of every PID. */
+  void reset() {
+    Arrays.fill(lastContinuityCounters, UNKNOWN);
+  }
+}
@@ -22,14 +22,14 @@ interface DecodedStreamData {
   /** @return MPEG-TS packet identifier */
   int getPacketId();
 
+  /** @return presentation timestamp of the PES packet or {@link KeyframeIndex#UNKNOWN_PTS} */
+  long getPresentationTimestamp();
+
   /** @param visitor must be non-null */
   void accept(Visitor visitor);
 
   interface Visitor {
     /** @param decodedStreamData must be non-null */
-    void visit(Mpeg2DecodedStreamData decodedStreamData);
-
-    /** @param decodedStreamData must be non-null */
-    void visit(Mpeg4DecodedStreamData decodedStreamData);
+    void visit(VideoFrameDecodedStreamData decodedStreamData);
   }
 }
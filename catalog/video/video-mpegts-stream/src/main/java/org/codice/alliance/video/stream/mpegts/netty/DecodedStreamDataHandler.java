@@ -17,9 +17,6 @@ import static org.apache.commons.lang3.Validate.notNull;
 
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.ChannelInboundHandlerAdapter;
-import java.util.List;
-import org.jcodec.codecs.h264.io.model.NALUnit;
-import org.jcodec.codecs.h264.io.model.NALUnitType;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -53,38 +50,12 @@ class DecodedStreamDataHandler extends ChannelInboundHandlerAdapter {
     DecodedStreamData decodedStreamData = (DecodedStreamData) msg;
 
     decodedStreamData.accept(
-        new DecodedStreamData.Visitor() {
-          @Override
-          public void visit(Mpeg2DecodedStreamData decodedStreamData) {
-            handleMpeg2(decodedStreamData.getListOfTypes());
-          }
-
-          @Override
-          public void visit(Mpeg4DecodedStreamData decodedStreamData) {
-            handleNALUnits(decodedStreamData.getNalUnits());
-          }
-        });
-  }
-
-  private void frameComplete(boolean isIDR) {
-    packetBuffer.frameComplete(isIDR ? PacketBuffer.FrameType.IDR : PacketBuffer.FrameType.NON_IDR);
-  }
-
-  private void handleMpeg2(List<Mpeg2PictureType> mpeg2PictureTypeList) {
-
-    boolean allIntraCoded =
-        mpeg2PictureTypeList.stream()
-            .allMatch(mpeg2PictureType -> mpeg2PictureType == Mpeg2PictureType.INTRA_CODED);
-
-    frameComplete(allIntraCoded);
-  }
-
-  private void handleNALUnits(List<NALUnit> nalUnitList) {
-
-    boolean containsIDR =
-        nalUnitList.stream().anyMatch(nalUnit -> nalUnit.type == NALUnitType.IDR_SLICE);
-
-    frameComplete(containsIDR);
+        decodedVideoFrame ->
+            packetBuffer.frameComplete(
+                decodedVideoFrame.isKeyframe()
+                    ? PacketBuffer.FrameType.IDR
+                    : PacketBuffer.FrameType.NON_IDR,
+                decodedVideoFrame.getPresentationTimestamp()));
   }
 
   @Override
@@ -0,0 +1,199 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.video.stream.mpegts.netty;
+
+import static org.apache.commons.lang3.Validate.inclusiveBetween;
+import static org.apache.commons.lang3.Validate.notNull;
+import static org.apache.commons.lang3.Validate.validState;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * A {@link SegmentWriter} that keeps one {@link FileChannel} open for the whole segment. Packets
+ * are copied into a small pool of direct buffers and written with a single gathering write when
+ * the pool is full or the segment is flushed. Compared to writing each 188-byte packet to a
+ * stream, this turns thousands of write calls per frameset into a few, and avoids the temporary
+ * direct buffer that the JDK would otherwise allocate for each heap buffer write.
+ *
+ * <p>The buffers are allocated the first time they are needed and are reused by every following
+ * segment. When the expected segment size is known, the file can be extended to that size when it
+ * is opened, so that the file length is not changed by every write. This is only a size hint: the
+ * file is extended by writing its last byte, which leaves a sparse file on most file systems, so
+ * disk blocks are still allocated as the packets are written and a full disk is only detected then.
+ * The file is truncated to the number of bytes written when the segment is closed.
+ */
+public class FileChannelSegmentWriter implements SegmentWriter {
+
+  public static final int DEFAULT_BUFFER_SIZE = 64 * 1024;
+
+  public static final int DEFAULT_BUFFER_COUNT = 4;
+
+  public static final int MIN_BUFFER_SIZE = 1024;
+
+  public static final int MAX_BUFFER_SIZE = 16 * 1024 * 1024;
+
+  public static final int MIN_BUFFER_COUNT = 1;
+
+  public static final int MAX_BUFFER_COUNT = 64;
+
+  private final ByteBuffer[] buffers;
+
+  private final int bufferSize;
+
+  private final boolean extendToExpectedSize;
+
+  /** Index of the buffer that is being filled. */
+  private int currentBuffer;
+
+  private FileChannel fileChannel;
+
+  private boolean extended;
+
+  /** Create a writer with the default buffers that does not extend files. */
+  public FileChannelSegmentWriter() {
+    this(DEFAULT_BUFFER_SIZE, DEFAULT_BUFFER_COUNT, false);
+  }
+
+  /**
+   * @param bufferSize must be &gt;={@link #MIN_BUFFER_SIZE} and &lt;={@link #MAX_BUFFER_SIZE}
+   * @param bufferCount must be &gt;={@link #MIN_BUFFER_COUNT} and &lt;={@link #MAX_BUFFER_COUNT}
+   * @param extendToExpectedSize if true, files are extended to the expected segment size when
+   *     opened, as a sparse size hint
+   */
+  public FileChannelSegmentWriter(int bufferSize, int bufferCount, boolean extendToExpectedSize) {
+    inclusiveBetween(
+        MIN_BUFFER_SIZE,
+        MAX_BUFFER_SIZE,
+        bufferSize,
+        String.format("bufferSize must be >=%d and <=%d", MIN_BUFFER_SIZE, MAX_BUFFER_SIZE));
+    inclusiveBetween(
+        MIN_BUFFER_COUNT,
+        MAX_BUFFER_COUNT,
+        bufferCount,
+        String.format("bufferCount must be >=%d and <=%d", MIN_BUFFER_COUNT, MAX_BUFFER_COUNT));
+    this.buffers = new ByteBuffer[bufferCount];
+    this.bufferSize = bufferSize;
+    this.extendToExpectedSize = extendToExpectedSize;
+  }
+
+  @Override
+  public void open(File file, long expectedSize) throws IOException {
+    notNull(file, "file must be non-null");
+    validState(fileChannel == null, "a segment is already open");
+
+    fileChannel =
+        FileChannel.open(
+            file.toPath(),
+            StandardOpenOption.CREATE,
+            StandardOpenOption.WRITE,
+            StandardOpenOption.TRUNCATE_EXISTING);
+
+    if (extendToExpectedSize && expectedSize > 0) {
+      // writing the last byte sets the length without allocating the blocks before it
+      fileChannel.write(ByteBuffer.allocate(1), expectedSize - 1);
+      extended = true;
+    }
+  }
+
+  @Override
+  public void write(ByteBuffer packet) throws IOException {
+    notNull(packet, "packet must be non-null");
+    validState(fileChannel != null, "no segment is open");
+
+    ByteBuffer source = packet.duplicate();
+    int limit = source.limit();
+    while (source.hasRemaining()) {
+      ByteBuffer buffer = getBuffer(currentBuffer);
+      if (!buffer.hasRemaining()) {
+        if (currentBuffer + 1 < buffers.length) {
+          currentBuffer++;
+        } else {
+          drain();
+        }
+        continue;
+      }
+      source.limit(Math.min(limit, source.position() + buffer.remaining()));
+      buffer.put(source);
+      source.limit(limit);
+    }
+  }
+
+  @Override
+  public void flush() throws IOException {
+    if (fileChannel != null) {
+      drain();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    FileChannel localFileChannel = fileChannel;
+    if (localFileChannel == null) {
+      return;
+    }
+
+    try {
+      drain();
+      if (extended) {
+        localFileChannel.truncate(localFileChannel.position());
+      }
+    } finally {
+      fileChannel = null;
+      extended = false;
+      clearBuffers();
+      localFileChannel.close();
+    }
+  }
+
+  /** Write the filled buffers with gathering writes until they are empty, then reuse them. */
+  private void drain() throws IOException {
+    if (buffers[0] == null || (currentBuffer == 0 && buffers[0].position() == 0)) {
+      return;
+    }
+
+    int count = currentBuffer + 1;
+
+    for (int i = 0; i < count; i++) {
+      buffers[i].flip();
+    }
+
+    try {
+      while (buffers[count - 1].hasRemaining()) {
+        fileChannel.write(buffers, 0, count);
+      }
+    } finally {
+      clearBuffers();
+    }
+  }
+
+  private void clearBuffers() {
+    for (ByteBuffer buffer : buffers) {
+      if (buffer != null) {
+        buffer.clear();
+      }
+    }
+    currentBuffer = 0;
+  }
+
+  private ByteBuffer getBuffer(int index) {
+    if (buffers[index] == null) {
+      buffers[index] = ByteBuffer.allocateDirect(bufferSize);
+    }
+    return buffers[index];
+  }
+}
@@ -0,0 +1,187 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.video.stream.mpegts.netty;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+
+/**
+ * The byte offsets and presentation timestamps of the IDR frames in a segment file. {@link
+ * PacketBuffer} fills the index as it writes framesets to a segment and saves it next to the
+ * segment when the segment is rotated (see {@link #getIndexFile(File)}), so that a consumer can
+ * seek to a keyframe without demultiplexing the segment again. The offsets point at the first
+ * transport stream packet of each frame. The file is CSV with a header line and one <code>
+ * offset,pts</code> line per keyframe. This class is not thread-safe.
+ */
+public class KeyframeIndex {
+
+  /** The presentation timestamp of a keyframe whose PES header did not carry one. */
+  public static final long UNKNOWN_PTS = -1;
+
+  public static final String FILE_EXTENSION = ".kfi";
+
+  public static final String MIME_TYPE = "text/csv";
+
+  private static final String HEADER = "offset,pts";
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private long[] offsets = new long[INITIAL_CAPACITY];
+
+  private long[] timestamps = new long[INITIAL_CAPACITY];
+
+  private int size;
+
+  /**
+   * Get the index file that belongs to a segment file.
+   *
+   * @param segmentFile must be non-null
+   * @return the index file, which may not exist
+   */
+  public static File getIndexFile(File segmentFile) {
+    notNull(segmentFile, "segmentFile must be non-null");
+    return new File(segmentFile.getPath() + FILE_EXTENSION);
+  }
+
+  /**
+   * @param indexFile must be non-null
+   * @return the index read from the file
+   * @throws IOException if the file cannot be read or is malformed
+   */
+  public static KeyframeIndex read(File indexFile) throws IOException {
+    notNull(indexFile, "indexFile must be non-null");
+    KeyframeIndex keyframeIndex = new KeyframeIndex();
+    try (BufferedReader reader = Files.newBufferedReader(indexFile.toPath())) {
+      String line = reader.readLine();
+      if (!HEADER.equals(line)) {
+        throw new IOException(String.format("not a keyframe index: file=%s", indexFile));
+      }
+      while ((line = reader.readLine()) != null) {
+        int comma = line.indexOf(',');
+        try {
+          keyframeIndex.add(
+              Long.parseLong(line.substring(0, comma)), Long.parseLong(line.substring(comma + 1)));
+        } catch (NumberFormatException | IndexOutOfBoundsException e) {
+          throw new IOException(
+              String.format("malformed keyframe index entry: file=%s line=%s", indexFile, line), e);
+        }
+      }
+    }
+    return keyframeIndex;
+  }
+
+  /**
+   * Add a keyframe. Keyframes must be added in the order they appear in the segment.
+   *
+   * @param offset byte offset of the first packet of the keyframe in the segment
+   * @param pts presentation timestamp in 90kHz clock ticks or {@link #UNKNOWN_PTS}
+   */
+  public void add(long offset, long pts) {
+    if (size == offsets.length) {
+      offsets = Arrays.copyOf(offsets, size * 2);
+      timestamps = Arrays.copyOf(timestamps, size * 2);
+    }
+    offsets[size] = offset;
+    timestamps[size] = pts;
+    size++;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  public boolean isEmpty() {
+    return size == 0;
+  }
+
+  /**
+   * @param index must be &gt;=0 and &lt;{@link #size()}
+   * @return byte offset of the keyframe in the segment
+   */
+  public long getOffset(int index) {
+    checkIndex(index);
+    return offsets[index];
+  }
+
+  /**
+   * @param index must be &gt;=0 and &lt;{@link #size()}
+   * @return presentation timestamp of the keyframe or {@link #UNKNOWN_PTS}
+   */
+  public long getPresentationTimestamp(int index) {
+    checkIndex(index);
+    return timestamps[index];
+  }
+
+  /**
+   * Find the last keyframe that is presented at or before a timestamp. Keyframes without a
+   * timestamp are skipped.
+   *
+   * @param pts presentation timestamp in 90kHz clock ticks
+   * @return byte offset of the keyframe, or -1 if there is no such keyframe
+   */
+  public long findOffset(long pts) {
+    long offset = -1;
+    long bestPts = -1;
+    for (int i = 0; i < size; i++) {
+      if (timestamps[i] != UNKNOWN_PTS && timestamps[i] <= pts && timestamps[i] >= bestPts) {
+        offset = offsets[i];
+        bestPts = timestamps[i];
+      }
+    }
+    return offset;
+  }
+
+  /** Remove all keyframes. */
+  public void clear() {
+    size = 0;
+  }
+
+  /**
+   * @param indexFile must be non-null, the file is replaced if it exists
+   * @throws IOException if the file cannot be written
+   */
+  public void write(File indexFile) throws IOException {
+    notNull(indexFile, "indexFile must be non-null");
+    try (BufferedWriter writer =
+        Files.newBufferedWriter(indexFile.toPath(), StandardCharsets.UTF_8)) {
+      writer.write(HEADER);
+      writer.write('\n');
+      for (int i = 0; i < size; i++) {
+        writer.write(Long.toString(offsets[i]));
+        writer.write(',');
+        writer.write(Long.toString(timestamps[i]));
+        writer.write('\n');
+      }
+    }
+  }
+
+  private void checkIndex(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException(
+          String.format("index must be >=0 and <%d: index=%d", size, index));
+    }
+  }
+
+  @Override
+  public String toString() {
+    return "KeyframeIndex{" + "size=" + size + '}';
+  }
+}
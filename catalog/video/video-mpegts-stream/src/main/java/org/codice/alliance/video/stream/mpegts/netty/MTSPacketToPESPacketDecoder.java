@@ -17,22 +17,45 @@ import static org.apache.commons.lang3.Validate.notNull;
 
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToMessageDecoder;
+import java.io.IOException;
 import java.util.List;
 import org.codice.alliance.libs.mpegts.MpegTsDecoder;
 import org.codice.alliance.libs.mpegts.MpegTsDecoderImpl;
+import org.codice.alliance.video.stream.mpegts.metrics.StreamMetrics;
 import org.taktik.mpegts.MTSPacket;
 
-/** Converts a series of MTSPackets to PESPackets. */
+/**
+ * Converts a series of MTSPackets to PESPackets. Packets that cannot be decoded are recorded as PES
+ * decode failures in the stream's {@link StreamMetrics}.
+ */
 class MTSPacketToPESPacketDecoder extends MessageToMessageDecoder<MTSPacket> {
 
   private final MpegTsDecoder mpegTsDecoder;
 
-  public MTSPacketToPESPacketDecoder(MpegTsDecoder mpegTsDecoder) {
+  private final StreamMetrics streamMetrics;
+
+  /**
+   * @param mpegTsDecoder must be non-null
+   * @param streamMetrics must be non-null
+   */
+  public MTSPacketToPESPacketDecoder(MpegTsDecoder mpegTsDecoder, StreamMetrics streamMetrics) {
+    notNull(mpegTsDecoder, "mpegTsDecoder must be non-null");
+    notNull(streamMetrics, "streamMetrics must be non-null");
     this.mpegTsDecoder = mpegTsDecoder;
+    this.streamMetrics = streamMetrics;
+  }
+
+  public MTSPacketToPESPacketDecoder(MpegTsDecoder mpegTsDecoder) {
+    this(mpegTsDecoder, new StreamMetrics());
+  }
+
+  /** @param streamMetrics must be non-null */
+  public MTSPacketToPESPacketDecoder(StreamMetrics streamMetrics) {
+    this(new MpegTsDecoderImpl(), streamMetrics);
   }
 
   public MTSPacketToPESPacketDecoder() {
-    this(new MpegTsDecoderImpl());
+    this(new StreamMetrics());
   }
 
   @Override
@@ -43,6 +66,11 @@ class MTSPacketToPESPacketDecoder extends MessageToMessageDecoder<MTSPacket> {
     notNull(mtsPacket, "mtsPacket must be non-null");
     notNull(outputList, "outputList must be non-null");
 
-    mpegTsDecoder.read(mtsPacket, outputList::add);
+    try {
+      mpegTsDecoder.read(mtsPacket, outputList::add);
+    } catch (IOException | RuntimeException e) {
+      streamMetrics.recordPesDecodeFailure();
+      throw e;
+    }
   }
 }
@@ -0,0 +1,77 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.video.stream.mpegts.netty;
+
+import static org.apache.commons.lang3.Validate.notNull;
+import static org.apache.commons.lang3.Validate.validState;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import org.codice.alliance.video.stream.mpegts.OutputStreamFactory;
+
+/**
+ * A {@link SegmentWriter} that writes each packet to an {@link OutputStream} created by an {@link
+ * OutputStreamFactory}. The stream is opened in append mode once per segment.
+ */
+public class OutputStreamSegmentWriter implements SegmentWriter {
+
+  private final OutputStreamFactory outputStreamFactory;
+
+  private OutputStream outputStream;
+
+  /** @param outputStreamFactory must be non-null */
+  public OutputStreamSegmentWriter(OutputStreamFactory outputStreamFactory) {
+    notNull(outputStreamFactory, "outputStreamFactory must be non-null");
+    this.outputStreamFactory = outputStreamFactory;
+  }
+
+  @Override
+  public void open(File file, long expectedSize) throws IOException {
+    notNull(file, "file must be non-null");
+    validState(outputStream == null, "a segment is already open");
+    outputStream = outputStreamFactory.create(file, true);
+  }
+
+  @Override
+  public void write(ByteBuffer packet) throws IOException {
+    notNull(packet, "packet must be non-null");
+    validState(outputStream != null, "no segment is open");
+    if (packet.hasArray()) {
+      outputStream.write(
+          packet.array(), packet.arrayOffset() + packet.position(), packet.remaining());
+    } else {
+      byte[] bytes = new byte[packet.remaining()];
+      packet.duplicate().get(bytes);
+      outputStream.write(bytes);
+    }
+  }
+
+  @Override
+  public void flush() throws IOException {
+    if (outputStream != null) {
+      outputStream.flush();
+    }
+  }
+
+  @Override
+  public void close() throws IOException {
+    OutputStream localOutputStream = outputStream;
+    outputStream = null;
+    if (localOutputStream != null) {
+      localOutputStream.close();
+    }
+  }
+}
@@ -15,49 +15,22 @@ package org.codice.alliance.video.stream.mpegts.netty;
 
 import static org.apache.commons.lang3.Validate.notNull;
 
+import io.netty.buffer.ByteBuf;
 import io.netty.buffer.Unpooled;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToMessageDecoder;
-import java.io.EOFException;
-import java.nio.ByteBuffer;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Optional;
 import org.codice.alliance.libs.mpegts.MpegStreamType;
 import org.codice.alliance.libs.mpegts.PESPacket;
-import org.jcodec.codecs.h264.H264Utils;
-import org.jcodec.codecs.h264.io.model.NALUnit;
-import org.slf4j.Logger;
-import org.slf4j.LoggerFactory;
 
-/** Decodes PESPacket into NALUnits. If the PES is some other type, then it is ignored. */
+/**
+ * Finds the frame boundaries of H.264, H.265 and MPEG-2 video PES packets. Each video PES packet
+ * is one frame, and the frame is classified as a keyframe by scanning the payload for start codes
+ * and checking the header byte that follows each one. The payload is scanned in place, so no NAL
+ * units or pictures are copied or parsed.
+ */
 class PESPacketToApplicationDataDecoder extends MessageToMessageDecoder<PESPacket> {
 
-  private static final Logger LOGGER =
-      LoggerFactory.getLogger(PESPacketToApplicationDataDecoder.class);
-
-  private static final long PICTURE_START_CODE = 0;
-
-  private static final int MPEG2_TEMPORAL_BITS = 10;
-
-  private static final int MPEG2_PICTURE_TYPE_BITS = 3;
-
-  private NALReader nalReader = H264Utils::nextNALUnit;
-
-  private NALParser nalParser = NALUnit::read;
-
-  /** @param nalParser must be non-null */
-  public void setNalParser(NALParser nalParser) {
-    notNull(nalParser, "nalParser must be non-null");
-    this.nalParser = nalParser;
-  }
-
-  /** @param nalReader must be non-null */
-  public void setNalReader(NALReader nalReader) {
-    notNull(nalReader, "nalReader must be non-null");
-    this.nalReader = nalReader;
-  }
-
   @Override
   public boolean acceptInboundMessage(Object msg) {
     return msg instanceof PESPacket;
@@ -71,88 +44,36 @@ class PESPacketToApplicationDataDecoder extends MessageToMessageDecoder<PESPacke
     notNull(pesPacket, "pesPacket must be non-null");
     notNull(outputList, "outputList must be non-null");
 
-    if (isVideo(pesPacket)) {
-      decodeVideoH264(pesPacket, outputList);
-    } else if (isH262Video(pesPacket)) {
-      decodeVideoH262(pesPacket, outputList);
-    }
-  }
-
-  private boolean isVideo(PESPacket pesPacket) {
-    return pesPacket.getStreamType().equals(MpegStreamType.VIDEO_H264);
-  }
-
-  private void decodeVideoH264(PESPacket pesPacket, List<Object> outputList) {
-    ByteBuffer p = ByteBuffer.wrap(pesPacket.getPayload());
-
-    List<NALUnit> nalUnits = new LinkedList<>();
-
-    ByteBuffer segment;
-    while ((segment = nalReader.next(p)) != null) {
-
-      NALUnit nalUnit = nalParser.parse(segment);
+    MpegStreamType streamType = pesPacket.getStreamType();
 
-      if (nalUnit != null) {
-        nalUnits.add(nalUnit);
-      }
+    if (isVideo(streamType)) {
+      byte[] payload = pesPacket.getPayload();
+      outputList.add(
+          new VideoFrameDecodedStreamData(
+              streamType,
+              isKeyframe(streamType, Unpooled.wrappedBuffer(payload)),
+              pesPacket.getPacketId(),
+              PesHeader.getPresentationTimestamp(payload)));
     }
-
-    outputList.add(new Mpeg4DecodedStreamData(nalUnits, pesPacket.getPacketId()));
-  }
-
-  private boolean isH262Video(PESPacket pesPacket) {
-    return pesPacket.getStreamType().equals(MpegStreamType.VIDEO_MPEG2);
   }
 
-  private void decodeVideoH262(PESPacket pesPacket, List<Object> outputList) {
-
-    List<Mpeg2PictureType> mpeg2PictureTypeList = new LinkedList<>();
-
-    BitReader bitReader = new BitReader(Unpooled.wrappedBuffer(pesPacket.getPayload()));
-
-    Optional<Long> startCodeOpt;
-    while ((startCodeOpt = bitReader.findStart()).isPresent()) {
-
-      long startCode = startCodeOpt.get();
-      if (startCode == PICTURE_START_CODE) {
-        decodePicture(bitReader).ifPresent(mpeg2PictureTypeList::add);
-      }
-    }
-
-    outputList.add(new Mpeg2DecodedStreamData(mpeg2PictureTypeList, pesPacket.getPacketId()));
+  private boolean isVideo(MpegStreamType streamType) {
+    return streamType == MpegStreamType.VIDEO_H264
+        || streamType == MpegStreamType.VIDEO_H265
+        || streamType == MpegStreamType.VIDEO_MPEG2;
   }
 
-  private Optional<Mpeg2PictureType> decodePicture(BitReader bitReader) {
-    if (bitReader.readableBits() < (MPEG2_TEMPORAL_BITS + MPEG2_PICTURE_TYPE_BITS)) {
-      return Optional.empty();
+  private boolean isKeyframe(MpegStreamType streamType, ByteBuf payload) {
+    int fromIndex = payload.readerIndex();
+    int toIndex = payload.writerIndex();
+
+    switch (streamType) {
+      case VIDEO_H264:
+        return StartCodeScanner.containsH264Idr(payload, fromIndex, toIndex);
+      case VIDEO_H265:
+        return StartCodeScanner.containsH265Irap(payload, fromIndex, toIndex);
+      default:
+        return StartCodeScanner.isMpeg2IntraCoded(payload, fromIndex, toIndex);
     }
-
-    long pictureCodingType;
-    try {
-      bitReader.skipBits(MPEG2_TEMPORAL_BITS);
-      pictureCodingType = bitReader.readBits(MPEG2_PICTURE_TYPE_BITS);
-    } catch (EOFException e) {
-      LOGGER.debug(
-          "read past end of file, but should not happen because the stream was already tested for readability",
-          e);
-      return Optional.empty();
-    }
-
-    Optional<Mpeg2PictureType> mpeg2PictureType =
-        Mpeg2PictureType.fromH262HeaderValue(pictureCodingType);
-
-    if (!mpeg2PictureType.isPresent()) {
-      LOGGER.debug("invalid mpeg2 data, picture code types must be >=0 and <3");
-    }
-
-    return mpeg2PictureType;
-  }
-
-  public interface NALReader {
-    ByteBuffer next(ByteBuffer byteBuffer);
-  }
-
-  public interface NALParser {
-    NALUnit parse(ByteBuffer byteBuffer);
   }
 }
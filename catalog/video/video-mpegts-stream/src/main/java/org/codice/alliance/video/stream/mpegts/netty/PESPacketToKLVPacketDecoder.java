@@ -20,6 +20,7 @@ import static org.codice.alliance.video.stream.mpegts.klv.KlvData.PARENT_ID_KEY;
 
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.handler.codec.MessageToMessageDecoder;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -30,6 +31,7 @@ import org.codice.alliance.libs.stanag4609.PESUtilities;
 import org.codice.alliance.video.stream.mpegts.Context;
 import org.codice.alliance.video.stream.mpegts.klv.KlvConsumer;
 import org.codice.alliance.video.stream.mpegts.klv.KlvData;
+import org.codice.alliance.video.stream.mpegts.metrics.StreamMetrics;
 import org.codice.ddf.libs.klv.KlvContext;
 import org.codice.ddf.libs.klv.KlvDataElement;
 import org.codice.ddf.libs.klv.KlvDecoder;
@@ -47,13 +49,22 @@ class PESPacketToKLVPacketDecoder extends MessageToMessageDecoder<PESPacket> {
 
   private final Context context;
 
+  private final StreamMetrics streamMetrics;
+
   private Map<String, String> properties = new HashMap<>();
 
+  /**
+   * An unmodifiable copy of {@link #properties} that is shared by the posted KLV data until the
+   * properties change, because the KLV consumer may keep the data.
+   */
+  private Map<String, String> propertiesSnapshot = Collections.emptyMap();
+
   public PESPacketToKLVPacketDecoder(
       KlvDecoder klvDecoder, KlvConsumer klvService, Context context) {
     this.decoder = klvDecoder;
     this.klvService = klvService;
     this.context = context;
+    this.streamMetrics = context.getStreamMetrics();
     properties.putAll(context.getUdpStreamProcessor().getAdditionalProperties());
     context
         .getParentMetacard()
@@ -88,21 +99,30 @@ class PESPacketToKLVPacketDecoder extends MessageToMessageDecoder<PESPacket> {
     if (klvService == null || !properties.containsKey(PARENT_ID_KEY)) {
       return;
     }
+    if (!properties.equals(propertiesSnapshot)) {
+      propertiesSnapshot = Collections.unmodifiableMap(new HashMap<>(properties));
+    }
     if (pesPacket.getStreamType() == MpegStreamType.PRIVATE_DATA
         || pesPacket.getStreamType() == MpegStreamType.META_PES) {
       DecodedKLVMetadataPacket klvPacket;
       try {
         klvPacket = PESUtilities.handlePESPacketBytes(pesPacket.getPayload(), decoder);
       } catch (KlvDecodingException e) {
+        streamMetrics.recordKlvDecodeFailure();
         LOGGER.debug("Couldn't decode KLV packet. Skipping...", e);
         return;
       }
       if (klvPacket != null) {
+        streamMetrics.recordKlvPacket();
         KlvDataElement<KlvContext> klvData =
             klvPacket.getDecodedKLV().getDataElementByName(UAS_DATALINK_LOCAL_SET);
         if (klvData != null) {
           klvService.postKlvForStream(
-              new KlvData(klvData.getValue().getDataElements(), properties));
+              new KlvData(
+                  klvData.getValue().getDataElements(),
+                  propertiesSnapshot,
+                  System.currentTimeMillis(),
+                  klvPacket.getPresentationTimestamp()));
         }
       }
     }
@@ -16,24 +16,20 @@ package org.codice.alliance.video.stream.mpegts.netty;
 import static org.apache.commons.lang3.Validate.notNull;
 
 import java.io.File;
-import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.OutputStream;
+import java.nio.ByteBuffer;
 import java.util.ArrayList;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
-import java.util.Set;
-import java.util.Timer;
-import java.util.TimerTask;
 import java.util.concurrent.TimeUnit;
 import java.util.concurrent.locks.Lock;
 import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Supplier;
-import java.util.stream.Collectors;
 import org.codice.alliance.video.stream.mpegts.OutputStreamFactory;
 import org.codice.alliance.video.stream.mpegts.filename.TempFileGenerator;
 import org.codice.alliance.video.stream.mpegts.filename.TempFileGeneratorImpl;
+import org.codice.alliance.video.stream.mpegts.metrics.StreamMetrics;
 import org.codice.alliance.video.stream.mpegts.rollover.RolloverCondition;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -43,6 +39,15 @@ import org.slf4j.LoggerFactory;
  * is on a clean IDR boundary. If an IDR boundary cannot be found, the data will be eventually flush
  * on a arbitrary point to avoid memory exhaustion. This implementation is thread-safe.
  *
+ * <p>The temporary file of a segment is written by a {@link SegmentWriter} that stays open from the
+ * first flush of the segment until the segment is rotated. By default this is a {@link
+ * FileChannelSegmentWriter}.
+ *
+ * <p>The buffer keeps a running count of the frame types in the frame list and the position of the
+ * last IDR frame, so deciding whether a frameset can be flushed does not scan the frame list. The
+ * byte offset and presentation timestamp of every IDR frame written to a segment are recorded in a
+ * {@link KeyframeIndex}, which is saved next to the segment file when the segment is rotated.
+ *
  * <p>NOTE: This implementation could probably be improved by using some kind of circular buffer
  * with read and write pointers
  */
@@ -54,6 +59,9 @@ public class PacketBuffer {
    */
   public static final long ACTIVITY_TIMEOUT = TimeUnit.SECONDS.toMillis(5);
 
+  /** Number of milliseconds between calls to {@link #logActivity()}. */
+  public static final long ACTIVITY_LOG_PERIOD = TimeUnit.SECONDS.toMillis(10);
+
   private static final Logger LOGGER = LoggerFactory.getLogger(PacketBuffer.class);
 
   /**
@@ -83,13 +91,21 @@ public class PacketBuffer {
         }
       };
 
-  private static final long ACTIVITY_LOG_PERIOD = TimeUnit.SECONDS.toMillis(10);
+  private List<Frame> frames = new ArrayList<>();
 
-  private final Timer timer = new Timer();
+  private List<ByteBuffer> incompleteFrame = new ArrayList<>();
 
-  private List<Frame> frames = new ArrayList<>();
+  /** Number of {@link FrameType#IDR} frames in the frame list. */
+  private int idrFrameCount = 0;
+
+  /** Number of {@link FrameType#UNKNOWN} frames in the frame list. */
+  private int unknownFrameCount = 0;
 
-  private List<byte[]> incompleteFrame = new ArrayList<>();
+  /** Index of the last {@link FrameType#IDR} frame in the frame list, or -1 if there is none. */
+  private int lastIdrFrameIndex = -1;
+
+  /** Keyframes of the current temp file. */
+  private final KeyframeIndex keyframeIndex = new KeyframeIndex();
 
   private Lock lock = new ReentrantLock();
 
@@ -105,15 +121,12 @@ public class PacketBuffer {
 
   private long maxIncompleteFrameBytes = DEFAULT_MAX_INCOMPLETE_FRAME_BYTES;
 
-  private OutputStreamFactory outputStreamFactory = FileOutputStream::new;
-
-  private long bytesReceived = 0;
-
-  private long packetsReceived = 0;
+  private SegmentWriter segmentWriter = new FileChannelSegmentWriter();
 
-  private long bytesWritten = 0;
+  /** Expected size of a segment in bytes, or 0 if it is not known. */
+  private long expectedSegmentSize = 0;
 
-  private long filesWritten = 0;
+  private StreamMetrics streamMetrics = new StreamMetrics();
 
   private long lastSegmentStart = -1;
 
@@ -128,21 +141,23 @@ public class PacketBuffer {
   /** By default, new Date objects are created by calling {@link Date#Date()}. */
   private Supplier<Date> dateSupplier = Date::new;
 
-  public PacketBuffer() {
-    timer.schedule(
-        new TimerTask() {
-          @Override
-          public void run() {
-            LOGGER.debug(
-                "packet buffer activity: bytesReceived={} packetsReceived={} bytesWritten={} filesWritten={}",
-                bytesReceived,
-                packetsReceived,
-                bytesWritten,
-                filesWritten);
-          }
-        },
-        0,
-        ACTIVITY_LOG_PERIOD);
+  /**
+   * Log the activity counters. The stream processor calls this every {@link #ACTIVITY_LOG_PERIOD}
+   * milliseconds from the shared stream scheduler.
+   */
+  public void logActivity() {
+    LOGGER.debug(
+        "packet buffer activity: bytesReceived={} packetsReceived={} bytesWritten={} filesWritten={}",
+        streamMetrics.getBytesReceived(),
+        streamMetrics.getPacketsReceived(),
+        streamMetrics.getBytesWritten(),
+        streamMetrics.getFilesWritten());
+  }
+
+  /** @param streamMetrics must be non-null, receives the packet and flush metrics */
+  public void setStreamMetrics(StreamMetrics streamMetrics) {
+    notNull(streamMetrics, "streamMetrics must be non-null");
+    this.streamMetrics = streamMetrics;
   }
 
   /** @param tempFileGenerator must be non-null */
@@ -151,10 +166,35 @@ public class PacketBuffer {
     this.tempFileGenerator = tempFileGenerator;
   }
 
-  /** @param outputStreamFactory must be non-null */
+  /**
+   * Write the segments with streams created by the factory instead of the default {@link
+   * FileChannelSegmentWriter}.
+   *
+   * @param outputStreamFactory must be non-null
+   */
   public void setOutputStreamFactory(OutputStreamFactory outputStreamFactory) {
     notNull(outputStreamFactory, "outputStreamFactory must be non-null");
-    this.outputStreamFactory = outputStreamFactory;
+    setSegmentWriter(new OutputStreamSegmentWriter(outputStreamFactory));
+  }
+
+  /**
+   * The writer should be set before any data is written.
+   *
+   * @param segmentWriter must be non-null
+   */
+  public synchronized void setSegmentWriter(SegmentWriter segmentWriter) {
+    notNull(segmentWriter, "segmentWriter must be non-null");
+    this.segmentWriter = segmentWriter;
+  }
+
+  /**
+   * Set the expected size of a segment, which is passed to the segment writer as a hint when a new
+   * temporary file is started.
+   *
+   * @param expectedSegmentSize bytes, or 0 if it is not known
+   */
+  public synchronized void setExpectedSegmentSize(long expectedSegmentSize) {
+    this.expectedSegmentSize = Math.max(expectedSegmentSize, 0);
   }
 
   /** @param maxIncompleteFrameBytes must be non-null */
@@ -177,6 +217,9 @@ public class PacketBuffer {
   public synchronized void reset() {
     frames.clear();
     incompleteFrame.clear();
+    clearFrameIndex();
+    keyframeIndex.clear();
+    closeSegmentWriter();
     currentTempFile = null;
     tempFileCreateTime = null;
     bytesWrittenToTempFile = 0;
@@ -211,18 +254,35 @@ public class PacketBuffer {
    */
   public synchronized void write(byte[] rawPacket) {
 
-    if (rawPacket == null || rawPacket.length == 0) {
+    if (rawPacket == null) {
+      return;
+    }
+
+    write(ByteBuffer.wrap(rawPacket));
+  }
+
+  /**
+   * Write raw data into the buffer. The remaining bytes of the buffer are kept by reference until
+   * they are written to the temporary file, so the caller must not modify them. This lets the caller
+   * pass slices of a larger array instead of copying each packet into its own array. See {@link
+   * #write(byte[])}.
+   *
+   * @param rawPacket may be null or empty
+   */
+  public synchronized void write(ByteBuffer rawPacket) {
+
+    if (rawPacket == null || !rawPacket.hasRemaining()) {
       return;
     }
 
+    int length = rawPacket.remaining();
+
     lastActivity = System.currentTimeMillis();
     incompleteFrame.add(rawPacket);
-    incompleteFrameBytes += rawPacket.length;
-    bytesReceived += rawPacket.length;
-    packetsReceived++;
+    incompleteFrameBytes += length;
+    streamMetrics.recordPacket(length);
     if (incompleteFrameBytes > maxIncompleteFrameBytes) {
-      frames.add(new Frame(FrameType.UNKNOWN, incompleteFrame));
-      incompleteFrame = new ArrayList<>();
+      addFrame(FrameType.UNKNOWN, KeyframeIndex.UNKNOWN_PTS);
       incompleteFrameBytes = 0;
       flushIfDataAvailable();
     }
@@ -235,13 +295,58 @@ public class PacketBuffer {
    * @param frameType must be non-null
    */
   public synchronized void frameComplete(FrameType frameType) {
+    frameComplete(frameType, KeyframeIndex.UNKNOWN_PTS);
+  }
+
+  /**
+   * Tell the packet buffer that the recently written data represents a complete frame. A flush to
+   * disk will be attempted.
+   *
+   * @param frameType must be non-null
+   * @param presentationTimestamp PTS of the frame or {@link KeyframeIndex#UNKNOWN_PTS}
+   */
+  public synchronized void frameComplete(FrameType frameType, long presentationTimestamp) {
     notNull(frameType, "frameType must be non-null");
-    frames.add(new Frame(frameType, incompleteFrame));
-    incompleteFrame = new ArrayList<>();
+    addFrame(frameType, presentationTimestamp);
 
     flushIfDataAvailable();
   }
 
+  /** Move the incomplete frame to the frame list and update the frame type counts. */
+  private void addFrame(FrameType frameType, long presentationTimestamp) {
+    frames.add(new Frame(frameType, presentationTimestamp, incompleteFrame));
+    incompleteFrame = new ArrayList<>();
+
+    if (frameType == FrameType.IDR) {
+      idrFrameCount++;
+      lastIdrFrameIndex = frames.size() - 1;
+    } else if (frameType == FrameType.UNKNOWN) {
+      unknownFrameCount++;
+    }
+  }
+
+  /**
+   * Update the frame type counts after frames were removed from the front of the frame list.
+   *
+   * @param removedFrames the frames that were removed
+   */
+  private void removeFromFrameIndex(List<Frame> removedFrames) {
+    for (Frame frame : removedFrames) {
+      if (frame.frameType == FrameType.IDR) {
+        idrFrameCount--;
+      } else if (frame.frameType == FrameType.UNKNOWN) {
+        unknownFrameCount--;
+      }
+    }
+    lastIdrFrameIndex = Math.max(lastIdrFrameIndex - removedFrames.size(), -1);
+  }
+
+  private void clearFrameIndex() {
+    idrFrameCount = 0;
+    unknownFrameCount = 0;
+    lastIdrFrameIndex = -1;
+  }
+
   /** If a full frameset is in the frame list, then flush the frameset to disk. */
   private void flushIfDataAvailable() {
     findLastFramesetIndex()
@@ -260,24 +365,39 @@ public class PacketBuffer {
   }
 
   /**
+   * The time taken to write the frameset, including starting a new temp file, is recorded as the
+   * frameset flush latency. The frames are removed from the frame list even if they cannot be
+   * written. IDR frames are added to the keyframe index of the temp file as they are written.
+   *
    * @param index the index of the last frame of the last frameset
    * @throws IOException
    */
   private void flushFrameset(int index) throws IOException {
 
-    try (OutputStream os = outputStreamFactory.create(getTempFile(), true)) {
+    long start = System.nanoTime();
+    long bytesWritten = 0;
 
-      List<byte[]> outgoingPackets =
-          frames.subList(0, index + 1).stream()
-              .flatMap(frame -> frame.packets.stream())
-              .collect(Collectors.toList());
-      frames = new ArrayList<>(frames.subList(index + 1, frames.size()));
+    List<Frame> outgoingFrames = frames.subList(0, index + 1);
+    frames = new ArrayList<>(frames.subList(index + 1, frames.size()));
+    removeFromFrameIndex(outgoingFrames);
 
-      for (byte[] outgoingPacket : outgoingPackets) {
-        os.write(outgoingPacket);
-        bytesWrittenToTempFile += outgoingPacket.length;
-        bytesWritten += outgoingPacket.length;
+    try {
+      getTempFile();
+
+      for (Frame frame : outgoingFrames) {
+        if (frame.frameType == FrameType.IDR) {
+          keyframeIndex.add(bytesWrittenToTempFile + bytesWritten, frame.presentationTimestamp);
+        }
+        for (ByteBuffer outgoingPacket : frame.packets) {
+          segmentWriter.write(outgoingPacket);
+          bytesWritten += outgoingPacket.remaining();
+        }
       }
+
+      segmentWriter.flush();
+    } finally {
+      bytesWrittenToTempFile += bytesWritten;
+      streamMetrics.recordFramesetFlush(bytesWritten, System.nanoTime() - start);
     }
   }
 
@@ -317,16 +437,38 @@ public class PacketBuffer {
     return new RotateResult(getFile().orElse(null), false);
   }
 
+  /**
+   * Close the segment writer, so that the temp file is complete before it is returned, and save the
+   * keyframe index next to it.
+   */
   private Optional<File> getFile() {
+    closeSegmentWriter();
     File tempFile = currentTempFile;
+    saveKeyframeIndex(tempFile);
     currentTempFile = null;
     bytesWrittenToTempFile = 0;
     return Optional.of(tempFile);
   }
 
   private void flushIncompleteFrames() {
-    frames.add(new Frame(FrameType.UNKNOWN, incompleteFrame));
-    incompleteFrame = new ArrayList<>();
+    addFrame(FrameType.UNKNOWN, KeyframeIndex.UNKNOWN_PTS);
+  }
+
+  /**
+   * The index is only saved if the segment has keyframes and the segment writer created the
+   * segment file. The caller of {@link #rotate(RolloverCondition)} is responsible for deleting the
+   * index file along with the segment.
+   */
+  private void saveKeyframeIndex(File segmentFile) {
+    try {
+      if (segmentFile != null && !keyframeIndex.isEmpty() && segmentFile.exists()) {
+        keyframeIndex.write(KeyframeIndex.getIndexFile(segmentFile));
+      }
+    } catch (IOException e) {
+      LOGGER.debug("unable to write keyframe index: segmentFile={}", segmentFile, e);
+    } finally {
+      keyframeIndex.clear();
+    }
   }
 
   /**
@@ -352,22 +494,25 @@ public class PacketBuffer {
     return rotate(ALWAYS_TRUE);
   }
 
-  public void cancelTimer() {
-    timer.cancel();
-  }
-
   private File getTempFile() throws IOException {
     if (currentTempFile == null) {
+      File tempFile = tempFileGenerator.generate();
+      segmentWriter.open(tempFile, expectedSegmentSize);
+      keyframeIndex.clear();
       tempFileCreateTime = dateSupplier.get().getTime();
       bytesWrittenToTempFile = 0;
-      currentTempFile = tempFileGenerator.generate();
-      filesWritten++;
+      currentTempFile = tempFile;
+      streamMetrics.recordFileWritten();
     }
     return currentTempFile;
   }
 
-  private Set<FrameType> summarizeFrameTypes() {
-    return frames.stream().map(frame -> frame.frameType).collect(Collectors.toSet());
+  private void closeSegmentWriter() {
+    try {
+      segmentWriter.close();
+    } catch (IOException e) {
+      LOGGER.debug("unable to close temp file: tempFile={}", currentTempFile, e);
+    }
   }
 
   private long millisSinceLastActivity() {
@@ -386,8 +531,8 @@ public class PacketBuffer {
     return frames.size() > DEFAULT_MAX_FRAMESET_SIZE;
   }
 
-  private boolean isAllUnknownFrameType(Set<FrameType> frameTypeSummary) {
-    return frameTypeSummary.size() == 1 && frameTypeSummary.contains(FrameType.UNKNOWN);
+  private boolean isAllUnknownFrameType() {
+    return !frames.isEmpty() && unknownFrameCount == frames.size();
   }
 
   public long getLastSegmentStart() {
@@ -404,7 +549,8 @@ public class PacketBuffer {
    * could start reading a stream in the middle of a frameset. If the frame list only contains
    * UNKNOWN frame types, then always return the last index of the frame list. If the frame list
    * contains more than maxFramesetSize, then it is considered to be a complete framset in order to
-   * avoid memory exhaustion.
+   * avoid memory exhaustion. The search uses the running frame type counts and does not depend on
+   * the size of the frame list.
    *
    * @return non-null optional value, may contain index to the last frame in a frameset
    */
@@ -415,22 +561,15 @@ public class PacketBuffer {
       return allFrames();
     }
 
-    Set<FrameType> frameTypeSummary = summarizeFrameTypes();
-
-    if (isAllUnknownFrameType(frameTypeSummary)) {
+    if (isAllUnknownFrameType()) {
       return allFrames();
     }
 
-    if (!frameTypeSummary.contains(FrameType.IDR)) {
+    if (idrFrameCount == 0 || lastIdrFrameIndex <= 0) {
       return Optional.empty();
     }
 
-    for (int i = frames.size() - 1; i > 0; i--) {
-      if (frames.get(i).frameType == FrameType.IDR) {
-        return Optional.of(i - 1);
-      }
-    }
-    return Optional.empty();
+    return Optional.of(lastIdrFrameIndex - 1);
   }
 
   private void resetLastActivity() {
@@ -449,12 +588,15 @@ public class PacketBuffer {
    */
   private static class Frame {
 
-    private List<byte[]> packets;
+    private List<ByteBuffer> packets;
 
     private FrameType frameType;
 
-    public Frame(FrameType frameType, List<byte[]> packets) {
+    private long presentationTimestamp;
+
+    public Frame(FrameType frameType, long presentationTimestamp, List<ByteBuffer> packets) {
       this.frameType = frameType;
+      this.presentationTimestamp = presentationTimestamp;
       this.packets = packets;
     }
   }
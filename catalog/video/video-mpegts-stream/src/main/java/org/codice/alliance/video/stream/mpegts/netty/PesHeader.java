@@ -0,0 +1,58 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.video.stream.mpegts.netty;
+
+/**
+ * Reads PES packet header fields in place from the start of a PES packet. Like {@link
+ * TsPacketHeader}, the methods do not allocate.
+ */
+final class PesHeader {
+
+  private static final int MIN_HEADER_SIZE = 9;
+
+  private static final int PTS_SIZE = 5;
+
+  private static final int PTS_FLAG = 0x80;
+
+  private static final int FLAGS_OFFSET = 7;
+
+  private static final int PTS_OFFSET = 9;
+
+  private PesHeader() {}
+
+  /**
+   * Get the presentation timestamp of the PES packet. Streams that carry no optional PES header
+   * (e.g. padding or private stream 2) and packets without a PTS return {@link
+   * KeyframeIndex#UNKNOWN_PTS}.
+   *
+   * @param pesPacket must be non-null, starting with the packet start code prefix
+   * @return the 33-bit PTS in 90kHz clock ticks or {@link KeyframeIndex#UNKNOWN_PTS}
+   */
+  static long getPresentationTimestamp(byte[] pesPacket) {
+    if (pesPacket.length < MIN_HEADER_SIZE + PTS_SIZE
+        || pesPacket[0] != 0
+        || pesPacket[1] != 0
+        || pesPacket[2] != 1
+        || (pesPacket[6] & 0xC0) != 0x80
+        || (pesPacket[FLAGS_OFFSET] & PTS_FLAG) == 0) {
+      return KeyframeIndex.UNKNOWN_PTS;
+    }
+
+    return ((long) (pesPacket[PTS_OFFSET] & 0x0E) << 29)
+        | ((long) (pesPacket[PTS_OFFSET + 1] & 0xFF) << 22)
+        | ((long) (pesPacket[PTS_OFFSET + 2] & 0xFE) << 14)
+        | ((long) (pesPacket[PTS_OFFSET + 3] & 0xFF) << 7)
+        | ((pesPacket[PTS_OFFSET + 4] & 0xFE) >> 1);
+  }
+}
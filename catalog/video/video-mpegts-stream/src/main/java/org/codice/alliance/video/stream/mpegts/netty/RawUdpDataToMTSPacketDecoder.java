@@ -15,32 +15,38 @@ package org.codice.alliance.video.stream.mpegts.netty;
 
 import static org.apache.commons.lang3.Validate.notNull;
 
-import com.google.common.io.ByteSource;
 import ddf.security.Subject;
 import ddf.security.service.SecurityServiceException;
 import io.netty.buffer.ByteBuf;
 import io.netty.channel.ChannelHandlerContext;
 import io.netty.channel.socket.DatagramPacket;
 import io.netty.handler.codec.MessageToMessageDecoder;
-import java.io.IOException;
+import java.nio.ByteBuffer;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
-import java.util.concurrent.locks.Lock;
-import java.util.concurrent.locks.ReentrantLock;
 import org.codice.alliance.libs.mpegts.Constants;
+import org.codice.alliance.video.stream.mpegts.metrics.StreamMetrics;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.taktik.mpegts.MTSPacket;
-import org.taktik.mpegts.sources.MTSSources;
-import org.taktik.mpegts.sources.ResettableMTSSource;
 
 /**
  * Converts datagrams to a series of MTSPackets. Will discard data while looking for the MPEG-TS
  * sync byte.
+ *
+ * <p>A new instance is created for each channel and Netty always invokes a channel's handlers from
+ * the same event loop thread, so the decoder keeps no shared state and takes no locks. This lets
+ * concurrent streams decode in parallel. Packet headers are checked in place in the ByteBuf. The
+ * packets of a datagram are copied into a single array, and the {@link PacketBuffer} and each
+ * {@link MTSPacket} share a 188-byte slice of it, so there is one allocation per datagram instead of
+ * one per packet.
+ *
+ * <p>Datagrams, discarded bytes and continuity counter gaps are recorded in the stream's {@link
+ * StreamMetrics}. A datagram is counted as dropped when none of its bytes could be used.
  */
-class RawUdpDataToMTSPacketDecoder extends MessageToMessageDecoder<DatagramPacket> {
+public class RawUdpDataToMTSPacketDecoder extends MessageToMessageDecoder<DatagramPacket> {
 
-  public static final byte TS_SYNC = (byte) 0x47;
+  public static final byte TS_SYNC = TsPacketHeader.TS_SYNC;
 
   public static final int BUFFER_SIZE = 4096 * 16;
 
@@ -51,23 +57,44 @@ class RawUdpDataToMTSPacketDecoder extends MessageToMessageDecoder<DatagramPacke
 
   private static final Logger LOGGER = LoggerFactory.getLogger(RawUdpDataToMTSPacketDecoder.class);
 
-  private static final Lock LOCK = new ReentrantLock();
-
   private ByteBuf byteBuf;
 
   private PacketBuffer packetBuffer;
 
-  private MTSParser mtsParser = MTSSources::from;
+  private MTSParser mtsParser = MTSPacket::new;
 
   private UdpStreamProcessor udpStreamProcessor;
 
+  private final StreamMetrics streamMetrics;
+
+  private final ContinuityCounterTracker continuityCounterTracker = new ContinuityCounterTracker();
+
+  /** Number of bytes discarded while decoding the current datagram. */
+  private long discardedBytes;
+
+  /** Holds the packets of the current datagram, allocated when the first packet is accepted. */
+  private byte[] packetData;
+
+  /** Number of bytes of {@link #packetData} that hold accepted packets. */
+  private int packetDataLength;
+
   /** Milliseconds since the subject token was checked for expiration. */
   private long lastTokenCheck = 0;
 
   public RawUdpDataToMTSPacketDecoder(
       PacketBuffer packetBuffer, UdpStreamProcessor udpStreamProcessor) {
+    this(packetBuffer, udpStreamProcessor, new StreamMetrics());
+  }
+
+  /** @param streamMetrics must be non-null */
+  public RawUdpDataToMTSPacketDecoder(
+      PacketBuffer packetBuffer,
+      UdpStreamProcessor udpStreamProcessor,
+      StreamMetrics streamMetrics) {
+    notNull(streamMetrics, "streamMetrics must be non-null");
     this.packetBuffer = packetBuffer;
     this.udpStreamProcessor = udpStreamProcessor;
+    this.streamMetrics = streamMetrics;
   }
 
   public void setMtsParser(MTSParser mtsParser) {
@@ -94,62 +121,95 @@ class RawUdpDataToMTSPacketDecoder extends MessageToMessageDecoder<DatagramPacke
     notNull(msg, "msg must be non-null");
     notNull(outputList, "outputList must be non-null");
 
-    LOCK.lock();
-    try {
-      checkSecuritySubject(msg);
+    checkSecuritySubject(msg);
 
-      byteBuf.writeBytes(msg.content());
+    int datagramLength = msg.content().readableBytes();
+    int outputSize = outputList.size();
+    discardedBytes = 0;
 
-      skipToSyncByte();
+    byteBuf.writeBytes(msg.content());
 
-      while (byteBuf.readableBytes() >= TS_PACKET_SIZE) {
-        parseMpegTsPacket(outputList);
-      }
+    skipToSyncByte();
+
+    while (byteBuf.readableBytes() >= TS_PACKET_SIZE) {
+      parseMpegTsPacket(outputList);
+    }
 
-      byteBuf.discardReadBytes();
-    } finally {
-      LOCK.unlock();
+    // the accepted packets keep a reference to the array, the next datagram gets a new one
+    packetData = null;
+
+    byteBuf.discardSomeReadBytes();
+
+    streamMetrics.recordDatagram();
+    if (discardedBytes > 0) {
+      streamMetrics.recordDiscardedBytes(discardedBytes);
+      if (outputList.size() == outputSize && discardedBytes >= datagramLength) {
+        streamMetrics.recordDroppedDatagram();
+      }
     }
   }
 
   /**
    * Attempt to parse the first {@link #TS_PACKET_SIZE} bytes from the ByteBuf. If the parsing
    * succeeds, then add the new mpeg-ts packet to the output list and add the raw bytes to the
-   * packet buffer. If parsing fails, then rewind the read operation on the ByteBuf and discard the
-   * first byte of the ByteBuf, which was a potential sync byte. In either case, skip to the next
-   * sync byte.
+   * packet buffer. If parsing fails, then discard the first byte of the ByteBuf, which was a
+   * potential sync byte. In either case, skip to the next sync byte.
    *
-   * <p>Note: {@link ResettableMTSSource#nextPacket()} can throw unchecked exceptions when parsing
-   * fails.
+   * <p>The header is checked in place before any bytes are copied, so that false sync bytes in the
+   * raw data are discarded without allocating.
+   *
+   * <p>Note: {@link MTSParser#parse(ByteBuffer)} can throw unchecked exceptions when parsing fails.
    *
    * @param outputList write parsed mpeg-ts packets to this list
    */
   private void parseMpegTsPacket(List<Object> outputList) {
 
-    byte[] payload = new byte[TS_PACKET_SIZE];
+    int readerIndex = byteBuf.readerIndex();
 
-    byteBuf.markReaderIndex();
+    if (!TsPacketHeader.isValid(byteBuf, readerIndex)) {
+      LOGGER.trace("discarding mpeg-ts packet with an invalid header");
+      discardBytes(1);
+      skipToSyncByte();
+      return;
+    }
+
+    if (packetData == null) {
+      // every accepted packet consumes TS_PACKET_SIZE readable bytes, so this is large enough for
+      // all of the packets that can still be decoded from this datagram
+      packetData = new byte[byteBuf.readableBytes() / TS_PACKET_SIZE * TS_PACKET_SIZE];
+      packetDataLength = 0;
+    }
 
-    byteBuf.readBytes(payload);
+    byteBuf.getBytes(readerIndex, packetData, packetDataLength, TS_PACKET_SIZE);
 
     MTSPacket packet = null;
     try {
-      ResettableMTSSource src = mtsParser.parse(ByteSource.wrap(payload));
-      packet = src.nextPacket();
+      packet = mtsParser.parse(rawPacket());
     } catch (Exception e) {
       LOGGER.debug("unable to parse mpeg-ts packet", e);
-      byteBuf.resetReaderIndex();
-      byteBuf.skipBytes(1);
     }
 
     if (packet != null) {
-      packetBuffer.write(payload);
+      if (continuityCounterTracker.isGap(byteBuf, readerIndex)) {
+        LOGGER.trace("continuity counter gap detected, mpeg-ts packets were lost");
+        streamMetrics.recordContinuityError();
+      }
+      byteBuf.skipBytes(TS_PACKET_SIZE);
+      packetBuffer.write(rawPacket());
+      packetDataLength += TS_PACKET_SIZE;
       outputList.add(packet);
+    } else {
+      discardBytes(1);
     }
 
     skipToSyncByte();
   }
 
+  /** A slice of {@link #packetData} that holds the packet being decoded. */
+  private ByteBuffer rawPacket() {
+    return ByteBuffer.wrap(packetData, packetDataLength, TS_PACKET_SIZE).slice();
+  }
+
   private void checkSecuritySubject(DatagramPacket msg) throws SecurityServiceException {
     Subject subject = udpStreamProcessor.getSubject();
 
@@ -170,17 +230,30 @@ class RawUdpDataToMTSPacketDecoder extends MessageToMessageDecoder<DatagramPacke
     return msg.sender().getAddress().getHostAddress();
   }
 
+  /**
+   * Discard the bytes before the next sync byte. If there is no sync byte, none of the buffered
+   * bytes can start a packet, so all of them are discarded.
+   */
   private void skipToSyncByte() {
 
-    int bytesBefore;
+    int bytesBefore = byteBuf.bytesBefore(TS_SYNC);
 
-    if ((bytesBefore = byteBuf.bytesBefore(TS_SYNC)) > 0) {
+    if (bytesBefore < 0) {
+      bytesBefore = byteBuf.readableBytes();
+    }
+
+    if (bytesBefore > 0) {
       LOGGER.trace("skipping bytes in raw data stream, looking for MPEG-TS sync {}", bytesBefore);
-      byteBuf.skipBytes(bytesBefore);
+      discardBytes(bytesBefore);
     }
   }
 
+  private void discardBytes(int count) {
+    byteBuf.skipBytes(count);
+    discardedBytes += count;
+  }
+
   public interface MTSParser {
-    ResettableMTSSource parse(ByteSource byteSource) throws IOException;
+    MTSPacket parse(ByteBuffer buffer);
   }
 }
@@ -0,0 +1,74 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.video.stream.mpegts.netty;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Writes the raw packets of a rollover segment to a temporary file. A segment writer is opened once
+ * per segment, written to by every frameset flush, and closed when the segment is rotated. The same
+ * instance is then opened again for the next segment, so implementations may keep their buffers
+ * between segments. Implementations do not need to be thread-safe.
+ */
+public interface SegmentWriter {
+
+  /**
+   * Start a new segment.
+   *
+   * @param file must be non-null
+   * @param expectedSize expected size of the segment in bytes, or 0 if it is not known. This is
+   *     only a hint, the segment may be larger or smaller.
+   * @throws IOException if the file cannot be opened
+   * @throws IllegalStateException if a segment is already open
+   */
+  void open(File file, long expectedSize) throws IOException;
+
+  /**
+   * Write the remaining bytes of a packet to the current segment. The packet may be buffered until
+   * {@link #flush()} is called. The position of the buffer is not changed, and the buffer may be
+   * reused by the caller once this method returns.
+   *
+   * @param packet must be non-null
+   * @throws IOException if the packet cannot be written
+   * @throws IllegalStateException if no segment is open
+   */
+  void write(ByteBuffer packet) throws IOException;
+
+  /**
+   * Write a packet to the current segment. See {@link #write(ByteBuffer)}.
+   *
+   * @param packet must be non-null
+   * @throws IOException if the packet cannot be written
+   * @throws IllegalStateException if no segment is open
+   */
+  default void write(byte[] packet) throws IOException {
+    write(ByteBuffer.wrap(packet));
+  }
+
+  /**
+   * Write any buffered packets to the file.
+   *
+   * @throws IOException if the packets cannot be written
+   */
+  void flush() throws IOException;
+
+  /**
+   * Flush and close the current segment. Does nothing if no segment is open.
+   *
+   * @throws IOException if the segment cannot be flushed or closed
+   */
+  void close() throws IOException;
+}
@@ -0,0 +1,254 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.video.stream.mpegts.netty;
+
+import static org.apache.commons.lang3.Validate.inclusiveBetween;
+import static org.apache.commons.lang3.Validate.notNull;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.epoll.Epoll;
+import io.netty.channel.epoll.EpollDatagramChannel;
+import io.netty.channel.epoll.EpollEventLoopGroup;
+import io.netty.channel.nio.NioEventLoopGroup;
+import io.netty.channel.socket.DatagramChannel;
+import io.netty.channel.socket.InternetProtocolFamily;
+import io.netty.channel.socket.nio.NioDatagramChannel;
+import io.netty.util.concurrent.DefaultThreadFactory;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * A {@link StreamRuntime} with a fixed number of event loop, scheduler and rollover threads. The
+ * native epoll transport is used when it is available, otherwise the NIO transport is used. The
+ * thread counts default to the system properties {@link #EVENT_LOOP_THREAD_COUNT_PROPERTY}, {@link
+ * #SCHEDULER_THREAD_COUNT_PROPERTY} and {@link #ROLLOVER_THREAD_COUNT_PROPERTY}.
+ */
+public class SharedStreamRuntime implements StreamRuntime {
+
+  public static final String EVENT_LOOP_THREAD_COUNT_PROPERTY =
+      "default.video.stream.eventloop.thread.count";
+
+  public static final String SCHEDULER_THREAD_COUNT_PROPERTY =
+      "default.video.stream.scheduler.thread.count";
+
+  public static final String ROLLOVER_THREAD_COUNT_PROPERTY =
+      "default.video.stream.rollover.thread.count";
+
+  static final int MIN_THREAD_COUNT = 1;
+
+  static final int MAX_THREAD_COUNT = 256;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(SharedStreamRuntime.class);
+
+  private static final int DEFAULT_EVENT_LOOP_THREAD_COUNT =
+      Math.min(4, Runtime.getRuntime().availableProcessors());
+
+  private static final int DEFAULT_SCHEDULER_THREAD_COUNT = 2;
+
+  private static final int DEFAULT_ROLLOVER_THREAD_COUNT = 4;
+
+  private static final long SHUTDOWN_TIMEOUT = TimeUnit.SECONDS.toMillis(2);
+
+  private final int eventLoopThreadCount;
+
+  private final int schedulerThreadCount;
+
+  private final int rolloverThreadCount;
+
+  private final boolean useEpoll;
+
+  private EventLoopGroup eventLoopGroup;
+
+  private ScheduledExecutorService scheduler;
+
+  private ExecutorService rolloverExecutor;
+
+  public SharedStreamRuntime() {
+    this(
+        Integer.getInteger(EVENT_LOOP_THREAD_COUNT_PROPERTY, DEFAULT_EVENT_LOOP_THREAD_COUNT),
+        Integer.getInteger(SCHEDULER_THREAD_COUNT_PROPERTY, DEFAULT_SCHEDULER_THREAD_COUNT),
+        Integer.getInteger(ROLLOVER_THREAD_COUNT_PROPERTY, DEFAULT_ROLLOVER_THREAD_COUNT));
+  }
+
+  /**
+   * @param eventLoopThreadCount must be &gt;={@link #MIN_THREAD_COUNT} and &lt;={@link
+   *     #MAX_THREAD_COUNT}
+   * @param schedulerThreadCount must be &gt;={@link #MIN_THREAD_COUNT} and &lt;={@link
+   *     #MAX_THREAD_COUNT}
+   * @param rolloverThreadCount must be &gt;={@link #MIN_THREAD_COUNT} and &lt;={@link
+   *     #MAX_THREAD_COUNT}
+   */
+  public SharedStreamRuntime(
+      int eventLoopThreadCount, int schedulerThreadCount, int rolloverThreadCount) {
+    this(eventLoopThreadCount, schedulerThreadCount, rolloverThreadCount, Epoll.isAvailable());
+  }
+
+  SharedStreamRuntime(
+      int eventLoopThreadCount,
+      int schedulerThreadCount,
+      int rolloverThreadCount,
+      boolean useEpoll) {
+    inclusiveBetween(
+        MIN_THREAD_COUNT,
+        MAX_THREAD_COUNT,
+        eventLoopThreadCount,
+        String.format(
+            "eventLoopThreadCount must be >=%d and <=%d", MIN_THREAD_COUNT, MAX_THREAD_COUNT));
+    inclusiveBetween(
+        MIN_THREAD_COUNT,
+        MAX_THREAD_COUNT,
+        schedulerThreadCount,
+        String.format(
+            "schedulerThreadCount must be >=%d and <=%d", MIN_THREAD_COUNT, MAX_THREAD_COUNT));
+    inclusiveBetween(
+        MIN_THREAD_COUNT,
+        MAX_THREAD_COUNT,
+        rolloverThreadCount,
+        String.format(
+            "rolloverThreadCount must be >=%d and <=%d", MIN_THREAD_COUNT, MAX_THREAD_COUNT));
+    this.eventLoopThreadCount = eventLoopThreadCount;
+    this.schedulerThreadCount = schedulerThreadCount;
+    this.rolloverThreadCount = rolloverThreadCount;
+    this.useEpoll = useEpoll;
+  }
+
+  /** Called by osgi to start the shared threads. */
+  public synchronized void init() {
+    if (eventLoopGroup != null) {
+      return;
+    }
+
+    LOGGER.debug(
+        "starting shared stream runtime: eventLoopThreadCount={} schedulerThreadCount={} rolloverThreadCount={} epoll={}",
+        eventLoopThreadCount,
+        schedulerThreadCount,
+        rolloverThreadCount,
+        useEpoll);
+
+    DefaultThreadFactory eventLoopThreadFactory =
+        new DefaultThreadFactory("udp-stream-event-loop", true);
+
+    eventLoopGroup =
+        useEpoll
+            ? new EpollEventLoopGroup(eventLoopThreadCount, eventLoopThreadFactory)
+            : new NioEventLoopGroup(eventLoopThreadCount, eventLoopThreadFactory);
+
+    ScheduledThreadPoolExecutor executor =
+        new ScheduledThreadPoolExecutor(
+            schedulerThreadCount, new DefaultThreadFactory("udp-stream-scheduler", true));
+    executor.setRemoveOnCancelPolicy(true);
+    scheduler = Executors.unconfigurableScheduledExecutorService(executor);
+
+    rolloverExecutor =
+        Executors.newFixedThreadPool(
+            rolloverThreadCount, new DefaultThreadFactory("udp-stream-rollover", true));
+  }
+
+  /** Called by osgi to stop the shared threads. */
+  public synchronized void destroy() {
+    if (eventLoopGroup == null) {
+      return;
+    }
+
+    LOGGER.debug("stopping shared stream runtime");
+
+    scheduler.shutdownNow();
+    rolloverExecutor.shutdown();
+
+    try {
+      eventLoopGroup.shutdownGracefully().await(SHUTDOWN_TIMEOUT);
+      if (!scheduler.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS)) {
+        LOGGER.debug("timed out waiting for the stream scheduler to terminate");
+      }
+      if (!rolloverExecutor.awaitTermination(SHUTDOWN_TIMEOUT, TimeUnit.MILLISECONDS)) {
+        LOGGER.debug("timed out waiting for the stream rollover executor to terminate");
+        rolloverExecutor.shutdownNow();
+      }
+    } catch (InterruptedException e) {
+      LOGGER.debug("interrupted while stopping the shared stream runtime", e);
+      Thread.currentThread().interrupt();
+    } finally {
+      eventLoopGroup = null;
+      scheduler = null;
+      rolloverExecutor = null;
+    }
+  }
+
+  public int getEventLoopThreadCount() {
+    return eventLoopThreadCount;
+  }
+
+  public int getSchedulerThreadCount() {
+    return schedulerThreadCount;
+  }
+
+  public int getRolloverThreadCount() {
+    return rolloverThreadCount;
+  }
+
+  public boolean isEpoll() {
+    return useEpoll;
+  }
+
+  @Override
+  public synchronized EventLoopGroup getEventLoopGroup() {
+    notNull(eventLoopGroup, "the shared stream runtime has not been initialized");
+    return eventLoopGroup;
+  }
+
+  @Override
+  public synchronized ScheduledExecutorService getScheduler() {
+    notNull(scheduler, "the shared stream runtime has not been initialized");
+    return scheduler;
+  }
+
+  @Override
+  public synchronized Executor getRolloverExecutor() {
+    notNull(rolloverExecutor, "the shared stream runtime has not been initialized");
+    return rolloverExecutor;
+  }
+
+  @Override
+  public DatagramChannel createDatagramChannel() {
+    return useEpoll ? new EpollDatagramChannel() : new NioDatagramChannel();
+  }
+
+  @Override
+  public DatagramChannel createDatagramChannel(InternetProtocolFamily internetProtocolFamily) {
+    notNull(internetProtocolFamily, "internetProtocolFamily must be non-null");
+    return useEpoll
+        ? new EpollDatagramChannel(internetProtocolFamily)
+        : new NioDatagramChannel(internetProtocolFamily);
+  }
+
+  @Override
+  public String toString() {
+    return "SharedStreamRuntime{"
+        + "eventLoopThreadCount="
+        + eventLoopThreadCount
+        + ", schedulerThreadCount="
+        + schedulerThreadCount
+        + ", rolloverThreadCount="
+        + rolloverThreadCount
+        + ", epoll="
+        + useEpoll
+        + '}';
+  }
+}
@@ -0,0 +1,163 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.video.stream.mpegts.netty;
+
+import io.netty.buffer.ByteBuf;
+
+/**
+ * Finds start codes (0x00 0x00 0x01) in a ByteBuf and classifies video frames by the header byte
+ * that follows each start code. The header byte is read in place, so no NAL units or pictures are
+ * copied or parsed. When the ByteBuf is backed by an array, the scan runs over the array and skips
+ * three bytes whenever a byte cannot be part of a start code, so most of the payload is only looked
+ * at once every third byte. The methods do not change the reader or writer index of the ByteBuf.
+ */
+final class StartCodeScanner {
+
+  /** H.264 nal_unit_type of a coded slice of an IDR picture. */
+  private static final int H264_IDR_SLICE = 5;
+
+  private static final int H264_NAL_UNIT_TYPE_MASK = 0x1F;
+
+  private static final int H265_NAL_UNIT_TYPE_MASK = 0x3F;
+
+  /** First and last H.265 nal_unit_type of an intra random access point (IRAP) picture. */
+  private static final int H265_FIRST_IRAP = 16;
+
+  private static final int H265_LAST_IRAP = 23;
+
+  private static final int MPEG2_PICTURE_START_CODE = 0x00;
+
+  /** The picture_coding_type follows the 10-bit temporal_reference of the picture header. */
+  private static final int MPEG2_PICTURE_HEADER_SIZE = 2;
+
+  private static final int MPEG2_PICTURE_TYPE_SHIFT = 3;
+
+  private static final int MPEG2_PICTURE_TYPE_MASK = 0x07;
+
+  private static final int START_CODE_PREFIX_SIZE = 3;
+
+  private static final int NOT_FOUND = -1;
+
+  private StartCodeScanner() {}
+
+  /**
+   * Find the next start code prefix.
+   *
+   * @param byteBuf must be non-null
+   * @param fromIndex absolute index where the search starts
+   * @param toIndex absolute index where the search ends (exclusive)
+   * @return absolute index of the byte that follows the prefix, which may be equal to {@code
+   *     toIndex}, or -1 if there is no start code
+   */
+  static int findStartCode(ByteBuf byteBuf, int fromIndex, int toIndex) {
+    if (byteBuf.hasArray()) {
+      int arrayOffset = byteBuf.arrayOffset();
+      int index = findStartCode(byteBuf.array(), fromIndex + arrayOffset, toIndex + arrayOffset);
+      return index == NOT_FOUND ? NOT_FOUND : index - arrayOffset;
+    }
+
+    for (int i = fromIndex + START_CODE_PREFIX_SIZE - 1; i < toIndex; i++) {
+      if (byteBuf.getByte(i) == 1 && byteBuf.getByte(i - 1) == 0 && byteBuf.getByte(i - 2) == 0) {
+        return i + 1;
+      }
+    }
+    return NOT_FOUND;
+  }
+
+  /**
+   * If the byte at {@code i} is neither 0 nor 1, then no prefix can end at {@code i}, {@code i + 1}
+   * or {@code i + 2}.
+   */
+  private static int findStartCode(byte[] bytes, int fromIndex, int toIndex) {
+    int i = fromIndex + START_CODE_PREFIX_SIZE - 1;
+    while (i < toIndex) {
+      byte current = bytes[i];
+      if (current != 0 && current != 1) {
+        i += START_CODE_PREFIX_SIZE;
+      } else if (current == 1 && bytes[i - 1] == 0 && bytes[i - 2] == 0) {
+        return i + 1;
+      } else {
+        i++;
+      }
+    }
+    return NOT_FOUND;
+  }
+
+  /**
+   * @param byteBuf must be non-null and contain an H.264 elementary stream between {@code
+   *     fromIndex} and {@code toIndex}
+   * @param fromIndex absolute index where the search starts
+   * @param toIndex absolute index where the search ends (exclusive)
+   * @return true if a NAL unit is a slice of an IDR picture
+   */
+  static boolean containsH264Idr(ByteBuf byteBuf, int fromIndex, int toIndex) {
+    int index = fromIndex;
+    while ((index = findStartCode(byteBuf, index, toIndex)) != NOT_FOUND && index < toIndex) {
+      if ((byteBuf.getByte(index) & H264_NAL_UNIT_TYPE_MASK) == H264_IDR_SLICE) {
+        return true;
+      }
+      index++;
+    }
+    return false;
+  }
+
+  /**
+   * @param byteBuf must be non-null and contain an H.265 elementary stream between {@code
+   *     fromIndex} and {@code toIndex}
+   * @param fromIndex absolute index where the search starts
+   * @param toIndex absolute index where the search ends (exclusive)
+   * @return true if a NAL unit is a slice of an IRAP picture (BLA, IDR or CRA)
+   */
+  static boolean containsH265Irap(ByteBuf byteBuf, int fromIndex, int toIndex) {
+    int index = fromIndex;
+    while ((index = findStartCode(byteBuf, index, toIndex)) != NOT_FOUND && index < toIndex) {
+      int nalUnitType = (byteBuf.getUnsignedByte(index) >> 1) & H265_NAL_UNIT_TYPE_MASK;
+      if (nalUnitType >= H265_FIRST_IRAP && nalUnitType <= H265_LAST_IRAP) {
+        return true;
+      }
+      index++;
+    }
+    return false;
+  }
+
+  /**
+   * Pictures whose header is cut off or that have an invalid picture_coding_type are ignored, so a
+   * payload without any valid picture is intra coded.
+   *
+   * @param byteBuf must be non-null and contain an MPEG-2 (H.262) elementary stream between {@code
+   *     fromIndex} and {@code toIndex}
+   * @param fromIndex absolute index where the search starts
+   * @param toIndex absolute index where the search ends (exclusive)
+   * @return true if every picture is intra coded
+   */
+  static boolean isMpeg2IntraCoded(ByteBuf byteBuf, int fromIndex, int toIndex) {
+    int index = fromIndex;
+    while ((index = findStartCode(byteBuf, index, toIndex)) != NOT_FOUND && index < toIndex) {
+      if (byteBuf.getByte(index) == MPEG2_PICTURE_START_CODE
+          && index + MPEG2_PICTURE_HEADER_SIZE < toIndex) {
+        int pictureCodingType =
+            (byteBuf.getUnsignedByte(index + MPEG2_PICTURE_HEADER_SIZE) >> MPEG2_PICTURE_TYPE_SHIFT)
+                & MPEG2_PICTURE_TYPE_MASK;
+        if (Mpeg2PictureType.fromH262HeaderValue(pictureCodingType)
+            .filter(pictureType -> pictureType != Mpeg2PictureType.INTRA_CODED)
+            .isPresent()) {
+          return false;
+        }
+        index += MPEG2_PICTURE_HEADER_SIZE;
+      }
+      index++;
+    }
+    return true;
+  }
+}
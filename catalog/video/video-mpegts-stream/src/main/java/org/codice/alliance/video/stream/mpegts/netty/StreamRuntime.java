@@ -0,0 +1,70 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.video.stream.mpegts.netty;
+
+import io.netty.channel.EventLoopGroup;
+import io.netty.channel.socket.DatagramChannel;
+import io.netty.channel.socket.InternetProtocolFamily;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ScheduledExecutorService;
+
+/**
+ * Threads shared by all of the UDP stream monitors. Stream monitors register their channels with
+ * the event loop group and schedule their periodic work with the scheduler, so the number of
+ * threads does not grow with the number of monitored streams.
+ */
+public interface StreamRuntime {
+
+  /**
+   * Get the event loop group that stream channels are registered with. The group is owned by the
+   * runtime and must not be shutdown by the caller.
+   *
+   * @return non-null event loop group
+   */
+  EventLoopGroup getEventLoopGroup();
+
+  /**
+   * Get the scheduler used for periodic stream work, such as rollover checks. Tasks that perform
+   * blocking I/O should be run here instead of on the event loop group. The scheduler is owned by
+   * the runtime and must not be shutdown by the caller.
+   *
+   * @return non-null scheduler
+   */
+  ScheduledExecutorService getScheduler();
+
+  /**
+   * Get the executor that ingests rolled over segments into the catalog. Each stream serializes its
+   * own rollover work on top of this executor. The executor is owned by the runtime and must not be
+   * shutdown by the caller.
+   *
+   * @return non-null executor
+   */
+  Executor getRolloverExecutor();
+
+  /**
+   * Create a datagram channel that is compatible with {@link #getEventLoopGroup()}.
+   *
+   * @return non-null datagram channel
+   */
+  DatagramChannel createDatagramChannel();
+
+  /**
+   * Create a datagram channel for the given protocol family that is compatible with {@link
+   * #getEventLoopGroup()}.
+   *
+   * @param internetProtocolFamily must be non-null
+   * @return non-null datagram channel
+   */
+  DatagramChannel createDatagramChannel(InternetProtocolFamily internetProtocolFamily);
+}
@@ -0,0 +1,111 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.video.stream.mpegts.netty;
+
+import io.netty.buffer.ByteBuf;
+import org.codice.alliance.libs.mpegts.Constants;
+
+/**
+ * Reads MPEG-TS packet header fields in place from a ByteBuf. The methods do not change the reader
+ * or writer index of the ByteBuf and do not allocate, so they are safe to call on the hot path of
+ * the UDP pipeline before committing to a copy of the packet.
+ */
+final class TsPacketHeader {
+
+  static final byte TS_SYNC = (byte) 0x47;
+
+  static final int HEADER_SIZE = 4;
+
+  private static final int ADAPTATION_FIELD_PRESENT = 0x20;
+
+  private static final int PAYLOAD_PRESENT = 0x10;
+
+  private static final int DISCONTINUITY_INDICATOR = 0x80;
+
+  private static final int MAX_ADAPTATION_FIELD_LENGTH = Constants.TS_PACKET_SIZE - HEADER_SIZE - 1;
+
+  private TsPacketHeader() {}
+
+  /**
+   * Check that the packet starting at {@code index} has a header that can be parsed. This checks
+   * the sync byte and, when an adaptation field is present, that its declared length fits inside
+   * the packet.
+   *
+   * @param byteBuf must be non-null and contain at least {@link Constants#TS_PACKET_SIZE} bytes at
+   *     {@code index}
+   * @param index absolute index of the first byte of the packet
+   * @return true if the header is well-formed
+   */
+  static boolean isValid(ByteBuf byteBuf, int index) {
+    if (byteBuf.getByte(index) != TS_SYNC) {
+      return false;
+    }
+
+    int flags = byteBuf.getUnsignedByte(index + 3);
+
+    if ((flags & ADAPTATION_FIELD_PRESENT) != 0) {
+      int adaptationFieldLength = byteBuf.getUnsignedByte(index + HEADER_SIZE);
+      int maxLength =
+          (flags & PAYLOAD_PRESENT) != 0
+              ? MAX_ADAPTATION_FIELD_LENGTH - 1
+              : MAX_ADAPTATION_FIELD_LENGTH;
+      return adaptationFieldLength <= maxLength;
+    }
+
+    return true;
+  }
+
+  /**
+   * @param byteBuf must be non-null and contain a packet header at {@code index}
+   * @param index absolute index of the first byte of the packet
+   * @return the 13-bit packet identifier
+   */
+  static int getPid(ByteBuf byteBuf, int index) {
+    return ((byteBuf.getUnsignedByte(index + 1) & 0x1F) << 8) | byteBuf.getUnsignedByte(index + 2);
+  }
+
+  /**
+   * @param byteBuf must be non-null and contain a packet header at {@code index}
+   * @param index absolute index of the first byte of the packet
+   * @return the 4-bit continuity counter
+   */
+  static int getContinuityCounter(ByteBuf byteBuf, int index) {
+    return byteBuf.getUnsignedByte(index + 3) & 0x0F;
+  }
+
+  /**
+   * @param byteBuf must be non-null and contain a packet header at {@code index}
+   * @param index absolute index of the first byte of the packet
+   * @return true if the packet carries a payload
+   */
+  static boolean hasPayload(ByteBuf byteBuf, int index) {
+    return (byteBuf.getUnsignedByte(index + 3) & PAYLOAD_PRESENT) != 0;
+  }
+
+  /**
+   * Check the discontinuity indicator of the adaptation field. The header must have been checked
+   * with {@link #isValid(ByteBuf, int)} first.
+   *
+   * @param byteBuf must be non-null and contain a valid packet at {@code index}
+   * @param index absolute index of the first byte of the packet
+   * @return true if the packet has an adaptation field with the discontinuity indicator set
+   */
+  static boolean isDiscontinuity(ByteBuf byteBuf, int index) {
+    if ((byteBuf.getUnsignedByte(index + 3) & ADAPTATION_FIELD_PRESENT) == 0
+        || byteBuf.getUnsignedByte(index + HEADER_SIZE) == 0) {
+      return false;
+    }
+    return (byteBuf.getUnsignedByte(index + HEADER_SIZE + 1) & DISCONTINUITY_INDICATOR) != 0;
+  }
+}
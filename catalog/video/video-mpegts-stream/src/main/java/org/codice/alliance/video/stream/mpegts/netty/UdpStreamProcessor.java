@@ -32,7 +32,8 @@ import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import java.util.Timer;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ScheduledFuture;
 import java.util.concurrent.TimeUnit;
 import javax.annotation.Nullable;
 import org.apache.commons.lang3.Validate;
@@ -43,6 +44,7 @@ import org.codice.alliance.video.stream.mpegts.UdpStreamMonitor;
 import org.codice.alliance.video.stream.mpegts.filename.FilenameGenerator;
 import org.codice.alliance.video.stream.mpegts.klv.KlvConsumer;
 import org.codice.alliance.video.stream.mpegts.metacard.MetacardUpdater;
+import org.codice.alliance.video.stream.mpegts.metrics.StreamMetrics;
 import org.codice.alliance.video.stream.mpegts.plugins.StreamCreationException;
 import org.codice.alliance.video.stream.mpegts.plugins.StreamCreationPlugin;
 import org.codice.alliance.video.stream.mpegts.plugins.StreamEndPlugin;
@@ -54,6 +56,7 @@ import org.codice.alliance.video.stream.mpegts.rollover.MegabyteCountRolloverCon
 import org.codice.alliance.video.stream.mpegts.rollover.RolloverAction;
 import org.codice.alliance.video.stream.mpegts.rollover.RolloverActionException;
 import org.codice.alliance.video.stream.mpegts.rollover.RolloverCondition;
+import org.codice.alliance.video.stream.mpegts.rollover.RolloverQueue;
 import org.codice.ddf.platform.util.uuidgenerator.UuidGenerator;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.ServiceReference;
@@ -65,11 +68,21 @@ public class UdpStreamProcessor implements StreamProcessor {
 
   public static final long MAX_METACARD_UPDATE_INITIAL_DELAY = TimeUnit.MINUTES.toSeconds(1);
 
+  /**
+   * When this system property is true, the temporary file of each segment is extended to the
+   * megabyte count rollover threshold when it is opened. The extended file is sparse, so this is a
+   * size hint and does not reserve the disk space.
+   */
+  public static final String SEGMENT_SIZE_HINT_PROPERTY = "default.video.stream.segment.sizeHint";
+
   private static final Logger LOGGER = LoggerFactory.getLogger(UdpStreamProcessor.class);
 
   /** Number of seconds to delay metacard updates. */
   private static final long DEFAULT_METACARD_UPDATE_INITIAL_DELAY = 2;
 
+  /** Number of milliseconds to wait for queued rollovers to be ingested during shutdown. */
+  private static final long ROLLOVER_DRAIN_TIMEOUT = TimeUnit.MINUTES.toMillis(5);
+
   private final Context context;
 
   private final PacketBuffer packetBuffer = new PacketBuffer();
@@ -80,7 +93,15 @@ public class UdpStreamProcessor implements StreamProcessor {
 
   private FilenameGenerator filenameGenerator;
 
-  private Timer timer = new Timer();
+  private StreamRuntime streamRuntime;
+
+  private final List<ScheduledFuture<?>> scheduledTasks = new CopyOnWriteArrayList<>();
+
+  /**
+   * Rollovers run on the calling thread until {@link #init()} replaces this with a queue on the
+   * shared rollover executor.
+   */
+  private volatile RolloverQueue rolloverQueue = new RolloverQueue();
 
   private List<MetacardType> metacardTypeList;
 
@@ -117,6 +138,14 @@ public class UdpStreamProcessor implements StreamProcessor {
   public UdpStreamProcessor(final StreamMonitor streamMonitor, final BundleContext bundleContext) {
     this.streamMonitor = streamMonitor;
     context = new Context(this);
+    packetBuffer.setStreamMetrics(context.getStreamMetrics());
+    if (Boolean.getBoolean(SEGMENT_SIZE_HINT_PROPERTY)) {
+      packetBuffer.setSegmentWriter(
+          new FileChannelSegmentWriter(
+              FileChannelSegmentWriter.DEFAULT_BUFFER_SIZE,
+              FileChannelSegmentWriter.DEFAULT_BUFFER_COUNT,
+              true));
+    }
 
     securityManager = null;
     if (bundleContext != null) {
@@ -272,6 +301,7 @@ public class UdpStreamProcessor implements StreamProcessor {
           @Override
           public void visit(MegabyteCountRolloverCondition condition) {
             condition.setMegabyteCountThreshold(count);
+            packetBuffer.setExpectedSegmentSize(condition.getByteCountThreshold());
           }
         });
   }
@@ -307,13 +337,18 @@ public class UdpStreamProcessor implements StreamProcessor {
     return packetBuffer;
   }
 
+  public StreamMetrics getStreamMetrics() {
+    return context.getStreamMetrics();
+  }
+
   /**
    * Shutdown the stream processor. Attempts to flush and ingest any partial stream data regardless
    * of IDR boundaries.
    */
   public void shutdown() {
     LOGGER.trace("Shutting down stream processor.");
-    packetBuffer.cancelTimer();
+    cancelScheduledTasks();
+    context.getStreamMetrics().unregisterMBean();
 
     final Subject localSubject;
     try {
@@ -334,6 +369,7 @@ public class UdpStreamProcessor implements StreamProcessor {
           } catch (StreamShutdownException e) {
             LOGGER.debug("Unable to run stream shutdown plugin", e);
           }
+          context.deleteParentAggregateSnapshot();
         });
   }
 
@@ -341,15 +377,46 @@ public class UdpStreamProcessor implements StreamProcessor {
     this.streamEndPlugin = streamEndPlugin;
   }
 
+  /**
+   * Rotate the packet buffer if the rollover condition is met and queue the rotated segment for
+   * ingest. If the rollover queue is full, the rotation is postponed and the current segment keeps
+   * growing until the queue catches up.
+   */
   public void checkForRollover() {
+    if (rolloverQueue.isFull()) {
+      rolloverQueue.recordDeferredRollover();
+      LOGGER.debug(
+          "rollover queue is full, postponing rollover: streamId={} rolloverQueue={}",
+          getStreamId(),
+          rolloverQueue);
+      return;
+    }
+
     RotateResult rotateResult = packetBuffer.rotate(rolloverCondition);
     rotateResult.getFile().ifPresent(this::doRollover);
     if (rotateResult.isTimeout()) {
-      streamEndPlugin.streamEnded(context);
+      submitRolloverTask(() -> streamEndPlugin.streamEnded(context));
     }
   }
 
+  /**
+   * Queue a rotated segment for ingest. The temp file and its keyframe index file are deleted after
+   * the segment has been ingested.
+   *
+   * @param tempFile must be non-null
+   */
   public void doRollover(File tempFile) {
+    notNull(tempFile, "tempFile must be non-null");
+    long segmentStart = packetBuffer.getLastSegmentStart();
+    long segmentEnd = packetBuffer.getLastSegmentEnd();
+    submitRolloverTask(
+        () -> {
+          context.setSegmentInterval(segmentStart, segmentEnd);
+          ingestSegment(tempFile);
+        });
+  }
+
+  private void ingestSegment(File tempFile) {
     LOGGER.debug("performing video chunk rollover: tempFile={}", tempFile);
     try {
       rolloverAction.doAction(tempFile);
@@ -359,9 +426,45 @@ public class UdpStreamProcessor implements StreamProcessor {
       if (!tempFile.delete()) {
         LOGGER.debug("unable to delete temp file: filename={}", tempFile);
       }
+      File keyframeIndexFile = KeyframeIndex.getIndexFile(tempFile);
+      if (keyframeIndexFile.exists() && !keyframeIndexFile.delete()) {
+        LOGGER.debug("unable to delete keyframe index file: filename={}", keyframeIndexFile);
+      }
     }
   }
 
+  /** Rollover tasks run as the stream's subject, because the catalog requires one. */
+  private void submitRolloverTask(Runnable task) {
+    rolloverQueue.execute(
+        () -> {
+          Subject localSubject = subject;
+          if (localSubject != null) {
+            localSubject.execute(task);
+          } else {
+            task.run();
+          }
+        });
+  }
+
+  /**
+   * Wait for the segments that have been queued for ingest to be ingested. This should be called
+   * before the stream end plugin runs, so that the parent is updated with every child.
+   */
+  public void awaitRollovers() {
+    try {
+      if (!rolloverQueue.awaitIdle(ROLLOVER_DRAIN_TIMEOUT, TimeUnit.MILLISECONDS)) {
+        LOGGER.debug("timed out waiting for queued rollovers: rolloverQueue={}", rolloverQueue);
+      }
+    } catch (InterruptedException e) {
+      LOGGER.debug("interrupted while waiting for queued rollovers", e);
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  public RolloverQueue getRolloverQueue() {
+    return rolloverQueue;
+  }
+
   private boolean areNonNull(List<Object> objects) {
     return objects.stream().allMatch(Objects::nonNull);
   }
@@ -374,6 +477,7 @@ public class UdpStreamProcessor implements StreamProcessor {
   public boolean isReady() {
     return areNonNull(
         Arrays.asList(
+            streamRuntime,
             rolloverCondition,
             filenameTemplate,
             filenameGenerator,
@@ -427,12 +531,40 @@ public class UdpStreamProcessor implements StreamProcessor {
     this.metacardTypeList = metacardTypeList;
   }
 
-  public Timer getTimer() {
-    return timer;
+  public StreamRuntime getStreamRuntime() {
+    return streamRuntime;
+  }
+
+  /** @param streamRuntime must be non-null */
+  public void setStreamRuntime(StreamRuntime streamRuntime) {
+    notNull(streamRuntime, "streamRuntime must be non-null");
+    this.streamRuntime = streamRuntime;
   }
 
-  public void setTimer(Timer timer) {
-    this.timer = timer;
+  /**
+   * Schedule a periodic task for this stream on the shared scheduler. The task is cancelled by
+   * {@link #cancelScheduledTasks()}.
+   *
+   * @param task must be non-null
+   * @param initialDelay delay before the first execution
+   * @param period period between executions
+   * @param timeUnit must be non-null
+   * @return the scheduled task
+   */
+  public ScheduledFuture<?> scheduleAtFixedRate(
+      Runnable task, long initialDelay, long period, TimeUnit timeUnit) {
+    notNull(task, "task must be non-null");
+    notNull(timeUnit, "timeUnit must be non-null");
+    ScheduledFuture<?> future =
+        streamRuntime.getScheduler().scheduleAtFixedRate(task, initialDelay, period, timeUnit);
+    scheduledTasks.add(future);
+    return future;
+  }
+
+  /** Cancel all of the periodic tasks that were scheduled for this stream. */
+  public void cancelScheduledTasks() {
+    scheduledTasks.forEach(future -> future.cancel(false));
+    scheduledTasks.clear();
   }
 
   /**
@@ -452,6 +584,13 @@ public class UdpStreamProcessor implements StreamProcessor {
       return;
     }
 
+    rolloverQueue =
+        new RolloverQueue(streamRuntime.getRolloverExecutor(), RolloverQueue.DEFAULT_CAPACITY);
+
+    StreamMetrics streamMetrics = context.getStreamMetrics();
+    streamMetrics.setRolloverQueue(rolloverQueue);
+    streamMetrics.registerMBean(getMetricsName());
+
     localSubject.execute(
         () -> {
           try {
@@ -461,6 +600,26 @@ public class UdpStreamProcessor implements StreamProcessor {
           }
         });
     context.resetSegmentCount();
+
+    scheduleAtFixedRate(
+        this::logActivity, 0, PacketBuffer.ACTIVITY_LOG_PERIOD, TimeUnit.MILLISECONDS);
+  }
+
+  private void logActivity() {
+    context.getStreamMetrics().sample();
+    packetBuffer.logActivity();
+    rolloverQueue.logActivity();
+  }
+
+  /** The metrics MBean is named after the stream id, or the stream uri if there is no id. */
+  private String getMetricsName() {
+    String streamId = getStreamId();
+    if (streamId != null) {
+      return streamId;
+    }
+    return getStreamUri()
+        .map(URI::toString)
+        .orElseGet(() -> Integer.toHexString(System.identityHashCode(this)));
   }
 
   /** @param rolloverCondition must be non-null */
@@ -476,8 +635,8 @@ public class UdpStreamProcessor implements StreamProcessor {
    */
   public ChannelHandler[] createChannelHandlers() {
     return new ChannelHandler[] {
-      new RawUdpDataToMTSPacketDecoder(packetBuffer, this),
-      new MTSPacketToPESPacketDecoder(),
+      new RawUdpDataToMTSPacketDecoder(packetBuffer, this, context.getStreamMetrics()),
+      new MTSPacketToPESPacketDecoder(context.getStreamMetrics()),
       new PESPacketToKLVPacketDecoder(klvService, context),
       new PESPacketToApplicationDataDecoder(),
       new DecodedStreamDataHandler(packetBuffer)
@@ -0,0 +1,82 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.video.stream.mpegts.netty;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+import org.codice.alliance.libs.mpegts.MpegStreamType;
+
+/** The frame boundary found in a video PES packet and whether the frame is a keyframe. */
+public class VideoFrameDecodedStreamData implements DecodedStreamData {
+
+  private final MpegStreamType streamType;
+
+  private final boolean keyframe;
+
+  private final int packetId;
+
+  private final long presentationTimestamp;
+
+  /**
+   * @param streamType video stream type (must be non-null)
+   * @param keyframe true if the frame can be decoded without any previous frame (H.264 IDR, H.265
+   *     IRAP or MPEG-2 intra coded)
+   * @param packetId MPEG-TS packet identifier
+   */
+  public VideoFrameDecodedStreamData(MpegStreamType streamType, boolean keyframe, int packetId) {
+    this(streamType, keyframe, packetId, KeyframeIndex.UNKNOWN_PTS);
+  }
+
+  /**
+   * @param streamType video stream type (must be non-null)
+   * @param keyframe true if the frame can be decoded without any previous frame (H.264 IDR, H.265
+   *     IRAP or MPEG-2 intra coded)
+   * @param packetId MPEG-TS packet identifier
+   * @param presentationTimestamp PTS of the PES packet or {@link KeyframeIndex#UNKNOWN_PTS}
+   */
+  public VideoFrameDecodedStreamData(
+      MpegStreamType streamType, boolean keyframe, int packetId, long presentationTimestamp) {
+    notNull(streamType, "streamType must be non-null");
+    this.streamType = streamType;
+    this.keyframe = keyframe;
+    this.packetId = packetId;
+    this.presentationTimestamp = presentationTimestamp;
+  }
+
+  /** @return video stream type */
+  public MpegStreamType getStreamType() {
+    return streamType;
+  }
+
+  /** @return true if the frame is a keyframe */
+  public boolean isKeyframe() {
+    return keyframe;
+  }
+
+  @Override
+  public int getPacketId() {
+    return packetId;
+  }
+
+  @Override
+  public long getPresentationTimestamp() {
+    return presentationTimestamp;
+  }
+
+  @Override
+  public void accept(Visitor visitor) {
+    notNull(visitor, "visitor must be non-null");
+    visitor.visit(this);
+  }
+}
@@ -32,11 +32,11 @@ import ddf.catalog.source.SourceUnavailableException;
 import ddf.catalog.source.UnsupportedQueryException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
-import java.util.concurrent.atomic.AtomicBoolean;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.codice.alliance.video.stream.mpegts.Context;
+import org.codice.alliance.video.stream.mpegts.ParentAggregate;
 import org.geotools.api.filter.Filter;
 import org.geotools.api.filter.sort.SortOrder;
 import org.slf4j.Logger;
@@ -47,6 +47,11 @@ import org.slf4j.LoggerFactory;
  * be processed in the order in which they were originally created. If an exception occurs during
  * when a batch is being retrieved from the CatalogFramework or from a batch handler, then the
  * {@link Handler#end(Context, Metacard)} will not be called.
+ *
+ * <p>When every child of the parent has already been merged into the running aggregate of the
+ * parent (see {@link Context#getParentAggregate(String)}), the children are not queried and only
+ * {@link Handler#end(Context, Metacard)} is called, so the parent is updated with a single catalog
+ * update. Handlers must therefore keep their state in the parent aggregate.
  */
 public class FindChildrenStreamEndPlugin implements StreamEndPlugin {
 
@@ -69,36 +74,55 @@ public class FindChildrenStreamEndPlugin implements StreamEndPlugin {
     return factory;
   }
 
+  /**
+   * The dirty flag is cleared under the parent lock of the context, but the children are queried
+   * and the parent is updated without holding it. A child that is stored meanwhile marks the parent
+   * dirty again, so it is handled by the next call. If handling the parent fails with an exception,
+   * the parent is marked dirty again.
+   */
   @Override
   public void streamEnded(Context context) {
 
-    context.modifyParentOrChild(
-        new Function<AtomicBoolean, Void>() {
-          @Override
-          public Void apply(AtomicBoolean isParentDirty) {
-
-            if (isParentDirty.get()) {
-              context
-                  .getParentMetacard()
-                  .ifPresent(parentMetacard -> handleParentMetacard(context, parentMetacard));
-
-              isParentDirty.set(false);
-            }
-
-            return null;
-          }
-        });
+    Optional<Metacard> parentMetacard =
+        context.modifyParentOrChild(
+            isParentDirty ->
+                isParentDirty.getAndSet(false) ? context.getParentMetacard() : Optional.empty());
+
+    try {
+      parentMetacard.ifPresent(metacard -> handleParentMetacard(context, metacard));
+    } catch (RuntimeException e) {
+      context.markParentDirty();
+      throw e;
+    }
   }
 
   private void handleParentMetacard(Context context, Metacard parentMetacard) {
 
     Handler handler = factory.build();
 
-    Filter filter =
+    List<String> derivedIds =
         Optional.ofNullable(parentMetacard.getAttribute(Associations.DERIVED))
             .map(Attribute::getValues).orElseGet(ArrayList::new).stream()
             .filter(String.class::isInstance)
             .map(String.class::cast)
+            .collect(toList());
+
+    boolean isAggregateComplete =
+        context.modifyParentOrChild(
+            isParentDirty ->
+                context.getParentAggregate(parentMetacard.getId()).containsChildren(derivedIds));
+
+    if (isAggregateComplete) {
+      LOGGER.debug(
+          "every child is in the parent aggregate, skipping the child query: metacardId={} childCount={}",
+          parentMetacard.getId(),
+          derivedIds.size());
+      handler.end(context, parentMetacard);
+      return;
+    }
+
+    Filter filter =
+        derivedIds.stream()
             .map(derivedId -> filterBuilder.attribute(Core.ID).is().equalTo().text(derivedId))
             .collect(collectingAndThen(toList(), filterBuilder::anyOf));
 
@@ -130,7 +154,16 @@ public class FindChildrenStreamEndPlugin implements StreamEndPlugin {
                 .map(Result::getMetacard)
                 .collect(Collectors.toList());
 
-        handler.handle(context, parentMetacard, batch);
+        context.modifyParentOrChild(
+            isParentDirty -> {
+              handler.handle(context, parentMetacard, batch);
+              ParentAggregate parentAggregate = context.getParentAggregate(parentMetacard.getId());
+              batch.stream()
+                  .map(Metacard::getId)
+                  .filter(Objects::nonNull)
+                  .forEach(parentAggregate::addChild);
+              return null;
+            });
 
         startIndex += batch.size();
 
@@ -15,20 +15,27 @@ package org.codice.alliance.video.stream.mpegts.plugins;
 
 import java.io.IOException;
 import org.codice.alliance.video.stream.mpegts.Context;
+import org.codice.alliance.video.stream.mpegts.netty.UdpStreamProcessor;
 
+/**
+ * Rotates the remaining buffered data into a final segment and waits for every queued segment to
+ * be ingested.
+ */
 public class FlushPacketBufferStreamShutdownPlugin extends BaseStreamShutdownPlugin {
   @Override
   protected void doOnShutdown(Context context) throws StreamShutdownException {
+    UdpStreamProcessor udpStreamProcessor = context.getUdpStreamProcessor();
     try {
-      context
-          .getUdpStreamProcessor()
+      udpStreamProcessor
           .getPacketBuffer()
           .flushAndRotate()
           .getFile()
-          .ifPresent(file -> context.getUdpStreamProcessor().doRollover(file));
+          .ifPresent(udpStreamProcessor::doRollover);
     } catch (IOException e) {
       throw new StreamShutdownException(
           "unable to rotate and ingest final data during shutdown", e);
+    } finally {
+      udpStreamProcessor.awaitRollovers();
     }
   }
 }
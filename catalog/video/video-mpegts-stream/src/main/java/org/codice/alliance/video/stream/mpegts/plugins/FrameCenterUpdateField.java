@@ -17,12 +17,8 @@ import ddf.catalog.data.Attribute;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.impl.AttributeImpl;
 import java.util.Arrays;
-import java.util.LinkedList;
 import java.util.List;
-import java.util.Objects;
 import java.util.Optional;
-import java.util.stream.Collectors;
-import java.util.stream.Stream;
 import javax.annotation.concurrent.NotThreadSafe;
 import org.apache.commons.lang.StringUtils;
 import org.codice.alliance.libs.klv.AttributeNameConstants;
@@ -31,6 +27,7 @@ import org.codice.alliance.libs.klv.GeometryOperatorList;
 import org.codice.alliance.libs.klv.GeometryUtility;
 import org.codice.alliance.libs.klv.LinestringGeometrySubsampler;
 import org.codice.alliance.video.stream.mpegts.Context;
+import org.codice.alliance.video.stream.mpegts.ParentAggregate;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.GeometryFactory;
@@ -42,7 +39,9 @@ import org.slf4j.LoggerFactory;
 /**
  * Update the frame-center field based on the frame-center data in the children. The coordinates of
  * the child frame-center linestrings are concatenated into a single linestring and saved to the
- * parent.
+ * parent. The coordinates are kept in the running aggregate of the parent (see {@link
+ * Context#getParentAggregate(String)}), so children that were already added while the stream was
+ * running are not parsed again.
  *
  * <p>This is not thread-safe.
  */
@@ -56,8 +55,6 @@ public class FrameCenterUpdateField extends UpdateParent.BaseUpdateField {
 
   private final GeometryFactory geometryFactory;
 
-  private Geometry intermediateGeometry;
-
   /**
    * @param geometryOperator applied to the final linestring before it is saved to the parent
    * @param geometryFactory factory for creating geometry objects
@@ -72,49 +69,41 @@ public class FrameCenterUpdateField extends UpdateParent.BaseUpdateField {
 
   @Override
   protected void doEnd(Metacard parent, Context context) {
-    if (intermediateGeometry != null) {
-      Integer originSubsampleCount = context.getGeometryOperatorContext().getSubsampleCount();
-      try {
-        context.getGeometryOperatorContext().setSubsampleCount(MAX_SIZE);
-        setFrameCenter(
-            parent,
-            geometryOperator.apply(intermediateGeometry, context.getGeometryOperatorContext()));
-      } finally {
-        context.getGeometryOperatorContext().setSubsampleCount(originSubsampleCount);
-      }
-    }
-  }
-
-  @Override
-  protected void doUpdateField(Metacard parent, List<Metacard> children, Context context) {
-    WKTReader wktReader = new WKTReader();
+    List<Coordinate> coordinates =
+        context.getParentAggregate(parent.getId()).getFrameCenterCoordinates();
 
-    List<String> childLocations = extractChildFrameCenters(children);
+    if (coordinates.size() < 2) {
+      LOGGER.trace("Not enough coordinates to create linestring: count={}", coordinates.size());
+      return;
+    }
 
-    List<Geometry> geometries = new LinkedList<>();
+    Geometry geometry =
+        geometryFactory.createLineString(coordinates.toArray(new Coordinate[coordinates.size()]));
 
-    if (intermediateGeometry != null) {
-      geometries.add(intermediateGeometry);
+    Integer originSubsampleCount = context.getGeometryOperatorContext().getSubsampleCount();
+    try {
+      context.getGeometryOperatorContext().setSubsampleCount(MAX_SIZE);
+      setFrameCenter(
+          parent, geometryOperator.apply(geometry, context.getGeometryOperatorContext()));
+    } finally {
+      context.getGeometryOperatorContext().setSubsampleCount(originSubsampleCount);
     }
+  }
 
-    geometries.addAll(
-        childLocations.stream()
-            .map(s -> GeometryUtility.wktToGeometry(s, wktReader))
-            .filter(Optional::isPresent)
-            .map(Optional::get)
-            .collect(Collectors.toList()));
+  @Override
+  protected void doUpdateField(Metacard parent, List<Metacard> children, Context context) {
+    ParentAggregate parentAggregate = context.getParentAggregate(parent.getId());
 
-    List<Coordinate> coordinates =
-        geometries.stream()
-            .flatMap(geometry -> Stream.of(geometry.getCoordinates()))
-            .collect(Collectors.toList());
+    WKTReader wktReader = new WKTReader();
 
-    if (coordinates.isEmpty()) {
-      LOGGER.trace("Coordinates are empty, unable to create linestring");
-      return;
-    }
-    intermediateGeometry =
-        geometryFactory.createLineString(coordinates.toArray(new Coordinate[coordinates.size()]));
+    children.stream()
+        .filter(child -> !parentAggregate.containsFrameCenter(child.getId()))
+        .forEach(
+            child ->
+                extractChildFrameCenter(child)
+                    .flatMap(wkt -> GeometryUtility.wktToGeometry(wkt, wktReader))
+                    .ifPresent(
+                        geometry -> parentAggregate.addFrameCenter(child.getId(), geometry)));
   }
 
   private void setFrameCenter(Metacard parentMetacard, Geometry geometry) {
@@ -123,14 +112,11 @@ public class FrameCenterUpdateField extends UpdateParent.BaseUpdateField {
         new AttributeImpl(AttributeNameConstants.FRAME_CENTER, wktWriter.write(geometry)));
   }
 
-  private List<String> extractChildFrameCenters(List<Metacard> children) {
-    return children.stream()
-        .map(metacard -> metacard.getAttribute(AttributeNameConstants.FRAME_CENTER))
-        .filter(Objects::nonNull)
+  private Optional<String> extractChildFrameCenter(Metacard child) {
+    return Optional.ofNullable(child.getAttribute(AttributeNameConstants.FRAME_CENTER))
         .map(Attribute::getValue)
         .filter(String.class::isInstance)
         .map(String.class::cast)
-        .filter(StringUtils::isNotEmpty)
-        .collect(Collectors.toList());
+        .filter(StringUtils::isNotEmpty);
   }
 }
@@ -17,29 +17,29 @@ import ddf.catalog.data.Metacard;
 import ddf.catalog.data.impl.AttributeImpl;
 import ddf.catalog.data.types.Core;
 import java.util.List;
-import java.util.Optional;
-import java.util.stream.Collectors;
 import javax.annotation.concurrent.NotThreadSafe;
 import org.apache.commons.lang.StringUtils;
+import org.codice.alliance.libs.klv.FootprintAccumulator;
 import org.codice.alliance.libs.klv.GeometryOperator;
 import org.codice.alliance.libs.klv.GeometryUtility;
 import org.codice.alliance.video.stream.mpegts.Context;
 import org.locationtech.jts.geom.Geometry;
-import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.io.WKTReader;
 import org.locationtech.jts.io.WKTWriter;
 
-/** Update the parent metacard location field with the union of each child location field. */
+/**
+ * Update the parent metacard location field with the union of each child location field. The union
+ * is kept in the running footprint of the parent (see {@link Context#getParentFootprint(String)}),
+ * so children that were already added while the stream was running are not parsed or merged again.
+ */
 @NotThreadSafe
 public class LocationUpdateField extends UpdateParent.BaseUpdateField {
 
-  private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
-
   private final GeometryOperator preUnionGeometryOperator;
 
   private final GeometryOperator postUnionGeometryOperator;
 
-  private Geometry intermediateGeometry;
+  private FootprintAccumulator footprint;
 
   /**
    * @param preUnionGeometryOperator applied to each child location before the union
@@ -53,58 +53,41 @@ public class LocationUpdateField extends UpdateParent.BaseUpdateField {
 
   @Override
   protected void doEnd(Metacard parent, Context context) {
-    if (intermediateGeometry != null) {
-      setLocation(
-          parent,
-          postUnionGeometryOperator.apply(
-              intermediateGeometry, context.getGeometryOperatorContext()));
-    }
+    getFootprint(parent, context)
+        .getFootprint()
+        .ifPresent(
+            geometry ->
+                setLocation(
+                    parent,
+                    postUnionGeometryOperator.apply(
+                        geometry, context.getGeometryOperatorContext())));
   }
 
   @Override
   protected void doUpdateField(Metacard parent, List<Metacard> children, Context context) {
 
-    WKTReader wktReader = new WKTReader();
-
-    List<String> childLocations = extractChildLocations(children);
-
-    List<Geometry> geometries =
-        childLocations.stream()
-            .map(s -> GeometryUtility.wktToGeometry(s, wktReader))
-            .filter(Optional::isPresent)
-            .map(Optional::get)
-            .map(
-                geometry ->
-                    preUnionGeometryOperator.apply(geometry, context.getGeometryOperatorContext()))
-            .collect(Collectors.toList());
+    FootprintAccumulator parentFootprint = getFootprint(parent, context);
 
-    if (intermediateGeometry != null) {
-      geometries.add(intermediateGeometry);
-    }
+    WKTReader wktReader = new WKTReader();
 
-    geometries.stream()
-        .reduce(
-            (left, right) -> {
-              final int leftCount = left.getNumGeometries();
-              final int rightCount = right.getNumGeometries();
-              final int total = leftCount + rightCount;
-              final Geometry[] bothGeometries = new Geometry[total];
-              for (int n = 0; n < leftCount; ++n) {
-                bothGeometries[n] = left.getGeometryN(n);
-              }
-              for (int n = 0; n < rightCount; ++n) {
-                bothGeometries[leftCount + n] = right.getGeometryN(n);
-              }
-              return GEOMETRY_FACTORY.createGeometryCollection(bothGeometries).union();
-            })
-        .ifPresent(geometry -> intermediateGeometry = geometry);
+    children.stream()
+        .filter(child -> StringUtils.isNotEmpty(child.getLocation()))
+        .filter(child -> !parentFootprint.contains(child.getId()))
+        .forEach(
+            child ->
+                GeometryUtility.wktToGeometry(child.getLocation(), wktReader)
+                    .map(
+                        geometry ->
+                            preUnionGeometryOperator.apply(
+                                geometry, context.getGeometryOperatorContext()))
+                    .ifPresent(geometry -> parentFootprint.add(child.getId(), geometry)));
   }
 
-  private List<String> extractChildLocations(List<Metacard> children) {
-    return children.stream()
-        .map(Metacard::getLocation)
-        .filter(StringUtils::isNotEmpty)
-        .collect(Collectors.toList());
+  private FootprintAccumulator getFootprint(Metacard parent, Context context) {
+    if (footprint == null) {
+      footprint = context.getParentFootprint(parent.getId());
+    }
+    return footprint;
   }
 
   private void setLocation(Metacard parentMetacard, Geometry geometry) {
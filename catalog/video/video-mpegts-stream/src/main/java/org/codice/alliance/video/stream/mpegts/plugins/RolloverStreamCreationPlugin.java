@@ -25,18 +25,21 @@ public class RolloverStreamCreationPlugin extends BaseStreamCreationPlugin {
   @Override
   protected void doOnCreate(Context context) throws StreamCreationException {
     UdpStreamProcessor udpStreamProcessor = context.getUdpStreamProcessor();
+    CatalogRolloverAction catalogRolloverAction =
+        new CatalogRolloverAction(
+            udpStreamProcessor.getFilenameGenerator(),
+            udpStreamProcessor.getFilenameTemplate(),
+            udpStreamProcessor.getCatalogFramework(),
+            getFilterBuilder(),
+            context,
+            udpStreamProcessor.getParentMetacardUpdater(),
+            udpStreamProcessor.getUuidGenerator(),
+            udpStreamProcessor.getSubjectOperations());
+    catalogRolloverAction.setRolloverQueue(udpStreamProcessor.getRolloverQueue());
     udpStreamProcessor.setRolloverAction(
         new ListRolloverAction(
             Arrays.asList(
                 new CreateMetacardRolloverAction(udpStreamProcessor.getMetacardTypeList()),
-                new CatalogRolloverAction(
-                    udpStreamProcessor.getFilenameGenerator(),
-                    udpStreamProcessor.getFilenameTemplate(),
-                    udpStreamProcessor.getCatalogFramework(),
-                    getFilterBuilder(),
-                    context,
-                    udpStreamProcessor.getParentMetacardUpdater(),
-                    udpStreamProcessor.getUuidGenerator(),
-                    udpStreamProcessor.getSubjectOperations()))));
+                catalogRolloverAction)));
   }
 }
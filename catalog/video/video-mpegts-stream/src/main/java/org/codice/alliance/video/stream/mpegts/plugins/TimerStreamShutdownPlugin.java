@@ -15,12 +15,10 @@ package org.codice.alliance.video.stream.mpegts.plugins;
 
 import org.codice.alliance.video.stream.mpegts.Context;
 
+/** Cancels the periodic tasks that were scheduled for the stream. */
 public class TimerStreamShutdownPlugin extends BaseStreamShutdownPlugin {
   @Override
   protected void doOnShutdown(Context context) throws StreamShutdownException {
-    if (context.getUdpStreamProcessor().getTimer() != null) {
-      context.getUdpStreamProcessor().getTimer().cancel();
-      context.getUdpStreamProcessor().setTimer(null);
-    }
+    context.getUdpStreamProcessor().cancelScheduledTasks();
   }
 }
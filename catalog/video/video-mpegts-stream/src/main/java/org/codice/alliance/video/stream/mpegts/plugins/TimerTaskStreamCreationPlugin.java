@@ -14,12 +14,16 @@
 package org.codice.alliance.video.stream.mpegts.plugins;
 
 import ddf.security.Subject;
-import java.util.TimerTask;
+import java.util.concurrent.TimeUnit;
 import org.codice.alliance.video.stream.mpegts.Context;
 import org.codice.alliance.video.stream.mpegts.netty.UdpStreamProcessor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+/**
+ * Schedules the periodic rollover check for the stream on the shared stream scheduler. The task is
+ * cancelled by {@link TimerStreamShutdownPlugin}.
+ */
 public class TimerTaskStreamCreationPlugin extends BaseStreamCreationPlugin {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(TimerTaskStreamCreationPlugin.class);
@@ -33,24 +37,24 @@ public class TimerTaskStreamCreationPlugin extends BaseStreamCreationPlugin {
 
   @Override
   protected void doOnCreate(Context context) throws StreamCreationException {
-    context
-        .getUdpStreamProcessor()
-        .getTimer()
-        .scheduleAtFixedRate(createTimerTask(context.getUdpStreamProcessor()), period, period);
+    UdpStreamProcessor udpStreamProcessor = context.getUdpStreamProcessor();
+    udpStreamProcessor.scheduleAtFixedRate(
+        createRolloverCheck(udpStreamProcessor), period, period, TimeUnit.MILLISECONDS);
   }
 
-  private TimerTask createTimerTask(UdpStreamProcessor udpStreamProcessor) {
-    return new TimerTask() {
-      @Override
-      public void run() {
-        try {
-          Subject subject = udpStreamProcessor.getSubject();
-          if (subject != null) {
-            subject.execute(udpStreamProcessor::checkForRollover);
-          }
-        } catch (Exception e) {
-          LOGGER.debug("Exception running rollover check", e);
+  /**
+   * The scheduler suppresses all future executions of a task that throws, so every exception must
+   * be caught here.
+   */
+  private Runnable createRolloverCheck(UdpStreamProcessor udpStreamProcessor) {
+    return () -> {
+      try {
+        Subject subject = udpStreamProcessor.getSubject();
+        if (subject != null) {
+          subject.execute(udpStreamProcessor::checkForRollover);
         }
+      } catch (Exception e) {
+        LOGGER.debug("Exception running rollover check", e);
       }
     };
   }
@@ -16,6 +16,7 @@ package org.codice.alliance.video.stream.mpegts.plugins;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.operation.UpdateRequest;
 import ddf.catalog.operation.impl.UpdateRequestImpl;
+import ddf.security.Subject;
 import java.util.List;
 import java.util.concurrent.TimeUnit;
 import org.codice.alliance.video.stream.mpegts.Context;
@@ -52,10 +53,15 @@ public class UpdateParent implements FindChildrenStreamEndPlugin.Handler {
     updateField.updateField(parent, children, context);
   }
 
+  /** Only the final field update runs under the parent lock, the catalog update does not. */
   @Override
   public void end(Context context, Metacard parentMetacard) {
 
-    updateField.end(parentMetacard, context);
+    context.modifyParentOrChild(
+        isParentDirty -> {
+          updateField.end(parentMetacard, context);
+          return null;
+        });
 
     UpdateRequest updateRequest = createUpdateRequest(parentMetacard);
 
@@ -63,7 +69,16 @@ public class UpdateParent implements FindChildrenStreamEndPlugin.Handler {
   }
 
   private void update(Context context, Metacard parentMetacard, UpdateRequest updateRequest) {
+    Subject subject = context.getUdpStreamProcessor().getSubject();
+
+    if (subject == null) {
+      LOGGER.debug("no security subject available, cannot update parent metacard");
+      return;
+    }
+
     catalogUpdateRetry.submitUpdateRequestWithRetry(
+        context.getUdpStreamProcessor().getStreamRuntime().getScheduler(),
+        subject,
         context.getUdpStreamProcessor().getCatalogFramework(),
         updateRequest,
         context.getUdpStreamProcessor().getMetacardUpdateInitialDelay(),
@@ -72,7 +87,8 @@ public class UpdateParent implements FindChildrenStreamEndPlugin.Handler {
         update -> {
           LOGGER.debug("updated parent metacard: newMetacard={}", update.getNewMetacard().getId());
           context.setParentMetacard(update.getNewMetacard());
-        });
+        },
+        context.getStreamMetrics()::recordCatalogUpdate);
   }
 
   private UpdateRequest createUpdateRequest(Metacard parentMetacard) {
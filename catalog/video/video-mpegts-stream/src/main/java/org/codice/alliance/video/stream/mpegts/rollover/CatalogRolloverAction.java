@@ -43,28 +43,39 @@ import ddf.catalog.source.UnsupportedQueryException;
 import ddf.security.Subject;
 import ddf.security.SubjectOperations;
 import java.io.File;
-import java.util.Collections;
+import java.util.ArrayList;
 import java.util.Date;
 import java.util.HashMap;
+import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 import java.util.concurrent.TimeUnit;
 import org.apache.commons.lang3.StringUtils;
 import org.codice.alliance.catalog.core.api.types.VideoStream;
 import org.codice.alliance.video.stream.mpegts.Constants;
 import org.codice.alliance.video.stream.mpegts.Context;
+import org.codice.alliance.video.stream.mpegts.ParentAggregate;
 import org.codice.alliance.video.stream.mpegts.filename.FilenameGenerator;
 import org.codice.alliance.video.stream.mpegts.framework.CatalogUpdateRetry;
 import org.codice.alliance.video.stream.mpegts.metacard.MetacardUpdater;
+import org.codice.alliance.video.stream.mpegts.netty.KeyframeIndex;
 import org.codice.ddf.platform.util.uuidgenerator.UuidGenerator;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * Stores the child content, links the child to the parent, and updates the parent's location with
- * the union of the child's location.
+ * the union of the child's location. The parent update is submitted to the stream's {@link
+ * RolloverQueue}, so when several children are stored before the parent update runs, they are
+ * merged into a single parent update. If the segment has a {@link KeyframeIndex} file, the index is
+ * stored with the child as derived content.
  */
 public class CatalogRolloverAction extends BaseRolloverAction {
 
+  public static final String KEYFRAME_INDEX_QUALIFIER = "keyframe-index";
+
   private static final Logger LOGGER = LoggerFactory.getLogger(CatalogRolloverAction.class);
 
   private static final long MAX_RETRY_MILLISECONDS = TimeUnit.MINUTES.toMillis(5);
@@ -89,6 +100,14 @@ public class CatalogRolloverAction extends BaseRolloverAction {
 
   private SubjectOperations subjectOperations;
 
+  private RolloverQueue rolloverQueue = new RolloverQueue();
+
+  /** Children that have been stored but have not been merged into the parent. */
+  private final List<Metacard> pendingChildren = new ArrayList<>();
+
+  /** True while a parent update is queued or its catalog update has not completed. */
+  private boolean parentUpdateQueued = false;
+
   /**
    * @param filenameGenerator must be non-null
    * @param filenameTemplate must be non-null
@@ -128,6 +147,17 @@ public class CatalogRolloverAction extends BaseRolloverAction {
     this.catalogUpdateRetry = catalogUpdateRetry;
   }
 
+  /**
+   * Set the queue that parent updates are submitted to. By default parent updates are performed
+   * immediately after the child is stored.
+   *
+   * @param rolloverQueue must be non-null
+   */
+  public void setRolloverQueue(RolloverQueue rolloverQueue) {
+    notNull(rolloverQueue, "rolloverQueue must be non-null");
+    this.rolloverQueue = rolloverQueue;
+  }
+
   @Override
   public String toString() {
     return "CatalogRolloverAction{"
@@ -143,53 +173,59 @@ public class CatalogRolloverAction extends BaseRolloverAction {
         + '}';
   }
 
+  /**
+   * The child is created without holding the parent lock of the context, so a slow catalog does not
+   * block the stream-end plugins or a shutdown of the same stream.
+   */
   @Override
   public MetacardImpl doAction(MetacardImpl metacard, File tempFile) {
 
-    return context.modifyParentOrChild(
-        isParentDirty -> {
-          Subject subject = context.getUdpStreamProcessor().getSubject();
+    Subject subject = context.getUdpStreamProcessor().getSubject();
 
-          if (subject == null) {
-            LOGGER.debug("no security subject available, cannot upload video chunk");
-            return metacard;
-          }
+    if (subject == null) {
+      LOGGER.debug("no security subject available, cannot upload video chunk");
+      return metacard;
+    }
+
+    return subject.execute(
+        () -> {
+          String fileName = generateFilename();
 
-          return subject.execute(
-              () -> {
-                String fileName = generateFilename();
+          setTitle(metacard);
 
-                setTitle(metacard);
+          enforceRequiredMetacardFields(metacard, fileName);
 
-                enforceRequiredMetacardFields(metacard, fileName);
+          addTimestamps(metacard, tempFile);
 
-                addTimestamps(metacard, tempFile);
+          setDerivedAttribute(metacard);
 
-                setDerivedAttribute(metacard);
+          ContentItem contentItem =
+              createContentItem(metacard, fileName, Files.asByteSource(tempFile));
 
-                ContentItem contentItem =
-                    createContentItem(metacard, fileName, Files.asByteSource(tempFile));
+          List<ContentItem> contentItems = new ArrayList<>();
+          contentItems.add(contentItem);
+          createKeyframeIndexContentItem(contentItem, metacard, fileName, tempFile)
+              .ifPresent(contentItems::add);
 
-                CreateStorageRequest createStorageRequest = createStorageRequest(contentItem);
+          CreateStorageRequest createStorageRequest = createStorageRequest(contentItems);
 
-                CreateResponse createResponse = submitStorageCreateRequest(createStorageRequest);
+          CreateResponse createResponse = submitStorageCreateRequest(createStorageRequest);
 
-                for (Metacard childMetacard : createResponse.getCreatedMetacards()) {
-                  LOGGER.trace("created catalog content with id={}", childMetacard.getId());
+          for (Metacard childMetacard : createResponse.getCreatedMetacards()) {
+            LOGGER.trace("created catalog content with id={}", childMetacard.getId());
+          }
 
-                  updateParentWithChildMetadata(childMetacard);
-                }
+          context.markParentDirty();
 
-                isParentDirty.set(true);
+          queueParentUpdate(createResponse.getCreatedMetacards());
 
-                return metacard;
-              });
+          return metacard;
         });
   }
 
   private void addTimestamps(MetacardImpl metacard, File segmentFile) {
-    long startTime = context.getUdpStreamProcessor().getPacketBuffer().getLastSegmentStart();
-    long endTime = context.getUdpStreamProcessor().getPacketBuffer().getLastSegmentEnd();
+    long startTime = context.getSegmentStart();
+    long endTime = context.getSegmentEnd();
     if (startTime < 0 || endTime < 0) {
       LOGGER.warn("Segment start/end time not set. Start: {}  End: {}", startTime, endTime);
       return;
@@ -223,13 +259,99 @@ public class CatalogRolloverAction extends BaseRolloverAction {
     return filenameGenerator.generateFilename(filenameTemplate);
   }
 
-  private void updateParentWithChildMetadata(Metacard childMetacard) {
-    if (context.getParentMetacard().isPresent()) {
-      Metacard parentMetacard = getFreshParentMetacard();
-      parentMetacardUpdater.update(parentMetacard, childMetacard, context);
-      UpdateRequest updateRequest = createUpdateRequest(parentMetacard.getId(), parentMetacard);
-      submitParentUpdateRequest(updateRequest);
+  private void queueParentUpdate(List<Metacard> childMetacards) {
+    if (childMetacards.isEmpty() || !context.getParentMetacard().isPresent()) {
+      return;
+    }
+
+    synchronized (pendingChildren) {
+      pendingChildren.addAll(childMetacards);
+      if (parentUpdateQueued) {
+        return;
+      }
+      parentUpdateQueued = true;
     }
+
+    rolloverQueue.execute(this::updateParentWithPendingChildren);
+  }
+
+  /**
+   * The catalog update of the parent is retried in the background, so the next parent update is
+   * only queued once it has completed. Children stored in the meantime are merged into that next
+   * update, which keeps the parent updates of a stream in order without holding a rollover thread.
+   */
+  private void updateParentWithPendingChildren() {
+    List<Metacard> childMetacards;
+    synchronized (pendingChildren) {
+      childMetacards = new ArrayList<>(pendingChildren);
+      pendingChildren.clear();
+    }
+
+    if (childMetacards.size() > 1) {
+      LOGGER.debug("merging {} child metacards into one parent update", childMetacards.size());
+      rolloverQueue.recordCoalescedUpdates(childMetacards.size() - 1);
+    }
+
+    CompletableFuture<Void> parentUpdate = CompletableFuture.completedFuture(null);
+    try {
+      Subject subject = context.getUdpStreamProcessor().getSubject();
+
+      if (subject == null) {
+        LOGGER.debug("no security subject available, cannot update parent metacard");
+        return;
+      }
+
+      parentUpdate = subject.execute(() -> updateParentWithChildMetadata(subject, childMetacards));
+    } finally {
+      parentUpdate.whenComplete((ignored, e) -> parentUpdateCompleted());
+    }
+  }
+
+  private void parentUpdateCompleted() {
+    synchronized (pendingChildren) {
+      if (pendingChildren.isEmpty()) {
+        parentUpdateQueued = false;
+        return;
+      }
+    }
+
+    try {
+      rolloverQueue.execute(this::updateParentWithPendingChildren);
+    } catch (RejectedExecutionException e) {
+      LOGGER.debug("unable to queue parent update", e);
+      synchronized (pendingChildren) {
+        parentUpdateQueued = false;
+      }
+    }
+  }
+
+  /**
+   * Only the merge of the child metadata into the fresh parent and into the parent aggregate runs
+   * under the parent lock, the query and the update of the parent and the snapshot of the aggregate
+   * do not.
+   */
+  private CompletableFuture<Void> updateParentWithChildMetadata(
+      Subject subject, List<Metacard> childMetacards) {
+    if (!context.getParentMetacard().isPresent()) {
+      return CompletableFuture.completedFuture(null);
+    }
+
+    Metacard parentMetacard = getFreshParentMetacard();
+    context.modifyParentOrChild(
+        isParentDirty -> {
+          ParentAggregate parentAggregate = context.getParentAggregate(parentMetacard.getId());
+          for (Metacard childMetacard : childMetacards) {
+            parentMetacardUpdater.update(parentMetacard, childMetacard, context);
+            if (childMetacard.getId() != null) {
+              parentAggregate.addChild(childMetacard.getId());
+            }
+          }
+          return null;
+        });
+    UpdateRequest updateRequest = createUpdateRequest(parentMetacard.getId(), parentMetacard);
+    CompletableFuture<Void> parentUpdate = submitParentUpdateRequest(subject, updateRequest);
+    context.saveParentAggregate();
+    return parentUpdate;
   }
 
   private Metacard getFreshParentMetacard() {
@@ -249,20 +371,21 @@ public class CatalogRolloverAction extends BaseRolloverAction {
     return parent;
   }
 
-  private void submitParentUpdateRequest(UpdateRequest updateRequest) {
-    if (context.getParentMetacard().isPresent()) {
-      catalogUpdateRetry.submitUpdateRequestWithRetry(
-          catalogFramework,
-          updateRequest,
-          context.getUdpStreamProcessor().getMetacardUpdateInitialDelay(),
-          INITIAL_RETRY_WAIT_MILLISECONDS,
-          MAX_RETRY_MILLISECONDS,
-          update -> {
-            LOGGER.debug(
-                "updated parent metacard: newMetacard={}", update.getNewMetacard().getId());
-            context.setParentMetacard(update.getNewMetacard());
-          });
-    }
+  private CompletableFuture<Void> submitParentUpdateRequest(
+      Subject subject, UpdateRequest updateRequest) {
+    return catalogUpdateRetry.submitUpdateRequestWithRetry(
+        context.getUdpStreamProcessor().getStreamRuntime().getScheduler(),
+        subject,
+        catalogFramework,
+        updateRequest,
+        context.getUdpStreamProcessor().getMetacardUpdateInitialDelay(),
+        INITIAL_RETRY_WAIT_MILLISECONDS,
+        MAX_RETRY_MILLISECONDS,
+        update -> {
+          LOGGER.debug("updated parent metacard: newMetacard={}", update.getNewMetacard().getId());
+          context.setParentMetacard(update.getNewMetacard());
+        },
+        context.getStreamMetrics()::recordCatalogUpdate);
   }
 
   private UpdateRequest createUpdateRequest(String id, Metacard metacard) {
@@ -280,6 +403,7 @@ public class CatalogRolloverAction extends BaseRolloverAction {
 
   private CreateResponse submitStorageCreateRequest(CreateStorageRequest createRequest)
       throws RolloverActionException {
+    long start = System.nanoTime();
     try {
       return catalogFramework.create(createRequest);
     } catch (IngestException | SourceUnavailableException e) {
@@ -287,11 +411,37 @@ public class CatalogRolloverAction extends BaseRolloverAction {
           String.format(
               "unable to submit storage create request to catalog framework: %s", createRequest),
           e);
+    } finally {
+      context.getStreamMetrics().recordCatalogCreate(System.nanoTime() - start);
     }
   }
 
-  private CreateStorageRequest createStorageRequest(ContentItem contentItem) {
-    return new CreateStorageRequestImpl(Collections.singletonList(contentItem), new HashMap<>());
+  private CreateStorageRequest createStorageRequest(List<ContentItem> contentItems) {
+    return new CreateStorageRequestImpl(contentItems, new HashMap<>());
+  }
+
+  private Optional<ContentItem> createKeyframeIndexContentItem(
+      ContentItem segmentContentItem, MetacardImpl metacard, String fileName, File tempFile) {
+    File keyframeIndexFile = KeyframeIndex.getIndexFile(tempFile);
+    if (!keyframeIndexFile.isFile()) {
+      return Optional.empty();
+    }
+
+    ContentItem contentItem =
+        new ContentItemImpl(
+            segmentContentItem.getId(),
+            KEYFRAME_INDEX_QUALIFIER,
+            Files.asByteSource(keyframeIndexFile),
+            KeyframeIndex.MIME_TYPE,
+            fileName + KeyframeIndex.FILE_EXTENSION,
+            keyframeIndexFile.length(),
+            metacard);
+
+    if (metacard != null) {
+      metacard.setAttribute(new AttributeImpl(Core.DERIVED_RESOURCE_URI, contentItem.getUri()));
+    }
+
+    return Optional.of(contentItem);
   }
 
   private ContentItem createContentItem(
@@ -68,7 +68,12 @@ public class MegabyteCountRolloverCondition implements RolloverCondition {
         + '}';
   }
 
-  private long getByteCountThreshold() {
+  /**
+   * Get the threshold in bytes.
+   *
+   * @return bytes
+   */
+  public long getByteCountThreshold() {
     return Math.multiplyExact(megabyteCountThreshold, MEGABYTE_TO_BYTE_FACTOR);
   }
 
@@ -0,0 +1,213 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.video.stream.mpegts.rollover;
+
+import static org.apache.commons.lang3.Validate.inclusiveBetween;
+import static org.apache.commons.lang3.Validate.notNull;
+
+import com.google.common.util.concurrent.MoreExecutors;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * Runs the rollover work of a single stream in the background. Tasks run one at a time, in the
+ * order they were submitted, on a shared executor, so a slow catalog does not stall the thread that
+ * detected the rollover. The queue has a soft capacity: callers that can postpone a rollover should
+ * check {@link #isFull()} first and record the postponement with {@link #recordDeferredRollover()}.
+ * Tasks submitted to a full queue are still accepted so that no segment is ever dropped.
+ */
+public class RolloverQueue implements Executor {
+
+  public static final int DEFAULT_CAPACITY = 4;
+
+  public static final int MIN_CAPACITY = 1;
+
+  public static final int MAX_CAPACITY = 1024;
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(RolloverQueue.class);
+
+  private final Executor executor;
+
+  private final int capacity;
+
+  private final AtomicInteger pendingCount = new AtomicInteger();
+
+  private final AtomicInteger maxPendingCount = new AtomicInteger();
+
+  private final AtomicLong submittedCount = new AtomicLong();
+
+  private final AtomicLong completedCount = new AtomicLong();
+
+  private final AtomicLong failedCount = new AtomicLong();
+
+  private final AtomicLong deferredRolloverCount = new AtomicLong();
+
+  private final AtomicLong coalescedUpdateCount = new AtomicLong();
+
+  /** Create a queue that runs each task on the thread that submits it. */
+  public RolloverQueue() {
+    this(MoreExecutors.directExecutor(), DEFAULT_CAPACITY);
+  }
+
+  /**
+   * @param executor must be non-null, the executor may be shared by several queues
+   * @param capacity must be &gt;={@link #MIN_CAPACITY} and &lt;={@link #MAX_CAPACITY}
+   */
+  public RolloverQueue(Executor executor, int capacity) {
+    notNull(executor, "executor must be non-null");
+    inclusiveBetween(
+        MIN_CAPACITY,
+        MAX_CAPACITY,
+        capacity,
+        String.format("capacity must be >=%d and <=%d", MIN_CAPACITY, MAX_CAPACITY));
+    this.executor = MoreExecutors.newSequentialExecutor(executor);
+    this.capacity = capacity;
+  }
+
+  /**
+   * Submit a task. Exceptions thrown by the task are logged and counted.
+   *
+   * @param task must be non-null
+   * @throws RejectedExecutionException if the underlying executor has been shutdown
+   */
+  @Override
+  public void execute(Runnable task) {
+    notNull(task, "task must be non-null");
+
+    int pending = pendingCount.incrementAndGet();
+    maxPendingCount.accumulateAndGet(pending, Math::max);
+    submittedCount.incrementAndGet();
+
+    try {
+      executor.execute(() -> runTask(task));
+    } catch (RejectedExecutionException e) {
+      pendingCount.decrementAndGet();
+      throw e;
+    }
+  }
+
+  private void runTask(Runnable task) {
+    try {
+      task.run();
+    } catch (RuntimeException e) {
+      failedCount.incrementAndGet();
+      LOGGER.debug("rollover task failed", e);
+    } finally {
+      pendingCount.decrementAndGet();
+      completedCount.incrementAndGet();
+    }
+  }
+
+  /**
+   * Wait for every task that was submitted before this call to finish. The marker task that is used
+   * to wait is not counted as pending or submitted work.
+   *
+   * @param timeout maximum time to wait
+   * @param timeUnit must be non-null
+   * @return true if the tasks finished before the timeout
+   * @throws InterruptedException if interrupted while waiting
+   * @throws RejectedExecutionException if the underlying executor has been shutdown
+   */
+  public boolean awaitIdle(long timeout, TimeUnit timeUnit) throws InterruptedException {
+    notNull(timeUnit, "timeUnit must be non-null");
+    CountDownLatch latch = new CountDownLatch(1);
+    executor.execute(latch::countDown);
+    return latch.await(timeout, timeUnit);
+  }
+
+  /**
+   * Return <code>true</code> if the number of pending tasks has reached the capacity.
+   *
+   * @return full status
+   */
+  public boolean isFull() {
+    return pendingCount.get() >= capacity;
+  }
+
+  /** Record that a rollover was postponed because the queue was full. */
+  public void recordDeferredRollover() {
+    deferredRolloverCount.incrementAndGet();
+  }
+
+  /**
+   * Record that several parent updates were merged into one.
+   *
+   * @param count number of updates that were avoided
+   */
+  public void recordCoalescedUpdates(int count) {
+    coalescedUpdateCount.addAndGet(count);
+  }
+
+  public int getCapacity() {
+    return capacity;
+  }
+
+  public int getPendingCount() {
+    return pendingCount.get();
+  }
+
+  public int getMaxPendingCount() {
+    return maxPendingCount.get();
+  }
+
+  public long getSubmittedCount() {
+    return submittedCount.get();
+  }
+
+  public long getCompletedCount() {
+    return completedCount.get();
+  }
+
+  public long getFailedCount() {
+    return failedCount.get();
+  }
+
+  public long getDeferredRolloverCount() {
+    return deferredRolloverCount.get();
+  }
+
+  public long getCoalescedUpdateCount() {
+    return coalescedUpdateCount.get();
+  }
+
+  public void logActivity() {
+    LOGGER.debug(
+        "rollover queue activity: pending={} maxPending={} submitted={} completed={} failed={} deferredRollovers={} coalescedUpdates={}",
+        pendingCount,
+        maxPendingCount,
+        submittedCount,
+        completedCount,
+        failedCount,
+        deferredRolloverCount,
+        coalescedUpdateCount);
+  }
+
+  @Override
+  public String toString() {
+    return "RolloverQueue{"
+        + "capacity="
+        + capacity
+        + ", pendingCount="
+        + pendingCount
+        + ", submittedCount="
+        + submittedCount
+        + '}';
+  }
+}
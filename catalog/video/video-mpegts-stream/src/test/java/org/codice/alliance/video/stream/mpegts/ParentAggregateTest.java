@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.video.stream.mpegts;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.Collections;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+
+public class ParentAggregateTest {
+
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
+  private final WKTReader wktReader = new WKTReader();
+
+  @Test
+  public void testContainsChildren() {
+    ParentAggregate parentAggregate = new ParentAggregate("parent");
+
+    assertThat(parentAggregate.containsChildren(Collections.emptyList()), is(true));
+
+    assertThat(parentAggregate.addChild("child1"), is(true));
+    assertThat(parentAggregate.addChild("child1"), is(false));
+
+    assertThat(parentAggregate.containsChildren(Collections.singletonList("child1")), is(true));
+    assertThat(parentAggregate.containsChildren(Arrays.asList("child1", "child2")), is(false));
+    assertThat(parentAggregate.getChildCount(), is(1));
+  }
+
+  @Test
+  public void testFrameCenterDuplicateId() throws ParseException {
+    ParentAggregate parentAggregate = new ParentAggregate("parent");
+
+    assertThat(
+        parentAggregate.addFrameCenter("child1", wktReader.read("LINESTRING (0 0, 1 1)")),
+        is(true));
+    assertThat(
+        parentAggregate.addFrameCenter("child1", wktReader.read("LINESTRING (2 2, 3 3)")),
+        is(false));
+
+    assertThat(
+        parentAggregate.getFrameCenterCoordinates(),
+        contains(new Coordinate(0, 0), new Coordinate(1, 1)));
+  }
+
+  @Test
+  public void testSnapshot() throws ParseException, IOException {
+    ParentAggregate parentAggregate = new ParentAggregate("parent");
+    parentAggregate.addChild("child1");
+    parentAggregate.addChild("child2");
+    parentAggregate
+        .getFootprint()
+        .add("child1", wktReader.read("POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0))"));
+    parentAggregate
+        .getFootprint()
+        .add("child2", wktReader.read("POLYGON ((10 0, 20 0, 20 10, 10 10, 10 0))"));
+    parentAggregate.addFrameCenter("child1", wktReader.read("LINESTRING (0.5 0.25, 1 1)"));
+
+    File snapshotFile = ParentAggregate.getSnapshotFile(folder.getRoot(), "parent");
+    Files.write(
+        snapshotFile.toPath(), parentAggregate.toSnapshot().getBytes(StandardCharsets.UTF_8));
+
+    ParentAggregate restored = ParentAggregate.read(snapshotFile);
+
+    assertThat(restored.getParentId(), is("parent"));
+    assertThat(restored.containsChildren(Arrays.asList("child1", "child2")), is(true));
+    assertThat(restored.getFootprint().contains("child2"), is(true));
+    assertThat(
+        restored
+            .getFootprint()
+            .getFootprint()
+            .get()
+            .equalsTopo(wktReader.read("POLYGON ((0 0, 20 0, 20 10, 0 10, 0 0))")),
+        is(true));
+    assertThat(restored.containsFrameCenter("child1"), is(true));
+    assertThat(
+        restored.getFrameCenterCoordinates(),
+        contains(new Coordinate(0.5, 0.25), new Coordinate(1, 1)));
+  }
+
+  @Test(expected = IOException.class)
+  public void testMalformedSnapshot() throws IOException {
+    ParentAggregate.fromSnapshot("parent,parent\nframe-center,x y\n");
+  }
+
+  @Test
+  public void testSnapshotFileName() {
+    assertThat(
+        ParentAggregate.getSnapshotFile(new File("dir"), "a/b:c").getName(),
+        is("mpegts-parent-a_b_c.aggregate"));
+  }
+}
@@ -0,0 +1,188 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.video.stream.mpegts.framework;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import ddf.catalog.CatalogFramework;
+import ddf.catalog.operation.Update;
+import ddf.catalog.operation.UpdateRequest;
+import ddf.catalog.operation.UpdateResponse;
+import ddf.catalog.source.IngestException;
+import ddf.catalog.source.SourceUnavailableException;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import org.codice.alliance.video.stream.mpegts.SimpleSubject;
+import org.codice.alliance.video.stream.mpegts.rollover.RolloverQueue;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CatalogUpdateRetryTest {
+
+  private static final long STALLED_RETRY_WAIT_MILLISECONDS = TimeUnit.MINUTES.toMillis(1);
+
+  private final CatalogUpdateRetry catalogUpdateRetry = new CatalogUpdateRetry();
+
+  private ScheduledExecutorService scheduler;
+
+  private ExecutorService rolloverExecutor;
+
+  private UpdateRequest updateRequest;
+
+  private Update update;
+
+  private UpdateResponse updateResponse;
+
+  @Before
+  public void setup() {
+    scheduler = Executors.newSingleThreadScheduledExecutor();
+    rolloverExecutor = Executors.newSingleThreadExecutor();
+
+    updateRequest = mock(UpdateRequest.class);
+    update = mock(Update.class);
+    updateResponse = mock(UpdateResponse.class);
+    when(updateResponse.getUpdatedMetacards()).thenReturn(Collections.singletonList(update));
+  }
+
+  @After
+  public void teardown() {
+    scheduler.shutdownNow();
+    rolloverExecutor.shutdownNow();
+  }
+
+  @Test
+  public void testRetryUntilSuccess() throws Exception {
+    CatalogFramework catalogFramework = mock(CatalogFramework.class);
+    when(catalogFramework.update(any(UpdateRequest.class)))
+        .thenThrow(IngestException.class)
+        .thenReturn(updateResponse);
+
+    List<Update> updates = new CopyOnWriteArrayList<>();
+    AtomicInteger attempts = new AtomicInteger();
+
+    catalogUpdateRetry
+        .submitUpdateRequestWithRetry(
+            scheduler,
+            new SimpleSubject(),
+            catalogFramework,
+            updateRequest,
+            0,
+            10,
+            100,
+            updates::add,
+            latency -> attempts.incrementAndGet())
+        .get(5, TimeUnit.SECONDS);
+
+    verify(catalogFramework, times(2)).update(updateRequest);
+    assertThat(updates, contains(update));
+    assertThat(attempts.get(), is(2));
+  }
+
+  @Test
+  public void testSchedulerShutdown() throws Exception {
+    scheduler.shutdown();
+
+    CompletableFuture<Void> result =
+        catalogUpdateRetry.submitUpdateRequestWithRetry(
+            scheduler,
+            new SimpleSubject(),
+            mock(CatalogFramework.class),
+            updateRequest,
+            0,
+            10,
+            100,
+            ignored -> {},
+            ignored -> {});
+
+    try {
+      result.get(5, TimeUnit.SECONDS);
+      fail("the update must not be attempted on a shutdown scheduler");
+    } catch (ExecutionException e) {
+      assertThat(e.getCause(), instanceOf(RejectedExecutionException.class));
+    }
+  }
+
+  /**
+   * Two streams share one rollover thread and one scheduler thread. The catalog updates of the
+   * first stream keep failing with a long wait between attempts, which must not delay the rollover
+   * work or the catalog updates of the second stream.
+   */
+  @Test
+  public void testStalledStreamDoesNotDelayOtherStream() throws Exception {
+    CatalogFramework stalledCatalogFramework = mock(CatalogFramework.class);
+    when(stalledCatalogFramework.update(any(UpdateRequest.class)))
+        .thenThrow(SourceUnavailableException.class);
+
+    CatalogFramework catalogFramework = mock(CatalogFramework.class);
+    when(catalogFramework.update(any(UpdateRequest.class))).thenReturn(updateResponse);
+
+    RolloverQueue stalledRolloverQueue =
+        new RolloverQueue(rolloverExecutor, RolloverQueue.DEFAULT_CAPACITY);
+    RolloverQueue rolloverQueue =
+        new RolloverQueue(rolloverExecutor, RolloverQueue.DEFAULT_CAPACITY);
+
+    AtomicReference<CompletableFuture<Void>> stalledResult = new AtomicReference<>();
+    AtomicReference<CompletableFuture<Void>> result = new AtomicReference<>();
+
+    stalledRolloverQueue.execute(
+        () ->
+            stalledResult.set(
+                submit(stalledCatalogFramework, STALLED_RETRY_WAIT_MILLISECONDS)));
+    verify(stalledCatalogFramework, timeout(5000)).update(updateRequest);
+
+    rolloverQueue.execute(() -> result.set(submit(catalogFramework, 10)));
+
+    assertThat(rolloverQueue.awaitIdle(5, TimeUnit.SECONDS), is(true));
+    result.get().get(5, TimeUnit.SECONDS);
+
+    verify(catalogFramework).update(updateRequest);
+    assertThat(stalledRolloverQueue.awaitIdle(5, TimeUnit.SECONDS), is(true));
+    assertThat(stalledResult.get().isDone(), is(false));
+  }
+
+  private CompletableFuture<Void> submit(
+      CatalogFramework catalogFramework, long initialRetryWaitMilliseconds) {
+    return catalogUpdateRetry.submitUpdateRequestWithRetry(
+        scheduler,
+        new SimpleSubject(),
+        catalogFramework,
+        updateRequest,
+        0,
+        initialRetryWaitMilliseconds,
+        initialRetryWaitMilliseconds * 2,
+        ignored -> {},
+        ignored -> {});
+  }
+}
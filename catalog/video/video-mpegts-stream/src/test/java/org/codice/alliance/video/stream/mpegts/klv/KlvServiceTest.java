@@ -16,10 +16,16 @@ package org.codice.alliance.video.stream.mpegts.klv;
 import static org.hamcrest.CoreMatchers.is;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.containsInAnyOrder;
+import static org.hamcrest.Matchers.empty;
 
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
 import org.junit.Test;
 
 public class KlvServiceTest {
@@ -56,4 +62,100 @@ public class KlvServiceTest {
     Thread.sleep(2000);
     assertThat(service.getStreamsKlvByParam(KlvData.PARENT_ID_KEY, "parentId"), notNullValue());
   }
+
+  @Test
+  public void currentKlvTimeout() {
+    AtomicLong clock = new AtomicLong(10000);
+    KlvService service = new KlvService(KlvService.DEFAULT_SAMPLES_PER_STREAM, clock::get);
+    KlvData klvData = klvData("parentId", "sourceId", 10000);
+    service.postKlvForStream(klvData);
+
+    clock.addAndGet(KlvService.CURRENT_KLV_TIMEOUT);
+    assertThat(service.getStreamsKlvByParam("sourceId", "sourceId"), contains(klvData));
+    assertThat(service.getAllStreamsKlvByParent().get("parentId"), is(klvData));
+
+    clock.incrementAndGet();
+    assertThat(service.getStreamsKlvByParam("sourceId", "sourceId"), empty());
+    assertThat(service.getAllStreamsKlvWithParam("sourceId"), empty());
+    assertThat(service.getAllStreamsKlvByParent().isEmpty(), is(true));
+  }
+
+  @Test
+  public void indexFollowsLatestProperties() {
+    AtomicLong clock = new AtomicLong(10000);
+    KlvService service = new KlvService(KlvService.DEFAULT_SAMPLES_PER_STREAM, clock::get);
+    KlvData stream1 = klvData("parent1", "source1", 10000);
+    KlvData stream2 = klvData("parent2", "source1", 10000);
+    service.postKlvForStream(stream1);
+    service.postKlvForStream(stream2);
+
+    assertThat(
+        service.getStreamsKlvByParam("sourceId", "source1"), containsInAnyOrder(stream1, stream2));
+
+    KlvData stream2Moved = klvData("parent2", "source2", 10001);
+    service.postKlvForStream(stream2Moved);
+
+    assertThat(service.getStreamsKlvByParam("sourceId", "source1"), contains(stream1));
+    assertThat(service.getStreamsKlvByParam("sourceId", "source2"), contains(stream2Moved));
+    assertThat(
+        service.getAllStreamsKlvWithParam("sourceId"), containsInAnyOrder(stream1, stream2Moved));
+    assertThat(service.getAllStreamsKlvWithParam("otherKey"), empty());
+  }
+
+  @Test
+  public void streamKlvHistory() {
+    AtomicLong clock = new AtomicLong(10000);
+    KlvService service = new KlvService(4, clock::get);
+    for (int i = 0; i < 10; i++) {
+      service.postKlvForStream(klvData("parentId", "sourceId", 10000 + i * 1000));
+    }
+    clock.set(19000);
+
+    List<KlvData> lastThreeSeconds =
+        service.getStreamKlvHistory("parentId", 3, TimeUnit.SECONDS);
+    assertThat(lastThreeSeconds.size(), is(4));
+    assertThat(lastThreeSeconds.get(0).getTimestamp(), is(16000L));
+    assertThat(lastThreeSeconds.get(3).getTimestamp(), is(19000L));
+
+    List<KlvData> lastSecond = service.getStreamKlvHistory("parentId", 1, TimeUnit.SECONDS);
+    assertThat(lastSecond.size(), is(2));
+    assertThat(lastSecond.get(0).getTimestamp(), is(18000L));
+
+    assertThat(service.getStreamKlvHistory("otherParentId", 1, TimeUnit.SECONDS), empty());
+  }
+
+  @Test
+  public void idleStreamsRemoved() {
+    AtomicLong clock = new AtomicLong(10000);
+    KlvService service = new KlvService(KlvService.DEFAULT_SAMPLES_PER_STREAM, clock::get);
+    service.postKlvForStream(klvData("idleParentId", "idleSourceId", 10000));
+
+    clock.addAndGet(KlvService.IDLE_STREAM_TIMEOUT + 1);
+    service.postKlvForStream(klvData("parentId", "sourceId", clock.get()));
+
+    assertThat(service.getStreamKlvHistory("idleParentId", 1, TimeUnit.DAYS), empty());
+    assertThat(service.getStreamKlvHistory("parentId", 1, TimeUnit.DAYS).size(), is(1));
+    assertThat(service.getAllStreamsKlvWithParam("sourceId").size(), is(1));
+  }
+
+  @Test
+  public void removedIdleStreamIsIndexedAgain() {
+    AtomicLong clock = new AtomicLong(10000);
+    KlvService service = new KlvService(KlvService.DEFAULT_SAMPLES_PER_STREAM, clock::get);
+    service.postKlvForStream(klvData("idleParentId", "idleSourceId", 10000));
+
+    clock.addAndGet(KlvService.IDLE_STREAM_TIMEOUT + 1);
+    service.postKlvForStream(klvData("parentId", "sourceId", clock.get()));
+    service.postKlvForStream(klvData("idleParentId", "idleSourceId", clock.get()));
+
+    assertThat(service.getStreamKlvHistory("idleParentId", 1, TimeUnit.DAYS).size(), is(1));
+    assertThat(service.getStreamsKlvByParam("sourceId", "idleSourceId").size(), is(1));
+  }
+
+  private KlvData klvData(String parentId, String sourceId, long timestamp) {
+    Map<String, String> props = new HashMap<>();
+    props.put(KlvData.PARENT_ID_KEY, parentId);
+    props.put("sourceId", sourceId);
+    return new KlvData(new HashMap<>(), props, timestamp, KlvData.UNKNOWN_PTS);
+  }
 }
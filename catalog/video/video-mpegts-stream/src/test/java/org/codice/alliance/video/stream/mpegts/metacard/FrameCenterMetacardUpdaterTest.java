@@ -0,0 +1,90 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.video.stream.mpegts.metacard;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import ddf.catalog.data.impl.AttributeImpl;
+import ddf.catalog.data.impl.MetacardImpl;
+import org.codice.alliance.libs.klv.AttributeNameConstants;
+import org.codice.alliance.video.stream.mpegts.Context;
+import org.codice.alliance.video.stream.mpegts.ParentAggregate;
+import org.junit.Before;
+import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+
+public class FrameCenterMetacardUpdaterTest {
+
+  private final FrameCenterMetacardUpdater updater = new FrameCenterMetacardUpdater();
+
+  private final ParentAggregate parentAggregate = new ParentAggregate("parent");
+
+  private Context context;
+
+  private MetacardImpl parent;
+
+  @Before
+  public void setup() {
+    parent = new MetacardImpl();
+    parent.setId("parent");
+
+    context = mock(Context.class);
+    when(context.getParentAggregate("parent")).thenReturn(parentAggregate);
+  }
+
+  @Test
+  public void testChildFrameCenterIsAddedToAggregate() {
+    updater.update(parent, child("first", "LINESTRING (0 0, 1 1)"), context);
+    updater.update(parent, child("second", "LINESTRING (2 2, 3 3)"), context);
+    updater.update(parent, child("first", "LINESTRING (0 0, 1 1)"), context);
+
+    assertThat(
+        parentAggregate.getFrameCenterCoordinates(),
+        contains(
+            new Coordinate(0, 0),
+            new Coordinate(1, 1),
+            new Coordinate(2, 2),
+            new Coordinate(3, 3)));
+    assertThat(parent.getAttribute(AttributeNameConstants.FRAME_CENTER), is(nullValue()));
+  }
+
+  @Test
+  public void testChildWithoutFrameCenter() {
+    updater.update(parent, child("first", null), context);
+
+    assertThat(parentAggregate.getFrameCenterCoordinates(), is(empty()));
+  }
+
+  @Test
+  public void testChildWithInvalidFrameCenter() {
+    updater.update(parent, child("first", "LINESTRING (0 0"), context);
+
+    assertThat(parentAggregate.getFrameCenterCoordinates(), is(empty()));
+  }
+
+  private MetacardImpl child(String id, String frameCenter) {
+    MetacardImpl child = new MetacardImpl();
+    child.setId(id);
+    if (frameCenter != null) {
+      child.setAttribute(new AttributeImpl(AttributeNameConstants.FRAME_CENTER, frameCenter));
+    }
+    return child;
+  }
+}
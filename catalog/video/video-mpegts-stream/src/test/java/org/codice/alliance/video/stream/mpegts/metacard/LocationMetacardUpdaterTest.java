@@ -0,0 +1,88 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.video.stream.mpegts.metacard;
+
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import ddf.catalog.data.impl.MetacardImpl;
+import org.codice.alliance.libs.klv.FootprintAccumulator;
+import org.codice.alliance.libs.klv.GeometryOperator;
+import org.codice.alliance.video.stream.mpegts.Context;
+import org.junit.Before;
+import org.junit.Test;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+
+public class LocationMetacardUpdaterTest {
+
+  private final LocationMetacardUpdater updater =
+      new LocationMetacardUpdater(GeometryOperator.IDENTITY);
+
+  private final FootprintAccumulator footprint = new FootprintAccumulator();
+
+  private Context context;
+
+  private MetacardImpl parent;
+
+  @Before
+  public void setup() {
+    parent = new MetacardImpl();
+    parent.setId("parent");
+
+    context = mock(Context.class);
+    when(context.getParentFootprint("parent")).thenReturn(footprint);
+    when(context.getGeometryOperatorContext()).thenReturn(new GeometryOperator.Context());
+  }
+
+  @Test
+  public void testChildLocationIsAddedToFootprint() throws ParseException {
+    updater.update(parent, child("first", "POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0))"), context);
+    updater.update(parent, child("second", "POLYGON ((10 0, 20 0, 20 10, 10 10, 10 0))"), context);
+
+    assertThat(footprint.contains("first"), is(true));
+    assertThat(footprint.contains("second"), is(true));
+    assertThat(
+        footprint
+            .getFootprint()
+            .get()
+            .equalsTopo(new WKTReader().read("POLYGON ((0 0, 20 0, 20 10, 0 10, 0 0))")),
+        is(true));
+    assertThat(parent.getLocation(), is(nullValue()));
+  }
+
+  @Test
+  public void testChildWithoutLocation() {
+    updater.update(parent, child("first", null), context);
+
+    assertThat(footprint.getGeometryCount(), is(0));
+  }
+
+  @Test
+  public void testChildWithInvalidLocation() {
+    updater.update(parent, child("first", "POLYGON ((0 0"), context);
+
+    assertThat(footprint.getGeometryCount(), is(0));
+  }
+
+  private MetacardImpl child(String id, String location) {
+    MetacardImpl child = new MetacardImpl();
+    child.setId(id);
+    child.setLocation(location);
+    return child;
+  }
+}
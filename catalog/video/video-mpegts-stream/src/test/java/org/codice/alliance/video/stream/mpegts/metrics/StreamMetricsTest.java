@@ -0,0 +1,138 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.video.stream.mpegts.metrics;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.hasEntry;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.notNullValue;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.Assert.assertThat;
+
+import java.lang.management.ManagementFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import org.codice.alliance.video.stream.mpegts.rollover.RolloverQueue;
+import org.junit.Before;
+import org.junit.Test;
+
+public class StreamMetricsTest {
+
+  private AtomicLong clock;
+
+  private StreamMetrics streamMetrics;
+
+  @Before
+  public void setup() {
+    clock = new AtomicLong();
+    streamMetrics = new StreamMetrics(clock::get);
+  }
+
+  @Test
+  public void testRates() {
+    streamMetrics.sample();
+
+    for (int i = 0; i < 100; i++) {
+      streamMetrics.recordPacket(188);
+    }
+    clock.addAndGet(TimeUnit.SECONDS.toNanos(2));
+    streamMetrics.sample();
+
+    assertThat(streamMetrics.getPacketsReceived(), is(100L));
+    assertThat(streamMetrics.getBytesReceived(), is(18800L));
+    assertThat(streamMetrics.getPacketsPerSecond(), closeTo(50, 0.001));
+    assertThat(streamMetrics.getBytesPerSecond(), closeTo(9400, 0.001));
+
+    clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+    streamMetrics.sample();
+
+    assertThat(streamMetrics.getPacketsPerSecond(), closeTo(0, 0.001));
+  }
+
+  @Test
+  public void testFirstSampleDoesNotComputeRates() {
+    streamMetrics.recordPacket(188);
+    clock.addAndGet(TimeUnit.SECONDS.toNanos(1));
+    streamMetrics.sample();
+
+    assertThat(streamMetrics.getPacketsPerSecond(), closeTo(0, 0.001));
+  }
+
+  @Test
+  public void testLatencies() {
+    streamMetrics.recordFramesetFlush(1000, TimeUnit.MILLISECONDS.toNanos(2));
+    streamMetrics.recordFramesetFlush(500, TimeUnit.MILLISECONDS.toNanos(4));
+    streamMetrics.recordCatalogCreate(TimeUnit.MILLISECONDS.toNanos(30));
+    streamMetrics.recordCatalogUpdate(TimeUnit.MILLISECONDS.toNanos(10));
+    streamMetrics.recordCatalogUpdate(-1);
+
+    assertThat(streamMetrics.getBytesWritten(), is(1500L));
+    assertThat(streamMetrics.getFramesetFlushCount(), is(2L));
+    assertThat(streamMetrics.getFramesetFlushMeanMillis(), closeTo(3, 0.001));
+    assertThat(streamMetrics.getFramesetFlushMaxMillis(), closeTo(4, 0.001));
+    assertThat(streamMetrics.getCatalogCreateCount(), is(1L));
+    assertThat(streamMetrics.getCatalogCreateMeanMillis(), closeTo(30, 0.001));
+    assertThat(streamMetrics.getCatalogUpdateCount(), is(1L));
+    assertThat(streamMetrics.getCatalogUpdateMaxMillis(), closeTo(10, 0.001));
+  }
+
+  @Test
+  public void testRolloverQueueDepth() throws Exception {
+    assertThat(streamMetrics.getRolloverQueueDepth(), is(0));
+
+    RolloverQueue rolloverQueue = new RolloverQueue();
+    rolloverQueue.recordDeferredRollover();
+    rolloverQueue.execute(() -> {});
+    streamMetrics.setRolloverQueue(rolloverQueue);
+
+    assertThat(streamMetrics.getRolloverQueueDepth(), is(0));
+    assertThat(streamMetrics.getRolloverQueueMaxDepth(), is(1));
+    assertThat(streamMetrics.getDeferredRollovers(), is(1L));
+  }
+
+  @Test
+  public void testToMap() {
+    streamMetrics.recordDatagram();
+    streamMetrics.recordContinuityError();
+    streamMetrics.recordKlvDecodeFailure();
+
+    assertThat(streamMetrics.toMap(), hasEntry(StreamMetrics.DATAGRAMS_RECEIVED, (Object) 1L));
+    assertThat(streamMetrics.toMap(), hasEntry(StreamMetrics.CONTINUITY_ERRORS, (Object) 1L));
+    assertThat(streamMetrics.toMap(), hasEntry(StreamMetrics.KLV_DECODE_FAILURES, (Object) 1L));
+  }
+
+  @Test
+  public void testRegisterMBean() throws Exception {
+    MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+
+    streamMetrics.recordContinuityError();
+    streamMetrics.registerMBean("stream:1");
+
+    ObjectName objectName = streamMetrics.getObjectName();
+    assertThat(objectName, notNullValue());
+    assertThat(mBeanServer.getAttribute(objectName, "ContinuityErrors"), is(1L));
+
+    StreamMetrics otherMetrics = new StreamMetrics();
+    otherMetrics.registerMBean("stream:1");
+    assertThat(mBeanServer.getAttribute(objectName, "ContinuityErrors"), is(0L));
+
+    otherMetrics.unregisterMBean();
+    streamMetrics.unregisterMBean();
+
+    assertThat(mBeanServer.isRegistered(objectName), is(false));
+    assertThat(streamMetrics.getObjectName(), nullValue());
+  }
+}
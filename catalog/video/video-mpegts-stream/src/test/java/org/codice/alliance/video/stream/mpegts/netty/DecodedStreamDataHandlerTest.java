@@ -14,17 +14,13 @@
 package org.codice.alliance.video.stream.mpegts.netty;
 
 import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.doCallRealMethod;
+import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
-import static org.mockito.Mockito.when;
 
 import io.netty.channel.embedded.EmbeddedChannel;
-import java.util.LinkedList;
-import java.util.List;
-import org.jcodec.codecs.h264.io.model.NALUnit;
-import org.jcodec.codecs.h264.io.model.NALUnitType;
+import org.codice.alliance.libs.mpegts.MpegStreamType;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -44,25 +40,18 @@ public class DecodedStreamDataHandlerTest {
 
     channel.writeInbound("not a DecodedStreamData.class");
 
-    verify(packetBuffer, never()).frameComplete(any());
+    verify(packetBuffer, never()).frameComplete(any(), anyLong());
   }
 
   @Test
   public void testDetectIDR() throws Exception {
 
-    List<NALUnit> nalUnitList = new LinkedList<>();
-    NALUnit nalUnit = new NALUnit(NALUnitType.IDR_SLICE, 0);
-    nalUnitList.add(nalUnit);
-
-    Mpeg4DecodedStreamData decodedStreamData = mock(Mpeg4DecodedStreamData.class);
-    when(decodedStreamData.getNalUnits()).thenReturn(nalUnitList);
-    doCallRealMethod().when(decodedStreamData).accept(any());
-
     EmbeddedChannel channel = new EmbeddedChannel(new DecodedStreamDataHandler(packetBuffer));
 
-    channel.writeInbound(decodedStreamData);
+    channel.writeInbound(
+        new VideoFrameDecodedStreamData(MpegStreamType.VIDEO_H264, true, 1, 3600L));
 
-    verify(packetBuffer).frameComplete(PacketBuffer.FrameType.IDR);
+    verify(packetBuffer).frameComplete(PacketBuffer.FrameType.IDR, 3600L);
   }
 
   @Test
@@ -70,16 +59,8 @@ public class DecodedStreamDataHandlerTest {
 
     EmbeddedChannel channel = new EmbeddedChannel(new DecodedStreamDataHandler(packetBuffer));
 
-    List<NALUnit> nalUnitList = new LinkedList<>();
-    NALUnit nalUnit = new NALUnit(NALUnitType.NON_IDR_SLICE, 0);
-    nalUnitList.add(nalUnit);
-
-    Mpeg4DecodedStreamData decodedStreamData = mock(Mpeg4DecodedStreamData.class);
-    when(decodedStreamData.getNalUnits()).thenReturn(nalUnitList);
-    doCallRealMethod().when(decodedStreamData).accept(any());
-
-    channel.writeInbound(decodedStreamData);
+    channel.writeInbound(new VideoFrameDecodedStreamData(MpegStreamType.VIDEO_H265, false, 1));
 
-    verify(packetBuffer).frameComplete(PacketBuffer.FrameType.NON_IDR);
+    verify(packetBuffer).frameComplete(PacketBuffer.FrameType.NON_IDR, KeyframeIndex.UNKNOWN_PTS);
   }
 }
@@ -0,0 +1,131 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.video.stream.mpegts.netty;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.ByteArrayOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class FileChannelSegmentWriterTest {
+
+  private static final int PACKET_SIZE = 188;
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  private File file;
+
+  @Before
+  public void setup() throws IOException {
+    file = temporaryFolder.newFile();
+  }
+
+  /** Write more data than fits in the buffers, so that some gathering writes happen early. */
+  @Test
+  public void testWrite() throws IOException {
+    FileChannelSegmentWriter segmentWriter =
+        new FileChannelSegmentWriter(FileChannelSegmentWriter.MIN_BUFFER_SIZE, 2, false);
+
+    byte[] expected = writePackets(segmentWriter, file, 100, 0);
+
+    segmentWriter.close();
+
+    assertThat(Files.readAllBytes(file.toPath()), is(expected));
+  }
+
+  @Test
+  public void testFlush() throws IOException {
+    FileChannelSegmentWriter segmentWriter = new FileChannelSegmentWriter();
+
+    byte[] expected = writePackets(segmentWriter, file, 3, 0);
+
+    assertThat(file.length(), is(0L));
+
+    segmentWriter.flush();
+
+    assertThat(Files.readAllBytes(file.toPath()), is(expected));
+
+    segmentWriter.close();
+  }
+
+  @Test
+  public void testSizeHintIsTruncated() throws IOException {
+    FileChannelSegmentWriter segmentWriter =
+        new FileChannelSegmentWriter(FileChannelSegmentWriter.DEFAULT_BUFFER_SIZE, 1, true);
+
+    byte[] expected = writePackets(segmentWriter, file, 10, 1000000);
+    segmentWriter.flush();
+
+    assertThat(file.length(), is(1000000L));
+
+    segmentWriter.close();
+
+    assertThat(Files.readAllBytes(file.toPath()), is(expected));
+  }
+
+  /** The writer is reused for the next segment and does not carry data over. */
+  @Test
+  public void testReopen() throws IOException {
+    FileChannelSegmentWriter segmentWriter =
+        new FileChannelSegmentWriter(FileChannelSegmentWriter.MIN_BUFFER_SIZE, 1, false);
+
+    writePackets(segmentWriter, file, 3, 0);
+    segmentWriter.close();
+
+    File nextFile = temporaryFolder.newFile();
+    byte[] expected = writePackets(segmentWriter, nextFile, 7, 0);
+    segmentWriter.close();
+
+    assertThat(Files.readAllBytes(nextFile.toPath()), is(expected));
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testWriteWhenClosed() throws IOException {
+    new FileChannelSegmentWriter().write(new byte[PACKET_SIZE]);
+  }
+
+  @Test(expected = IllegalStateException.class)
+  public void testOpenTwice() throws IOException {
+    FileChannelSegmentWriter segmentWriter = new FileChannelSegmentWriter();
+    segmentWriter.open(file, 0);
+    try {
+      segmentWriter.open(file, 0);
+    } finally {
+      segmentWriter.close();
+    }
+  }
+
+  private byte[] writePackets(
+      SegmentWriter segmentWriter, File file, int packetCount, long expectedSize)
+      throws IOException {
+    ByteArrayOutputStream expected = new ByteArrayOutputStream();
+    segmentWriter.open(file, expectedSize);
+    for (int i = 0; i < packetCount; i++) {
+      byte[] packet = new byte[PACKET_SIZE];
+      packet[0] = 0x47;
+      packet[1] = (byte) i;
+      packet[PACKET_SIZE - 1] = (byte) (i * 7);
+      segmentWriter.write(packet);
+      expected.write(packet);
+    }
+    return expected.toByteArray();
+  }
+}
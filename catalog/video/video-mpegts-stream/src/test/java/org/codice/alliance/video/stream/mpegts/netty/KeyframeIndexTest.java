@@ -0,0 +1,84 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.video.stream.mpegts.netty;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+public class KeyframeIndexTest {
+
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+  @Test
+  public void testWriteAndRead() throws IOException {
+    KeyframeIndex keyframeIndex = new KeyframeIndex();
+    for (int i = 0; i < 100; i++) {
+      keyframeIndex.add(i * 188L * 50, i == 10 ? KeyframeIndex.UNKNOWN_PTS : i * 3600L);
+    }
+
+    File indexFile = KeyframeIndex.getIndexFile(temporaryFolder.newFile("segment"));
+    keyframeIndex.write(indexFile);
+
+    KeyframeIndex copy = KeyframeIndex.read(indexFile);
+
+    assertThat(indexFile.getName(), is("segment" + KeyframeIndex.FILE_EXTENSION));
+    assertThat(copy.size(), is(100));
+    assertThat(copy.getOffset(99), is(99L * 188 * 50));
+    assertThat(copy.getPresentationTimestamp(99), is(99L * 3600));
+    assertThat(copy.getPresentationTimestamp(10), is(KeyframeIndex.UNKNOWN_PTS));
+  }
+
+  @Test
+  public void testFindOffset() {
+    KeyframeIndex keyframeIndex = new KeyframeIndex();
+    keyframeIndex.add(0, 3600);
+    keyframeIndex.add(1880, KeyframeIndex.UNKNOWN_PTS);
+    keyframeIndex.add(3760, 7200);
+
+    assertThat(keyframeIndex.findOffset(0), is(-1L));
+    assertThat(keyframeIndex.findOffset(3600), is(0L));
+    assertThat(keyframeIndex.findOffset(7199), is(0L));
+    assertThat(keyframeIndex.findOffset(10000), is(3760L));
+  }
+
+  @Test
+  public void testClear() {
+    KeyframeIndex keyframeIndex = new KeyframeIndex();
+    keyframeIndex.add(0, 0);
+    keyframeIndex.clear();
+
+    assertThat(keyframeIndex.isEmpty(), is(true));
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testGetOffsetOutOfBounds() {
+    new KeyframeIndex().getOffset(0);
+  }
+
+  @Test(expected = IOException.class)
+  public void testReadMalformed() throws IOException {
+    File indexFile = temporaryFolder.newFile();
+    Files.write(indexFile.toPath(), "offset,pts\n188\n".getBytes(StandardCharsets.UTF_8));
+
+    KeyframeIndex.read(indexFile);
+  }
+}
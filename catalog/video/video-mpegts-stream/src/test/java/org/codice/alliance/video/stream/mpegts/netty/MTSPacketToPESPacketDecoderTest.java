@@ -13,13 +13,20 @@
  */
 package org.codice.alliance.video.stream.mpegts.netty;
 
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 
 import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.handler.codec.DecoderException;
+import java.io.IOException;
 import org.codice.alliance.libs.mpegts.MpegTsDecoder;
+import org.codice.alliance.video.stream.mpegts.metrics.StreamMetrics;
 import org.junit.Test;
 import org.taktik.mpegts.MTSPacket;
 
@@ -47,4 +54,23 @@ public class MTSPacketToPESPacketDecoderTest {
 
     verify(mpegTsDecoder).read(eq(mtsPacket), any());
   }
+
+  @Test
+  public void testDecodeFailure() throws Exception {
+
+    MpegTsDecoder mpegTsDecoder = mock(MpegTsDecoder.class);
+    doThrow(IOException.class).when(mpegTsDecoder).read(any(), any());
+
+    StreamMetrics streamMetrics = new StreamMetrics();
+
+    EmbeddedChannel channel =
+        new EmbeddedChannel(new MTSPacketToPESPacketDecoder(mpegTsDecoder, streamMetrics));
+
+    try {
+      channel.writeInbound(mock(MTSPacket.class));
+      fail("the decode failure should be propagated");
+    } catch (DecoderException e) {
+      assertThat(streamMetrics.getPesDecodeFailures(), is(1L));
+    }
+  }
 }
@@ -13,29 +13,36 @@
  */
 package org.codice.alliance.video.stream.mpegts.netty;
 
+import static org.hamcrest.Matchers.empty;
 import static org.hamcrest.Matchers.hasSize;
 import static org.hamcrest.Matchers.instanceOf;
 import static org.hamcrest.Matchers.is;
-import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.Assert.assertThat;
-import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.when;
 
 import io.netty.channel.embedded.EmbeddedChannel;
-import java.nio.ByteBuffer;
 import java.util.List;
 import org.codice.alliance.libs.mpegts.MpegStreamType;
 import org.codice.alliance.libs.mpegts.PESPacket;
-import org.jcodec.codecs.h264.io.model.NALUnit;
 import org.junit.Before;
 import org.junit.Test;
 
 public class PESPacketToApplicationDataDecoderTest {
 
-  private static final byte[] EMPTY_ARRAY = new byte[] {};
+  private static final byte[] H264_IDR =
+      new byte[] {0x00, 0x00, 0x00, 0x01, 0x09, 0x10, 0x00, 0x00, 0x01, 0x65, (byte) 0x88};
 
-  private static final ByteBuffer EMPTY_BUF = ByteBuffer.wrap(EMPTY_ARRAY);
+  private static final byte[] H264_NON_IDR =
+      new byte[] {0x00, 0x00, 0x00, 0x01, 0x09, 0x30, 0x00, 0x00, 0x01, 0x41, (byte) 0x9A};
+
+  /** Access unit delimiter followed by an IDR_W_RADL slice. */
+  private static final byte[] H265_IRAP =
+      new byte[] {0x00, 0x00, 0x00, 0x01, 0x46, 0x01, 0x10, 0x00, 0x00, 0x01, 0x26, 0x01};
+
+  /** Access unit delimiter followed by a TRAIL_R slice. */
+  private static final byte[] H265_NON_IRAP =
+      new byte[] {0x00, 0x00, 0x00, 0x01, 0x46, 0x01, 0x50, 0x00, 0x00, 0x01, 0x02, 0x01};
 
   private PESPacketToApplicationDataDecoder decoder;
 
@@ -48,25 +55,79 @@ public class PESPacketToApplicationDataDecoderTest {
   }
 
   @Test
-  public void testDecodeNALUnits() throws Exception {
+  public void testH264Idr() throws Exception {
+    VideoFrameDecodedStreamData decodedStreamData = decode(MpegStreamType.VIDEO_H264, H264_IDR);
 
-    when(pesPacket.getStreamType()).thenReturn(MpegStreamType.VIDEO_H264);
-    when(pesPacket.getPayload()).thenReturn(EMPTY_ARRAY);
+    assertThat(decodedStreamData.getStreamType(), is(MpegStreamType.VIDEO_H264));
+    assertThat(decodedStreamData.isKeyframe(), is(true));
+    assertThat(decodedStreamData.getPresentationTimestamp(), is(KeyframeIndex.UNKNOWN_PTS));
+  }
+
+  @Test
+  public void testH264NonIdr() throws Exception {
+    assertThat(decode(MpegStreamType.VIDEO_H264, H264_NON_IDR).isKeyframe(), is(false));
+  }
+
+  @Test
+  public void testH265Irap() throws Exception {
+    VideoFrameDecodedStreamData decodedStreamData = decode(MpegStreamType.VIDEO_H265, H265_IRAP);
+
+    assertThat(decodedStreamData.getStreamType(), is(MpegStreamType.VIDEO_H265));
+    assertThat(decodedStreamData.isKeyframe(), is(true));
+  }
 
-    PESPacketToApplicationDataDecoder.NALReader nalReader =
-        mock(PESPacketToApplicationDataDecoder.NALReader.class);
-    when(nalReader.next(any())).thenReturn(EMPTY_BUF).thenReturn(EMPTY_BUF).thenReturn(null);
-    decoder.setNalReader(nalReader);
+  @Test
+  public void testH265NonIrap() throws Exception {
+    assertThat(decode(MpegStreamType.VIDEO_H265, H265_NON_IRAP).isKeyframe(), is(false));
+  }
 
-    PESPacketToApplicationDataDecoder.NALParser nalParser =
-        mock(PESPacketToApplicationDataDecoder.NALParser.class);
+  @Test
+  public void testH265IdrIsNotH264Idr() throws Exception {
+    assertThat(decode(MpegStreamType.VIDEO_H264, H265_IRAP).isKeyframe(), is(false));
+  }
 
-    NALUnit nalUnit1 = mock(NALUnit.class);
-    NALUnit nalUnit2 = mock(NALUnit.class);
+  @Test
+  public void testMpeg2IntraCoded() throws Exception {
+    byte[] payload = new byte[] {0x00, 0x00, 0x01, 0x00, 0x00, 0x0F, (byte) 0xFF, (byte) 0xF8};
+    assertThat(decode(MpegStreamType.VIDEO_MPEG2, payload).isKeyframe(), is(true));
+  }
 
-    when(nalParser.parse(any())).thenReturn(nalUnit1).thenReturn(nalUnit2);
+  @Test
+  public void testMpeg2PredictiveCoded() throws Exception {
+    byte[] payload = new byte[] {0x00, 0x00, 0x01, 0x00, 0x00, 0x17, (byte) 0xFF, (byte) 0xF8};
+    assertThat(decode(MpegStreamType.VIDEO_MPEG2, payload).isKeyframe(), is(false));
+  }
 
-    decoder.setNalParser(nalParser);
+  @Test
+  public void testIgnoreNonVideo() throws Exception {
+    when(pesPacket.getStreamType()).thenReturn(MpegStreamType.AUDIO_AAC_ADTS);
+    when(pesPacket.getPayload()).thenReturn(H264_IDR);
+
+    EmbeddedChannel channel = new EmbeddedChannel(decoder);
+
+    channel.writeInbound(pesPacket);
+
+    assertThat(NettyUtility.read(channel), is(empty()));
+  }
+
+  @Test
+  public void testPresentationTimestamp() throws Exception {
+    long pts = 0x123456789L;
+
+    byte[] payload = new byte[14];
+    payload[2] = 0x01;
+    payload[3] = (byte) 0xE0;
+    payload[6] = (byte) 0x80;
+    payload[7] = (byte) 0x80;
+    payload[8] = 0x05;
+    payload[9] = (byte) (0x21 | ((pts >> 29) & 0x0E));
+    payload[10] = (byte) (pts >> 22);
+    payload[11] = (byte) (((pts >> 14) & 0xFE) | 0x01);
+    payload[12] = (byte) (pts >> 7);
+    payload[13] = (byte) (((pts << 1) & 0xFE) | 0x01);
+
+    when(pesPacket.getStreamType()).thenReturn(MpegStreamType.VIDEO_H264);
+    when(pesPacket.getPayload()).thenReturn(payload);
 
     EmbeddedChannel channel = new EmbeddedChannel(decoder);
 
@@ -75,12 +136,21 @@ public class PESPacketToApplicationDataDecoderTest {
     List<Object> outputList = NettyUtility.read(channel);
 
     assertThat(outputList, hasSize(1));
-    assertThat(outputList.get(0), is(instanceOf(Mpeg4DecodedStreamData.class)));
-    Mpeg4DecodedStreamData decodedStreamData = (Mpeg4DecodedStreamData) outputList.get(0);
+    assertThat(((DecodedStreamData) outputList.get(0)).getPresentationTimestamp(), is(pts));
+  }
+
+  private VideoFrameDecodedStreamData decode(MpegStreamType streamType, byte[] payload) {
+    when(pesPacket.getStreamType()).thenReturn(streamType);
+    when(pesPacket.getPayload()).thenReturn(payload);
 
-    assertThat(decodedStreamData.getNalUnits(), notNullValue());
-    assertThat(decodedStreamData.getNalUnits(), hasSize(2));
-    assertThat(decodedStreamData.getNalUnits().get(0), is(nalUnit1));
-    assertThat(decodedStreamData.getNalUnits().get(1), is(nalUnit2));
+    EmbeddedChannel channel = new EmbeddedChannel(decoder);
+
+    channel.writeInbound(pesPacket);
+
+    List<Object> outputList = NettyUtility.read(channel);
+
+    assertThat(outputList, hasSize(1));
+    assertThat(outputList.get(0), is(instanceOf(VideoFrameDecodedStreamData.class)));
+    return (VideoFrameDecodedStreamData) outputList.get(0);
   }
 }
@@ -32,6 +32,7 @@ import org.codice.alliance.libs.mpegts.MpegStreamType;
 import org.codice.alliance.libs.mpegts.PESPacket;
 import org.codice.alliance.video.stream.mpegts.Context;
 import org.codice.alliance.video.stream.mpegts.klv.KlvConsumer;
+import org.codice.alliance.video.stream.mpegts.metrics.StreamMetrics;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -49,6 +50,8 @@ public class PESPacketToKLVPacketDecoderTest {
 
   private Map<String, String> properties = new HashMap<>();
 
+  private StreamMetrics streamMetrics = new StreamMetrics();
+
   @Before
   public void setUp() throws Exception {
     parent = new MetacardImpl();
@@ -58,6 +61,7 @@ public class PESPacketToKLVPacketDecoderTest {
     context = mock(Context.class);
     when(context.getUdpStreamProcessor()).thenReturn(processor);
     when(context.getParentMetacard()).thenReturn(Optional.of(parent));
+    when(context.getStreamMetrics()).thenReturn(streamMetrics);
     consumer = mock(KlvConsumer.class);
     decoder = new PESPacketToKLVPacketDecoder(consumer, context);
   }
@@ -92,6 +96,8 @@ public class PESPacketToKLVPacketDecoderTest {
     ChannelHandlerContext chc = mock(ChannelHandlerContext.class);
     decoder.decode(chc, packet, new ArrayList<>());
     verify(consumer).postKlvForStream(any());
+    assertThat(streamMetrics.getKlvPacketsDecoded(), is(1L));
+    assertThat(streamMetrics.getKlvDecodeFailures(), is(0L));
   }
 
   @Test
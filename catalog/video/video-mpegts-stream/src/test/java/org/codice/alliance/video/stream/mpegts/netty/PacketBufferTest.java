@@ -25,14 +25,19 @@ import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.io.OutputStream;
+import java.nio.file.Files;
 import java.util.Optional;
 import org.codice.alliance.video.stream.mpegts.filename.TempFileGenerator;
 import org.codice.alliance.video.stream.mpegts.rollover.RolloverCondition;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 
 public class PacketBufferTest {
 
+  @Rule public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
   private PacketBuffer packetBuffer;
 
   private RolloverCondition rolloverCondition;
@@ -168,6 +173,88 @@ public class PacketBufferTest {
     assertThat(os.toByteArray(), is(new byte[] {}));
   }
 
+  /** The default segment writer keeps the temp file open until the segment is rotated. */
+  @Test
+  public void testFileChannelSegmentWriter() throws IOException {
+
+    File file = temporaryFolder.newFile();
+    TempFileGenerator tempFileGenerator = mock(TempFileGenerator.class);
+    when(tempFileGenerator.generate()).thenReturn(file);
+
+    packetBuffer = new PacketBuffer();
+    packetBuffer.setTempFileGenerator(tempFileGenerator);
+    packetBuffer.setExpectedSegmentSize(1000);
+
+    completeVideoSequence(
+        new byte[] {0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08, 0x09, 0x0A, 0x0B, 0x0C});
+
+    assertThat(packetBuffer.getByteCount(), is(9L));
+
+    Optional<File> rotated = packetBuffer.flushAndRotate().getFile();
+
+    assertThat(rotated, is(Optional.of(file)));
+    assertThat(
+        Files.readAllBytes(file.toPath()),
+        is(new byte[] {0x01, 0x02, 0x03, 0x04, 0x05, 0x06, 0x07, 0x08, 0x09, 0x0A, 0x0B, 0x0C}));
+  }
+
+  /** Each completed frameset is flushed as soon as the IDR frame of the next frameset arrives. */
+  @Test
+  public void testConsecutiveFramesets() {
+
+    packetBuffer.setOutputStreamFactory((file, append) -> os);
+
+    writePacket((byte) 0x01);
+    idr();
+    writePacket((byte) 0x02);
+    nonidr();
+    writePacket((byte) 0x03);
+    idr();
+
+    assertThat(os.toByteArray(), is(new byte[] {0x01, 0x02}));
+
+    writePacket((byte) 0x04);
+    nonidr();
+    writePacket((byte) 0x05);
+    nonidr();
+
+    assertThat(os.toByteArray(), is(new byte[] {0x01, 0x02}));
+
+    writePacket((byte) 0x06);
+    idr();
+
+    assertThat(os.toByteArray(), is(new byte[] {0x01, 0x02, 0x03, 0x04, 0x05}));
+  }
+
+  /** The offsets and timestamps of the IDR frames are saved next to the rotated segment. */
+  @Test
+  public void testKeyframeIndex() throws IOException {
+
+    File file = temporaryFolder.newFile();
+    TempFileGenerator tempFileGenerator = mock(TempFileGenerator.class);
+    when(tempFileGenerator.generate()).thenReturn(file);
+
+    packetBuffer = new PacketBuffer();
+    packetBuffer.setTempFileGenerator(tempFileGenerator);
+
+    packetBuffer.write(new byte[] {0x01, 0x02, 0x03});
+    packetBuffer.frameComplete(PacketBuffer.FrameType.IDR, 0);
+    packetBuffer.write(new byte[] {0x04, 0x05, 0x06});
+    packetBuffer.frameComplete(PacketBuffer.FrameType.NON_IDR, 1800);
+    packetBuffer.write(new byte[] {0x07, 0x08, 0x09});
+    packetBuffer.frameComplete(PacketBuffer.FrameType.IDR, 3600);
+
+    packetBuffer.flushAndRotate();
+
+    KeyframeIndex keyframeIndex = KeyframeIndex.read(KeyframeIndex.getIndexFile(file));
+
+    assertThat(keyframeIndex.size(), is(2));
+    assertThat(keyframeIndex.getOffset(0), is(0L));
+    assertThat(keyframeIndex.getPresentationTimestamp(0), is(0L));
+    assertThat(keyframeIndex.getOffset(1), is(6L));
+    assertThat(keyframeIndex.getPresentationTimestamp(1), is(3600L));
+  }
+
   /** Test that the packet buffer does not rotate when the rollover condition is false. */
   @Test
   public void testRotate1() {
@@ -14,8 +14,12 @@
 package org.codice.alliance.video.stream.mpegts.netty;
 
 import static org.hamcrest.Matchers.hasSize;
+import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
 
 import io.netty.buffer.Unpooled;
 import io.netty.channel.embedded.EmbeddedChannel;
@@ -23,13 +27,15 @@ import io.netty.channel.socket.DatagramPacket;
 import java.net.InetAddress;
 import java.net.InetSocketAddress;
 import java.net.UnknownHostException;
+import java.nio.ByteBuffer;
 import java.util.LinkedList;
 import java.util.List;
 import org.apache.commons.lang3.ArrayUtils;
+import org.codice.alliance.video.stream.mpegts.metrics.StreamMetrics;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 import org.mockito.Mockito;
 import org.taktik.mpegts.MTSPacket;
-import org.taktik.mpegts.sources.ResettableMTSSource;
 
 public class RawUdpDataToMTSPacketDecoderTest {
 
@@ -60,13 +66,11 @@ public class RawUdpDataToMTSPacketDecoderTest {
     RawUdpDataToMTSPacketDecoder.MTSParser mtsParser =
         mock(RawUdpDataToMTSPacketDecoder.MTSParser.class);
 
-    ResettableMTSSource resettable = mock(ResettableMTSSource.class);
-
-    Mockito.when(mtsParser.parse(Mockito.any())).thenReturn(resettable);
-
     MTSPacket mtsPacket = mock(MTSPacket.class);
 
-    Mockito.when(resettable.nextPacket()).thenThrow(RuntimeException.class).thenReturn(mtsPacket);
+    Mockito.when(mtsParser.parse(Mockito.any()))
+        .thenThrow(RuntimeException.class)
+        .thenReturn(mtsPacket);
 
     int packetCount = 2;
 
@@ -88,6 +92,129 @@ public class RawUdpDataToMTSPacketDecoderTest {
     assertThat(outputList, hasSize(packetCount - 1));
   }
 
+  @Test
+  public void testInvalidAdaptationFieldLength() throws Exception {
+
+    int packetCount = 3;
+
+    List<byte[]> packets = createTsPackets(packetCount);
+
+    byte[] badPacket = packets.get(1);
+    badPacket[3] = 0x30;
+    badPacket[4] = (byte) 0xFF;
+
+    PacketBuffer packetBuffer = mock(PacketBuffer.class);
+
+    EmbeddedChannel channel =
+        new EmbeddedChannel(
+            new RawUdpDataToMTSPacketDecoder(packetBuffer, mock(UdpStreamProcessor.class)));
+
+    toDatagrams(flatten(packets)).forEach(channel::writeInbound);
+
+    List<Object> outputList = NettyUtility.read(channel);
+
+    assertThat(outputList, hasSize(packetCount - 1));
+    verify(packetBuffer, times(packetCount - 1)).write(any(ByteBuffer.class));
+  }
+
+  @Test
+  public void testContinuityCounterGap() throws Exception {
+
+    int packetCount = 40;
+
+    List<byte[]> packets = createTsPackets(packetCount);
+
+    int continuityCounter = 0;
+    for (int i = 0; i < packetCount; i++) {
+      if (i == 20) {
+        continuityCounter += 3;
+      }
+      byte[] packet = packets.get(i);
+      packet[1] = 0x01;
+      packet[2] = 0x00;
+      packet[3] = (byte) (0x10 | (continuityCounter++ & 0x0F));
+    }
+
+    StreamMetrics streamMetrics = new StreamMetrics();
+
+    EmbeddedChannel channel =
+        new EmbeddedChannel(
+            new RawUdpDataToMTSPacketDecoder(
+                mock(PacketBuffer.class), mock(UdpStreamProcessor.class), streamMetrics));
+
+    List<DatagramPacket> datagramPackets = toDatagrams(flatten(packets));
+    datagramPackets.forEach(channel::writeInbound);
+
+    assertThat(NettyUtility.read(channel), hasSize(packetCount));
+    assertThat(streamMetrics.getContinuityErrors(), is(1L));
+    assertThat(streamMetrics.getDatagramsReceived(), is((long) datagramPackets.size()));
+    assertThat(streamMetrics.getDiscardedBytes(), is(0L));
+  }
+
+  @Test
+  public void testDroppedDatagram() throws Exception {
+
+    StreamMetrics streamMetrics = new StreamMetrics();
+
+    EmbeddedChannel channel =
+        new EmbeddedChannel(
+            new RawUdpDataToMTSPacketDecoder(
+                mock(PacketBuffer.class), mock(UdpStreamProcessor.class), streamMetrics));
+
+    toDatagrams(new byte[RawUdpDataToMTSPacketDecoder.TS_PACKET_SIZE * 2])
+        .forEach(channel::writeInbound);
+
+    assertThat(NettyUtility.read(channel), hasSize(0));
+    assertThat(streamMetrics.getDroppedDatagrams(), is(1L));
+    assertThat(
+        streamMetrics.getDiscardedBytes(),
+        is((long) RawUdpDataToMTSPacketDecoder.TS_PACKET_SIZE * 2));
+  }
+
+  @Test
+  public void testPacketsOfDatagramShareOneArray() throws Exception {
+
+    int packetCount = 14;
+
+    List<byte[]> packets = createTsPackets(packetCount);
+    for (int i = 0; i < packetCount; i++) {
+      packets.get(i)[4] = (byte) i;
+    }
+
+    PacketBuffer packetBuffer = mock(PacketBuffer.class);
+
+    EmbeddedChannel channel =
+        new EmbeddedChannel(
+            new RawUdpDataToMTSPacketDecoder(packetBuffer, mock(UdpStreamProcessor.class)));
+
+    byte[] data = flatten(packets);
+    int datagramSize = RawUdpDataToMTSPacketDecoder.TS_PACKET_SIZE * (packetCount / 2);
+    for (int offset = 0; offset < data.length; offset += datagramSize) {
+      channel.writeInbound(
+          new DatagramPacket(
+              Unpooled.wrappedBuffer(ArrayUtils.subarray(data, offset, offset + datagramSize)),
+              null,
+              new InetSocketAddress(InetAddress.getLocalHost(), 50000)));
+    }
+
+    assertThat(NettyUtility.read(channel), hasSize(packetCount));
+
+    ArgumentCaptor<ByteBuffer> captor = ArgumentCaptor.forClass(ByteBuffer.class);
+    verify(packetBuffer, times(packetCount)).write(captor.capture());
+    List<ByteBuffer> rawPackets = captor.getAllValues();
+
+    for (int i = 0; i < packetCount; i++) {
+      ByteBuffer rawPacket = rawPackets.get(i);
+      assertThat(rawPacket.remaining(), is(RawUdpDataToMTSPacketDecoder.TS_PACKET_SIZE));
+      assertThat(rawPacket.get(rawPacket.position() + 4), is((byte) i));
+      assertThat(
+          rawPacket.array() == rawPackets.get(i / (packetCount / 2) * (packetCount / 2)).array(),
+          is(true));
+    }
+
+    assertThat(rawPackets.get(0).array() == rawPackets.get(packetCount - 1).array(), is(false));
+  }
+
   /**
    * Create a list of fake MPEG-TS packets.
    *
@@ -115,10 +242,12 @@ public class RawUdpDataToMTSPacketDecoderTest {
    */
   private byte[] flatten(List<byte[]> packets) {
 
-    byte[] bytes = new byte[0];
+    byte[] bytes = new byte[packets.stream().mapToInt(packet -> packet.length).sum()];
 
+    int offset = 0;
     for (byte[] in : packets) {
-      bytes = ArrayUtils.addAll(bytes, in);
+      System.arraycopy(in, 0, bytes, offset, in.length);
+      offset += in.length;
     }
 
     return bytes;
@@ -136,24 +265,14 @@ public class RawUdpDataToMTSPacketDecoderTest {
 
     List<DatagramPacket> datagrams = new LinkedList<>();
 
-    byte[] tmp = bytes;
-
-    while (tmp.length > datagramSize) {
-      byte[] subarray = ArrayUtils.subarray(tmp, 0, datagramSize);
+    for (int offset = 0; offset < bytes.length; offset += datagramSize) {
+      byte[] subarray =
+          ArrayUtils.subarray(bytes, offset, Math.min(offset + datagramSize, bytes.length));
       datagrams.add(
           new DatagramPacket(
               Unpooled.wrappedBuffer(subarray),
               null,
               new InetSocketAddress(InetAddress.getLocalHost(), 50000)));
-      tmp = ArrayUtils.subarray(tmp, datagramSize, tmp.length);
-    }
-
-    if (tmp.length > 0) {
-      datagrams.add(
-          new DatagramPacket(
-              Unpooled.wrappedBuffer(tmp),
-              null,
-              new InetSocketAddress(InetAddress.getLocalHost(), 50000)));
     }
 
     return datagrams;
@@ -0,0 +1,154 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.video.stream.mpegts.netty;
+
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.Assert.assertThat;
+
+import io.netty.bootstrap.Bootstrap;
+import io.netty.channel.Channel;
+import io.netty.channel.ChannelInboundHandlerAdapter;
+import io.netty.channel.EventLoop;
+import io.netty.channel.SingleThreadEventLoop;
+import io.netty.channel.socket.nio.NioDatagramChannel;
+import java.net.InetAddress;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class SharedStreamRuntimeTest {
+
+  private static final int EVENT_LOOP_THREAD_COUNT = 2;
+
+  private static final int SCHEDULER_THREAD_COUNT = 1;
+
+  private static final int ROLLOVER_THREAD_COUNT = 1;
+
+  private SharedStreamRuntime sharedStreamRuntime;
+
+  @Before
+  public void setup() {
+    sharedStreamRuntime =
+        new SharedStreamRuntime(
+            EVENT_LOOP_THREAD_COUNT, SCHEDULER_THREAD_COUNT, ROLLOVER_THREAD_COUNT, false);
+    sharedStreamRuntime.init();
+  }
+
+  @After
+  public void teardown() {
+    sharedStreamRuntime.destroy();
+  }
+
+  /**
+   * Bind many more channels than there are event loop threads and make sure the number of event
+   * loop threads does not grow.
+   */
+  @Test
+  public void testThreadCountIsConstant() throws Exception {
+
+    List<Channel> channels = new ArrayList<>();
+
+    try {
+      for (int i = 0; i < EVENT_LOOP_THREAD_COUNT * 10; i++) {
+        channels.add(
+            new Bootstrap()
+                .group(sharedStreamRuntime.getEventLoopGroup())
+                .channelFactory(sharedStreamRuntime::createDatagramChannel)
+                .handler(new ChannelInboundHandlerAdapter())
+                .bind(InetAddress.getLoopbackAddress(), 0)
+                .sync()
+                .channel());
+      }
+
+      Set<EventLoop> eventLoops =
+          channels.stream().map(Channel::eventLoop).collect(Collectors.toSet());
+
+      assertThat(eventLoops.size(), lessThanOrEqualTo(EVENT_LOOP_THREAD_COUNT));
+      for (EventLoop eventLoop : eventLoops) {
+        assertThat(eventLoop, instanceOf(SingleThreadEventLoop.class));
+      }
+    } finally {
+      for (Channel channel : channels) {
+        channel.close().sync();
+      }
+    }
+  }
+
+  @Test
+  public void testSchedulerThreadCountIsConstant() throws Exception {
+
+    int taskCount = SCHEDULER_THREAD_COUNT * 10;
+
+    CountDownLatch latch = new CountDownLatch(taskCount);
+
+    Set<Thread> threads = ConcurrentHashMap.newKeySet();
+
+    for (int i = 0; i < taskCount; i++) {
+      sharedStreamRuntime
+          .getScheduler()
+          .scheduleAtFixedRate(
+              () -> {
+                threads.add(Thread.currentThread());
+                latch.countDown();
+              },
+              0,
+              10,
+              TimeUnit.MILLISECONDS);
+    }
+
+    assertThat(latch.await(5, TimeUnit.SECONDS), is(true));
+    assertThat(threads.size(), lessThanOrEqualTo(SCHEDULER_THREAD_COUNT));
+  }
+
+  @Test
+  public void testRolloverExecutor() throws Exception {
+    CountDownLatch latch = new CountDownLatch(1);
+    sharedStreamRuntime.getRolloverExecutor().execute(latch::countDown);
+    assertThat(latch.await(5, TimeUnit.SECONDS), is(true));
+  }
+
+  @Test
+  public void testNioDatagramChannel() {
+    assertThat(sharedStreamRuntime.createDatagramChannel(), instanceOf(NioDatagramChannel.class));
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void testNotInitialized() {
+    new SharedStreamRuntime(1, 1, 1, false).getEventLoopGroup();
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidEventLoopThreadCount() {
+    new SharedStreamRuntime(0, 1, 1, false);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidSchedulerThreadCount() {
+    new SharedStreamRuntime(1, 0, 1, false);
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidRolloverThreadCount() {
+    new SharedStreamRuntime(1, 1, 0, false);
+  }
+}
@@ -0,0 +1,126 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.video.stream.mpegts.netty;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import io.netty.buffer.ByteBuf;
+import io.netty.buffer.Unpooled;
+import org.junit.Test;
+
+public class StartCodeScannerTest {
+
+  private static final byte[] BYTES =
+      new byte[] {0x01, 0x00, 0x01, 0x02, 0x00, 0x00, 0x00, 0x01, 0x09, 0x00, 0x00, 0x01};
+
+  @Test
+  public void testFindStartCode() {
+    ByteBuf byteBuf = Unpooled.wrappedBuffer(BYTES);
+    assertThat(StartCodeScanner.findStartCode(byteBuf, 0, BYTES.length), is(8));
+    assertThat(StartCodeScanner.findStartCode(byteBuf, 8, BYTES.length), is(12));
+  }
+
+  @Test
+  public void testFindStartCodeDirect() {
+    ByteBuf byteBuf = Unpooled.directBuffer(BYTES.length).writeBytes(BYTES);
+    assertThat(StartCodeScanner.findStartCode(byteBuf, 0, BYTES.length), is(8));
+    assertThat(StartCodeScanner.findStartCode(byteBuf, 8, BYTES.length), is(12));
+  }
+
+  @Test
+  public void testFindStartCodeWithArrayOffset() {
+    ByteBuf byteBuf = Unpooled.wrappedBuffer(BYTES).slice(5, BYTES.length - 5);
+    assertThat(StartCodeScanner.findStartCode(byteBuf, 0, byteBuf.writerIndex()), is(3));
+  }
+
+  @Test
+  public void testStartCodeNotFound() {
+    ByteBuf byteBuf = Unpooled.wrappedBuffer(BYTES);
+    assertThat(StartCodeScanner.findStartCode(byteBuf, 0, 7), is(-1));
+    assertThat(StartCodeScanner.findStartCode(byteBuf, 0, 0), is(-1));
+  }
+
+  @Test
+  public void testH264Idr() {
+    assertThat(containsH264Idr(0x00, 0x00, 0x01, 0x67, 0x00, 0x00, 0x01, 0x65), is(true));
+    assertThat(containsH264Idr(0x00, 0x00, 0x01, 0x67, 0x00, 0x00, 0x01, 0x41), is(false));
+  }
+
+  @Test
+  public void testH264StartCodeAtEnd() {
+    assertThat(containsH264Idr(0x65, 0x00, 0x00, 0x01), is(false));
+  }
+
+  @Test
+  public void testH265Irap() {
+    for (int nalUnitType = 0; nalUnitType < 64; nalUnitType++) {
+      assertThat(
+          containsH265Irap(0x00, 0x00, 0x01, nalUnitType << 1, 0x01),
+          is(nalUnitType >= 16 && nalUnitType <= 23));
+    }
+  }
+
+  @Test
+  public void testMpeg2IntraCoded() {
+    assertThat(isMpeg2IntraCoded(0x00, 0x00, 0x01, 0x00, 0x00, 0x08), is(true));
+    assertThat(isMpeg2IntraCoded(0x00, 0x00, 0x01, 0x00, 0x00, 0x10), is(false));
+    assertThat(isMpeg2IntraCoded(0x00, 0x00, 0x01, 0x00, 0x00, 0x18), is(false));
+  }
+
+  @Test
+  public void testMpeg2MixedPictures() {
+    assertThat(
+        isMpeg2IntraCoded(0x00, 0x00, 0x01, 0x00, 0x00, 0x08, 0x00, 0x00, 0x01, 0x00, 0x00, 0x10),
+        is(false));
+  }
+
+  @Test
+  public void testMpeg2WithoutPictures() {
+    assertThat(isMpeg2IntraCoded(0x00, 0x00, 0x01, (byte) 0xB3, 0x00, 0x10), is(true));
+  }
+
+  @Test
+  public void testMpeg2InvalidPictureTypeIgnored() {
+    assertThat(isMpeg2IntraCoded(0x00, 0x00, 0x01, 0x00, 0x00, 0x38), is(true));
+  }
+
+  @Test
+  public void testMpeg2TruncatedPictureIgnored() {
+    assertThat(isMpeg2IntraCoded(0x00, 0x00, 0x01, 0x00, 0x00), is(true));
+  }
+
+  private static boolean containsH264Idr(int... bytes) {
+    ByteBuf byteBuf = toByteBuf(bytes);
+    return StartCodeScanner.containsH264Idr(byteBuf, 0, byteBuf.writerIndex());
+  }
+
+  private static boolean containsH265Irap(int... bytes) {
+    ByteBuf byteBuf = toByteBuf(bytes);
+    return StartCodeScanner.containsH265Irap(byteBuf, 0, byteBuf.writerIndex());
+  }
+
+  private static boolean isMpeg2IntraCoded(int... bytes) {
+    ByteBuf byteBuf = toByteBuf(bytes);
+    return StartCodeScanner.isMpeg2IntraCoded(byteBuf, 0, byteBuf.writerIndex());
+  }
+
+  private static ByteBuf toByteBuf(int... bytes) {
+    ByteBuf byteBuf = Unpooled.buffer(bytes.length);
+    for (int b : bytes) {
+      byteBuf.writeByte(b);
+    }
+    return byteBuf;
+  }
+}
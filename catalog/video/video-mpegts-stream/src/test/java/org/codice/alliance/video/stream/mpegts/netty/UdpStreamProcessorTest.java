@@ -13,24 +13,35 @@
  */
 package org.codice.alliance.video.stream.mpegts.netty;
 
+import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.Assert.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
+import com.google.common.util.concurrent.MoreExecutors;
 import ddf.catalog.CatalogFramework;
 import ddf.catalog.data.MetacardType;
 import ddf.security.Subject;
 import ddf.security.audit.SecurityLogger;
 import ddf.security.service.SecurityManager;
 import ddf.security.service.SecurityServiceException;
+import java.io.File;
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
 import org.codice.alliance.video.stream.mpegts.StreamMonitor;
 import org.codice.alliance.video.stream.mpegts.filename.FilenameGenerator;
 import org.codice.alliance.video.stream.mpegts.metacard.MetacardUpdater;
@@ -39,13 +50,18 @@ import org.codice.alliance.video.stream.mpegts.plugins.StreamEndPlugin;
 import org.codice.alliance.video.stream.mpegts.plugins.StreamShutdownPlugin;
 import org.codice.alliance.video.stream.mpegts.rollover.RolloverAction;
 import org.codice.alliance.video.stream.mpegts.rollover.RolloverCondition;
+import org.codice.alliance.video.stream.mpegts.rollover.RolloverQueue;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.osgi.framework.BundleContext;
 import org.osgi.framework.ServiceReference;
 
 public class UdpStreamProcessorTest {
   private final BundleContext mockBundleContext = mock(BundleContext.class);
 
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
   @Test
   public void testCreateChannelHandlers() {
     StreamMonitor streamMonitor = mock(StreamMonitor.class);
@@ -133,10 +149,44 @@ public class UdpStreamProcessorTest {
         new UdpStreamProcessor(streamMonitor, mockBundleContext);
     final StreamCreationPlugin streamCreationPlugin = mock(StreamCreationPlugin.class);
     udpStreamProcessor.setStreamCreationPlugin(streamCreationPlugin);
+    udpStreamProcessor.setStreamRuntime(mockStreamRuntime());
     udpStreamProcessor.init();
     verify(streamCreationPlugin).onCreate(any());
   }
 
+  @Test
+  public void shutdownCancelsScheduledTasks() throws Exception {
+    prepareSubject();
+    final StreamMonitor streamMonitor = mock(StreamMonitor.class);
+    final UdpStreamProcessor udpStreamProcessor =
+        new UdpStreamProcessor(streamMonitor, mockBundleContext);
+    final StreamRuntime streamRuntime = mockStreamRuntime();
+    final ScheduledExecutorService scheduler = streamRuntime.getScheduler();
+    final ScheduledFuture<?> future = mock(ScheduledFuture.class);
+    doReturn(future)
+        .when(scheduler)
+        .scheduleAtFixedRate(any(), anyLong(), anyLong(), any(TimeUnit.class));
+    udpStreamProcessor.setStreamCreationPlugin(mock(StreamCreationPlugin.class));
+    udpStreamProcessor.setStreamShutdownPlugin(mock(StreamShutdownPlugin.class));
+    udpStreamProcessor.setStreamRuntime(streamRuntime);
+
+    udpStreamProcessor.init();
+    udpStreamProcessor.shutdown();
+
+    verify(scheduler)
+        .scheduleAtFixedRate(
+            any(), eq(0L), eq(PacketBuffer.ACTIVITY_LOG_PERIOD), eq(TimeUnit.MILLISECONDS));
+    verify(future).cancel(false);
+  }
+
+  private StreamRuntime mockStreamRuntime() {
+    final StreamRuntime streamRuntime = mock(StreamRuntime.class);
+    final ScheduledExecutorService scheduler = mock(ScheduledExecutorService.class);
+    when(streamRuntime.getScheduler()).thenReturn(scheduler);
+    when(streamRuntime.getRolloverExecutor()).thenReturn(MoreExecutors.directExecutor());
+    return streamRuntime;
+  }
+
   @Test
   public void shutdownCallsStreamShutdownPlugin() throws Exception {
     prepareSubject();
@@ -148,4 +198,58 @@ public class UdpStreamProcessorTest {
     udpStreamProcessor.shutdown();
     verify(streamShutdownPlugin).onShutdown(any());
   }
+
+  /** The rollover action must run on the rollover executor, not on the thread that rotated. */
+  @Test
+  public void doRolloverRunsOnRolloverExecutor() throws Exception {
+    prepareSubject();
+    final List<Runnable> rolloverTasks = new ArrayList<>();
+    final StreamRuntime streamRuntime = mockStreamRuntime();
+    when(streamRuntime.getRolloverExecutor()).thenReturn(rolloverTasks::add);
+    final UdpStreamProcessor udpStreamProcessor =
+        new UdpStreamProcessor(mock(StreamMonitor.class), mockBundleContext);
+    final RolloverAction rolloverAction = mock(RolloverAction.class);
+    udpStreamProcessor.setStreamCreationPlugin(mock(StreamCreationPlugin.class));
+    udpStreamProcessor.setStreamRuntime(streamRuntime);
+    udpStreamProcessor.setRolloverAction(rolloverAction);
+    udpStreamProcessor.init();
+
+    final File tempFile = folder.newFile();
+    udpStreamProcessor.doRollover(tempFile);
+
+    verify(rolloverAction, never()).doAction(any(File.class));
+    assertThat(udpStreamProcessor.getRolloverQueue().getPendingCount(), is(1));
+
+    rolloverTasks.forEach(Runnable::run);
+
+    verify(rolloverAction).doAction(tempFile);
+    assertThat(tempFile.exists(), is(false));
+    assertThat(udpStreamProcessor.getRolloverQueue().getPendingCount(), is(0));
+  }
+
+  /** A full rollover queue postpones the rotation instead of blocking the caller. */
+  @Test
+  public void checkForRolloverIsDeferredWhenQueueIsFull() throws Exception {
+    prepareSubject();
+    final StreamRuntime streamRuntime = mockStreamRuntime();
+    when(streamRuntime.getRolloverExecutor()).thenReturn(task -> {});
+    final UdpStreamProcessor udpStreamProcessor =
+        new UdpStreamProcessor(mock(StreamMonitor.class), mockBundleContext);
+    final RolloverCondition rolloverCondition = mock(RolloverCondition.class);
+    when(rolloverCondition.isRolloverReady(any())).thenReturn(true);
+    udpStreamProcessor.setStreamCreationPlugin(mock(StreamCreationPlugin.class));
+    udpStreamProcessor.setStreamRuntime(streamRuntime);
+    udpStreamProcessor.setRolloverCondition(rolloverCondition);
+    udpStreamProcessor.setRolloverAction(mock(RolloverAction.class));
+    udpStreamProcessor.init();
+
+    for (int i = 0; i < RolloverQueue.DEFAULT_CAPACITY; i++) {
+      udpStreamProcessor.doRollover(folder.newFile());
+    }
+
+    udpStreamProcessor.checkForRollover();
+
+    verify(rolloverCondition, never()).isRolloverReady(any());
+    assertThat(udpStreamProcessor.getRolloverQueue().getDeferredRolloverCount(), is(1L));
+  }
 }
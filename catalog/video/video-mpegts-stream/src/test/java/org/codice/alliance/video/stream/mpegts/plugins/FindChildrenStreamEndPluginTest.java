@@ -26,6 +26,8 @@ import static org.mockito.internal.verification.VerificationModeFactory.times;
 import ddf.catalog.CatalogFramework;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.Result;
+import ddf.catalog.data.impl.AttributeImpl;
+import ddf.catalog.data.types.Associations;
 import ddf.catalog.data.types.Core;
 import ddf.catalog.federation.FederationException;
 import ddf.catalog.filter.proxy.builder.GeotoolsFilterBuilder;
@@ -36,13 +38,21 @@ import ddf.catalog.source.UnsupportedQueryException;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.IntStream;
 import org.codice.alliance.video.stream.mpegts.Context;
+import org.codice.alliance.video.stream.mpegts.ParentAggregate;
 import org.codice.alliance.video.stream.mpegts.netty.UdpStreamProcessor;
 import org.geotools.api.filter.sort.SortOrder;
 import org.junit.Before;
+import org.junit.Rule;
 import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
 import org.mockito.ArgumentCaptor;
 import org.mockito.ArgumentMatchers;
 
@@ -66,12 +76,17 @@ public class FindChildrenStreamEndPluginTest {
 
   private QueryResponse queryResponse2;
 
+  @Rule public TemporaryFolder folder = new TemporaryFolder();
+
   @Before
   public void setup()
       throws UnsupportedQueryException, SourceUnavailableException, FederationException {
     catalogFramework = mock(CatalogFramework.class);
 
     parentMetacard = mock(Metacard.class);
+    when(parentMetacard.getId()).thenReturn("parent");
+    when(parentMetacard.getAttribute(Associations.DERIVED))
+        .thenReturn(new AttributeImpl(Associations.DERIVED, Arrays.asList("child1", "child2")));
 
     metacard1 = mock(Metacard.class);
     metacard2 = mock(Metacard.class);
@@ -96,6 +111,7 @@ public class FindChildrenStreamEndPluginTest {
 
     context = new Context(udpStreamProcessor);
     context.setParentMetacard(parentMetacard);
+    context.setParentAggregateDirectory(folder.getRoot());
 
     handler = mock(FindChildrenStreamEndPlugin.Handler.class);
 
@@ -383,6 +399,54 @@ public class FindChildrenStreamEndPluginTest {
     assertThat(context.modifyParentOrChild(AtomicBoolean::get), is(false));
   }
 
+  /**
+   * When every child is already in the parent aggregate, the children must not be queried and the
+   * parent must be updated from the aggregate.
+   */
+  @Test
+  public void testCompleteParentAggregate()
+      throws UnsupportedQueryException, SourceUnavailableException, FederationException {
+
+    context.modifyParentOrChild(
+        isParentDirty -> {
+          ParentAggregate parentAggregate = context.getParentAggregate("parent");
+          parentAggregate.addChild("child1");
+          parentAggregate.addChild("child2");
+          return null;
+        });
+
+    setIsParentDirty(true);
+
+    findChildrenStreamEndPlugin.streamEnded(context);
+
+    verify(catalogFramework, never()).query(any());
+    verify(handler, never())
+        .handle(ArgumentMatchers.eq(context), ArgumentMatchers.eq(parentMetacard), any(List.class));
+    verify(handler).end(ArgumentMatchers.eq(context), ArgumentMatchers.eq(parentMetacard));
+    assertThat(context.modifyParentOrChild(AtomicBoolean::get), is(false));
+  }
+
+  /** Children that were found by the query must be recorded in the parent aggregate. */
+  @Test
+  public void testQueriedChildrenAddedToParentAggregate()
+      throws UnsupportedQueryException, SourceUnavailableException, FederationException {
+
+    when(metacard1.getId()).thenReturn("child1");
+    when(metacard2.getId()).thenReturn("child2");
+
+    setIsParentDirty(true);
+
+    findChildrenStreamEndPlugin.streamEnded(context);
+
+    assertThat(
+        context.modifyParentOrChild(
+            isParentDirty ->
+                context
+                    .getParentAggregate("parent")
+                    .containsChildren(Arrays.asList("child1", "child2"))),
+        is(true));
+  }
+
   /**
    * Test that when the parent metcard is not dirty, that the catalog framework does not get called.
    */
@@ -397,6 +461,48 @@ public class FindChildrenStreamEndPluginTest {
     verify(catalogFramework, never()).query(ArgumentMatchers.any());
   }
 
+  /**
+   * A slow catalog query must not hold the parent lock of the context, so a child that is stored
+   * while the stream end is being processed can still mark the parent dirty.
+   */
+  @Test
+  public void testParentLockNotHeldDuringCatalogQuery() throws Exception {
+    CountDownLatch queryEntered = new CountDownLatch(1);
+    CountDownLatch queryReleased = new CountDownLatch(1);
+    when(catalogFramework.query(any()))
+        .thenAnswer(
+            invocationOnMock -> {
+              queryEntered.countDown();
+              queryReleased.await(10, TimeUnit.SECONDS);
+              return queryResponse1;
+            })
+        .thenReturn(queryResponse2);
+
+    setIsParentDirty(true);
+
+    ExecutorService executorService = Executors.newFixedThreadPool(2);
+    try {
+      Future<?> streamEnd =
+          executorService.submit(() -> findChildrenStreamEndPlugin.streamEnded(context));
+      assertThat(queryEntered.await(10, TimeUnit.SECONDS), is(true));
+
+      Future<?> childStored = executorService.submit(context::markParentDirty);
+      childStored.get(5, TimeUnit.SECONDS);
+      Future<Boolean> parentAccess =
+          executorService.submit(() -> context.modifyParentOrChild(AtomicBoolean::get));
+      assertThat(parentAccess.get(5, TimeUnit.SECONDS), is(true));
+
+      queryReleased.countDown();
+      streamEnd.get(10, TimeUnit.SECONDS);
+    } finally {
+      queryReleased.countDown();
+      executorService.shutdownNow();
+    }
+
+    verify(handler).end(ArgumentMatchers.eq(context), ArgumentMatchers.eq(parentMetacard));
+    assertThat(context.modifyParentOrChild(AtomicBoolean::get), is(true));
+  }
+
   private void setIsParentDirty(boolean value) {
     context.modifyParentOrChild(
         isParentDirty -> {
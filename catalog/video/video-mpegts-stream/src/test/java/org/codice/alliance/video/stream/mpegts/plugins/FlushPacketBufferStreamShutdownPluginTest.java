@@ -45,5 +45,6 @@ public class FlushPacketBufferStreamShutdownPluginTest {
     flushPacketBufferStreamShutdownPlugin.onShutdown(context);
 
     verify(udpStreamProcessor).doRollover(file);
+    verify(udpStreamProcessor).awaitRollovers();
   }
 }
@@ -30,6 +30,7 @@ import java.util.Collections;
 import org.codice.alliance.libs.klv.AttributeNameConstants;
 import org.codice.alliance.libs.klv.GeometryOperator;
 import org.codice.alliance.video.stream.mpegts.Context;
+import org.codice.alliance.video.stream.mpegts.ParentAggregate;
 import org.junit.Test;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.GeometryFactory;
@@ -67,6 +68,7 @@ public class FrameCenterUpdateFieldTest {
     GeometryOperator.Context geometryOperatorContext = new GeometryOperator.Context();
     geometryOperatorContext.setSubsampleCount(FrameCenterUpdateField.MAX_SIZE * 2);
     when(context.getGeometryOperatorContext()).thenReturn(geometryOperatorContext);
+    when(context.getParentAggregate(any())).thenReturn(new ParentAggregate("parent"));
 
     frameCenterUpdateField.updateField(
         parentMetacard, Collections.singletonList(childMetacard1), context);
@@ -84,6 +86,45 @@ public class FrameCenterUpdateFieldTest {
         geometryOperatorContext.getSubsampleCount(), is(FrameCenterUpdateField.MAX_SIZE * 2));
   }
 
+  /** Children whose frame-center was added while the stream was running must not be added again. */
+  @Test
+  public void testChildrenInParentAggregate() throws ParseException {
+
+    Metacard parentMetacard = mock(Metacard.class);
+    when(parentMetacard.getId()).thenReturn("parent");
+
+    Metacard childMetacard1 = mock(Metacard.class);
+    when(childMetacard1.getId()).thenReturn("child1");
+    when(childMetacard1.getAttribute(AttributeNameConstants.FRAME_CENTER))
+        .thenReturn(
+            new AttributeImpl(AttributeNameConstants.FRAME_CENTER, "LINESTRING (30 10, 10 30)"));
+    Metacard childMetacard2 = mock(Metacard.class);
+    when(childMetacard2.getId()).thenReturn("child2");
+    when(childMetacard2.getAttribute(AttributeNameConstants.FRAME_CENTER))
+        .thenReturn(
+            new AttributeImpl(AttributeNameConstants.FRAME_CENTER, "LINESTRING (50 50, 60 60)"));
+
+    ParentAggregate parentAggregate = new ParentAggregate("parent");
+    parentAggregate.addFrameCenter("child1", new WKTReader().read("LINESTRING (30 10, 10 30)"));
+
+    Context context = mock(Context.class);
+    when(context.getGeometryOperatorContext()).thenReturn(new GeometryOperator.Context());
+    when(context.getParentAggregate("parent")).thenReturn(parentAggregate);
+
+    FrameCenterUpdateField frameCenterUpdateField =
+        new FrameCenterUpdateField(GeometryOperator.IDENTITY, new GeometryFactory());
+
+    frameCenterUpdateField.updateField(
+        parentMetacard, Arrays.asList(childMetacard1, childMetacard2), context);
+    frameCenterUpdateField.end(parentMetacard, context);
+
+    ArgumentCaptor<Attribute> captor = ArgumentCaptor.forClass(Attribute.class);
+
+    verify(parentMetacard).setAttribute(captor.capture());
+
+    assertThat(captor.getValue().getValue(), is("LINESTRING (30 10, 10 30, 50 50, 60 60)"));
+  }
+
   @Test
   public void testForChildrenWithoutFrameCenter() {
 
@@ -100,6 +141,7 @@ public class FrameCenterUpdateFieldTest {
     GeometryOperator.Context geometryOperatorContext = new GeometryOperator.Context();
     geometryOperatorContext.setSubsampleCount(FrameCenterUpdateField.MAX_SIZE * 2);
     when(context.getGeometryOperatorContext()).thenReturn(geometryOperatorContext);
+    when(context.getParentAggregate(any())).thenReturn(new ParentAggregate("parent"));
 
     frameCenterUpdateField.updateField(
         parentMetacard, Collections.singletonList(childMetacard1), context);
@@ -129,6 +171,7 @@ public class FrameCenterUpdateFieldTest {
     geometryOperatorContext.setSubsampleCount(FrameCenterUpdateField.MAX_SIZE * 2);
 
     when(context.getGeometryOperatorContext()).thenReturn(geometryOperatorContext);
+    when(context.getParentAggregate(any())).thenReturn(new ParentAggregate("parent"));
     when(geometryOperator.apply(any(), any())).thenReturn(geometry);
 
     Metacard parentMetacard = mock(Metacard.class);
@@ -164,6 +207,7 @@ public class FrameCenterUpdateFieldTest {
     geometryOperatorContext.setSubsampleCount(FrameCenterUpdateField.MAX_SIZE * 2);
 
     when(context.getGeometryOperatorContext()).thenReturn(geometryOperatorContext);
+    when(context.getParentAggregate(any())).thenReturn(new ParentAggregate("parent"));
 
     Metacard parentMetacard = mock(Metacard.class);
 
@@ -218,6 +262,7 @@ public class FrameCenterUpdateFieldTest {
     geometryOperatorContext.setSubsampleCount(FrameCenterUpdateField.MAX_SIZE * 2);
 
     when(context.getGeometryOperatorContext()).thenReturn(geometryOperatorContext);
+    when(context.getParentAggregate(any())).thenReturn(new ParentAggregate("parent"));
     when(geometryOperator.apply(any(), any())).thenThrow(RuntimeException.class);
 
     Metacard parentMetacard = mock(Metacard.class);
@@ -16,15 +16,18 @@ package org.codice.alliance.video.stream.mpegts.plugins;
 import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoMoreInteractions;
 import static org.mockito.Mockito.when;
 
 import ddf.catalog.data.Attribute;
 import ddf.catalog.data.Metacard;
 import java.util.Arrays;
 import java.util.Collections;
+import org.codice.alliance.libs.klv.FootprintAccumulator;
 import org.codice.alliance.libs.klv.GeometryOperator;
 import org.codice.alliance.video.stream.mpegts.Context;
 import org.junit.Test;
@@ -54,7 +57,7 @@ public class LocationUpdateFieldTest {
     LocationUpdateField locUpdateField =
         new LocationUpdateField(GeometryOperator.IDENTITY, GeometryOperator.IDENTITY);
 
-    Context context = mock(Context.class);
+    Context context = mockContext();
 
     locUpdateField.updateField(parentMetacard, Collections.singletonList(childMetacard1), context);
     locUpdateField.updateField(
@@ -93,7 +96,7 @@ public class LocationUpdateFieldTest {
     LocationUpdateField locUpdateField =
         new LocationUpdateField(GeometryOperator.IDENTITY, GeometryOperator.IDENTITY);
 
-    Context context = mock(Context.class);
+    Context context = mockContext();
 
     locUpdateField.updateField(parentMetacard, Collections.singletonList(childMetacard1), context);
     locUpdateField.updateField(
@@ -127,7 +130,7 @@ public class LocationUpdateFieldTest {
     LocationUpdateField locUpdateField =
         new LocationUpdateField(GeometryOperator.IDENTITY, GeometryOperator.IDENTITY);
 
-    Context context = mock(Context.class);
+    Context context = mockContext();
 
     locUpdateField.updateField(parentMetacard, Collections.singletonList(childMetacard1), context);
     locUpdateField.updateField(
@@ -152,7 +155,7 @@ public class LocationUpdateFieldTest {
     LocationUpdateField locUpdateField =
         new LocationUpdateField(GeometryOperator.IDENTITY, GeometryOperator.IDENTITY);
 
-    Context context = mock(Context.class);
+    Context context = mockContext();
 
     locUpdateField.updateField(parentMetacard, Collections.singletonList(childMetacard1), context);
     locUpdateField.updateField(
@@ -161,4 +164,56 @@ public class LocationUpdateFieldTest {
 
     verify(parentMetacard, never()).setAttribute(any());
   }
+
+  @Test
+  public void testChildrenAlreadyInFootprintAreSkipped() throws ParseException {
+
+    WKTReader wktReader = new WKTReader();
+
+    Metacard parentMetacard = mock(Metacard.class);
+    when(parentMetacard.getId()).thenReturn("parent");
+
+    Metacard childMetacard1 = mock(Metacard.class);
+    when(childMetacard1.getId()).thenReturn("child1");
+    when(childMetacard1.getLocation()).thenReturn("POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0))");
+    Metacard childMetacard2 = mock(Metacard.class);
+    when(childMetacard2.getId()).thenReturn("child2");
+    when(childMetacard2.getLocation()).thenReturn("POLYGON ((10 0, 20 0, 20 10, 10 10, 10 0))");
+
+    FootprintAccumulator footprint = new FootprintAccumulator();
+    footprint.add("child1", wktReader.read("POLYGON ((0 0, 10 0, 10 10, 0 10, 0 0))"));
+
+    Context context = mock(Context.class);
+    when(context.getParentFootprint("parent")).thenReturn(footprint);
+
+    GeometryOperator preUnionGeometryOperator = mock(GeometryOperator.class);
+    when(preUnionGeometryOperator.apply(any(), any()))
+        .thenAnswer(invocation -> invocation.getArgument(0));
+
+    LocationUpdateField locUpdateField =
+        new LocationUpdateField(preUnionGeometryOperator, GeometryOperator.IDENTITY);
+
+    locUpdateField.updateField(
+        parentMetacard, Arrays.asList(childMetacard1, childMetacard2), context);
+    locUpdateField.end(parentMetacard, context);
+
+    verify(preUnionGeometryOperator)
+        .apply(eq(wktReader.read("POLYGON ((10 0, 20 0, 20 10, 10 10, 10 0))")), any());
+    verifyNoMoreInteractions(preUnionGeometryOperator);
+
+    ArgumentCaptor<Attribute> captor = ArgumentCaptor.forClass(Attribute.class);
+
+    verify(parentMetacard).setAttribute(captor.capture());
+
+    Geometry expected = wktReader.read("POLYGON ((0 0, 0 10, 20 10, 20 0, 0 0))").norm();
+    Geometry actual = wktReader.read((String) captor.getValue().getValue()).norm();
+
+    assertThat(actual.equalsTopo(expected), is(true));
+  }
+
+  private Context mockContext() {
+    Context context = mock(Context.class);
+    when(context.getParentFootprint(any())).thenReturn(new FootprintAccumulator());
+    return context;
+  }
 }
@@ -26,6 +26,7 @@ import org.codice.alliance.video.stream.mpegts.Context;
 import org.codice.alliance.video.stream.mpegts.filename.FilenameGenerator;
 import org.codice.alliance.video.stream.mpegts.metacard.MetacardUpdater;
 import org.codice.alliance.video.stream.mpegts.netty.UdpStreamProcessor;
+import org.codice.alliance.video.stream.mpegts.rollover.RolloverQueue;
 import org.codice.ddf.platform.util.uuidgenerator.UuidGenerator;
 import org.junit.Test;
 
@@ -43,6 +44,7 @@ public class RolloverStreamCreationPluginTest {
     when(udpStreamProcessor.getCatalogFramework()).thenReturn(mock(CatalogFramework.class));
     when(udpStreamProcessor.getParentMetacardUpdater()).thenReturn(mock(MetacardUpdater.class));
     when(udpStreamProcessor.getSubjectOperations()).thenReturn(mock(SubjectOperations.class));
+    when(udpStreamProcessor.getRolloverQueue()).thenReturn(new RolloverQueue());
 
     UuidGenerator uuidGenerator = mock(UuidGenerator.class);
     when(uuidGenerator.generateUuid()).thenReturn("anId");
@@ -17,7 +17,6 @@ import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import java.util.Timer;
 import org.codice.alliance.video.stream.mpegts.Context;
 import org.codice.alliance.video.stream.mpegts.netty.UdpStreamProcessor;
 import org.junit.Test;
@@ -29,15 +28,13 @@ public class TimerStreamShutdownPluginTest {
 
     Context context = mock(Context.class);
     UdpStreamProcessor udpStreamProcessor = mock(UdpStreamProcessor.class);
-    Timer timer = mock(Timer.class);
 
     when(context.getUdpStreamProcessor()).thenReturn(udpStreamProcessor);
-    when(udpStreamProcessor.getTimer()).thenReturn(timer);
 
     TimerStreamShutdownPlugin timerStreamShutdownPlugin = new TimerStreamShutdownPlugin();
 
     timerStreamShutdownPlugin.onShutdown(context);
 
-    verify(timer).cancel();
+    verify(udpStreamProcessor).cancelScheduledTasks();
   }
 }
@@ -13,62 +13,79 @@
  */
 package org.codice.alliance.video.stream.mpegts.plugins;
 
-import static org.mockito.Mockito.after;
-import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.doAnswer;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import ddf.security.Subject;
-import java.util.Timer;
+import java.util.concurrent.TimeUnit;
 import org.codice.alliance.video.stream.mpegts.Context;
 import org.codice.alliance.video.stream.mpegts.netty.UdpStreamProcessor;
 import org.junit.Test;
+import org.mockito.ArgumentCaptor;
 
 public class TimerTaskStreamCreationPluginTest {
 
   /**
-   * Use a real Timer instead of a mock timer to make sure the timer task is scheduled correctly and
-   * calls the checkRollover method.
+   * Capture the task that is scheduled on the shared scheduler and run it to make sure it is
+   * scheduled with the correct period and calls the checkRollover method.
    *
    * @throws StreamCreationException
-   * @throws InterruptedException
    */
   @Test
-  public void testOnCreate() throws StreamCreationException, InterruptedException {
+  public void testOnCreate() throws StreamCreationException {
 
     long period = 100;
 
-    Timer timer = new Timer();
+    Context context = mock(Context.class);
+    UdpStreamProcessor udpStreamProcessor = mock(UdpStreamProcessor.class);
+    Subject subject = mock(Subject.class);
 
-    try {
-      Context context = mock(Context.class);
-      UdpStreamProcessor udpStreamProcessor = mock(UdpStreamProcessor.class);
-      Subject subject = mock(Subject.class);
+    when(context.getUdpStreamProcessor()).thenReturn(udpStreamProcessor);
+    when(udpStreamProcessor.getSubject()).thenReturn(subject);
 
-      when(context.getUdpStreamProcessor()).thenReturn(udpStreamProcessor);
-      when(udpStreamProcessor.getTimer()).thenReturn(timer);
-      when(udpStreamProcessor.getSubject()).thenReturn(subject);
+    doAnswer(
+            invocation -> {
+              Runnable runnable = invocation.getArgument(0);
+              runnable.run();
+              return null;
+            })
+        .when(subject)
+        .execute(any(Runnable.class));
 
-      doAnswer(
-              invocation -> {
-                Runnable runnable = invocation.getArgument(0);
-                runnable.run();
-                return null;
-              })
-          .when(subject)
-          .execute(org.mockito.ArgumentMatchers.any(Runnable.class));
+    TimerTaskStreamCreationPlugin timerTaskStreamCreationPlugin =
+        new TimerTaskStreamCreationPlugin(period);
 
-      TimerTaskStreamCreationPlugin timerTaskStreamCreationPlugin =
-          new TimerTaskStreamCreationPlugin(period);
+    timerTaskStreamCreationPlugin.onCreate(context);
 
-      timerTaskStreamCreationPlugin.onCreate(context);
+    ArgumentCaptor<Runnable> taskCaptor = ArgumentCaptor.forClass(Runnable.class);
+    verify(udpStreamProcessor)
+        .scheduleAtFixedRate(
+            taskCaptor.capture(), eq(period), eq(period), eq(TimeUnit.MILLISECONDS));
 
-      verify(udpStreamProcessor, after((int) period * 2).atLeastOnce()).checkForRollover();
-      verify(subject, atLeastOnce()).execute(org.mockito.ArgumentMatchers.any(Runnable.class));
-    } finally {
-      timer.cancel();
-    }
+    taskCaptor.getValue().run();
+
+    verify(udpStreamProcessor).checkForRollover();
+    verify(subject).execute(any(Runnable.class));
+  }
+
+  @Test
+  public void testTaskSwallowsExceptions() throws StreamCreationException {
+
+    Context context = mock(Context.class);
+    UdpStreamProcessor udpStreamProcessor = mock(UdpStreamProcessor.class);
+
+    when(context.getUdpStreamProcessor()).thenReturn(udpStreamProcessor);
+    when(udpStreamProcessor.getSubject()).thenThrow(RuntimeException.class);
+
+    new TimerTaskStreamCreationPlugin(100).onCreate(context);
+
+    ArgumentCaptor<Runnable> taskCaptor = ArgumentCaptor.forClass(Runnable.class);
+    verify(udpStreamProcessor).scheduleAtFixedRate(taskCaptor.capture(), eq(100L), eq(100L), any());
+
+    taskCaptor.getValue().run();
   }
 }
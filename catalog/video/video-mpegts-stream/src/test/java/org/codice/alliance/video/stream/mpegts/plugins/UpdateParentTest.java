@@ -17,6 +17,8 @@ import static org.hamcrest.Matchers.is;
 import static org.junit.Assert.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -29,13 +31,35 @@ import ddf.catalog.source.IngestException;
 import ddf.catalog.source.SourceUnavailableException;
 import java.util.Collections;
 import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Function;
 import org.codice.alliance.video.stream.mpegts.Context;
+import org.codice.alliance.video.stream.mpegts.SimpleSubject;
+import org.codice.alliance.video.stream.mpegts.metrics.StreamMetrics;
+import org.codice.alliance.video.stream.mpegts.netty.StreamRuntime;
 import org.codice.alliance.video.stream.mpegts.netty.UdpStreamProcessor;
+import org.junit.After;
+import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
 
 public class UpdateParentTest {
 
+  private ScheduledExecutorService scheduler;
+
+  @Before
+  public void setup() {
+    scheduler = Executors.newSingleThreadScheduledExecutor();
+  }
+
+  @After
+  public void tearDown() {
+    scheduler.shutdownNow();
+  }
+
   /** Test that #handle calls the UpdateField object */
   @Test
   public void testHandle() {
@@ -56,7 +80,7 @@ public class UpdateParentTest {
 
   /** Test that #end calls the catalog framework */
   @Test
-  public void testEnd() throws SourceUnavailableException, IngestException {
+  public void testEnd() throws Exception {
 
     UpdateParent.UpdateField updateField = mock(UpdateParent.UpdateField.class);
 
@@ -66,9 +90,19 @@ public class UpdateParentTest {
     CatalogFramework catalogFramework = mock(CatalogFramework.class);
     when(udpStreamProcessor.getCatalogFramework()).thenReturn(catalogFramework);
     when(udpStreamProcessor.getMetacardUpdateInitialDelay()).thenReturn(1L);
+    when(udpStreamProcessor.getSubject()).thenReturn(new SimpleSubject());
+    StreamRuntime streamRuntime = mock(StreamRuntime.class);
+    when(streamRuntime.getScheduler()).thenReturn(scheduler);
+    when(udpStreamProcessor.getStreamRuntime()).thenReturn(streamRuntime);
 
+    StreamMetrics streamMetrics = new StreamMetrics();
     Context context = mock(Context.class);
     when(context.getUdpStreamProcessor()).thenReturn(udpStreamProcessor);
+    when(context.getStreamMetrics()).thenReturn(streamMetrics);
+    when(context.modifyParentOrChild(any()))
+        .thenAnswer(
+            invocation ->
+                invocation.<Function<AtomicBoolean, ?>>getArgument(0).apply(new AtomicBoolean()));
 
     Metacard parent = mock(Metacard.class);
 
@@ -85,9 +119,34 @@ public class UpdateParentTest {
 
     ArgumentCaptor<UpdateRequest> captor = ArgumentCaptor.forClass(UpdateRequest.class);
 
-    verify(catalogFramework).update(captor.capture());
+    verify(catalogFramework, timeout(5000)).update(captor.capture());
+    scheduler.shutdown();
+    assertThat(scheduler.awaitTermination(5, TimeUnit.SECONDS), is(true));
 
     assertThat(captor.getValue().getUpdates().get(0).getValue(), is(parent));
+    assertThat(streamMetrics.getCatalogUpdateCount(), is(1L));
+  }
+
+  /** Test that #end does not update the catalog without a security subject */
+  @Test
+  public void testEndWithoutSubject() throws SourceUnavailableException, IngestException {
+
+    UpdateParent.UpdateField updateField = mock(UpdateParent.UpdateField.class);
+
+    UpdateParent updateParent = new UpdateParent(updateField);
+
+    UdpStreamProcessor udpStreamProcessor = mock(UdpStreamProcessor.class);
+    CatalogFramework catalogFramework = mock(CatalogFramework.class);
+    when(udpStreamProcessor.getCatalogFramework()).thenReturn(catalogFramework);
+
+    Context context = mock(Context.class);
+    when(context.getUdpStreamProcessor()).thenReturn(udpStreamProcessor);
+
+    Metacard parent = mock(Metacard.class);
+
+    updateParent.end(context, parent);
+
+    verify(catalogFramework, never()).update(any(UpdateRequest.class));
   }
 
   @Test(expected = IllegalStateException.class)
@@ -19,11 +19,14 @@ import static org.junit.Assert.assertThat;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
 import ddf.catalog.CatalogFramework;
+import ddf.catalog.content.data.ContentItem;
 import ddf.catalog.content.operation.CreateStorageRequest;
 import ddf.catalog.data.Attribute;
 import ddf.catalog.data.AttributeDescriptor;
@@ -49,27 +52,39 @@ import ddf.security.Subject;
 import ddf.security.service.impl.SubjectUtils;
 import java.io.File;
 import java.net.URI;
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.Date;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.stream.Collectors;
 import org.codice.alliance.catalog.core.api.types.VideoStream;
 import org.codice.alliance.libs.klv.AttributeNameConstants;
 import org.codice.alliance.video.stream.mpegts.Context;
+import org.codice.alliance.video.stream.mpegts.ParentAggregate;
 import org.codice.alliance.video.stream.mpegts.SimpleSubject;
 import org.codice.alliance.video.stream.mpegts.filename.FilenameGenerator;
 import org.codice.alliance.video.stream.mpegts.metacard.ListMetacardUpdater;
 import org.codice.alliance.video.stream.mpegts.metacard.ModifiedDateMetacardUpdater;
 import org.codice.alliance.video.stream.mpegts.metacard.TemporalEndMetacardUpdater;
 import org.codice.alliance.video.stream.mpegts.metacard.TemporalStartMetacardUpdater;
+import org.codice.alliance.video.stream.mpegts.netty.KeyframeIndex;
 import org.codice.alliance.video.stream.mpegts.netty.PacketBuffer;
 import org.codice.alliance.video.stream.mpegts.netty.StreamProcessor;
+import org.codice.alliance.video.stream.mpegts.netty.StreamRuntime;
 import org.codice.alliance.video.stream.mpegts.netty.UdpStreamProcessor;
 import org.codice.ddf.platform.util.uuidgenerator.UuidGenerator;
 import org.codice.ddf.security.Security;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Rule;
 import org.junit.Test;
@@ -104,8 +119,12 @@ public class CatalogRolloverActionTest {
 
   private PacketBuffer packetBuffer;
 
+  private Context context;
+
   private final String streamId = UUID.randomUUID().toString();
 
+  private ScheduledExecutorService scheduler;
+
   @Rule public TemporaryFolder folder = new TemporaryFolder();
 
   @Before
@@ -131,12 +150,17 @@ public class CatalogRolloverActionTest {
     when(udpStreamProcessor.getStreamId()).thenReturn(streamId);
     when(udpStreamProcessor.getSubject()).thenReturn(new SimpleSubject());
 
+    scheduler = Executors.newSingleThreadScheduledExecutor();
+    StreamRuntime streamRuntime = mock(StreamRuntime.class);
+    when(streamRuntime.getScheduler()).thenReturn(scheduler);
+    when(udpStreamProcessor.getStreamRuntime()).thenReturn(streamRuntime);
+
     packetBuffer = mock(PacketBuffer.class);
     when(packetBuffer.getLastSegmentStart()).thenReturn(-1l);
     when(packetBuffer.getLastSegmentEnd()).thenReturn(-1l);
     when(udpStreamProcessor.getPacketBuffer()).thenReturn(packetBuffer);
 
-    Context context = new Context(udpStreamProcessor);
+    context = new Context(udpStreamProcessor);
 
     when(udpStreamProcessor.getMetacardTypeList())
         .thenReturn(Collections.singletonList(metacardType));
@@ -168,9 +192,11 @@ public class CatalogRolloverActionTest {
             new SubjectUtils());
 
     createdParentMetacard = mock(Metacard.class);
+    when(createdParentMetacard.getId()).thenReturn("parentId");
     when(createdParentMetacard.getMetacardType()).thenReturn(metacardType);
 
     context.setParentMetacard(createdParentMetacard);
+    context.setParentAggregateDirectory(folder.getRoot());
     context.getGeometryOperatorContext().setDistanceTolerance(0.0025);
 
     createdChildMetacard = mock(Metacard.class);
@@ -217,6 +243,11 @@ public class CatalogRolloverActionTest {
         .thenReturn(new AttributeImpl(AttributeNameConstants.TEMPORAL_END, TEMPORAL_END_DATE));
   }
 
+  @After
+  public void tearDown() {
+    scheduler.shutdownNow();
+  }
+
   /** Test that the parent update succeeded after an initial failure. */
   @Test
   public void testRetry()
@@ -231,7 +262,7 @@ public class CatalogRolloverActionTest {
 
     ArgumentCaptor<UpdateRequest> argumentCaptor = ArgumentCaptor.forClass(UpdateRequest.class);
 
-    verify(catalogFramework, times(2)).update(argumentCaptor.capture());
+    verify(catalogFramework, timeout(5000).times(2)).update(argumentCaptor.capture());
 
     ArgumentCaptor<Attribute> attributeCaptor = ArgumentCaptor.forClass(Attribute.class);
     verify(createdParentMetacard, atLeastOnce()).setAttribute(attributeCaptor.capture());
@@ -253,7 +284,7 @@ public class CatalogRolloverActionTest {
 
     ArgumentCaptor<UpdateRequest> argumentCaptor = ArgumentCaptor.forClass(UpdateRequest.class);
 
-    verify(catalogFramework).update(argumentCaptor.capture());
+    verify(catalogFramework, timeout(5000)).update(argumentCaptor.capture());
 
     ArgumentCaptor<Attribute> attributeCaptor = ArgumentCaptor.forClass(Attribute.class);
     verify(createdParentMetacard, atLeastOnce()).setAttribute(attributeCaptor.capture());
@@ -275,7 +306,7 @@ public class CatalogRolloverActionTest {
 
     ArgumentCaptor<UpdateRequest> argumentCaptor = ArgumentCaptor.forClass(UpdateRequest.class);
 
-    verify(catalogFramework).update(argumentCaptor.capture());
+    verify(catalogFramework, timeout(5000)).update(argumentCaptor.capture());
 
     ArgumentCaptor<Attribute> attributeCaptor = ArgumentCaptor.forClass(Attribute.class);
     verify(createdParentMetacard, atLeastOnce()).setAttribute(attributeCaptor.capture());
@@ -294,8 +325,7 @@ public class CatalogRolloverActionTest {
       throws RolloverActionException, SourceUnavailableException, IngestException {
     long start = System.currentTimeMillis() - 10000;
     long end = System.currentTimeMillis();
-    when(packetBuffer.getLastSegmentStart()).thenReturn(start);
-    when(packetBuffer.getLastSegmentEnd()).thenReturn(end);
+    context.setSegmentInterval(start, end);
     MetacardImpl metacard = new MetacardImpl();
     catalogRolloverAction.doAction(metacard, tempFile);
 
@@ -308,6 +338,150 @@ public class CatalogRolloverActionTest {
     assertThat(metacard.getAttribute(Media.DURATION).getValue(), is((end - start) / 1000));
   }
 
+  /**
+   * Children that are stored before the queued parent update runs must be merged into a single
+   * parent update.
+   */
+  @Test
+  public void testParentUpdatesAreCoalesced() throws Exception {
+    List<Runnable> queuedTasks = new ArrayList<>();
+    RolloverQueue rolloverQueue =
+        new RolloverQueue(queuedTasks::add, RolloverQueue.DEFAULT_CAPACITY);
+    catalogRolloverAction.setRolloverQueue(rolloverQueue);
+
+    when(catalogFramework.update(any(UpdateRequest.class))).thenReturn(parentUpdateResponse);
+
+    catalogRolloverAction.doAction(tempFile);
+    catalogRolloverAction.doAction(tempFile);
+    catalogRolloverAction.doAction(tempFile);
+
+    verify(catalogFramework, never()).update(any(UpdateRequest.class));
+
+    while (!queuedTasks.isEmpty()) {
+      queuedTasks.remove(0).run();
+    }
+
+    verify(catalogFramework, times(3)).create(any(CreateStorageRequest.class));
+    verify(catalogFramework, timeout(5000)).update(any(UpdateRequest.class));
+    assertThat(rolloverQueue.getCoalescedUpdateCount(), is(2L));
+  }
+
+  /**
+   * A slow catalog must not hold the parent lock of the context, otherwise the stream-end plugins
+   * and a shutdown of the same stream would wait for the catalog.
+   */
+  @Test
+  public void testParentLockNotHeldDuringCatalogCreate() throws Exception {
+    CountDownLatch createEntered = new CountDownLatch(1);
+    CountDownLatch createReleased = new CountDownLatch(1);
+    CreateResponse storageCreateResponse = mock(CreateResponse.class);
+    when(storageCreateResponse.getCreatedMetacards())
+        .thenReturn(Collections.singletonList(createdChildMetacard));
+    when(catalogFramework.create(any(CreateStorageRequest.class)))
+        .thenAnswer(
+            invocation -> {
+              createEntered.countDown();
+              createReleased.await(10, TimeUnit.SECONDS);
+              return storageCreateResponse;
+            });
+
+    ExecutorService executorService = Executors.newFixedThreadPool(2);
+    try {
+      Future<?> rollover = executorService.submit(() -> catalogRolloverAction.doAction(tempFile));
+      assertThat(createEntered.await(10, TimeUnit.SECONDS), is(true));
+
+      Future<Boolean> parentAccess =
+          executorService.submit(() -> context.modifyParentOrChild(AtomicBoolean::get));
+      assertThat(parentAccess.get(5, TimeUnit.SECONDS), is(false));
+
+      createReleased.countDown();
+      rollover.get(10, TimeUnit.SECONDS);
+      assertThat(context.modifyParentOrChild(AtomicBoolean::get), is(true));
+    } finally {
+      createReleased.countDown();
+      executorService.shutdownNow();
+    }
+  }
+
+  /**
+   * Each stored child must be merged into the parent aggregate, and the aggregate must be saved so
+   * that another context for the same parent starts from it.
+   */
+  @Test
+  public void testParentAggregateSnapshot() throws Exception {
+    when(createdChildMetacard.getId()).thenReturn("childId");
+
+    catalogRolloverAction.doAction(tempFile);
+
+    assertThat(ParentAggregate.getSnapshotFile(folder.getRoot(), "parentId").isFile(), is(true));
+
+    UdpStreamProcessor udpStreamProcessor = mock(UdpStreamProcessor.class);
+    Context restoredContext = new Context(udpStreamProcessor);
+    restoredContext.setParentAggregateDirectory(folder.getRoot());
+
+    assertThat(
+        restoredContext
+            .getParentAggregate("parentId")
+            .containsChildren(Collections.singletonList("childId")),
+        is(true));
+  }
+
+  /** The snapshot of a parent is rewritten at most once per save interval. */
+  @Test
+  public void testParentAggregateSnapshotIsThrottled() throws Exception {
+    context.setParentAggregateSaveIntervalMillis(TimeUnit.HOURS.toMillis(1));
+    when(createdChildMetacard.getId()).thenReturn("childId1");
+    catalogRolloverAction.doAction(tempFile);
+    when(createdChildMetacard.getId()).thenReturn("childId2");
+    catalogRolloverAction.doAction(tempFile);
+    verify(catalogFramework, timeout(5000).times(2)).update(any(UpdateRequest.class));
+
+    assertThat(
+        context
+            .getParentAggregate("parentId")
+            .containsChildren(Arrays.asList("childId1", "childId2")),
+        is(true));
+
+    ParentAggregate snapshot =
+        ParentAggregate.read(ParentAggregate.getSnapshotFile(folder.getRoot(), "parentId"));
+    assertThat(snapshot.containsChildren(Collections.singletonList("childId1")), is(true));
+    assertThat(snapshot.containsChildren(Collections.singletonList("childId2")), is(false));
+  }
+
+  @Test
+  public void testKeyframeIndexStoredAsDerivedContent() throws Exception {
+    KeyframeIndex keyframeIndex = new KeyframeIndex();
+    keyframeIndex.add(0, 3600);
+    keyframeIndex.write(KeyframeIndex.getIndexFile(tempFile));
+    MetacardImpl metacard = new MetacardImpl();
+
+    catalogRolloverAction.doAction(metacard, tempFile);
+
+    ArgumentCaptor<CreateStorageRequest> argumentCaptor =
+        ArgumentCaptor.forClass(CreateStorageRequest.class);
+    verify(catalogFramework).create(argumentCaptor.capture());
+
+    List<ContentItem> contentItems = argumentCaptor.getValue().getContentList();
+    assertThat(contentItems, hasSize(2));
+    assertThat(
+        contentItems.get(1).getQualifier(), is(CatalogRolloverAction.KEYFRAME_INDEX_QUALIFIER));
+    assertThat(contentItems.get(1).getId(), is(contentItems.get(0).getId()));
+    assertThat(
+        metacard.getAttribute(Core.DERIVED_RESOURCE_URI).getValue(),
+        is(contentItems.get(1).getUri()));
+  }
+
+  @Test
+  public void testNoKeyframeIndex() throws Exception {
+    catalogRolloverAction.doAction(new MetacardImpl(), tempFile);
+
+    ArgumentCaptor<CreateStorageRequest> argumentCaptor =
+        ArgumentCaptor.forClass(CreateStorageRequest.class);
+    verify(catalogFramework).create(argumentCaptor.capture());
+
+    assertThat(argumentCaptor.getValue().getContentList(), hasSize(1));
+  }
+
   @Test
   public void testStreamId() throws Exception {
     final MetacardImpl metacard = mock(MetacardImpl.class);
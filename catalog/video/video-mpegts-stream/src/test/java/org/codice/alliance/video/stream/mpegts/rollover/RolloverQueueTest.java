@@ -0,0 +1,113 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.video.stream.mpegts.rollover;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+public class RolloverQueueTest {
+
+  private ExecutorService executor;
+
+  @Before
+  public void setup() {
+    executor = Executors.newFixedThreadPool(4);
+  }
+
+  @After
+  public void teardown() {
+    executor.shutdownNow();
+  }
+
+  /** Tasks run one at a time in submission order, even though the executor has several threads. */
+  @Test
+  public void testTasksRunInOrder() throws Exception {
+    RolloverQueue rolloverQueue = new RolloverQueue(executor, RolloverQueue.DEFAULT_CAPACITY);
+
+    List<Integer> order = new ArrayList<>();
+    for (int i = 0; i < 100; i++) {
+      int value = i;
+      rolloverQueue.execute(() -> order.add(value));
+    }
+
+    assertThat(rolloverQueue.awaitIdle(5, TimeUnit.SECONDS), is(true));
+    assertThat(order.size(), is(100));
+    for (int i = 0; i < 100; i++) {
+      assertThat(order.get(i), is(i));
+    }
+    assertThat(rolloverQueue.getPendingCount(), is(0));
+  }
+
+  @Test
+  public void testIsFull() {
+    List<Runnable> tasks = new ArrayList<>();
+    RolloverQueue rolloverQueue = new RolloverQueue(tasks::add, 2);
+
+    rolloverQueue.execute(() -> {});
+    assertThat(rolloverQueue.isFull(), is(false));
+    rolloverQueue.execute(() -> {});
+    assertThat(rolloverQueue.isFull(), is(true));
+
+    tasks.forEach(Runnable::run);
+
+    assertThat(rolloverQueue.isFull(), is(false));
+    assertThat(rolloverQueue.getMaxPendingCount(), is(2));
+    assertThat(rolloverQueue.getCompletedCount(), is(2L));
+  }
+
+  @Test
+  public void testFailedTaskDoesNotStopQueue() {
+    List<String> results = new ArrayList<>();
+    RolloverQueue rolloverQueue = new RolloverQueue();
+
+    rolloverQueue.execute(
+        () -> {
+          throw new IllegalStateException("expected");
+        });
+    rolloverQueue.execute(() -> results.add("second"));
+
+    assertThat(results, contains("second"));
+    assertThat(rolloverQueue.getFailedCount(), is(1L));
+    assertThat(rolloverQueue.getSubmittedCount(), is(2L));
+  }
+
+  /** Waiting for the queue must not be counted as rollover work. */
+  @Test
+  public void testAwaitIdleIsNotCounted() throws Exception {
+    RolloverQueue rolloverQueue = new RolloverQueue(executor, 1);
+
+    rolloverQueue.execute(() -> {});
+
+    assertThat(rolloverQueue.awaitIdle(5, TimeUnit.SECONDS), is(true));
+    assertThat(rolloverQueue.getSubmittedCount(), is(1L));
+    assertThat(rolloverQueue.getCompletedCount(), is(1L));
+    assertThat(rolloverQueue.getMaxPendingCount(), is(1));
+    assertThat(rolloverQueue.getPendingCount(), is(0));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidCapacity() {
+    new RolloverQueue(executor, 0);
+  }
+}
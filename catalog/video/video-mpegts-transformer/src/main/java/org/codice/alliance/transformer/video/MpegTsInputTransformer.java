@@ -27,26 +27,30 @@ import ddf.catalog.transform.CatalogTransformerException;
 import ddf.catalog.transform.InputTransformer;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
 import java.io.Serializable;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 import org.apache.commons.io.IOUtils;
+import org.apache.commons.io.output.TeeOutputStream;
 import org.codice.alliance.libs.klv.AttributeNameConstants;
 import org.codice.alliance.libs.klv.BaseKlvProcessorVisitor;
 import org.codice.alliance.libs.klv.KlvHandler;
 import org.codice.alliance.libs.klv.KlvHandlerFactory;
 import org.codice.alliance.libs.klv.KlvProcessor;
 import org.codice.alliance.libs.klv.SecurityClassificationKlvProcessor;
+import org.codice.alliance.libs.klv.Stanag4609PacketDecoder;
 import org.codice.alliance.libs.klv.Stanag4609ParseException;
-import org.codice.alliance.libs.klv.Stanag4609Parser;
 import org.codice.alliance.libs.klv.Stanag4609Processor;
 import org.codice.alliance.libs.klv.StanagParserFactory;
 import org.codice.alliance.libs.mpegts.MpegStreamType;
 import org.codice.alliance.libs.mpegts.PESPacket;
-import org.codice.alliance.libs.mpegts.TSStream;
-import org.codice.alliance.libs.stanag4609.DecodedKLVMetadataPacket;
+import org.codice.alliance.libs.mpegts.TSDemuxOutputStream;
 import org.codice.ddf.platform.util.TemporaryFileBackedOutputStream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -85,6 +89,9 @@ public class MpegTsInputTransformer implements InputTransformer {
 
   private Function<MpegStreamType, String> streamTypeToString = MpegStreamType::toString;
 
+  private Function<Consumer<PESPacket>, OutputStream> demuxOutputStreamFactory =
+      TSDemuxOutputStream::new;
+
   private Double distanceTolerance;
 
   /**
@@ -185,20 +192,43 @@ public class MpegTsInputTransformer implements InputTransformer {
         });
   }
 
+  /**
+   * The content is demultiplexed while it is copied to a temporary file. Each KLV packet is decoded
+   * and passed to the KLV handlers as soon as it is complete, and the stream types are collected at
+   * the same time, so the only other read of the content is the one made by the inner transformer.
+   * Only the data elements that have a handler are decoded. The demultiplexer is closed before the
+   * results are used, so that the last KLV packet of the content is also decoded. Content that
+   * cannot be demultiplexed still produces a metacard, without the metadata that was lost.
+   */
   @Override
   public Metacard transform(InputStream inputStream, final String id)
       throws IOException, CatalogTransformerException {
 
+    Map<String, KlvHandler> handlers = klvHandlerFactory.createStanag4609Handlers();
+
+    TransportStreamScanner scanner =
+        new TransportStreamScanner(
+            handlers, stanagParserFactory.createPacketDecoder(handlers.keySet()));
+
     try (TemporaryFileBackedOutputStream fileBackedOutputStream =
         new TemporaryFileBackedOutputStream()) {
 
-      populateFileBackedOutputStream(inputStream, fileBackedOutputStream);
+      try (OutputStream demuxOutputStream = demuxOutputStreamFactory.apply(scanner)) {
+        populateFileBackedOutputStream(
+            inputStream, new TeeOutputStream(fileBackedOutputStream, demuxOutputStream));
+      } catch (IOException e) {
+        LOGGER.debug(
+            "unable to demultiplex the MPEG-TS content, the STANAG 4609 metadata may be incomplete",
+            e);
+      }
+
+      scanner.throwParseException();
 
       MetacardImpl metacard = extractInnerTransformerMetadata(id, fileBackedOutputStream);
 
-      extractStanag4609Metadata(metacard, fileBackedOutputStream);
+      extractStanag4609Metadata(metacard, handlers);
 
-      extractMediaEncodings(metacard, fileBackedOutputStream);
+      setMediaEncodings(metacard, scanner.getStreamTypes());
 
       metacard.setAttribute(Core.DATATYPE, DATA_TYPE);
 
@@ -206,24 +236,19 @@ public class MpegTsInputTransformer implements InputTransformer {
     }
   }
 
-  private void extractMediaEncodings(Metacard metacard, TemporaryFileBackedOutputStream fbos)
-      throws IOException {
+  private void setMediaEncodings(Metacard metacard, Set<MpegStreamType> streamTypes) {
 
     List<Serializable> serializables =
-        TSStream.from(fbos.asByteSource())
-            .map(PESPacket::getStreamType)
-            .distinct()
-            .map(streamTypeToString)
-            .collect(Collectors.<Serializable>toList());
+        streamTypes.stream().map(streamTypeToString).collect(Collectors.<Serializable>toList());
 
     metacard.setAttribute(new AttributeImpl(AttributeNameConstants.MEDIA_ENCODING, serializables));
   }
 
   private void populateFileBackedOutputStream(
-      InputStream inputStream, TemporaryFileBackedOutputStream fbos)
-      throws CatalogTransformerException {
+      InputStream inputStream, OutputStream outputStream) throws CatalogTransformerException {
     try {
-      int c = IOUtils.copy(inputStream, fbos);
+      int c = IOUtils.copy(inputStream, outputStream);
+      outputStream.flush();
       LOGGER.debug("copied {} bytes from input stream to file backed output stream", c);
     } catch (IOException e) {
       throw new CatalogTransformerException("Could not copy bytes of content message.", e);
@@ -267,26 +292,71 @@ public class MpegTsInputTransformer implements InputTransformer {
   }
 
   private void extractStanag4609Metadata(
-      MetacardImpl metacard, TemporaryFileBackedOutputStream fbos)
-      throws IOException, CatalogTransformerException {
+      MetacardImpl metacard, Map<String, KlvHandler> handlers) {
 
-    Stanag4609Parser stanag4609Parser = stanagParserFactory.createParser(fbos.asByteSource());
+    KlvProcessor.Configuration klvProcessConfiguration = new KlvProcessor.Configuration();
+    klvProcessConfiguration.set(KlvProcessor.Configuration.SUBSAMPLE_COUNT, subsampleCount);
+    klvProcessConfiguration.getGeometryOperatorContext().setDistanceTolerance(distanceTolerance);
 
-    Map<Integer, List<DecodedKLVMetadataPacket>> decodedMetadata;
-    try {
-      decodedMetadata = stanag4609Parser.parse();
-    } catch (Stanag4609ParseException e) {
-      throw new CatalogTransformerException("failed to extract STANAG 4609 metadata", e);
+    klvProcessor.process(handlers, metacard, klvProcessConfiguration);
+  }
+
+  void setDemuxOutputStreamFactory(
+      Function<Consumer<PESPacket>, OutputStream> demuxOutputStreamFactory) {
+    this.demuxOutputStreamFactory = demuxOutputStreamFactory;
+  }
+
+  /**
+   * Receives the PESPackets of the content as it is copied. KLV packets are passed to the handlers
+   * immediately and then discarded instead of being collected for the whole content.
+   */
+  private class TransportStreamScanner implements Consumer<PESPacket> {
+
+    private final Map<String, KlvHandler> handlers;
+
+    private final Stanag4609PacketDecoder packetDecoder;
+
+    private final Set<MpegStreamType> streamTypes = new LinkedHashSet<>();
+
+    private Stanag4609ParseException parseException;
+
+    private TransportStreamScanner(
+        Map<String, KlvHandler> handlers, Stanag4609PacketDecoder packetDecoder) {
+      this.handlers = handlers;
+      this.packetDecoder = packetDecoder;
     }
 
-    Map<String, KlvHandler> handlers = klvHandlerFactory.createStanag4609Handlers();
+    @Override
+    public void accept(PESPacket pesPacket) {
+      streamTypes.add(pesPacket.getStreamType());
+
+      if (parseException == null && isMetadataStream(pesPacket.getStreamType())) {
+        try {
+          packetDecoder
+              .decode(pesPacket.getPayload())
+              .ifPresent(
+                  decodedKLVMetadataPacket ->
+                      stanag4609Processor.handle(
+                          handlers, defaultKlvHandler, decodedKLVMetadataPacket));
+        } catch (Stanag4609ParseException e) {
+          parseException = e;
+        }
+      }
+    }
 
-    stanag4609Processor.handle(handlers, defaultKlvHandler, decodedMetadata);
+    private boolean isMetadataStream(MpegStreamType streamType) {
+      return streamType == MpegStreamType.PRIVATE_DATA || streamType == MpegStreamType.META_PES;
+    }
 
-    KlvProcessor.Configuration klvProcessConfiguration = new KlvProcessor.Configuration();
-    klvProcessConfiguration.set(KlvProcessor.Configuration.SUBSAMPLE_COUNT, subsampleCount);
-    klvProcessConfiguration.getGeometryOperatorContext().setDistanceTolerance(distanceTolerance);
+    private Set<MpegStreamType> getStreamTypes() {
+      return streamTypes;
+    }
 
-    klvProcessor.process(handlers, metacard, klvProcessConfiguration);
+    private void throwParseException() throws CatalogTransformerException {
+      if (parseException != null) {
+        throw new CatalogTransformerException(
+            "failed to extract STANAG 4609 metadata", parseException);
+      }
+    }
   }
 }
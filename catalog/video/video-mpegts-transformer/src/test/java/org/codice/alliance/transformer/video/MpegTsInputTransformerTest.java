@@ -18,8 +18,10 @@ import static org.hamcrest.Matchers.notNullValue;
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertThat;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
@@ -34,18 +36,26 @@ import ddf.catalog.transform.InputTransformer;
 import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
+import java.util.Optional;
 import java.util.function.Consumer;
 import org.codice.alliance.catalog.core.internal.api.classification.SecurityClassificationService;
+import org.codice.alliance.libs.klv.AttributeNameConstants;
 import org.codice.alliance.libs.klv.KlvHandler;
 import org.codice.alliance.libs.klv.KlvHandlerFactory;
 import org.codice.alliance.libs.klv.KlvProcessor;
 import org.codice.alliance.libs.klv.SecurityClassificationKlvProcessor;
+import org.codice.alliance.libs.klv.Stanag4609PacketDecoder;
 import org.codice.alliance.libs.klv.Stanag4609ParseException;
 import org.codice.alliance.libs.klv.Stanag4609Processor;
 import org.codice.alliance.libs.klv.StanagParserFactory;
-import org.codice.alliance.libs.stanag4609.Stanag4609TransportStreamParser;
+import org.codice.alliance.libs.mpegts.MpegStreamType;
+import org.codice.alliance.libs.mpegts.PESPacket;
+import org.codice.alliance.libs.stanag4609.DecodedKLVMetadataPacket;
 import org.junit.Before;
 import org.junit.Test;
 
@@ -63,7 +73,7 @@ public class MpegTsInputTransformerTest {
 
   private KlvHandler defaultKlvHandler;
 
-  private Stanag4609TransportStreamParser streamParser;
+  private Stanag4609PacketDecoder packetDecoder;
 
   private MetacardImpl metacard;
 
@@ -79,21 +89,13 @@ public class MpegTsInputTransformerTest {
     stanag4609Processor = mock(Stanag4609Processor.class);
     klvHandlerFactory = mock(KlvHandlerFactory.class);
     defaultKlvHandler = mock(KlvHandler.class);
-    streamParser = mock(Stanag4609TransportStreamParser.class);
+    packetDecoder = mock(Stanag4609PacketDecoder.class);
     metacard = new MetacardImpl();
     inputTransformer = mock(InputTransformer.class);
     stanagParserFactory = mock(StanagParserFactory.class);
     klvProcessor = mock(KlvProcessor.class);
     when(inputTransformer.transform(any(), any())).thenReturn(metacard);
-    when(stanagParserFactory.createParser(any()))
-        .thenReturn(
-            () -> {
-              try {
-                return streamParser.parse();
-              } catch (Exception e) {
-                throw new Stanag4609ParseException(e);
-              }
-            });
+    when(stanagParserFactory.createPacketDecoder(any())).thenReturn(packetDecoder);
   }
 
   @Test
@@ -165,8 +167,6 @@ public class MpegTsInputTransformerTest {
     metacard.setContentTypeName("some/thing");
     metacard.setMetadata("the metadata");
 
-    when(streamParser.parse()).thenReturn(Collections.emptyMap());
-
     MpegTsInputTransformer t =
         new MpegTsInputTransformer(
             inputTransformer,
@@ -218,7 +218,7 @@ public class MpegTsInputTransformerTest {
   @Test(expected = CatalogTransformerException.class)
   public void testStanagParseError() throws Exception {
 
-    when(streamParser.parse()).thenThrow(new RuntimeException());
+    when(packetDecoder.decode(any())).thenThrow(new Stanag4609ParseException(new Exception()));
 
     MpegTsInputTransformer t =
         new MpegTsInputTransformer(
@@ -231,11 +231,120 @@ public class MpegTsInputTransformerTest {
             klvProcessor,
             DISTANCE_TOLERANCE);
 
-    try (InputStream inputStream = new ByteArrayInputStream(new byte[] {})) {
+    t.setDemuxOutputStreamFactory(
+        callback -> demuxOutputStream(callback, MpegStreamType.META_PES, MpegStreamType.META_PES));
+
+    try (InputStream inputStream = new ByteArrayInputStream(new byte[] {0x47})) {
       t.transform(inputStream);
     }
   }
 
+  @Test
+  public void testDemuxErrorStillCreatesMetacard() throws Exception {
+
+    MpegTsInputTransformer t =
+        new MpegTsInputTransformer(
+            inputTransformer,
+            metacardTypes,
+            stanag4609Processor,
+            klvHandlerFactory,
+            defaultKlvHandler,
+            stanagParserFactory,
+            klvProcessor,
+            DISTANCE_TOLERANCE);
+
+    t.setDemuxOutputStreamFactory(
+        callback ->
+            new OutputStream() {
+              @Override
+              public void write(int b) {}
+
+              @Override
+              public void close() throws IOException {
+                throw new IOException("unable to decode MPEG-TS packet 0");
+              }
+            });
+
+    try (InputStream inputStream = new ByteArrayInputStream(new byte[] {0x47})) {
+      Metacard finalMetacard = t.transform(inputStream);
+
+      assertThat(
+          finalMetacard.getAttribute(Core.DATATYPE).getValue(),
+          is(MpegTsInputTransformer.DATA_TYPE));
+      verify(klvProcessor).process(any(), any(), any());
+    }
+  }
+
+  @Test
+  public void testUndecodablePacketsStillCreateMetacard() throws Exception {
+
+    MpegTsInputTransformer t =
+        new MpegTsInputTransformer(
+            inputTransformer,
+            metacardTypes,
+            stanag4609Processor,
+            klvHandlerFactory,
+            defaultKlvHandler,
+            stanagParserFactory,
+            klvProcessor,
+            DISTANCE_TOLERANCE);
+
+    byte[] notTransportStream = new byte[4 * 188];
+
+    try (InputStream inputStream = new ByteArrayInputStream(notTransportStream)) {
+      Metacard finalMetacard = t.transform(inputStream);
+
+      assertThat(
+          finalMetacard.getAttribute(Media.TYPE).getValue(),
+          is(MpegTsInputTransformer.CONTENT_TYPE));
+      assertThat(
+          finalMetacard.getAttribute(AttributeNameConstants.MEDIA_ENCODING).getValues(),
+          is(Collections.emptyList()));
+    }
+  }
+
+  @Test
+  public void testKlvPacketsAreHandledWhileCopying() throws Exception {
+
+    DecodedKLVMetadataPacket decodedPacket = mock(DecodedKLVMetadataPacket.class);
+    when(packetDecoder.decode(any())).thenReturn(Optional.of(decodedPacket));
+
+    Map<String, KlvHandler> handlers = Collections.emptyMap();
+    when(klvHandlerFactory.createStanag4609Handlers()).thenReturn(handlers);
+
+    MpegTsInputTransformer t =
+        new MpegTsInputTransformer(
+            inputTransformer,
+            metacardTypes,
+            stanag4609Processor,
+            klvHandlerFactory,
+            defaultKlvHandler,
+            stanagParserFactory,
+            klvProcessor,
+            DISTANCE_TOLERANCE);
+
+    t.setDemuxOutputStreamFactory(
+        callback ->
+            demuxOutputStream(
+                callback,
+                MpegStreamType.VIDEO_H264,
+                MpegStreamType.META_PES,
+                MpegStreamType.VIDEO_H264,
+                MpegStreamType.META_PES));
+
+    try (InputStream inputStream = new ByteArrayInputStream(new byte[] {0x47})) {
+
+      Metacard finalMetacard = t.transform(inputStream);
+
+      verify(packetDecoder, times(2)).decode(any());
+      verify(stanag4609Processor, times(2)).handle(handlers, defaultKlvHandler, decodedPacket);
+      verify(klvProcessor).process(eq(handlers), any(), any());
+      assertThat(
+          finalMetacard.getAttribute(AttributeNameConstants.MEDIA_ENCODING).getValues(),
+          is(Arrays.asList("VIDEO_H264", "META_PES")));
+    }
+  }
+
   @Test(expected = CatalogTransformerException.class)
   public void testInputStreamReadError() throws Exception {
 
@@ -274,6 +383,24 @@ public class MpegTsInputTransformerTest {
     assertThat(t.getDistanceTolerance(), closeTo(value, 0.1));
   }
 
+  /** Create an output stream that emits one PESPacket of each stream type on the first write. */
+  private OutputStream demuxOutputStream(
+      Consumer<PESPacket> callback, MpegStreamType... streamTypes) {
+    return new OutputStream() {
+      private boolean emitted;
+
+      @Override
+      public void write(int b) {
+        if (!emitted) {
+          emitted = true;
+          for (MpegStreamType streamType : streamTypes) {
+            callback.accept(new PESPacket(new byte[] {0x00}, streamType, 1));
+          }
+        }
+      }
+    };
+  }
+
   private void assertSecurityClassificationCode(Consumer<MpegTsInputTransformer> c, short code) {
     SecurityClassificationKlvProcessor processor =
         spy(
@@ -0,0 +1,150 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.libs.benchmark;
+
+import ddf.catalog.data.impl.MetacardImpl;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import org.codice.alliance.libs.klv.GeoBoxHandler;
+import org.codice.alliance.libs.klv.KlvHandler;
+import org.codice.alliance.libs.klv.KlvHandlerFactoryImpl;
+import org.codice.alliance.libs.klv.KlvProcessor;
+import org.codice.alliance.libs.klv.LatitudeLongitudeHandler;
+import org.codice.alliance.libs.klv.LocationKlvProcessor;
+import org.codice.alliance.libs.stanag4609.DecodedKLVMetadataPacket;
+import org.codice.alliance.libs.stanag4609.PESUtilities;
+import org.codice.alliance.libs.stanag4609.Stanag4609TransportStreamParser;
+import org.codice.ddf.libs.klv.KlvDataElement;
+import org.codice.ddf.libs.klv.KlvDecoder;
+import org.codice.ddf.libs.klv.KlvDecodingException;
+import org.codice.ddf.libs.klv.data.numerical.KlvIntegerEncodedFloatingPoint;
+import org.codice.ddf.libs.klv.data.set.KlvLocalSet;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures the cost of accumulating the corner and frame center values of {@link #packetCount} KLV
+ * packets in {@link GeoBoxHandler} and {@link LatitudeLongitudeHandler}, and of turning them into
+ * the location of a metacard with {@link LocationKlvProcessor}. The data elements are decoded from
+ * the KLV packets of {@link SyntheticTransportStream} during setup, so the corners of each packet
+ * describe a small box that drifts along a straight track and consecutive boxes overlap.
+ *
+ * <p>Run the {@link #main(String[])} method with the runtime classpath of this module. It enables
+ * the GC profiler, so the results include the bytes allocated per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KlvGeospatialBenchmark {
+
+  private static final int SUBSAMPLE_COUNT = 50;
+
+  private static final String[] DATA_ELEMENT_NAMES = {
+    Stanag4609TransportStreamParser.CORNER_LATITUDE_1,
+    Stanag4609TransportStreamParser.CORNER_LONGITUDE_1,
+    Stanag4609TransportStreamParser.CORNER_LATITUDE_2,
+    Stanag4609TransportStreamParser.CORNER_LONGITUDE_2,
+    Stanag4609TransportStreamParser.CORNER_LATITUDE_3,
+    Stanag4609TransportStreamParser.CORNER_LONGITUDE_3,
+    Stanag4609TransportStreamParser.CORNER_LATITUDE_4,
+    Stanag4609TransportStreamParser.CORNER_LONGITUDE_4,
+    Stanag4609TransportStreamParser.FRAME_CENTER_LATITUDE,
+    Stanag4609TransportStreamParser.FRAME_CENTER_LONGITUDE
+  };
+
+  @Param({"1000"})
+  public int packetCount;
+
+  private List<KlvIntegerEncodedFloatingPoint> dataElements;
+
+  private LocationKlvProcessor locationKlvProcessor;
+
+  private KlvProcessor.Configuration configuration;
+
+  @Setup
+  public void setup() throws KlvDecodingException {
+    dataElements = new ArrayList<>(packetCount * DATA_ELEMENT_NAMES.length);
+
+    KlvDecoder decoder =
+        new KlvDecoder(
+            Stanag4609TransportStreamParser.createUasDatalinkLocalSetContext(
+                Arrays.asList(DATA_ELEMENT_NAMES)));
+
+    for (int i = 0; i < packetCount; i++) {
+      DecodedKLVMetadataPacket packet =
+          PESUtilities.handlePESPacketBytes(SyntheticTransportStream.klvPesPacket(i), decoder);
+      for (KlvDataElement localSet : packet.getDecodedKLV().getDataElements().values()) {
+        ((KlvLocalSet) localSet)
+            .getValue()
+            .getDataElements()
+            .values()
+            .forEach(dataElement -> dataElements.add((KlvIntegerEncodedFloatingPoint) dataElement));
+      }
+    }
+
+    locationKlvProcessor = new LocationKlvProcessor();
+
+    configuration = new KlvProcessor.Configuration();
+    configuration.set(KlvProcessor.Configuration.SUBSAMPLE_COUNT, SUBSAMPLE_COUNT);
+  }
+
+  @Benchmark
+  public void accumulate(Blackhole blackhole) {
+    blackhole.consume(accumulateHandlers());
+  }
+
+  @Benchmark
+  public void accumulateAndLocate(Blackhole blackhole) {
+    MetacardImpl metacard = new MetacardImpl();
+    locationKlvProcessor.process(accumulateHandlers(), metacard, configuration);
+    blackhole.consume(metacard.getLocation());
+  }
+
+  private Map<String, KlvHandler> accumulateHandlers() {
+    Map<String, KlvHandler> handlers = new KlvHandlerFactoryImpl().createStanag4609Handlers();
+    for (KlvIntegerEncodedFloatingPoint dataElement : dataElements) {
+      handlers.get(dataElement.getName()).accept(dataElement);
+    }
+    return handlers;
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+            new OptionsBuilder()
+                .include(KlvGeospatialBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+        .run();
+  }
+}
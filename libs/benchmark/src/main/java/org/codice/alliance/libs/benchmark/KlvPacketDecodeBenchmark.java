@@ -0,0 +1,159 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.libs.benchmark;
+
+import com.google.common.io.ByteSource;
+import com.google.common.io.Files;
+import com.google.common.io.Resources;
+import java.io.File;
+import java.io.IOException;
+import java.net.URL;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.codice.alliance.libs.klv.KlvHandlerFactoryImpl;
+import org.codice.alliance.libs.klv.Stanag4609PacketDecoder;
+import org.codice.alliance.libs.klv.Stanag4609ParseException;
+import org.codice.alliance.libs.klv.StanagParserFactoryImpl;
+import org.codice.alliance.libs.stanag4609.DecodedKLVMetadataPacket;
+import org.codice.ddf.libs.mpeg.transport.MpegTransportStreamMetadataExtractor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Measures how many KLV packets per second {@link StanagParserFactoryImpl} decodes from a STANAG
+ * 4609 sample. Every operation decodes one packet, so the throughput is in packets per second. The
+ * benchmarks decode every data element, only the data elements that have a handler in {@link
+ * KlvHandlerFactoryImpl}, and packets whose checksum does not match, which are rejected before
+ * anything is decoded.
+ *
+ * <p>By default the packets are generated by {@link SyntheticTransportStream}. Otherwise {@link
+ * #fmvFile} is either the name of a transport stream on the classpath or the path of a transport
+ * stream on disk. Pass a recorded FMV sample with <code>-p fmvFile=/path/to/sample.ts</code>. The
+ * sample is demultiplexed once, during setup.
+ *
+ * <p>Run the {@link #main(String[])} method with the runtime classpath of this module. It enables
+ * the GC profiler, so the results include the bytes allocated per packet.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class KlvPacketDecodeBenchmark {
+
+  private static final String SYNTHETIC = "synthetic";
+
+  private static final int SYNTHETIC_PACKET_COUNT = 1000;
+
+  @Param({SYNTHETIC})
+  public String fmvFile;
+
+  private List<byte[]> packets;
+
+  private List<byte[]> corruptPackets;
+
+  private Stanag4609PacketDecoder fullPacketDecoder;
+
+  private Stanag4609PacketDecoder selectivePacketDecoder;
+
+  private int packetIndex;
+
+  @Setup
+  public void setup() throws Exception {
+    packets = new ArrayList<>();
+    if (SYNTHETIC.equals(fmvFile)) {
+      for (int i = 0; i < SYNTHETIC_PACKET_COUNT; i++) {
+        packets.add(SyntheticTransportStream.klvPesPacket(i));
+      }
+    } else {
+      new MpegTransportStreamMetadataExtractor(openSample())
+          .getMetadata((klvStreamPid, pesPacketBytes) -> packets.add(pesPacketBytes));
+    }
+
+    if (packets.isEmpty()) {
+      throw new IllegalStateException("the sample does not contain any KLV: " + fmvFile);
+    }
+
+    corruptPackets = new ArrayList<>(packets.size());
+    for (byte[] packet : packets) {
+      byte[] corruptPacket = packet.clone();
+      corruptPacket[corruptPacket.length - 1] ^= 0xFF;
+      corruptPackets.add(corruptPacket);
+    }
+
+    StanagParserFactoryImpl stanagParserFactory = new StanagParserFactoryImpl();
+    fullPacketDecoder = stanagParserFactory.createPacketDecoder();
+    selectivePacketDecoder =
+        stanagParserFactory.createPacketDecoder(
+            new KlvHandlerFactoryImpl().createStanag4609Handlers().keySet());
+  }
+
+  private ByteSource openSample() throws IOException {
+    File file = new File(fmvFile);
+    if (file.isFile()) {
+      return Files.asByteSource(file);
+    }
+
+    URL resource = getClass().getClassLoader().getResource(fmvFile);
+    if (resource == null) {
+      throw new IOException("unable to find the sample: " + fmvFile);
+    }
+    return Resources.asByteSource(resource);
+  }
+
+  private byte[] nextPacket(List<byte[]> packetList) {
+    packetIndex = (packetIndex + 1) % packetList.size();
+    return packetList.get(packetIndex);
+  }
+
+  @Benchmark
+  public Optional<DecodedKLVMetadataPacket> fullDecode() throws Stanag4609ParseException {
+    return fullPacketDecoder.decode(nextPacket(packets));
+  }
+
+  @Benchmark
+  public Optional<DecodedKLVMetadataPacket> selectiveDecode() throws Stanag4609ParseException {
+    return selectivePacketDecoder.decode(nextPacket(packets));
+  }
+
+  @Benchmark
+  public Optional<DecodedKLVMetadataPacket> corruptPacket() throws Stanag4609ParseException {
+    return fullPacketDecoder.decode(nextPacket(corruptPackets));
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+            new OptionsBuilder()
+                .include(KlvPacketDecodeBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+        .run();
+  }
+}
@@ -0,0 +1,115 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.libs.benchmark;
+
+import java.io.BufferedReader;
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import org.codice.alliance.security.banner.marking.MarkingExtractor;
+import org.codice.alliance.security.banner.marking.MarkingScanResult;
+import org.codice.alliance.security.banner.marking.MarkingScanner;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures reading the markings of a large text document. The setup builds a UTF-8 document of
+ * {@link #documentSize} bytes that starts with a banner line. In the {@code paragraphs} layout the
+ * rest of the document is short portion marked paragraphs, in the {@code singleLine} layout it is
+ * one line without line breaks.
+ *
+ * <p>{@link #readLines()} finds the banner line the way {@link MarkingExtractor} used to, {@link
+ * #scanBanner()} with a {@link MarkingScanner} that only reads the prefix of the document and
+ * {@link #scanPortionMarkings()} with one that also reads every portion mark of the document.
+ *
+ * <p>Run with {@code mvn -Pbenchmark verify -pl libs/benchmark -am -DskipTests
+ * -Djmh.include=MarkingScannerBenchmark}. The benchmark profile enables the GC profiler, so the
+ * results include the bytes allocated per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MarkingScannerBenchmark {
+
+  private static final String BANNER = "SECRET//NOFORN";
+
+  private static final String[] PARAGRAPHS = {
+    "(U) The quick brown fox jumps over the lazy dog. ",
+    "(S//NF) Pack my box with five dozen liquor jugs. ",
+    "(C//REL TO USA, GBR) How vexingly quick daft zebras jump. ",
+    "(U//FOUO) Sphinx of black quartz, judge my vow (see appendix). "
+  };
+
+  @Param({"65536", "4194304"})
+  public int documentSize;
+
+  @Param({"paragraphs", "singleLine"})
+  public String layout;
+
+  private byte[] document;
+
+  private final MarkingScanner bannerScanner = new MarkingScanner();
+
+  private final MarkingScanner portionScanner =
+      new MarkingScanner(MarkingScanner.DEFAULT_MAX_BANNER_PREFIX_CHARS, true);
+
+  @Setup
+  public void setup() {
+    boolean paragraphs = "paragraphs".equals(layout);
+    StringBuilder builder = new StringBuilder(documentSize + 128);
+    builder.append(BANNER).append(paragraphs ? "\n\n" : " ");
+    for (int i = 0; builder.length() < documentSize; i++) {
+      builder.append(PARAGRAPHS[i % PARAGRAPHS.length]);
+      if (paragraphs) {
+        builder.append('\n');
+      }
+    }
+    document = builder.toString().getBytes(StandardCharsets.UTF_8);
+  }
+
+  @Benchmark
+  public Optional<String> readLines() {
+    return new BufferedReader(
+            new InputStreamReader(new ByteArrayInputStream(document), StandardCharsets.UTF_8))
+        .lines()
+        .map(String::trim)
+        .filter(s -> !s.isEmpty())
+        .findFirst();
+  }
+
+  @Benchmark
+  public MarkingScanResult scanBanner() throws IOException {
+    return bannerScanner.scan(new ByteArrayInputStream(document));
+  }
+
+  @Benchmark
+  public MarkingScanResult scanPortionMarkings() throws IOException {
+    return portionScanner.scan(new ByteArrayInputStream(document));
+  }
+}
@@ -0,0 +1,195 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.libs.benchmark;
+
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.AttributeDescriptor;
+import ddf.catalog.data.Metacard;
+import ddf.catalog.data.impl.AttributeImpl;
+import ddf.catalog.data.impl.MetacardImpl;
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.TimeUnit;
+import org.apache.commons.lang3.StringUtils;
+import org.codice.alliance.transformer.nitf.NitfTransformer;
+import org.codice.alliance.transformer.nitf.common.MetacardAttributeBuilder;
+import org.codice.imaging.nitf.core.common.FileType;
+import org.codice.imaging.nitf.core.header.impl.NitfHeaderFactory;
+import org.codice.imaging.nitf.core.image.ImageBand;
+import org.codice.imaging.nitf.core.image.ImageSegment;
+import org.codice.imaging.nitf.core.image.impl.ImageBandImpl;
+import org.codice.imaging.nitf.core.image.impl.ImageSegmentFactory;
+import org.codice.imaging.nitf.core.tre.Tre;
+import org.codice.imaging.nitf.core.tre.TreSource;
+import org.codice.imaging.nitf.core.tre.impl.TreEntryImpl;
+import org.codice.imaging.nitf.core.tre.impl.TreFactory;
+import org.codice.imaging.nitf.fluent.NitfCreationFlow;
+import org.codice.imaging.nitf.fluent.impl.NitfCreationFlowImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures how the attributes of a NITF with many image segments are set on a metacard. The setup
+ * writes a synthetic NITF with {@link #segmentCount} image segments, each with a PIAIMC TRE, and
+ * transforms it once to record the values of every attribute.
+ *
+ * <p>{@link #copyOnAppend(Blackhole)} replays those values the way the segment handler used to set
+ * them, copying the attribute for every value it appends. {@link #attributeBuilder(Blackhole)}
+ * replays them through a {@link MetacardAttributeBuilder}. {@link #transform(Blackhole)} measures
+ * the whole transform of the synthetic NITF.
+ *
+ * <p>Run with {@code mvn -Pbenchmark verify -pl libs/benchmark -am -DskipTests
+ * -Djmh.include=NitfAttributeBenchmark}. The benchmark profile enables the GC profiler, so the
+ * results include the bytes allocated per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NitfAttributeBenchmark {
+
+  @Param({"500"})
+  public int segmentCount;
+
+  private File file;
+
+  private List<Attribute> attributes;
+
+  private final NitfTransformer nitfTransformer = new NitfTransformer();
+
+  @Setup
+  public void setup() throws Exception {
+    file = File.createTempFile("nitf-attribute-benchmark-", ".ntf");
+
+    NitfCreationFlow nitfCreationFlow =
+        new NitfCreationFlowImpl()
+            .fileHeader(() -> NitfHeaderFactory.getDefault(FileType.NITF_TWO_ONE));
+    for (int i = 0; i < segmentCount; i++) {
+      nitfCreationFlow.imageSegment(NitfAttributeBenchmark::createImageSegment);
+    }
+    nitfCreationFlow.write(file.getAbsolutePath());
+
+    Metacard metacard;
+    try (InputStream inputStream = new BufferedInputStream(new FileInputStream(file))) {
+      metacard = nitfTransformer.transform(inputStream);
+    }
+
+    attributes = new ArrayList<>();
+    metacard.getMetacardType().getAttributeDescriptors().stream()
+        .map(AttributeDescriptor::getName)
+        .map(metacard::getAttribute)
+        .filter(Objects::nonNull)
+        .forEach(attributes::add);
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    Files.deleteIfExists(file.toPath());
+  }
+
+  @Benchmark
+  public void copyOnAppend(Blackhole blackhole) {
+    Metacard metacard = new MetacardImpl();
+    for (Attribute attribute : attributes) {
+      for (Serializable value : attribute.getValues()) {
+        Attribute currentAttribute = metacard.getAttribute(attribute.getName());
+        if (currentAttribute == null) {
+          currentAttribute = new AttributeImpl(attribute.getName(), value);
+        } else {
+          AttributeImpl newAttribute = new AttributeImpl(currentAttribute);
+          newAttribute.addValue(value);
+          currentAttribute = newAttribute;
+        }
+        metacard.setAttribute(currentAttribute);
+      }
+    }
+    blackhole.consume(metacard);
+  }
+
+  @Benchmark
+  public void attributeBuilder(Blackhole blackhole) {
+    MetacardAttributeBuilder metacardBuilder = new MetacardAttributeBuilder(new MetacardImpl());
+    for (Attribute attribute : attributes) {
+      for (Serializable value : attribute.getValues()) {
+        metacardBuilder.addValue(attribute.getName(), value);
+      }
+    }
+    blackhole.consume(metacardBuilder.build());
+  }
+
+  @Benchmark
+  public void transform(Blackhole blackhole) throws Exception {
+    try (InputStream inputStream = new BufferedInputStream(new FileInputStream(file))) {
+      blackhole.consume(nitfTransformer.transform(inputStream));
+    }
+  }
+
+  private static ImageSegment createImageSegment() {
+    Tre piaimc = TreFactory.getDefault("PIAIMC", TreSource.ImageExtendedSubheaderData);
+    piaimc.add(new TreEntryImpl("CLOUDCVR", "070", "string"));
+    piaimc.add(new TreEntryImpl("SRP", "Y", "string"));
+    piaimc.add(new TreEntryImpl("SENSMODE", StringUtils.repeat('x', 12), "string"));
+    piaimc.add(new TreEntryImpl("SENSNAME", StringUtils.repeat('x', 18), "string"));
+    piaimc.add(new TreEntryImpl("SOURCE", StringUtils.repeat('x', 255), "string"));
+    piaimc.add(new TreEntryImpl("COMGEN", "09", "string"));
+    piaimc.add(new TreEntryImpl("SUBQUAL", "x", "string"));
+    piaimc.add(new TreEntryImpl("PIAMSNNUM", StringUtils.repeat('x', 7), "string"));
+    piaimc.add(new TreEntryImpl("CAMSPECS", StringUtils.repeat('x', 32), "string"));
+    piaimc.add(new TreEntryImpl("PROJID", "xx", "string"));
+    piaimc.add(new TreEntryImpl("GENERATION", "8", "string"));
+    piaimc.add(new TreEntryImpl("ESD", "Y", "string"));
+    piaimc.add(new TreEntryImpl("OTHERCOND", "xx", "string"));
+    piaimc.add(new TreEntryImpl("MEANGSD", "00000.0", "string"));
+    piaimc.add(new TreEntryImpl("IDATUM", "xxx", "string"));
+    piaimc.add(new TreEntryImpl("IELLIP", "xxx", "string"));
+    piaimc.add(new TreEntryImpl("PREPROC", "xx", "string"));
+    piaimc.add(new TreEntryImpl("IPROJ", "xx", "string"));
+    piaimc.add(new TreEntryImpl("SATTRACK_PATH", "0000", "string"));
+    piaimc.add(new TreEntryImpl("SATTRACK_ROW", "0000", "string"));
+
+    ImageSegment imageSegment = ImageSegmentFactory.getDefault(FileType.NITF_TWO_ONE);
+    imageSegment.addImageBand(createImageBand());
+    imageSegment.getTREsRawStructure().add(piaimc);
+    return imageSegment;
+  }
+
+  private static ImageBand createImageBand() {
+    ImageBandImpl imageBand = new ImageBandImpl();
+    imageBand.setImageRepresentation("RGB");
+    imageBand.setImageSubcategory("XXX");
+    imageBand.setNumLUTEntries(0);
+    return imageBand;
+  }
+}
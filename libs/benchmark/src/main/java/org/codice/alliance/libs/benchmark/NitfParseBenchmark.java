@@ -0,0 +1,131 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.libs.benchmark;
+
+import java.io.BufferedInputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.TimeUnit;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.MemoryCacheImageInputStream;
+import org.codice.alliance.transformer.nitf.MetadataOnlyHeapStrategy;
+import org.codice.alliance.transformer.nitf.NitfTransformer;
+import org.codice.imaging.nitf.core.HeapStrategy;
+import org.codice.imaging.nitf.core.common.NitfFormatException;
+import org.codice.imaging.nitf.core.common.impl.NitfInputStreamReader;
+import org.codice.imaging.nitf.core.header.impl.NitfParser;
+import org.codice.imaging.nitf.core.impl.InMemoryHeapStrategy;
+import org.codice.imaging.nitf.core.impl.SlottedParseStrategy;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Compares parsing a NITF with the image data copied onto the heap, which is how {@link
+ * NitfTransformer} used to parse, with the {@link MetadataOnlyHeapStrategy} it uses now. {@link
+ * #nitfFile} is either the name of a NITF on the classpath or the path of a NITF on disk, so large
+ * sample NITFs can be measured by passing <code>-p nitfFile=/path/to/sample.ntf</code> to JMH.
+ *
+ * <p>Run with {@code mvn -Pbenchmark verify -pl libs/benchmark -am -DskipTests
+ * -Djmh.include=NitfParseBenchmark}. The benchmark profile enables the GC profiler, so the results
+ * include the bytes allocated per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class NitfParseBenchmark {
+
+  @Param({"i_3001a.ntf", "i_3128b.ntf"})
+  public String nitfFile;
+
+  private File file;
+
+  private boolean isTemporaryFile;
+
+  private final NitfTransformer nitfTransformer = new NitfTransformer();
+
+  @Setup
+  public void setup() throws IOException {
+    file = new File(nitfFile);
+    if (!file.isFile()) {
+      file = File.createTempFile("nitf-benchmark-", ".ntf");
+      isTemporaryFile = true;
+      try (InputStream inputStream = getClass().getClassLoader().getResourceAsStream(nitfFile)) {
+        if (inputStream == null) {
+          throw new IOException("unable to find the NITF: " + nitfFile);
+        }
+        Files.copy(inputStream, file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+      }
+    }
+  }
+
+  @TearDown
+  public void tearDown() throws IOException {
+    if (isTemporaryFile) {
+      Files.deleteIfExists(file.toPath());
+    }
+  }
+
+  @Benchmark
+  public void inMemoryImageData(Blackhole blackhole) throws IOException, NitfFormatException {
+    HeapStrategy<ImageInputStream> imageDataStrategy =
+        new InMemoryHeapStrategy(NitfParseBenchmark::createMemoryCacheImageInputStream);
+    parse(imageDataStrategy, blackhole);
+  }
+
+  @Benchmark
+  public void metadataOnly(Blackhole blackhole) throws IOException, NitfFormatException {
+    parse(new MetadataOnlyHeapStrategy(), blackhole);
+  }
+
+  @Benchmark
+  public void transform(Blackhole blackhole) throws Exception {
+    try (InputStream inputStream = new BufferedInputStream(new FileInputStream(file))) {
+      blackhole.consume(nitfTransformer.transform(inputStream));
+    }
+  }
+
+  private void parse(HeapStrategy<ImageInputStream> imageDataStrategy, Blackhole blackhole)
+      throws IOException, NitfFormatException {
+    try (InputStream inputStream = new BufferedInputStream(new FileInputStream(file))) {
+      SlottedParseStrategy parseStrategy = new SlottedParseStrategy();
+      parseStrategy.setImageHeapStrategy(imageDataStrategy);
+      NitfParser.parse(new NitfInputStreamReader(inputStream), parseStrategy);
+      blackhole.consume(parseStrategy.getDataSource());
+    } finally {
+      imageDataStrategy.cleanUp();
+    }
+  }
+
+  private static Object createMemoryCacheImageInputStream(Object o) {
+    return new MemoryCacheImageInputStream((InputStream) o);
+  }
+}
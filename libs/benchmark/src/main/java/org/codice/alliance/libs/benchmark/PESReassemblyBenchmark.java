@@ -0,0 +1,124 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.libs.benchmark;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import org.apache.commons.lang3.ArrayUtils;
+import org.codice.alliance.libs.mpegts.MpegTsDecoderImpl;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.taktik.mpegts.MTSPacket;
+
+/**
+ * Compares PES reassembly by repeated array concatenation, which is how {@link MpegTsDecoderImpl}
+ * used to build payloads, with the chunked reassembly it uses now. The input is a synthetic
+ * transport stream containing a PAT, a PMT and one H.264 PES packet with {@link #pesSize} bytes of
+ * payload, followed by the first packet of the next PES packet so that the decoder emits the first
+ * one.
+ *
+ * <p>Run the {@link #main(String[])} method with the runtime classpath of this module. It enables
+ * the GC profiler, so the results include the bytes allocated per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PESReassemblyBenchmark {
+
+  @Param({"102400", "524288", "2097152"})
+  public int pesSize;
+
+  private List<byte[]> transportStream;
+
+  private List<byte[]> videoPackets;
+
+  @Setup
+  public void setup() {
+    transportStream =
+        new SyntheticTransportStream()
+            .addPesPacket(
+                SyntheticTransportStream.VIDEO_PID,
+                SyntheticTransportStream.videoPesPacket(0, pesSize))
+            .toPackets();
+
+    videoPackets =
+        transportStream.subList(0, transportStream.size() - 1).stream()
+            .filter(
+                packet ->
+                    SyntheticTransportStream.getPid(packet) == SyntheticTransportStream.VIDEO_PID)
+            .collect(Collectors.toList());
+  }
+
+  @Benchmark
+  public void arrayConcatenation(Blackhole blackhole) {
+    byte[] payload = null;
+    for (byte[] packet : videoPackets) {
+      MTSPacket mtsPacket = new MTSPacket(ByteBuffer.wrap(packet));
+      ByteBuffer buffer = mtsPacket.getPayload();
+      byte[] bytes = new byte[buffer.remaining()];
+      buffer.get(bytes);
+      payload = payload == null ? bytes : ArrayUtils.addAll(payload, bytes);
+    }
+    blackhole.consume(payload);
+  }
+
+  @Benchmark
+  public void chunkedReassembly(Blackhole blackhole) throws IOException {
+    MpegTsDecoderImpl decoder = new MpegTsDecoderImpl();
+    for (byte[] packet : transportStream) {
+      decoder.read(
+          new MTSPacket(ByteBuffer.wrap(packet)),
+          pesPacket -> blackhole.consume(pesPacket.getPayloadBuffers()));
+    }
+  }
+
+  @Benchmark
+  public void chunkedReassemblyMaterialized(Blackhole blackhole) throws IOException {
+    MpegTsDecoderImpl decoder = new MpegTsDecoderImpl();
+    for (byte[] packet : transportStream) {
+      decoder.read(
+          new MTSPacket(ByteBuffer.wrap(packet)),
+          pesPacket -> blackhole.consume(pesPacket.getPayload()));
+    }
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+            new OptionsBuilder()
+                .include(PESReassemblyBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+        .run();
+  }
+}
@@ -0,0 +1,247 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.libs.benchmark;
+
+import ddf.catalog.data.impl.MetacardImpl;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import org.codice.alliance.libs.klv.GeometryOperatorList;
+import org.codice.alliance.libs.klv.GeometryReducer;
+import org.codice.alliance.libs.klv.KlvHandler;
+import org.codice.alliance.libs.klv.KlvHandlerFactoryImpl;
+import org.codice.alliance.libs.klv.KlvProcessor;
+import org.codice.alliance.libs.klv.ListPostProcessor;
+import org.codice.alliance.libs.klv.LocationKlvProcessor;
+import org.codice.alliance.libs.klv.LoggingKlvHandler;
+import org.codice.alliance.libs.klv.NonEmptyGeometryOperator;
+import org.codice.alliance.libs.klv.NormalizeGeometry;
+import org.codice.alliance.libs.klv.OffsetCenterPostProcessor;
+import org.codice.alliance.libs.klv.SimplifyGeometryFunction;
+import org.codice.alliance.libs.klv.Stanag4609Processor;
+import org.codice.alliance.libs.klv.Stanag4609ProcessorImpl;
+import org.codice.alliance.libs.klv.TrimmingPostProcessor;
+import org.codice.alliance.libs.mpegts.MpegTsDecoderImpl;
+import org.codice.alliance.libs.mpegts.PESPacket;
+import org.codice.alliance.libs.stanag4609.DecodedKLVMetadataPacket;
+import org.codice.alliance.libs.stanag4609.PESUtilities;
+import org.codice.alliance.libs.stanag4609.Stanag4609TransportStreamParser;
+import org.codice.ddf.libs.klv.KlvDecoder;
+import org.codice.ddf.libs.klv.KlvDecodingException;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.taktik.mpegts.MTSPacket;
+
+/**
+ * Measures each stage of turning a STANAG 4609 transport stream into a metacard location, using
+ * the same components the MPEG-TS input transformer wires together:
+ *
+ * <ul>
+ *   <li>{@link #demultiplex(Blackhole)}: {@link MpegTsDecoderImpl} reassembles the video and KLV
+ *       PES packets from the transport stream packets
+ *   <li>{@link #decodeKlv(Blackhole)}: {@link PESUtilities#handlePESPacketBytes(byte[],
+ *       KlvDecoder)} validates and decodes the UAS Datalink Local Set of each KLV PES packet
+ *   <li>{@link #handleKlv(Blackhole)}: {@link Stanag4609ProcessorImpl} passes the decoded data
+ *       elements to the handlers of {@link KlvHandlerFactoryImpl}
+ *   <li>{@link #locate(Blackhole)}: {@link LocationKlvProcessor} unions the corners accumulated by
+ *       the handlers and passes the result through the {@link GeometryOperatorList} chain
+ *   <li>{@link #pipeline(Blackhole)}: all of the above, from transport stream packets to location
+ * </ul>
+ *
+ * <p>The input is {@value #FRAME_COUNT} frames of {@link SyntheticTransportStream}, each one video
+ * PES packet of {@link #videoPayloadSize} bytes and one KLV packet. Every operation is one frame,
+ * so the throughput of the stages can be compared directly and the time the pipeline spends on a
+ * frame is roughly the sum of the time each stage spends on it.
+ *
+ * <p>Run the {@link #main(String[])} method with the runtime classpath of this module. It enables
+ * the GC profiler, so the results include the bytes allocated per frame by each stage.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(ParsingStageBenchmark.FRAME_COUNT)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ParsingStageBenchmark {
+
+  static final int FRAME_COUNT = 250;
+
+  private static final int SUBSAMPLE_COUNT = 50;
+
+  private static final double DISTANCE_TOLERANCE = 0.0001;
+
+  @Param({"16384"})
+  public int videoPayloadSize;
+
+  private List<byte[]> transportStream;
+
+  private List<byte[]> klvPesPackets;
+
+  private List<DecodedKLVMetadataPacket> decodedPackets;
+
+  private Map<String, KlvHandler> accumulatedHandlers;
+
+  private KlvDecoder klvDecoder;
+
+  private Stanag4609Processor stanag4609Processor;
+
+  private KlvHandler defaultHandler;
+
+  private LocationKlvProcessor locationKlvProcessor;
+
+  private KlvProcessor.Configuration configuration;
+
+  @Setup
+  public void setup() throws IOException, KlvDecodingException {
+    SyntheticTransportStream syntheticTransportStream = new SyntheticTransportStream();
+    for (int frame = 0; frame < FRAME_COUNT; frame++) {
+      syntheticTransportStream.addFrame(frame, videoPayloadSize);
+    }
+    transportStream = syntheticTransportStream.toPackets();
+
+    klvDecoder = new KlvDecoder(Stanag4609TransportStreamParser.UAS_DATALINK_LOCAL_SET_CONTEXT);
+
+    stanag4609Processor =
+        new Stanag4609ProcessorImpl(
+            new ListPostProcessor(
+                Arrays.asList(new TrimmingPostProcessor(), new OffsetCenterPostProcessor())));
+
+    defaultHandler = new LoggingKlvHandler();
+
+    locationKlvProcessor =
+        new LocationKlvProcessor(
+            new GeometryReducer(),
+            new GeometryOperatorList(
+                Arrays.asList(
+                    new SimplifyGeometryFunction(),
+                    new NormalizeGeometry(),
+                    new NonEmptyGeometryOperator())));
+
+    configuration = new KlvProcessor.Configuration();
+    configuration.set(KlvProcessor.Configuration.SUBSAMPLE_COUNT, SUBSAMPLE_COUNT);
+    configuration.getGeometryOperatorContext().setDistanceTolerance(DISTANCE_TOLERANCE);
+
+    klvPesPackets = new ArrayList<>(FRAME_COUNT);
+    readTransportStream(
+        pesPacket -> {
+          if (pesPacket.getPacketId() == SyntheticTransportStream.KLV_PID) {
+            klvPesPackets.add(pesPacket.getPayload());
+          }
+        });
+
+    decodedPackets = decodePackets(klvPesPackets);
+    accumulatedHandlers = handlePackets(decodedPackets);
+
+    if (klvPesPackets.size() != FRAME_COUNT
+        || decodedPackets.size() != FRAME_COUNT
+        || locateFootprint(accumulatedHandlers) == null) {
+      throw new IllegalStateException("the synthetic transport stream was not parsed completely");
+    }
+  }
+
+  private void readTransportStream(Consumer<PESPacket> callback) throws IOException {
+    MpegTsDecoderImpl decoder = new MpegTsDecoderImpl();
+    for (byte[] packet : transportStream) {
+      decoder.read(new MTSPacket(ByteBuffer.wrap(packet)), callback);
+    }
+  }
+
+  private List<DecodedKLVMetadataPacket> decodePackets(List<byte[]> pesPackets)
+      throws KlvDecodingException {
+    List<DecodedKLVMetadataPacket> packets = new ArrayList<>(pesPackets.size());
+    for (byte[] pesPacket : pesPackets) {
+      DecodedKLVMetadataPacket packet = PESUtilities.handlePESPacketBytes(pesPacket, klvDecoder);
+      if (packet != null) {
+        packets.add(packet);
+      }
+    }
+    return packets;
+  }
+
+  private Map<String, KlvHandler> handlePackets(List<DecodedKLVMetadataPacket> packets) {
+    Map<String, KlvHandler> handlers = new KlvHandlerFactoryImpl().createStanag4609Handlers();
+    for (DecodedKLVMetadataPacket packet : packets) {
+      stanag4609Processor.handle(handlers, defaultHandler, packet);
+    }
+    return handlers;
+  }
+
+  private String locateFootprint(Map<String, KlvHandler> handlers) {
+    MetacardImpl metacard = new MetacardImpl();
+    locationKlvProcessor.process(handlers, metacard, configuration);
+    return metacard.getLocation();
+  }
+
+  @Benchmark
+  public void demultiplex(Blackhole blackhole) throws IOException {
+    readTransportStream(pesPacket -> blackhole.consume(pesPacket.getPayloadBuffers()));
+  }
+
+  @Benchmark
+  public void decodeKlv(Blackhole blackhole) throws KlvDecodingException {
+    blackhole.consume(decodePackets(klvPesPackets));
+  }
+
+  @Benchmark
+  public void handleKlv(Blackhole blackhole) {
+    blackhole.consume(handlePackets(decodedPackets));
+  }
+
+  @Benchmark
+  public void locate(Blackhole blackhole) {
+    blackhole.consume(locateFootprint(accumulatedHandlers));
+  }
+
+  @Benchmark
+  public void pipeline(Blackhole blackhole) throws IOException, KlvDecodingException {
+    List<byte[]> pesPackets = new ArrayList<>(FRAME_COUNT);
+    readTransportStream(
+        pesPacket -> {
+          if (pesPacket.getPacketId() == SyntheticTransportStream.KLV_PID) {
+            pesPackets.add(pesPacket.getPayload());
+          }
+        });
+    blackhole.consume(locateFootprint(handlePackets(decodePackets(pesPackets))));
+  }
+
+  public static void main(String[] args) throws RunnerException {
+    new Runner(
+            new OptionsBuilder()
+                .include(ParsingStageBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build())
+        .run();
+  }
+}
@@ -0,0 +1,402 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.libs.benchmark;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.codice.alliance.libs.mpegts.Constants;
+
+/**
+ * Builds a synthetic MPEG-TS so the benchmarks do not depend on recorded FMV. The stream contains
+ * a PAT, a PMT and one program with an H.264 video stream and an asynchronous KLV metadata stream
+ * (stream type 0x06, stream id 0xBD). Each frame added with {@link #addFrame(int, int)} is one
+ * video PES packet followed by one KLV PES packet carrying a UAS Datalink Local Set with a valid
+ * checksum.
+ *
+ * <p>The corners of each frame describe a small box that drifts along a straight track, so the
+ * footprints of consecutive frames overlap like they do in real FMV.
+ */
+final class SyntheticTransportStream {
+
+  static final int PMT_PID = 0x100;
+
+  static final int VIDEO_PID = 0x101;
+
+  static final int KLV_PID = 0x102;
+
+  static final double LATITUDE = 33;
+
+  static final double LONGITUDE = -112;
+
+  static final double BOX_SIZE = 0.01;
+
+  static final double DRIFT = 0.0001;
+
+  private static final int TS_HEADER_SIZE = 4;
+
+  private static final int TS_PAYLOAD_SIZE = Constants.TS_PACKET_SIZE - TS_HEADER_SIZE;
+
+  private static final int H264_STREAM_TYPE = 0x1B;
+
+  private static final int PRIVATE_DATA_STREAM_TYPE = 0x06;
+
+  private static final int VIDEO_STREAM_ID = 0xE0;
+
+  private static final int PRIVATE_STREAM_ID = 0xBD;
+
+  private static final byte[] UAS_DATALINK_LOCAL_SET_KEY = {
+    0x06, 0x0E, 0x2B, 0x34, 0x02, 0x0B, 0x01, 0x01, 0x0E, 0x01, 0x03, 0x01, 0x01, 0x00, 0x00, 0x00
+  };
+
+  private static final long START_TIME_MICROSECONDS = 1_500_000_000_000_000L;
+
+  private static final long FRAME_DURATION_MICROSECONDS = 40_000;
+
+  /** 90 kHz presentation time stamp ticks per frame at 25 frames per second. */
+  private static final long PTS_PER_FRAME = 3_600;
+
+  private static final int PES_OPTIONAL_HEADER_SIZE = 8;
+
+  private final List<byte[]> packets = new ArrayList<>();
+
+  private final Map<Integer, Integer> continuityCounters = new LinkedHashMap<>();
+
+  SyntheticTransportStream() {
+    packets.add(psiPacket(Constants.PROGRAM_ASSOCIATION_TABLE_PID, patSection()));
+    packets.add(psiPacket(PMT_PID, pmtSection()));
+  }
+
+  /**
+   * Add one video PES packet and one KLV PES packet.
+   *
+   * @param frame index of the frame, which determines the time stamps and the location
+   * @param videoPayloadSize number of bytes of H.264 data in the video PES packet
+   * @return this
+   */
+  SyntheticTransportStream addFrame(int frame, int videoPayloadSize) {
+    addPesPacket(VIDEO_PID, videoPesPacket(frame, videoPayloadSize));
+    addPesPacket(KLV_PID, klvPesPacket(frame));
+    return this;
+  }
+
+  /**
+   * Split a PES packet into transport stream packets. The last packet is padded with adaptation
+   * field stuffing as required by ISO/IEC 13818-1.
+   *
+   * @param pid one of {@link #VIDEO_PID} or {@link #KLV_PID}
+   * @param pesPacket complete PES packet
+   * @return this
+   */
+  SyntheticTransportStream addPesPacket(int pid, byte[] pesPacket) {
+    int offset = 0;
+    while (offset < pesPacket.length) {
+      int length = Math.min(pesPacket.length - offset, TS_PAYLOAD_SIZE);
+      packets.add(
+          elementaryPacket(
+              pid, offset == 0, nextContinuityCounter(pid), pesPacket, offset, length));
+      offset += length;
+    }
+    return this;
+  }
+
+  /**
+   * Return the transport stream packets. A decoder only emits a PES packet when the next one on
+   * the same PID starts, so the first packet of an empty PES packet is appended to every stream.
+   *
+   * @return the transport stream packets, 188 bytes each
+   */
+  List<byte[]> toPackets() {
+    List<byte[]> transportStream = new ArrayList<>(packets);
+    for (Map.Entry<Integer, Integer> stream : continuityCounters.entrySet()) {
+      int streamId = stream.getKey() == VIDEO_PID ? VIDEO_STREAM_ID : PRIVATE_STREAM_ID;
+      byte[] pesPacket = pesPacket(streamId, 0, new byte[0]);
+      transportStream.add(
+          elementaryPacket(
+              stream.getKey(), true, stream.getValue(), pesPacket, 0, pesPacket.length));
+    }
+    return transportStream;
+  }
+
+  private int nextContinuityCounter(int pid) {
+    int continuityCounter = continuityCounters.getOrDefault(pid, 0);
+    continuityCounters.put(pid, (continuityCounter + 1) & 0x0F);
+    return continuityCounter;
+  }
+
+  static int getPid(byte[] packet) {
+    return ((packet[1] & 0x1F) << 8) | (packet[2] & 0xFF);
+  }
+
+  /**
+   * Build a video PES packet. The payload is an access unit delimiter followed by an IDR slice
+   * filled with bytes that never form a start code.
+   */
+  static byte[] videoPesPacket(int frame, int payloadSize) {
+    byte[] payload = new byte[payloadSize];
+    byte[] nalUnits = {0x00, 0x00, 0x00, 0x01, 0x09, (byte) 0xF0, 0x00, 0x00, 0x00, 0x01, 0x65};
+    System.arraycopy(nalUnits, 0, payload, 0, Math.min(nalUnits.length, payloadSize));
+    for (int i = nalUnits.length; i < payloadSize; i++) {
+      payload[i] = (byte) (((i * 31 + frame) & 0x7F) | 0x01);
+    }
+    return pesPacket(VIDEO_STREAM_ID, frame * PTS_PER_FRAME, payload);
+  }
+
+  static byte[] klvPesPacket(int frame) {
+    return pesPacket(PRIVATE_STREAM_ID, frame * PTS_PER_FRAME, uasDatalinkLocalSet(frame));
+  }
+
+  /**
+   * Build a UAS Datalink Local Set (MISB ST 0601) with the time stamp, mission, platform, sensor,
+   * frame center, corner and security values of the frame. The checksum is the last item.
+   */
+  static byte[] uasDatalinkLocalSet(int frame) {
+    double latitude = LATITUDE + frame * DRIFT;
+    double longitude = LONGITUDE + frame * DRIFT;
+
+    ByteArrayOutputStream items = new ByteArrayOutputStream();
+    writeItem(
+        items, 2, longBytes(START_TIME_MICROSECONDS + frame * FRAME_DURATION_MICROSECONDS, 8));
+    writeItem(items, 3, "MISSION01".getBytes(StandardCharsets.US_ASCII));
+    writeItem(items, 10, "BENCHMARK".getBytes(StandardCharsets.US_ASCII));
+    writeItem(items, 11, "EO".getBytes(StandardCharsets.US_ASCII));
+    writeItem(items, 12, "WGS-84".getBytes(StandardCharsets.US_ASCII));
+    writeItem(items, 13, latitude(latitude - BOX_SIZE));
+    writeItem(items, 14, longitude(longitude - BOX_SIZE));
+    writeItem(items, 15, longBytes(encode(3000, -900, 19000, 0, 0xFFFF), 2));
+    writeItem(items, 23, latitude(latitude + BOX_SIZE / 2));
+    writeItem(items, 24, longitude(longitude + BOX_SIZE / 2));
+    writeItem(items, 82, latitude(latitude));
+    writeItem(items, 83, longitude(longitude));
+    writeItem(items, 84, latitude(latitude));
+    writeItem(items, 85, longitude(longitude + BOX_SIZE));
+    writeItem(items, 86, latitude(latitude + BOX_SIZE));
+    writeItem(items, 87, longitude(longitude + BOX_SIZE));
+    writeItem(items, 88, latitude(latitude + BOX_SIZE));
+    writeItem(items, 89, longitude(longitude));
+    writeItem(items, 48, securityLocalSet());
+    items.write(1);
+    items.write(2);
+
+    ByteArrayOutputStream localSet = new ByteArrayOutputStream();
+    localSet.writeBytes(UAS_DATALINK_LOCAL_SET_KEY);
+    writeLength(localSet, items.size() + 2);
+    localSet.writeBytes(items.toByteArray());
+
+    byte[] bytes = Arrays.copyOf(localSet.toByteArray(), localSet.size() + 2);
+    int checksum = checksum(bytes, bytes.length - 2);
+    bytes[bytes.length - 2] = (byte) (checksum >> 8);
+    bytes[bytes.length - 1] = (byte) checksum;
+    return bytes;
+  }
+
+  private static byte[] securityLocalSet() {
+    ByteArrayOutputStream items = new ByteArrayOutputStream();
+    writeItem(items, 1, new byte[] {0x01});
+    writeItem(items, 2, new byte[] {0x01});
+    writeItem(items, 3, "//US".getBytes(StandardCharsets.US_ASCII));
+    return items.toByteArray();
+  }
+
+  /** The 16-bit checksum of MISB ST 0601, which sums the bytes as big endian 16-bit words. */
+  private static int checksum(byte[] bytes, int length) {
+    int checksum = 0;
+    for (int i = 0; i < length; i++) {
+      checksum += (bytes[i] & 0xFF) << (8 * ((i + 1) % 2));
+    }
+    return checksum & 0xFFFF;
+  }
+
+  private static byte[] latitude(double latitude) {
+    return longBytes(encode(latitude, -90, 90, Integer.MIN_VALUE + 1L, Integer.MAX_VALUE), 4);
+  }
+
+  private static byte[] longitude(double longitude) {
+    return longBytes(encode(longitude, -180, 180, Integer.MIN_VALUE + 1L, Integer.MAX_VALUE), 4);
+  }
+
+  /** Map a floating point value onto the integer range used to encode it. */
+  private static long encode(
+      double value, double min, double max, long encodedMin, long encodedMax) {
+    return Math.round((value - min) / (max - min) * (encodedMax - encodedMin) + encodedMin);
+  }
+
+  private static byte[] longBytes(long value, int length) {
+    byte[] bytes = new byte[length];
+    for (int i = 0; i < length; i++) {
+      bytes[i] = (byte) (value >> (8 * (length - 1 - i)));
+    }
+    return bytes;
+  }
+
+  private static void writeItem(ByteArrayOutputStream out, int tag, byte[] value) {
+    out.write(tag);
+    writeLength(out, value.length);
+    out.writeBytes(value);
+  }
+
+  /** Write a BER length, using the short form when possible. */
+  private static void writeLength(ByteArrayOutputStream out, int length) {
+    if (length < 0x80) {
+      out.write(length);
+    } else if (length <= 0xFF) {
+      out.write(0x81);
+      out.write(length);
+    } else {
+      out.write(0x82);
+      out.write(length >> 8);
+      out.write(length);
+    }
+  }
+
+  /** Build a PES packet with a presentation time stamp and no other optional fields. */
+  private static byte[] pesPacket(int streamId, long pts, byte[] payload) {
+    byte[] packet = new byte[6 + PES_OPTIONAL_HEADER_SIZE + payload.length];
+    packet[0] = 0x00;
+    packet[1] = 0x00;
+    packet[2] = 0x01;
+    packet[3] = (byte) streamId;
+    // video PES packets in a transport stream may leave the length unbounded
+    int length = streamId == VIDEO_STREAM_ID ? 0 : PES_OPTIONAL_HEADER_SIZE + payload.length;
+    packet[4] = (byte) (length >> 8);
+    packet[5] = (byte) length;
+    packet[6] = (byte) 0x80;
+    packet[7] = (byte) 0x80;
+    packet[8] = 0x05;
+    packet[9] = (byte) (0x21 | ((pts >> 29) & 0x0E));
+    packet[10] = (byte) (pts >> 22);
+    packet[11] = (byte) (((pts >> 14) & 0xFE) | 0x01);
+    packet[12] = (byte) (pts >> 7);
+    packet[13] = (byte) (((pts << 1) & 0xFE) | 0x01);
+    System.arraycopy(payload, 0, packet, 6 + PES_OPTIONAL_HEADER_SIZE, payload.length);
+    return packet;
+  }
+
+  private static byte[] patSection() {
+    return section(
+        0x00,
+        new byte[] {
+          0x00, 0x01, (byte) 0xC1, 0x00, 0x00, 0x00, 0x01, pidHigh(PMT_PID), pidLow(PMT_PID)
+        });
+  }
+
+  private static byte[] pmtSection() {
+    return section(
+        0x02,
+        new byte[] {
+          0x00,
+          0x01,
+          (byte) 0xC1,
+          0x00,
+          0x00,
+          pidHigh(VIDEO_PID),
+          pidLow(VIDEO_PID),
+          (byte) 0xF0,
+          0x00,
+          H264_STREAM_TYPE,
+          pidHigh(VIDEO_PID),
+          pidLow(VIDEO_PID),
+          (byte) 0xF0,
+          0x00,
+          PRIVATE_DATA_STREAM_TYPE,
+          pidHigh(KLV_PID),
+          pidLow(KLV_PID),
+          (byte) 0xF0,
+          0x00
+        });
+  }
+
+  /** Build a PSI section with the given body, prefixing the header and appending the CRC. */
+  private static byte[] section(int tableId, byte[] body) {
+    int sectionLength = body.length + 4;
+    byte[] section = new byte[3 + sectionLength];
+    section[0] = (byte) tableId;
+    section[1] = (byte) (0xB0 | (sectionLength >> 8));
+    section[2] = (byte) sectionLength;
+    System.arraycopy(body, 0, section, 3, body.length);
+    int crc = crc32Mpeg2(section, section.length - 4);
+    section[section.length - 4] = (byte) (crc >>> 24);
+    section[section.length - 3] = (byte) (crc >>> 16);
+    section[section.length - 2] = (byte) (crc >>> 8);
+    section[section.length - 1] = (byte) crc;
+    return section;
+  }
+
+  private static byte[] psiPacket(int pid, byte[] section) {
+    byte[] packet = header(pid, true, 0);
+    packet[4] = 0x00;
+    System.arraycopy(section, 0, packet, 5, section.length);
+    Arrays.fill(packet, 5 + section.length, packet.length, (byte) 0xFF);
+    return packet;
+  }
+
+  /**
+   * Build an elementary stream packet carrying {@code length} bytes of {@code source}. Short
+   * payloads are padded with adaptation field stuffing.
+   */
+  private static byte[] elementaryPacket(
+      int pid,
+      boolean payloadUnitStart,
+      int continuityCounter,
+      byte[] source,
+      int sourceOffset,
+      int length) {
+    byte[] packet = header(pid, payloadUnitStart, continuityCounter);
+    int stuffing = TS_PAYLOAD_SIZE - length;
+    int offset = TS_HEADER_SIZE;
+    if (stuffing > 0) {
+      packet[3] |= 0x20;
+      packet[offset] = (byte) (stuffing - 1);
+      if (stuffing > 1) {
+        packet[offset + 1] = 0x00;
+        Arrays.fill(packet, offset + 2, offset + stuffing, (byte) 0xFF);
+      }
+      offset += stuffing;
+    }
+    System.arraycopy(source, sourceOffset, packet, offset, length);
+    return packet;
+  }
+
+  private static byte[] header(int pid, boolean payloadUnitStart, int continuityCounter) {
+    byte[] packet = new byte[Constants.TS_PACKET_SIZE];
+    packet[0] = 0x47;
+    packet[1] = (byte) ((payloadUnitStart ? 0x40 : 0x00) | pidHigh(pid));
+    packet[2] = pidLow(pid);
+    packet[3] = (byte) (0x10 | continuityCounter);
+    return packet;
+  }
+
+  private static byte pidHigh(int pid) {
+    return (byte) ((pid >> 8) & 0x1F);
+  }
+
+  private static byte pidLow(int pid) {
+    return (byte) pid;
+  }
+
+  private static int crc32Mpeg2(byte[] bytes, int length) {
+    int crc = 0xFFFFFFFF;
+    for (int i = 0; i < length; i++) {
+      crc ^= (bytes[i] & 0xFF) << 24;
+      for (int bit = 0; bit < 8; bit++) {
+        crc = (crc & 0x80000000) != 0 ? (crc << 1) ^ 0x04C11DB7 : crc << 1;
+      }
+    }
+    return crc;
+  }
+}
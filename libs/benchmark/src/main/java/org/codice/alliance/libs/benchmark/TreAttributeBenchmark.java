@@ -0,0 +1,209 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.libs.benchmark;
+
+import ddf.catalog.data.AttributeDescriptor;
+import ddf.catalog.data.AttributeType;
+import ddf.catalog.data.impl.BasicTypes;
+import java.io.Serializable;
+import java.lang.reflect.Proxy;
+import java.text.ParseException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TimeZone;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import org.apache.commons.lang3.time.FastDateFormat;
+import org.codice.alliance.transformer.nitf.common.NitfAttribute;
+import org.codice.alliance.transformer.nitf.common.TreDescriptor;
+import org.codice.alliance.transformer.nitf.common.TreFieldDecoder;
+import org.codice.alliance.transformer.nitf.common.TreUtility;
+import org.codice.imaging.nitf.core.tre.Tre;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the work done for each TRE of a NITF. The setup builds a TRE whose fields are named
+ * after the attributes of {@link #treName} and hold a typical BCS-A value for the type of each
+ * attribute.
+ *
+ * <p>{@link #linearScanLookup()} finds the descriptor the way {@link TreDescriptor#forName(String)}
+ * used to, and {@link #tableLookup()} the way it does now. {@link #regexDecode(Blackhole)} decodes
+ * the numeric and date fields of the TRE with the regular expressions and date format that were
+ * used before, and {@link #fieldDecode(Blackhole)} with {@link TreFieldDecoder}. {@link
+ * #extractAttributes(Blackhole)} runs every attribute accessor of the TRE.
+ *
+ * <p>Run with {@code mvn -Pbenchmark verify -pl libs/benchmark -am -DskipTests
+ * -Djmh.include=TreAttributeBenchmark}. The benchmark profile enables the GC profiler, so the
+ * results include the bytes allocated per operation.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TreAttributeBenchmark {
+
+  private static final Pattern INTEGER_PATTERN = Pattern.compile("[+-]?\\d+");
+
+  private static final FastDateFormat DATE_FORMATTER =
+      FastDateFormat.getInstance(TreUtility.TRE_DATE_FORMAT, TimeZone.getTimeZone("GMT"));
+
+  @Param({"ACFTB", "CMETAA", "CSEXRA", "PIAIMC"})
+  public String treName;
+
+  private Tre tre;
+
+  private List<NitfAttribute<Tre>> attributes;
+
+  private final List<String> integerValues = new ArrayList<>();
+
+  private final List<String> floatValues = new ArrayList<>();
+
+  private final List<String> dateValues = new ArrayList<>();
+
+  @Setup
+  public void setup() {
+    attributes = TreDescriptor.forName(treName).getValues();
+
+    Map<String, String> fieldValues = new HashMap<>();
+    for (NitfAttribute<Tre> attribute : attributes) {
+      AttributeType<?> type = getType(attribute);
+      String value;
+      if (BasicTypes.INTEGER_TYPE.equals(type)) {
+        value = "00125";
+        integerValues.add(value);
+      } else if (BasicTypes.FLOAT_TYPE.equals(type) || BasicTypes.DOUBLE_TYPE.equals(type)) {
+        value = "0012.50";
+        floatValues.add(value);
+      } else if (BasicTypes.DATE_TYPE.equals(type)) {
+        value = "20161013121212";
+        dateValues.add(value);
+      } else if (BasicTypes.BOOLEAN_TYPE.equals(type)) {
+        value = "Y";
+      } else {
+        value = "SAMPLE";
+      }
+      fieldValues.put(attribute.getShortName(), value);
+    }
+
+    tre = createTre(treName, fieldValues);
+  }
+
+  @Benchmark
+  public TreDescriptor linearScanLookup() {
+    return Arrays.stream(TreDescriptor.values())
+        .filter(treDescriptor -> treDescriptor.name().equals(treName))
+        .findFirst()
+        .orElse(null);
+  }
+
+  @Benchmark
+  public TreDescriptor tableLookup() {
+    return TreDescriptor.forName(treName);
+  }
+
+  @Benchmark
+  public void regexDecode(Blackhole blackhole) throws ParseException {
+    for (String value : integerValues) {
+      if (INTEGER_PATTERN.matcher(value).matches()) {
+        blackhole.consume(Integer.valueOf(value));
+      }
+    }
+    for (String value : floatValues) {
+      if (TreUtility.FLOAT_PATTERN.matcher(value).matches()) {
+        blackhole.consume(Float.valueOf(value));
+      }
+    }
+    for (String value : dateValues) {
+      blackhole.consume(DATE_FORMATTER.parse(value));
+    }
+  }
+
+  @Benchmark
+  public void fieldDecode(Blackhole blackhole) {
+    for (String value : integerValues) {
+      if (TreFieldDecoder.isInteger(value)) {
+        blackhole.consume(Integer.valueOf(value));
+      }
+    }
+    for (String value : floatValues) {
+      if (TreFieldDecoder.isDecimal(value)) {
+        blackhole.consume(TreFieldDecoder.parseDecimal(value));
+      }
+    }
+    for (String value : dateValues) {
+      blackhole.consume(TreFieldDecoder.parseDate(value));
+    }
+  }
+
+  @Benchmark
+  public void extractAttributes(Blackhole blackhole) {
+    for (NitfAttribute<Tre> attribute : attributes) {
+      Function<Tre, Serializable> accessor = attribute.getAccessorFunction();
+      blackhole.consume(accessor.apply(tre));
+    }
+  }
+
+  private static AttributeType<?> getType(NitfAttribute<Tre> attribute) {
+    Set<AttributeDescriptor> descriptors = attribute.getAttributeDescriptors();
+    if (descriptors == null || descriptors.isEmpty()) {
+      return BasicTypes.STRING_TYPE;
+    }
+    return descriptors.iterator().next().getType();
+  }
+
+  /**
+   * Create a TRE that only answers the calls made by the attribute accessors, so the measurements
+   * do not include the parsing of a real TRE. Fields without a value are empty.
+   */
+  private static Tre createTre(String name, Map<String, String> fieldValues) {
+    return (Tre)
+        Proxy.newProxyInstance(
+            Tre.class.getClassLoader(),
+            new Class<?>[] {Tre.class},
+            (proxy, method, args) -> {
+              switch (method.getName()) {
+                case "getName":
+                case "toString":
+                  return name;
+                case "getFieldValue":
+                  return fieldValues.getOrDefault((String) args[0], "");
+                case "getIntValue":
+                  String value = fieldValues.getOrDefault((String) args[0], "");
+                  return TreFieldDecoder.isInteger(value) ? Integer.parseInt(value) : 0;
+                case "getEntry":
+                  return null;
+                default:
+                  throw new UnsupportedOperationException(method.getName());
+              }
+            });
+  }
+}
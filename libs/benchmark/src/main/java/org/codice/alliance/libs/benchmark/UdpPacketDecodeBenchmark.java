@@ -0,0 +1,178 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.libs.benchmark;
+
+import ddf.security.Subject;
+import io.netty.buffer.Unpooled;
+import io.netty.channel.embedded.EmbeddedChannel;
+import io.netty.channel.socket.DatagramPacket;
+import java.lang.reflect.Proxy;
+import java.net.InetSocketAddress;
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.codice.alliance.libs.mpegts.Constants;
+import org.codice.alliance.video.stream.mpegts.netty.PacketBuffer;
+import org.codice.alliance.video.stream.mpegts.netty.RawUdpDataToMTSPacketDecoder;
+import org.codice.alliance.video.stream.mpegts.netty.UdpStreamProcessor;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Measures the packets per second that {@link RawUdpDataToMTSPacketDecoder} decodes as the number
+ * of concurrent streams grows. Each benchmark thread is one stream with its own channel and
+ * decoder, like the event loop thread of a monitored UDP stream, so the aggregate throughput of
+ * {@link #oneStream(Stream, Blackhole)} through {@link #eightStreams(Stream, Blackhole)} should
+ * grow with the stream count until the threads run out of cores. A decoder that serializes the
+ * streams shows up as a flat line.
+ *
+ * <p>The input is {@value #DATAGRAM_COUNT} datagrams of {@value #PACKETS_PER_DATAGRAM} packets
+ * from {@link SyntheticTransportStream}, the usual payload of an MPEG-TS over UDP sender. Every
+ * operation is one transport stream packet. The packet buffer of each stream discards the packets,
+ * so the disk is not part of the measurement.
+ *
+ * <p>Run with {@code mvn -Pbenchmark verify -pl libs/benchmark -am -DskipTests
+ * -Djmh.include=UdpPacketDecodeBenchmark}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@OperationsPerInvocation(UdpPacketDecodeBenchmark.PACKET_COUNT)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class UdpPacketDecodeBenchmark {
+
+  static final int PACKETS_PER_DATAGRAM = 7;
+
+  static final int DATAGRAM_COUNT = 1000;
+
+  static final int PACKET_COUNT = DATAGRAM_COUNT * PACKETS_PER_DATAGRAM;
+
+  private static final int FRAME_COUNT = 100;
+
+  private static final int VIDEO_PAYLOAD_SIZE = 16384;
+
+  private static final InetSocketAddress RECIPIENT = new InetSocketAddress("127.0.0.1", 50000);
+
+  private static final InetSocketAddress SENDER = new InetSocketAddress("127.0.0.1", 50001);
+
+  private List<byte[]> datagrams;
+
+  @Setup
+  public void setup() {
+    SyntheticTransportStream syntheticTransportStream = new SyntheticTransportStream();
+    for (int frame = 0; frame < FRAME_COUNT; frame++) {
+      syntheticTransportStream.addFrame(frame, VIDEO_PAYLOAD_SIZE);
+    }
+    List<byte[]> packets = syntheticTransportStream.toPackets();
+
+    if (packets.size() < PACKET_COUNT) {
+      throw new IllegalStateException("the synthetic transport stream is too short");
+    }
+
+    datagrams = new ArrayList<>(DATAGRAM_COUNT);
+    for (int datagram = 0; datagram < DATAGRAM_COUNT; datagram++) {
+      ByteBuffer buffer = ByteBuffer.allocate(PACKETS_PER_DATAGRAM * Constants.TS_PACKET_SIZE);
+      for (int packet = 0; packet < PACKETS_PER_DATAGRAM; packet++) {
+        buffer.put(packets.get(datagram * PACKETS_PER_DATAGRAM + packet));
+      }
+      datagrams.add(buffer.array());
+    }
+  }
+
+  /** The channel and decoder of one stream. */
+  @State(Scope.Thread)
+  public static class Stream {
+
+    private EmbeddedChannel channel;
+
+    @Setup
+    public void setup() {
+      UdpStreamProcessor udpStreamProcessor = new UdpStreamProcessor(null, null);
+      // the decoder only checks that the stream has a subject
+      udpStreamProcessor.setSubject(
+          (Subject)
+              Proxy.newProxyInstance(
+                  Subject.class.getClassLoader(),
+                  new Class<?>[] {Subject.class},
+                  (proxy, method, args) -> null));
+
+      channel =
+          new EmbeddedChannel(
+              new RawUdpDataToMTSPacketDecoder(new DiscardingPacketBuffer(), udpStreamProcessor));
+    }
+
+    @TearDown
+    public void tearDown() {
+      channel.finishAndReleaseAll();
+    }
+  }
+
+  private static class DiscardingPacketBuffer extends PacketBuffer {
+
+    @Override
+    public synchronized void write(ByteBuffer rawPacket) {
+      // the benchmark measures the decoder, not the segment files
+    }
+  }
+
+  private void decode(Stream stream, Blackhole blackhole) {
+    for (byte[] datagram : datagrams) {
+      stream.channel.writeInbound(
+          new DatagramPacket(Unpooled.wrappedBuffer(datagram), RECIPIENT, SENDER));
+      Object packet;
+      while ((packet = stream.channel.readInbound()) != null) {
+        blackhole.consume(packet);
+      }
+    }
+  }
+
+  @Benchmark
+  @Threads(1)
+  public void oneStream(Stream stream, Blackhole blackhole) {
+    decode(stream, blackhole);
+  }
+
+  @Benchmark
+  @Threads(2)
+  public void twoStreams(Stream stream, Blackhole blackhole) {
+    decode(stream, blackhole);
+  }
+
+  @Benchmark
+  @Threads(4)
+  public void fourStreams(Stream stream, Blackhole blackhole) {
+    decode(stream, blackhole);
+  }
+
+  @Benchmark
+  @Threads(8)
+  public void eightStreams(Stream stream, Blackhole blackhole) {
+    decode(stream, blackhole);
+  }
+}
@@ -0,0 +1,67 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.libs.klv;
+
+import ddf.catalog.data.Attribute;
+import ddf.catalog.data.impl.AttributeImpl;
+import java.util.Optional;
+import org.codice.ddf.libs.klv.KlvDataElement;
+import org.codice.ddf.libs.klv.data.numerical.KlvIntegerEncodedFloatingPoint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+/**
+ * This handler expects {@link KlvIntegerEncodedFloatingPoint} values and generates their average.
+ * Measurements like the altitude or the slant range change with every KLV packet, so only a running
+ * sum and count are kept instead of the values themselves.
+ */
+class AverageFloatingPointHandler extends BaseKlvHandler {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(AverageFloatingPointHandler.class);
+
+  private double sum;
+
+  private long count;
+
+  public AverageFloatingPointHandler(String attributeName) {
+    super(attributeName);
+  }
+
+  @Override
+  public Optional<Attribute> asAttribute() {
+    if (count == 0) {
+      return Optional.empty();
+    }
+    return Optional.of(new AttributeImpl(getAttributeName(), sum / count));
+  }
+
+  @Override
+  public void accept(KlvDataElement klvDataElement) {
+    if (!(klvDataElement instanceof KlvIntegerEncodedFloatingPoint)) {
+      LOGGER.debug(
+          "non-KlvIntegerEncodedFloatingPoint data was passed to the AverageFloatingPointHandler: name = {} klvDataElement = {}",
+          klvDataElement.getName(),
+          klvDataElement);
+      return;
+    }
+    sum += ((KlvIntegerEncodedFloatingPoint) klvDataElement).getValue();
+    count++;
+  }
+
+  @Override
+  public void reset() {
+    sum = 0;
+    count = 0;
+  }
+}
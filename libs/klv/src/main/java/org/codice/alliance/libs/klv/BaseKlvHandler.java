@@ -21,7 +21,7 @@ import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
-import java.util.function.BiConsumer;
+import java.util.function.ObjDoubleConsumer;
 
 public abstract class BaseKlvHandler implements KlvHandler {
 
@@ -44,19 +44,25 @@ public abstract class BaseKlvHandler implements KlvHandler {
     return Optional.of(new AttributeImpl(getAttributeName(), serials));
   }
 
-  protected <T> int getMinimumListSize(Collection<List<T>> lists) {
-    return lists.stream().mapToInt(List::size).min().orElse(0);
+  /**
+   * Return the size of the smallest buffer, or 0 if there are no buffers.
+   *
+   * @param buffers must be non-null
+   * @return minimum size
+   */
+  protected int getMinimumBufferSize(Collection<CoordinateBuffer> buffers) {
+    return buffers.stream().mapToInt(CoordinateBuffer::size).min().orElse(0);
   }
 
   protected void subsample(
-      Map<String, List<Double>> data,
+      Map<String, CoordinateBuffer> data,
       int subsampleCount,
       int size,
-      BiConsumer<String, Double> biConsumer) {
+      ObjDoubleConsumer<String> consumer) {
     data.forEach(
         (key, value) -> {
           for (int i = 0; i < subsampleCount; i++) {
-            biConsumer.accept(key, value.get(i * size / subsampleCount));
+            consumer.accept(key, value.get(i * size / subsampleCount));
           }
         });
   }
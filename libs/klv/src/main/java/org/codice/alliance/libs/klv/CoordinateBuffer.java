@@ -0,0 +1,94 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.libs.klv;
+
+import static org.apache.commons.lang3.Validate.inclusiveBetween;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A growable array of primitive doubles. The geospatial KLV handlers store one value per field for
+ * every KLV packet, so keeping the values unboxed avoids allocating an object for each of them.
+ */
+public class CoordinateBuffer {
+
+  private static final int INITIAL_CAPACITY = 16;
+
+  private double[] values = new double[INITIAL_CAPACITY];
+
+  private int size;
+
+  public void add(double value) {
+    if (size == values.length) {
+      values = Arrays.copyOf(values, size * 2);
+    }
+    values[size++] = value;
+  }
+
+  /**
+   * @param index must be &gt;=0 and &lt;{@link #size()}
+   * @return the value at the index
+   */
+  public double get(int index) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("index=" + index + " size=" + size);
+    }
+    return values[index];
+  }
+
+  /**
+   * @param index must be &gt;=0 and &lt;{@link #size()}
+   * @param value the new value at the index
+   */
+  public void set(int index, double value) {
+    if (index < 0 || index >= size) {
+      throw new IndexOutOfBoundsException("index=" + index + " size=" + size);
+    }
+    values[index] = value;
+  }
+
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Discard the values at the end of the buffer so that it contains {@code newSize} values.
+   *
+   * @param newSize must be &gt;=0 and &lt;={@link #size()}
+   */
+  public void truncate(int newSize) {
+    inclusiveBetween(0, size, newSize, "newSize must be >=0 and <=size");
+    size = newSize;
+  }
+
+  public void clear() {
+    values = new double[INITIAL_CAPACITY];
+    size = 0;
+  }
+
+  /**
+   * Return a copy of the values as boxed doubles.
+   *
+   * @return list of values
+   */
+  public List<Double> toList() {
+    List<Double> list = new ArrayList<>(size);
+    for (int i = 0; i < size; i++) {
+      list.add(values[i]);
+    }
+    return list;
+  }
+}
@@ -0,0 +1,98 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.libs.klv;
+
+import static org.apache.commons.lang3.Validate.isTrue;
+
+import java.util.Collection;
+
+/**
+ * Keeps the values of a group of {@link CoordinateBuffer}s bounded while they are filled. A row is
+ * the value at the same index of every buffer, which is one KLV packet for the geospatial handlers.
+ * Rows are kept until there are more than {@link #getMaxRows()} of them, then every other row is
+ * discarded and from that point only every second new row is kept. The buffers therefore always
+ * hold an evenly spaced sample of all of the rows that were added, no matter how long the stream
+ * is.
+ */
+class CoordinateSampler {
+
+  static final int DEFAULT_MAX_ROWS = 8192;
+
+  private final int maxRows;
+
+  private int stride = 1;
+
+  private long rowCount;
+
+  private int keptRows;
+
+  CoordinateSampler() {
+    this(DEFAULT_MAX_ROWS);
+  }
+
+  /** @param maxRows must be &gt;=2 */
+  CoordinateSampler(int maxRows) {
+    isTrue(maxRows >= 2, "maxRows must be >=2");
+    this.maxRows = maxRows;
+  }
+
+  int getMaxRows() {
+    return maxRows;
+  }
+
+  /**
+   * Trim the buffers to the same length and apply the sampling to the rows that were added since
+   * the last call.
+   *
+   * @param buffers must be non-null
+   */
+  void trim(Collection<CoordinateBuffer> buffers) {
+    int size = buffers.stream().mapToInt(CoordinateBuffer::size).min().orElse(0);
+
+    int kept = Math.min(keptRows, size);
+
+    for (int row = kept; row < size; row++) {
+      if (rowCount++ % stride == 0) {
+        move(buffers, row, kept++);
+      }
+    }
+
+    while (kept > maxRows) {
+      int half = 0;
+      for (int row = 0; row < kept; row += 2) {
+        move(buffers, row, half++);
+      }
+      kept = half;
+      stride *= 2;
+    }
+
+    int newSize = kept;
+    buffers.forEach(buffer -> buffer.truncate(newSize));
+    keptRows = newSize;
+  }
+
+  void reset() {
+    stride = 1;
+    rowCount = 0;
+    keptRows = 0;
+  }
+
+  private void move(Collection<CoordinateBuffer> buffers, int from, int to) {
+    if (from != to) {
+      for (CoordinateBuffer buffer : buffers) {
+        buffer.set(to, buffer.get(from));
+      }
+    }
+  }
+}
@@ -0,0 +1,154 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.libs.klv;
+
+import static org.apache.commons.lang3.Validate.inclusiveBetween;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import javax.annotation.concurrent.NotThreadSafe;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.operation.union.UnaryUnionOp;
+
+/**
+ * Keeps a running union of the locations of the segments that belong to a parent. Geometries are
+ * buffered as they are added and folded into the running union in batches with a cascaded union,
+ * so the cost of a fold depends on the size of the batch and of the current footprint instead of
+ * the number of segments seen so far. Each geometry may be identified by the id of the segment
+ * that it came from so that callers can skip segments that have already been added.
+ */
+@NotThreadSafe
+public class FootprintAccumulator {
+
+  public static final int DEFAULT_BATCH_SIZE = 32;
+
+  public static final int MIN_BATCH_SIZE = 1;
+
+  public static final int MAX_BATCH_SIZE = 4096;
+
+  private final int batchSize;
+
+  private final List<Geometry> pendingGeometries = new ArrayList<>();
+
+  private final Set<String> ids = new HashSet<>();
+
+  private Geometry footprint;
+
+  private int geometryCount;
+
+  public FootprintAccumulator() {
+    this(DEFAULT_BATCH_SIZE);
+  }
+
+  /**
+   * @param batchSize number of geometries buffered before they are folded into the footprint, must
+   *     be &gt;={@link #MIN_BATCH_SIZE} and &lt;={@link #MAX_BATCH_SIZE}
+   */
+  public FootprintAccumulator(int batchSize) {
+    inclusiveBetween(
+        MIN_BATCH_SIZE,
+        MAX_BATCH_SIZE,
+        batchSize,
+        String.format("batchSize must be >=%d and <=%d", MIN_BATCH_SIZE, MAX_BATCH_SIZE));
+    this.batchSize = batchSize;
+  }
+
+  /**
+   * Add a geometry to the footprint. Null and empty geometries are ignored.
+   *
+   * @param id identifies the source of the geometry, may be null if the source cannot be identified
+   * @param geometry geometry to add, may be null
+   * @return false if a geometry with the same id has already been added, otherwise true
+   */
+  public boolean add(String id, Geometry geometry) {
+    if (id != null && !ids.add(id)) {
+      return false;
+    }
+
+    if (geometry != null && !geometry.isEmpty()) {
+      pendingGeometries.add(geometry);
+      geometryCount++;
+      if (pendingGeometries.size() >= batchSize) {
+        fold();
+      }
+    }
+
+    return true;
+  }
+
+  /**
+   * @param id may be null
+   * @return true if a geometry with the id has already been added
+   */
+  public boolean contains(String id) {
+    return id != null && ids.contains(id);
+  }
+
+  /**
+   * Return the ids of the sources that have been added.
+   *
+   * @return unmodifiable view of the ids
+   */
+  public Set<String> getIds() {
+    return Collections.unmodifiableSet(ids);
+  }
+
+  /**
+   * Return the union of every geometry that has been added.
+   *
+   * @return the footprint, or {@link Optional#empty()} if no geometries have been added
+   */
+  public Optional<Geometry> getFootprint() {
+    fold();
+    return Optional.ofNullable(footprint);
+  }
+
+  /**
+   * Return the number of non-empty geometries that have been added.
+   *
+   * @return number of geometries
+   */
+  public int getGeometryCount() {
+    return geometryCount;
+  }
+
+  private void fold() {
+    if (pendingGeometries.isEmpty()) {
+      return;
+    }
+
+    if (footprint != null) {
+      pendingGeometries.add(footprint);
+    }
+
+    footprint = UnaryUnionOp.union(pendingGeometries);
+    pendingGeometries.clear();
+  }
+
+  @Override
+  public String toString() {
+    return "FootprintAccumulator{"
+        + "batchSize="
+        + batchSize
+        + ", geometryCount="
+        + geometryCount
+        + ", pendingCount="
+        + pendingGeometries.size()
+        + '}';
+  }
+}
@@ -16,13 +16,13 @@ package org.codice.alliance.libs.klv;
 import static org.apache.commons.lang3.Validate.notNull;
 
 import com.google.common.collect.ImmutableList;
-import ddf.catalog.data.Attribute;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.impl.AttributeImpl;
 import java.util.List;
 import java.util.Map;
 import java.util.stream.Collectors;
 import org.codice.alliance.libs.stanag4609.Stanag4609TransportStreamParser;
+import org.locationtech.jts.geom.Coordinate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -90,10 +90,13 @@ public class FrameCenterKlvProcessor implements KlvProcessor {
   }
 
   private void doProcess(
-      Attribute attribute, Metacard metacard, GeometryOperator.Context geometryOperatorContext) {
+      Coordinate[] coordinates,
+      Metacard metacard,
+      GeometryOperator.Context geometryOperatorContext) {
 
     String wkt =
-        GeometryUtility.attributeToLineString(attribute, geometryOperator, geometryOperatorContext);
+        GeometryUtility.coordinatesToLineString(
+            coordinates, geometryOperator, geometryOperatorContext);
 
     if (wkt != null) {
       setAttribute(metacard, wkt);
@@ -115,13 +118,10 @@ public class FrameCenterKlvProcessor implements KlvProcessor {
         .findFirst()
         .ifPresent(
             handler ->
-                handler
-                    .asSubsampledHandler(subsampleCount)
-                    .asAttribute()
-                    .ifPresent(
-                        attribute ->
-                            doProcess(
-                                attribute, metacard, configuration.getGeometryOperatorContext())));
+                doProcess(
+                    handler.asSubsampledHandler(subsampleCount).asCoordinates(),
+                    metacard,
+                    configuration.getGeometryOperatorContext()));
   }
 
   /** All handlers are found if the number of handlers is the same as the number of field names. */
@@ -21,17 +21,22 @@ import java.util.Map;
 import java.util.Optional;
 import org.codice.ddf.libs.klv.KlvDataElement;
 import org.codice.ddf.libs.klv.data.numerical.KlvIntegerEncodedFloatingPoint;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.geom.GeometryFactory;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
 /**
  * This handler expects four latitude-longitude pairs. It generates a WKT polygon for each four-pair
- * set.
+ * set, or the polygons themselves with {@link #asGeometries()}.
  */
 public class GeoBoxHandler extends BaseKlvHandler implements Trimmable {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(GeoBoxHandler.class);
 
+  private static final GeometryFactory GEOMETRY_FACTORY = new GeometryFactory();
+
   private String latitude1;
 
   private String longitude1;
@@ -48,7 +53,9 @@ public class GeoBoxHandler extends BaseKlvHandler implements Trimmable {
 
   private String longitude4;
 
-  private Map<String, List<Double>> map = new HashMap<>();
+  private Map<String, CoordinateBuffer> map = new HashMap<>();
+
+  private final CoordinateSampler sampler = new CoordinateSampler();
 
   /**
    * @param attributeName the name of the metacard attribute being generated
@@ -118,43 +125,94 @@ public class GeoBoxHandler extends BaseKlvHandler implements Trimmable {
     return longitude4;
   }
 
+  /**
+   * Return a copy of the stored values, keyed by field name.
+   *
+   * @return map of field name to values
+   */
   public Map<String, List<Double>> getRawGeoData() {
-    return map;
+    Map<String, List<Double>> rawGeoData = new HashMap<>();
+    map.forEach((fieldName, buffer) -> rawGeoData.put(fieldName, buffer.toList()));
+    return rawGeoData;
   }
 
   @Override
   public Optional<Attribute> asAttribute() {
 
-    int minimumListSize = getMinimumListSize();
+    List<Geometry> polygons = asGeometries();
 
-    List<String> polygonsWkts = new ArrayList<>();
+    List<String> polygonsWkts = new ArrayList<>(polygons.size());
 
-    for (int i = 0; i < minimumListSize; i++) {
+    for (Geometry polygon : polygons) {
+      Coordinate[] ring = polygon.getCoordinates();
       polygonsWkts.add(
           String.format(
               "POLYGON ((%f %f, %f %f, %f %f, %f %f, %f %f))",
-              map.get(longitude1).get(i),
-              map.get(latitude1).get(i),
-              map.get(longitude2).get(i),
-              map.get(latitude2).get(i),
-              map.get(longitude3).get(i),
-              map.get(latitude3).get(i),
-              map.get(longitude4).get(i),
-              map.get(latitude4).get(i),
-              map.get(longitude1).get(i),
-              map.get(latitude1).get(i)));
+              ring[0].x,
+              ring[0].y,
+              ring[1].x,
+              ring[1].y,
+              ring[2].x,
+              ring[2].y,
+              ring[3].x,
+              ring[3].y,
+              ring[4].x,
+              ring[4].y));
     }
 
     return asAttribute(polygonsWkts);
   }
 
+  /**
+   * Return a polygon for each complete set of four latitude-longitude pairs. The polygons are built
+   * directly from the stored values, with the longitude as x and the latitude as y.
+   *
+   * @return list of polygons, empty if there are no complete sets
+   */
+  public List<Geometry> asGeometries() {
+
+    CoordinateBuffer[] buffers = {
+      map.get(longitude1),
+      map.get(latitude1),
+      map.get(longitude2),
+      map.get(latitude2),
+      map.get(longitude3),
+      map.get(latitude3),
+      map.get(longitude4),
+      map.get(latitude4)
+    };
+
+    int size = Integer.MAX_VALUE;
+    for (CoordinateBuffer buffer : buffers) {
+      if (buffer == null) {
+        return new ArrayList<>();
+      }
+      size = Math.min(size, buffer.size());
+    }
+
+    List<Geometry> polygons = new ArrayList<>(size);
+
+    for (int i = 0; i < size; i++) {
+      Coordinate[] ring = new Coordinate[5];
+      for (int corner = 0; corner < 4; corner++) {
+        ring[corner] = new Coordinate(buffers[corner * 2].get(i), buffers[corner * 2 + 1].get(i));
+      }
+      ring[4] = new Coordinate(ring[0]);
+      polygons.add(GEOMETRY_FACTORY.createPolygon(ring));
+    }
+
+    return polygons;
+  }
+
   public GeoBoxHandler asSubsampledHandler(int subsampleCount) {
 
-    if (getRawGeoData().isEmpty()) {
+    CoordinateBuffer latitudes = map.get(getLatitude1());
+
+    if (latitudes == null) {
       return this;
     }
 
-    int size = getRawGeoData().get(getLatitude1()).size();
+    int size = latitudes.size();
 
     if (size <= subsampleCount) {
       return this;
@@ -172,24 +230,18 @@ public class GeoBoxHandler extends BaseKlvHandler implements Trimmable {
             getLatitude4(),
             getLongitude4());
 
-    subsample(getRawGeoData(), subsampleCount, size, out::accept);
+    subsample(map, subsampleCount, size, out::accept);
 
     return out;
   }
 
-  /** Trim the arrays of lat and lon values to the same length. */
+  /**
+   * Trim the arrays of lat and lon values to the same length. The number of values that are kept is
+   * bounded, see {@link CoordinateSampler}.
+   */
   @Override
   public void trim() {
-
-    int minListSize = getMinimumListSize();
-
-    map.keySet()
-        .forEach(
-            key ->
-                map.computeIfPresent(
-                    key,
-                    (fieldName, list) ->
-                        list.size() > minListSize ? list.subList(0, minListSize) : list));
+    sampler.trim(map.values());
   }
 
   @Override
@@ -208,14 +260,10 @@ public class GeoBoxHandler extends BaseKlvHandler implements Trimmable {
   @Override
   public void reset() {
     map.clear();
+    sampler.reset();
   }
 
-  public void accept(String name, Double value) {
-    map.putIfAbsent(name, new ArrayList<>());
-    map.get(name).add(value);
-  }
-
-  private int getMinimumListSize() {
-    return getMinimumListSize(map.values());
+  public void accept(String name, double value) {
+    map.computeIfAbsent(name, key -> new CoordinateBuffer()).add(value);
   }
 }
@@ -14,16 +14,19 @@
 package org.codice.alliance.libs.klv;
 
 import ddf.catalog.data.Attribute;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.function.BiFunction;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.geom.GeometryFactory;
 import org.locationtech.jts.io.ParseException;
 import org.locationtech.jts.io.WKTReader;
 import org.locationtech.jts.io.WKTWriter;
+import org.locationtech.jts.operation.union.UnaryUnionOp;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -75,18 +78,66 @@ public class GeometryUtility {
       BiFunction<Geometry, GeometryOperator.Context, Geometry> postUnionGeometryOperator,
       BiFunction<Geometry, GeometryOperator.Context, Geometry> preUnionGeometryOperator,
       GeometryOperator.Context geometryOperatorContext) {
-    return attribute.getValues().stream()
-        .filter(String.class::isInstance)
-        .map(String.class::cast)
-        .map(wkt -> wktToGeometry(wkt, wktReader))
-        .filter(Optional::isPresent)
-        .map(Optional::get)
-        .map(geometry -> preUnionGeometryOperator.apply(geometry, geometryOperatorContext))
-        .reduce(Geometry::union)
+    return createUnion(
+            attribute.getValues().stream()
+                .filter(String.class::isInstance)
+                .map(String.class::cast)
+                .map(wkt -> wktToGeometry(wkt, wktReader))
+                .filter(Optional::isPresent)
+                .map(Optional::get),
+            postUnionGeometryOperator,
+            preUnionGeometryOperator,
+            geometryOperatorContext)
+        .map(wktWriter::write);
+  }
+
+  /**
+   * Create the union of a collection of geometries. If the union cannot be computed, then this
+   * method returns {@link Optional#empty()}
+   *
+   * @param geometries non-null
+   * @param postUnionGeometryOperator non-null, transform the geometry (e.g. simplify or normalize)
+   * @param preUnionGeometryOperator non-null, transform the geometry just before the union
+   *     operation (e.g. reduce precision)
+   * @return optional wkt string
+   */
+  public static Optional<String> createUnionOfGeometries(
+      Collection<Geometry> geometries,
+      BiFunction<Geometry, GeometryOperator.Context, Geometry> postUnionGeometryOperator,
+      BiFunction<Geometry, GeometryOperator.Context, Geometry> preUnionGeometryOperator,
+      GeometryOperator.Context geometryOperatorContext) {
+    return createUnion(
+            geometries.stream(),
+            postUnionGeometryOperator,
+            preUnionGeometryOperator,
+            geometryOperatorContext)
+        .map(GeometryUtility::convertGeometryToWkt);
+  }
+
+  private static Optional<Geometry> createUnion(
+      Stream<Geometry> geometries,
+      BiFunction<Geometry, GeometryOperator.Context, Geometry> postUnionGeometryOperator,
+      BiFunction<Geometry, GeometryOperator.Context, Geometry> preUnionGeometryOperator,
+      GeometryOperator.Context geometryOperatorContext) {
+    List<Geometry> preparedGeometries =
+        geometries
+            .map(geometry -> preUnionGeometryOperator.apply(geometry, geometryOperatorContext))
+            .collect(Collectors.toList());
+    return union(preparedGeometries)
         .map(geometry -> postUnionGeometryOperator.apply(geometry, geometryOperatorContext))
         .map(geo -> !geo.isValid() ? geo.convexHull() : geo)
-        .filter(Geometry::isValid)
-        .map(wktWriter::write);
+        .filter(Geometry::isValid);
+  }
+
+  /**
+   * Union the geometries in a single cascaded operation instead of folding them pairwise, which
+   * re-nodes the growing result once per geometry. A single geometry is returned unchanged.
+   */
+  private static Optional<Geometry> union(List<Geometry> geometries) {
+    if (geometries.size() <= 1) {
+      return geometries.stream().findFirst();
+    }
+    return Optional.ofNullable(UnaryUnionOp.union(geometries));
   }
 
   public static Optional<Geometry> wktToGeometry(String wkt, WKTReader wktReader) {
@@ -117,6 +168,23 @@ public class GeometryUtility {
 
     Coordinate[] coordinates = listToArray(convertWktToCoordinates(points));
 
+    return coordinatesToLineString(coordinates, geometryOperator, geometryOperatorContext);
+  }
+
+  /**
+   * Convert an array of coordinates into a WKT. If the array contains more than one coordinate,
+   * then this method will return a WKT LineString. If the array contains one coordinate, then this
+   * method will return a WKT Point. Otherwise, it will return null.
+   *
+   * @param coordinates non-null
+   * @param geometryOperator applied to final geometry before being converted to WKT string
+   * @return a WKT LineString or Point
+   */
+  public static String coordinatesToLineString(
+      Coordinate[] coordinates,
+      GeometryOperator geometryOperator,
+      GeometryOperator.Context geometryOperatorContext) {
+
     Geometry geometry = convertCoordinatesToGeometry(coordinates);
 
     if (geometry == null) {
@@ -16,9 +16,7 @@ package org.codice.alliance.libs.klv;
 import java.util.HashMap;
 import java.util.Map;
 import org.codice.alliance.libs.stanag4609.Stanag4609TransportStreamParser;
-import org.codice.ddf.libs.klv.data.numerical.KlvIntegerEncodedFloatingPoint;
 import org.codice.ddf.libs.klv.data.numerical.KlvUnsignedByte;
-import org.codice.ddf.libs.klv.data.numerical.KlvUnsignedShort;
 import org.codice.ddf.libs.klv.data.text.KlvString;
 
 public class KlvHandlerFactoryImpl implements KlvHandlerFactory {
@@ -124,11 +122,6 @@ public class KlvHandlerFactoryImpl implements KlvHandlerFactory {
         Stanag4609TransportStreamParser.TIMESTAMP,
         new ListOfDatesHandler(AttributeNameConstants.TIMESTAMP));
 
-    handlers.put(
-        Stanag4609TransportStreamParser.CHECKSUM,
-        new ListOfBasicKlvDataTypesHandler<>(
-            AttributeNameConstants.CHECKSUM, KlvUnsignedShort.class));
-
     handlers.put(
         Stanag4609TransportStreamParser.IMAGE_COORDINATE_SYSTEM,
         new ListOfBasicKlvDataTypesHandler<>(
@@ -141,34 +134,27 @@ public class KlvHandlerFactoryImpl implements KlvHandlerFactory {
 
     handlers.put(
         Stanag4609TransportStreamParser.TARGET_WIDTH,
-        new ListOfBasicKlvDataTypesHandler<>(
-            AttributeNameConstants.TARGET_WIDTH_METERS, KlvIntegerEncodedFloatingPoint.class));
+        new AverageFloatingPointHandler(AttributeNameConstants.TARGET_WIDTH_METERS));
 
     handlers.put(
         Stanag4609TransportStreamParser.FRAME_CENTER_ELEVATION,
-        new ListOfBasicKlvDataTypesHandler<>(
-            AttributeNameConstants.FRAME_CENTER_ELEVATION, KlvIntegerEncodedFloatingPoint.class));
+        new AverageFloatingPointHandler(AttributeNameConstants.FRAME_CENTER_ELEVATION));
 
     handlers.put(
         Stanag4609TransportStreamParser.SENSOR_TRUE_ALTITUDE,
-        new ListOfBasicKlvDataTypesHandler<>(
-            AttributeNameConstants.SENSOR_TRUE_ALTITUDE, KlvIntegerEncodedFloatingPoint.class));
+        new AverageFloatingPointHandler(AttributeNameConstants.SENSOR_TRUE_ALTITUDE));
 
     handlers.put(
         Stanag4609TransportStreamParser.GROUND_RANGE,
-        new ListOfBasicKlvDataTypesHandler<>(
-            AttributeNameConstants.GROUND_RANGE, KlvIntegerEncodedFloatingPoint.class));
+        new AverageFloatingPointHandler(AttributeNameConstants.GROUND_RANGE));
 
     handlers.put(
         Stanag4609TransportStreamParser.SLANT_RANGE,
-        new ListOfBasicKlvDataTypesHandler<>(
-            AttributeNameConstants.SLANT_RANGE, KlvIntegerEncodedFloatingPoint.class));
+        new AverageFloatingPointHandler(AttributeNameConstants.SLANT_RANGE));
 
     handlers.put(
         Stanag4609TransportStreamParser.TARGET_LOCATION_ELEVATION,
-        new ListOfBasicKlvDataTypesHandler<>(
-            AttributeNameConstants.TARGET_LOCATION_ELEVATION,
-            KlvIntegerEncodedFloatingPoint.class));
+        new AverageFloatingPointHandler(AttributeNameConstants.TARGET_LOCATION_ELEVATION));
 
     KlvHandler frameCenter =
         new LatitudeLongitudeHandler(
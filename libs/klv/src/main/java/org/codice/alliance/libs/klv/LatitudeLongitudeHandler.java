@@ -21,15 +21,21 @@ import java.util.Map;
 import java.util.Optional;
 import org.codice.ddf.libs.klv.KlvDataElement;
 import org.codice.ddf.libs.klv.data.numerical.KlvIntegerEncodedFloatingPoint;
+import org.locationtech.jts.geom.Coordinate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-/** This handler expects pairs of latitude and longitude values. It generates WKT Points. */
+/**
+ * This handler expects pairs of latitude and longitude values. It generates WKT Points, or the
+ * coordinates themselves with {@link #asCoordinates()}.
+ */
 public class LatitudeLongitudeHandler extends BaseKlvHandler implements Trimmable {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(LatitudeLongitudeHandler.class);
 
-  private Map<String, List<Double>> map = new HashMap<>();
+  private Map<String, CoordinateBuffer> map = new HashMap<>();
+
+  private final CoordinateSampler sampler = new CoordinateSampler();
 
   private String latitudeFieldName;
 
@@ -50,34 +56,66 @@ public class LatitudeLongitudeHandler extends BaseKlvHandler implements Trimmabl
     return latitudeFieldName;
   }
 
+  /**
+   * Return a copy of the stored values, keyed by field name.
+   *
+   * @return map of field name to values
+   */
   public Map<String, List<Double>> getRawGeoData() {
-    return map;
+    Map<String, List<Double>> rawGeoData = new HashMap<>();
+    map.forEach((fieldName, buffer) -> rawGeoData.put(fieldName, buffer.toList()));
+    return rawGeoData;
   }
 
   @Override
   public Optional<Attribute> asAttribute() {
 
-    int minimumListSize = getMinimumListSize();
+    Coordinate[] coordinates = asCoordinates();
 
-    List<String> pairs = new ArrayList<>();
+    List<String> pairs = new ArrayList<>(coordinates.length);
 
-    for (int i = 0; i < minimumListSize; i++) {
-      pairs.add(
-          String.format(
-              "POINT (%f %f)",
-              map.get(longitudeFieldName).get(i), map.get(latitudeFieldName).get(i)));
+    for (Coordinate coordinate : coordinates) {
+      pairs.add(String.format("POINT (%f %f)", coordinate.x, coordinate.y));
     }
 
     return asAttribute(pairs);
   }
 
+  /**
+   * Return a coordinate for each latitude-longitude pair, with the longitude as x and the latitude
+   * as y.
+   *
+   * @return array of coordinates, empty if there are no complete pairs
+   */
+  public Coordinate[] asCoordinates() {
+
+    CoordinateBuffer latitudes = map.get(latitudeFieldName);
+    CoordinateBuffer longitudes = map.get(longitudeFieldName);
+
+    if (latitudes == null || longitudes == null) {
+      return new Coordinate[0];
+    }
+
+    int size = Math.min(latitudes.size(), longitudes.size());
+
+    Coordinate[] coordinates = new Coordinate[size];
+
+    for (int i = 0; i < size; i++) {
+      coordinates[i] = new Coordinate(longitudes.get(i), latitudes.get(i));
+    }
+
+    return coordinates;
+  }
+
   public LatitudeLongitudeHandler asSubsampledHandler(int subsampleCount) {
 
-    if (getRawGeoData().isEmpty()) {
+    CoordinateBuffer latitudes = map.get(getLatitudeFieldName());
+
+    if (latitudes == null) {
       return this;
     }
 
-    int size = getRawGeoData().get(getLatitudeFieldName()).size();
+    int size = latitudes.size();
 
     if (size <= subsampleCount) {
       return this;
@@ -87,23 +125,18 @@ public class LatitudeLongitudeHandler extends BaseKlvHandler implements Trimmabl
         new LatitudeLongitudeHandler(
             getAttributeName(), getLatitudeFieldName(), getLongitudeFieldName());
 
-    subsample(getRawGeoData(), subsampleCount, size, out::accept);
+    subsample(map, subsampleCount, size, out::accept);
 
     return out;
   }
 
-  /** Trim the arrays of lat and lon values to the same length. */
+  /**
+   * Trim the arrays of lat and lon values to the same length. The number of values that are kept is
+   * bounded, see {@link CoordinateSampler}.
+   */
   @Override
   public void trim() {
-    int minListSize = getMinimumListSize();
-
-    map.keySet()
-        .forEach(
-            key ->
-                map.computeIfPresent(
-                    key,
-                    (fieldName, list) ->
-                        list.size() > minListSize ? list.subList(0, minListSize) : list));
+    sampler.trim(map.values());
   }
 
   @Override
@@ -115,22 +148,16 @@ public class LatitudeLongitudeHandler extends BaseKlvHandler implements Trimmabl
           klvDataElement);
       return;
     }
-    map.putIfAbsent(klvDataElement.getName(), new ArrayList<>());
-    map.get(klvDataElement.getName())
-        .add(((KlvIntegerEncodedFloatingPoint) klvDataElement).getValue());
+    accept(klvDataElement.getName(), ((KlvIntegerEncodedFloatingPoint) klvDataElement).getValue());
   }
 
   @Override
   public void reset() {
     map.clear();
+    sampler.reset();
   }
 
-  public void accept(String name, Double value) {
-    map.putIfAbsent(name, new ArrayList<>());
-    map.get(name).add(value);
-  }
-
-  private int getMinimumListSize() {
-    return getMinimumListSize(map.values());
+  public void accept(String name, double value) {
+    map.computeIfAbsent(name, key -> new CoordinateBuffer()).add(value);
   }
 }
@@ -15,9 +15,9 @@ package org.codice.alliance.libs.klv;
 
 import ddf.catalog.data.Attribute;
 import java.io.Serializable;
-import java.util.LinkedList;
-import java.util.List;
+import java.util.LinkedHashSet;
 import java.util.Optional;
+import java.util.Set;
 import org.codice.ddf.libs.klv.KlvDataElement;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -25,7 +25,8 @@ import org.slf4j.LoggerFactory;
 /**
  * This handler expects a KlvDataElement that matches the Class passed into {@link
  * #ListOfBasicKlvDataTypesHandler(String, Class)} generates a list of values returned by {@link
- * KlvDataElement#getValue()}.
+ * KlvDataElement#getValue()}. Each distinct value is kept once, in the order it was first seen, so
+ * a value that is repeated in every KLV packet of a stream is only stored once.
  */
 class ListOfBasicKlvDataTypesHandler<T extends Serializable> extends BaseKlvHandler {
 
@@ -34,7 +35,7 @@ class ListOfBasicKlvDataTypesHandler<T extends Serializable> extends BaseKlvHand
 
   private Class<? extends KlvDataElement<T>> clazz;
 
-  private List<T> list = new LinkedList<>();
+  private Set<T> values = new LinkedHashSet<>();
 
   public ListOfBasicKlvDataTypesHandler(
       String attributeName, Class<? extends KlvDataElement<T>> clazz) {
@@ -44,7 +45,7 @@ class ListOfBasicKlvDataTypesHandler<T extends Serializable> extends BaseKlvHand
 
   @Override
   public Optional<Attribute> asAttribute() {
-    return asAttribute(list);
+    return asAttribute(values);
   }
 
   @Override
@@ -57,11 +58,11 @@ class ListOfBasicKlvDataTypesHandler<T extends Serializable> extends BaseKlvHand
           klvDataElement);
       return;
     }
-    list.add(clazz.cast(klvDataElement).getValue());
+    values.add(clazz.cast(klvDataElement).getValue());
   }
 
   @Override
   public void reset() {
-    list.clear();
+    values.clear();
   }
 }
@@ -14,8 +14,8 @@
 package org.codice.alliance.libs.klv;
 
 import ddf.catalog.data.Attribute;
+import java.util.ArrayList;
 import java.util.Date;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Optional;
 import java.util.concurrent.TimeUnit;
@@ -24,12 +24,18 @@ import org.codice.ddf.libs.klv.data.numerical.KlvLong;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
-/** This handler expects dates as microseconds since epoch and it generates a list of Dates. */
+/**
+ * This handler expects dates as microseconds since epoch and it generates a list of Dates. Only the
+ * first and the last date are kept, because they are the only ones used to set the temporal
+ * attributes, and keeping every timestamp would grow with the length of the stream.
+ */
 class ListOfDatesHandler extends BaseKlvHandler {
 
   private static final Logger LOGGER = LoggerFactory.getLogger(ListOfDatesHandler.class);
 
-  private List<Date> dateList = new LinkedList<>();
+  private Date firstDate;
+
+  private Date lastDate;
 
   public ListOfDatesHandler(String attributeName) {
     super(attributeName);
@@ -37,6 +43,13 @@ class ListOfDatesHandler extends BaseKlvHandler {
 
   @Override
   public Optional<Attribute> asAttribute() {
+    List<Date> dateList = new ArrayList<>(2);
+    if (firstDate != null) {
+      dateList.add(firstDate);
+    }
+    if (lastDate != null) {
+      dateList.add(lastDate);
+    }
     return asAttribute(dateList);
   }
 
@@ -49,11 +62,17 @@ class ListOfDatesHandler extends BaseKlvHandler {
           klvDataElement);
       return;
     }
-    dateList.add(new Date(TimeUnit.MICROSECONDS.toMillis(((KlvLong) klvDataElement).getValue())));
+    Date date = new Date(TimeUnit.MICROSECONDS.toMillis(((KlvLong) klvDataElement).getValue()));
+    if (firstDate == null) {
+      firstDate = date;
+    } else {
+      lastDate = date;
+    }
   }
 
   @Override
   public void reset() {
-    dateList.clear();
+    firstDate = null;
+    lastDate = null;
   }
 }
@@ -15,15 +15,15 @@ package org.codice.alliance.libs.klv;
 
 import static org.apache.commons.lang3.Validate.notNull;
 
-import ddf.catalog.data.Attribute;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.impl.AttributeImpl;
 import java.util.Arrays;
+import java.util.List;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
-import org.locationtech.jts.io.WKTReader;
-import org.locationtech.jts.io.WKTWriter;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.geom.Geometry;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
@@ -106,13 +106,10 @@ public class LocationKlvProcessor implements KlvProcessor {
     find(handlers, AttributeNameConstants.FRAME_CENTER, LatitudeLongitudeHandler.class)
         .ifPresent(
             frameCenterHandler ->
-                frameCenterHandler
-                    .asSubsampledHandler(subsampleCount)
-                    .asAttribute()
-                    .ifPresent(
-                        attribute ->
-                            setLocationFromFrameCenter(
-                                metacard, attribute, geometryOperatorContext)));
+                setLocationFromFrameCenter(
+                    metacard,
+                    frameCenterHandler.asSubsampledHandler(subsampleCount).asCoordinates(),
+                    geometryOperatorContext));
   }
 
   private boolean isLocationNotSet(Metacard metacard) {
@@ -127,24 +124,16 @@ public class LocationKlvProcessor implements KlvProcessor {
     find(handlers, AttributeNameConstants.CORNER, GeoBoxHandler.class)
         .ifPresent(
             cornerHandler ->
-                cornerHandler
-                    .asSubsampledHandler(subsampleCount)
-                    .asAttribute()
-                    .ifPresent(
-                        attribute ->
-                            setLocationFromAttribute(
-                                metacard, attribute, geometryOperatorContext)));
+                setLocationFromCorners(
+                    metacard,
+                    cornerHandler.asSubsampledHandler(subsampleCount).asGeometries(),
+                    geometryOperatorContext));
   }
 
-  private void setLocationFromAttribute(
-      Metacard metacard, Attribute attribute, GeometryOperator.Context geometryOperatorContext) {
-    WKTReader wktReader = new WKTReader();
-    WKTWriter wktWriter = new WKTWriter();
-
-    GeometryUtility.createUnionOfGeometryAttribute(
-            wktReader,
-            wktWriter,
-            attribute,
+  private void setLocationFromCorners(
+      Metacard metacard, List<Geometry> corners, GeometryOperator.Context geometryOperatorContext) {
+    GeometryUtility.createUnionOfGeometries(
+            corners,
             postUnionGeometryOperator,
             preUnionGeometryOperator,
             geometryOperatorContext)
@@ -156,11 +145,13 @@ public class LocationKlvProcessor implements KlvProcessor {
    * string.
    */
   private void setLocationFromFrameCenter(
-      Metacard metacard, Attribute attribute, GeometryOperator.Context geometryOperatorContext) {
+      Metacard metacard,
+      Coordinate[] frameCenters,
+      GeometryOperator.Context geometryOperatorContext) {
 
     String wkt =
-        GeometryUtility.attributeToLineString(
-            attribute,
+        GeometryUtility.coordinatesToLineString(
+            frameCenters,
             new GeometryOperatorList(
                 Arrays.asList(preUnionGeometryOperator, postUnionGeometryOperator)),
             geometryOperatorContext);
@@ -0,0 +1,33 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.libs.klv;
+
+import java.util.Optional;
+import org.codice.alliance.libs.stanag4609.DecodedKLVMetadataPacket;
+
+/**
+ * Decode the KLV carried by a single PES packet of a STANAG 4609 metadata stream. Unlike {@link
+ * Stanag4609Parser}, this does not read the transport stream itself, so the caller decides how the
+ * stream is demultiplexed and what is kept after each packet is decoded.
+ */
+public interface Stanag4609PacketDecoder {
+
+  /**
+   * @param pesPacketBytes complete PES packet, including the PES header (must be non-null)
+   * @return the decoded packet, or empty if the packet does not contain decodable KLV
+   * @throws Stanag4609ParseException if the packet cannot be parsed at all
+   */
+  Optional<DecodedKLVMetadataPacket> decode(byte[] pesPacketBytes)
+      throws Stanag4609ParseException;
+}
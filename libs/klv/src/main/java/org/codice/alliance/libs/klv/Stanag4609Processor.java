@@ -30,6 +30,11 @@ public interface Stanag4609Processor {
       KlvHandler defaultHander,
       Map<Integer, List<DecodedKLVMetadataPacket>> stanagMetadata);
 
+  void handle(
+      Map<String, KlvHandler> handlers,
+      KlvHandler defaultHandler,
+      DecodedKLVMetadataPacket decodedKLVMetadataPacket);
+
   void handle(
       Map<String, KlvHandler> handlers,
       KlvHandler defaultHandler,
@@ -45,14 +45,27 @@ public class Stanag4609ProcessorImpl implements Stanag4609Processor {
     stanagMetadata.values().stream()
         .flatMap(List::stream)
         .forEach(
-            decodedKLVMetadataPacket -> {
-              Map<String, KlvDataElement> dataElements = new HashMap<>();
+            decodedKLVMetadataPacket -> handle(handlers, defaultHander, decodedKLVMetadataPacket));
+  }
+
+  /**
+   * Pass a single {@link DecodedKLVMetadataPacket} to {@link #handle(Map, KlvHandler, KlvContext,
+   * Map)} and post-process the data elements it contained. This allows callers to handle packets as
+   * they are decoded instead of collecting them first.
+   *
+   * @param handlers map of klv handers
+   * @param decodedKLVMetadataPacket klv metadata packet
+   */
+  @Override
+  public void handle(
+      Map<String, KlvHandler> handlers,
+      KlvHandler defaultHandler,
+      DecodedKLVMetadataPacket decodedKLVMetadataPacket) {
+    Map<String, KlvDataElement> dataElements = new HashMap<>();
 
-              handle(
-                  handlers, defaultHander, decodedKLVMetadataPacket.getDecodedKLV(), dataElements);
+    handle(handlers, defaultHandler, decodedKLVMetadataPacket.getDecodedKLV(), dataElements);
 
-              postProcessor.postProcess(dataElements, handlers);
-            });
+    postProcessor.postProcess(dataElements, handlers);
   }
 
   /**
@@ -14,8 +14,21 @@
 package org.codice.alliance.libs.klv;
 
 import com.google.common.io.ByteSource;
+import java.util.Collection;
 
 public interface StanagParserFactory {
 
   Stanag4609Parser createParser(ByteSource byteSource);
+
+  Stanag4609PacketDecoder createPacketDecoder();
+
+  /**
+   * Create a packet decoder that only decodes some of the data elements of each packet. The
+   * checksum of each packet is still validated.
+   *
+   * @param dataElementNames the names of the data elements to decode, normally the keys of the map
+   *     returned by {@link KlvHandlerFactory#createStanag4609Handlers()} (must be non-null)
+   * @return a packet decoder
+   */
+  Stanag4609PacketDecoder createPacketDecoder(Collection<String> dataElementNames);
 }
@@ -13,8 +13,17 @@
  */
 package org.codice.alliance.libs.klv;
 
+import static org.apache.commons.lang3.Validate.notNull;
+
 import com.google.common.io.ByteSource;
+import java.util.Collection;
+import java.util.Optional;
+import org.codice.alliance.libs.stanag4609.PESUtilities;
 import org.codice.alliance.libs.stanag4609.Stanag4609TransportStreamParser;
+import org.codice.ddf.libs.klv.KlvDecoder;
+import org.codice.ddf.libs.klv.KlvDecodingException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 
 /**
  * This factory returns a {@link Stanag4609Parser} that uses {@link
@@ -22,6 +31,8 @@ import org.codice.alliance.libs.stanag4609.Stanag4609TransportStreamParser;
  */
 public class StanagParserFactoryImpl implements StanagParserFactory {
 
+  private static final Logger LOGGER = LoggerFactory.getLogger(StanagParserFactoryImpl.class);
+
   @Override
   public Stanag4609Parser createParser(ByteSource byteSource) {
     return () -> {
@@ -32,4 +43,36 @@ public class StanagParserFactoryImpl implements StanagParserFactory {
       }
     };
   }
+
+  /**
+   * Packets that cannot be decoded are logged and skipped, which matches how {@link
+   * Stanag4609TransportStreamParser} handles them.
+   */
+  @Override
+  public Stanag4609PacketDecoder createPacketDecoder() {
+    return createPacketDecoder(
+        new KlvDecoder(Stanag4609TransportStreamParser.UAS_DATALINK_LOCAL_SET_CONTEXT));
+  }
+
+  @Override
+  public Stanag4609PacketDecoder createPacketDecoder(Collection<String> dataElementNames) {
+    notNull(dataElementNames, "dataElementNames must be non-null");
+    return createPacketDecoder(
+        new KlvDecoder(
+            Stanag4609TransportStreamParser.createUasDatalinkLocalSetContext(dataElementNames)));
+  }
+
+  private Stanag4609PacketDecoder createPacketDecoder(KlvDecoder klvDecoder) {
+    return pesPacketBytes -> {
+      notNull(pesPacketBytes, "pesPacketBytes must be non-null");
+      try {
+        return Optional.ofNullable(PESUtilities.handlePESPacketBytes(pesPacketBytes, klvDecoder));
+      } catch (KlvDecodingException e) {
+        LOGGER.debug("The KLV could not be decoded.", e);
+      } catch (RuntimeException e) {
+        LOGGER.debug("An error occurred while handling the metadata packet bytes.", e);
+      }
+      return Optional.empty();
+    };
+  }
 }
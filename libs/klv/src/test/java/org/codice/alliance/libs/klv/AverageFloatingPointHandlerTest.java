@@ -0,0 +1,65 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.libs.klv;
+
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+import static org.mockito.Mockito.mock;
+
+import org.codice.ddf.libs.klv.KlvDecodingException;
+import org.codice.ddf.libs.klv.data.numerical.KlvInt;
+import org.junit.Before;
+import org.junit.Test;
+
+public class AverageFloatingPointHandlerTest {
+
+  private KlvHandler handler;
+
+  @Before
+  public void setup() {
+    handler = new AverageFloatingPointHandler("field");
+  }
+
+  @Test
+  public void testEmpty() {
+    assertThat(handler.asAttribute().isPresent(), is(false));
+  }
+
+  @Test
+  public void testAcceptWrongType() {
+    handler.accept(mock(KlvInt.class));
+
+    assertThat(handler.asAttribute().isPresent(), is(false));
+  }
+
+  @Test
+  public void testAverage() throws KlvDecodingException {
+    handler.accept(KlvUtilities.createTestFloat("a", 10));
+    handler.accept(KlvUtilities.createTestFloat("a", 20));
+    handler.accept(KlvUtilities.createTestFloat("a", 60));
+
+    assertThat(handler.asAttribute().get().getValues().size(), is(1));
+    assertThat((Double) handler.asAttribute().get().getValue(), is(closeTo(30, 0.001)));
+  }
+
+  @Test
+  public void testReset() throws KlvDecodingException {
+    handler.accept(KlvUtilities.createTestFloat("a", 10));
+
+    handler.reset();
+
+    assertThat(handler.asAttribute().isPresent(), is(false));
+  }
+}
@@ -0,0 +1,98 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.libs.klv;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import org.junit.Before;
+import org.junit.Test;
+
+public class CoordinateBufferTest {
+
+  private CoordinateBuffer coordinateBuffer;
+
+  @Before
+  public void setup() {
+    coordinateBuffer = new CoordinateBuffer();
+  }
+
+  @Test
+  public void testGrowth() {
+    int count = 1000;
+
+    for (int i = 0; i < count; i++) {
+      coordinateBuffer.add(i);
+    }
+
+    assertThat(coordinateBuffer.size(), is(count));
+    assertThat(coordinateBuffer.get(0), is(0.0));
+    assertThat(coordinateBuffer.get(count - 1), is((double) count - 1));
+  }
+
+  @Test
+  public void testTruncate() {
+    coordinateBuffer.add(1);
+    coordinateBuffer.add(2);
+    coordinateBuffer.add(3);
+
+    coordinateBuffer.truncate(2);
+
+    assertThat(coordinateBuffer.toList(), contains(1.0, 2.0));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testTruncateBeyondSize() {
+    coordinateBuffer.add(1);
+
+    coordinateBuffer.truncate(2);
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testGetBeyondSize() {
+    coordinateBuffer.add(1);
+    coordinateBuffer.truncate(0);
+
+    coordinateBuffer.get(0);
+  }
+
+  @Test
+  public void testSet() {
+    coordinateBuffer.add(1);
+    coordinateBuffer.add(2);
+
+    coordinateBuffer.set(0, 3);
+
+    assertThat(coordinateBuffer.toList(), contains(3.0, 2.0));
+  }
+
+  @Test(expected = IndexOutOfBoundsException.class)
+  public void testSetBeyondSize() {
+    coordinateBuffer.add(1);
+
+    coordinateBuffer.set(1, 2);
+  }
+
+  @Test
+  public void testClear() {
+    coordinateBuffer.add(1);
+
+    coordinateBuffer.clear();
+
+    assertThat(coordinateBuffer.size(), is(0));
+    assertThat(coordinateBuffer.toList(), is(empty()));
+  }
+}
@@ -0,0 +1,109 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.libs.klv;
+
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Arrays;
+import java.util.List;
+import org.junit.Before;
+import org.junit.Test;
+
+public class CoordinateSamplerTest {
+
+  private CoordinateBuffer latitudes;
+
+  private CoordinateBuffer longitudes;
+
+  private List<CoordinateBuffer> buffers;
+
+  @Before
+  public void setup() {
+    latitudes = new CoordinateBuffer();
+    longitudes = new CoordinateBuffer();
+    buffers = Arrays.asList(latitudes, longitudes);
+  }
+
+  @Test
+  public void testRowsBelowTheLimitAreKept() {
+    CoordinateSampler sampler = new CoordinateSampler(4);
+
+    addRows(sampler, 3);
+
+    assertThat(latitudes.toList(), contains(0.0, 1.0, 2.0));
+    assertThat(longitudes.toList(), contains(0.0, -1.0, -2.0));
+  }
+
+  @Test
+  public void testRowsAreEvenlySpacedAboveTheLimit() {
+    CoordinateSampler sampler = new CoordinateSampler(4);
+
+    addRows(sampler, 13);
+
+    assertThat(latitudes.toList(), contains(0.0, 4.0, 8.0, 12.0));
+    assertThat(longitudes.toList(), contains(0.0, -4.0, -8.0, -12.0));
+  }
+
+  @Test
+  public void testMemoryIsBounded() {
+    CoordinateSampler sampler = new CoordinateSampler();
+
+    addRows(sampler, 100_000);
+
+    assertThat(latitudes.size() <= sampler.getMaxRows(), is(true));
+    assertThat(latitudes.size() >= sampler.getMaxRows() / 2, is(true));
+  }
+
+  @Test
+  public void testIncompleteRowIsTrimmed() {
+    CoordinateSampler sampler = new CoordinateSampler(4);
+
+    latitudes.add(1);
+    longitudes.add(1);
+    latitudes.add(2);
+    sampler.trim(buffers);
+
+    assertThat(latitudes.toList(), contains(1.0));
+    assertThat(longitudes.toList(), contains(1.0));
+  }
+
+  @Test
+  public void testReset() {
+    CoordinateSampler sampler = new CoordinateSampler(4);
+    addRows(sampler, 13);
+    latitudes.clear();
+    longitudes.clear();
+
+    sampler.reset();
+    addRows(sampler, 3);
+
+    assertThat(latitudes.toList(), contains(0.0, 1.0, 2.0));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testMaxRowsTooSmall() {
+    new CoordinateSampler(1);
+  }
+
+  /** Add one row at a time and trim after each, the way the handlers are post-processed. */
+  private void addRows(CoordinateSampler sampler, int count) {
+    for (int i = 0; i < count; i++) {
+      latitudes.add(i);
+      longitudes.add(-i);
+      sampler.trim(buffers);
+    }
+  }
+}
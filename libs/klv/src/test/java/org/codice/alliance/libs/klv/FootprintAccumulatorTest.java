@@ -0,0 +1,106 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.libs.klv;
+
+import static org.hamcrest.core.Is.is;
+import static org.junit.Assert.assertThat;
+
+import java.util.Optional;
+import org.junit.Test;
+import org.locationtech.jts.geom.Geometry;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
+
+public class FootprintAccumulatorTest {
+
+  private final WKTReader wktReader = new WKTReader();
+
+  @Test
+  public void testEmpty() {
+    FootprintAccumulator footprintAccumulator = new FootprintAccumulator();
+
+    assertThat(footprintAccumulator.getFootprint(), is(Optional.empty()));
+    assertThat(footprintAccumulator.getGeometryCount(), is(0));
+  }
+
+  @Test
+  public void testUnionAcrossBatches() throws ParseException {
+    FootprintAccumulator footprintAccumulator = new FootprintAccumulator(2);
+
+    for (int i = 0; i < 5; i++) {
+      footprintAccumulator.add("segment" + i, square(i * 10));
+    }
+
+    Geometry expected = wktReader.read("POLYGON ((0 0, 50 0, 50 10, 0 10, 0 0))");
+
+    assertThat(footprintAccumulator.getGeometryCount(), is(5));
+    assertThat(footprintAccumulator.getFootprint().get().equalsTopo(expected), is(true));
+  }
+
+  @Test
+  public void testAddAfterGetFootprint() throws ParseException {
+    FootprintAccumulator footprintAccumulator = new FootprintAccumulator();
+
+    footprintAccumulator.add("segment0", square(0));
+    footprintAccumulator.getFootprint();
+    footprintAccumulator.add("segment1", square(10));
+
+    Geometry expected = wktReader.read("POLYGON ((0 0, 20 0, 20 10, 0 10, 0 0))");
+
+    assertThat(footprintAccumulator.getFootprint().get().equalsTopo(expected), is(true));
+  }
+
+  @Test
+  public void testDuplicateId() throws ParseException {
+    FootprintAccumulator footprintAccumulator = new FootprintAccumulator();
+
+    assertThat(footprintAccumulator.add("segment", square(0)), is(true));
+    assertThat(footprintAccumulator.add("segment", square(10)), is(false));
+
+    assertThat(footprintAccumulator.contains("segment"), is(true));
+    assertThat(footprintAccumulator.getGeometryCount(), is(1));
+    assertThat(footprintAccumulator.getFootprint().get().equalsTopo(square(0)), is(true));
+  }
+
+  @Test
+  public void testNullIdIsAlwaysAdded() throws ParseException {
+    FootprintAccumulator footprintAccumulator = new FootprintAccumulator();
+
+    assertThat(footprintAccumulator.add(null, square(0)), is(true));
+    assertThat(footprintAccumulator.add(null, square(10)), is(true));
+
+    assertThat(footprintAccumulator.contains(null), is(false));
+    assertThat(footprintAccumulator.getGeometryCount(), is(2));
+  }
+
+  @Test
+  public void testEmptyGeometryIsIgnored() throws ParseException {
+    FootprintAccumulator footprintAccumulator = new FootprintAccumulator();
+
+    footprintAccumulator.add("segment", wktReader.read("POLYGON EMPTY"));
+
+    assertThat(footprintAccumulator.contains("segment"), is(true));
+    assertThat(footprintAccumulator.getFootprint(), is(Optional.empty()));
+  }
+
+  @Test(expected = IllegalArgumentException.class)
+  public void testInvalidBatchSize() {
+    new FootprintAccumulator(0);
+  }
+
+  private Geometry square(int x) throws ParseException {
+    return wktReader.read(
+        String.format("POLYGON ((%d 0, %d 0, %d 10, %d 10, %d 0))", x, x + 10, x + 10, x, x));
+  }
+}
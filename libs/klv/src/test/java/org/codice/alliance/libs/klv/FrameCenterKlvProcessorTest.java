@@ -22,20 +22,18 @@ import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import ddf.catalog.data.Attribute;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.impl.MetacardImpl;
 import ddf.catalog.data.types.Media;
-import java.io.Serializable;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Optional;
 import org.codice.alliance.libs.stanag4609.Stanag4609TransportStreamParser;
 import org.junit.Before;
 import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.io.ParseException;
 import org.locationtech.jts.io.WKTReader;
 import org.locationtech.jts.io.WKTWriter;
@@ -47,16 +45,15 @@ public class FrameCenterKlvProcessorTest {
 
   private Map<String, KlvHandler> handlerMap;
 
-  private Attribute attribute;
+  private LatitudeLongitudeHandler klvHandler;
 
   @Before
   public void setup() {
     frameCenterKlvProcessor = new FrameCenterKlvProcessor();
-    attribute = mock(Attribute.class);
 
-    LatitudeLongitudeHandler klvHandler = mock(LatitudeLongitudeHandler.class);
-    when(klvHandler.asAttribute()).thenReturn(Optional.of(attribute));
-    when(klvHandler.asSubsampledHandler(Mockito.anyInt())).thenCallRealMethod();
+    klvHandler = mock(LatitudeLongitudeHandler.class);
+    when(klvHandler.asCoordinates()).thenReturn(new Coordinate[0]);
+    when(klvHandler.asSubsampledHandler(Mockito.anyInt())).thenReturn(klvHandler);
 
     handlerMap = new HashMap<>();
     handlerMap.put(Stanag4609TransportStreamParser.FRAME_CENTER_LATITUDE, klvHandler);
@@ -64,7 +61,8 @@ public class FrameCenterKlvProcessorTest {
   }
 
   @Test
-  public void testNullAttribute() {
+  public void testNullAttribute() throws ParseException {
+    when(klvHandler.asCoordinates()).thenReturn(coordinates("POINT(0 0)", "POINT(1 1)"));
     GeometryOperator geometryOperator = mock(GeometryOperator.class);
     when(geometryOperator.apply(any(), any())).thenReturn(null);
     FrameCenterKlvProcessor processor = new FrameCenterKlvProcessor(geometryOperator);
@@ -81,9 +79,10 @@ public class FrameCenterKlvProcessorTest {
    * #testOneCoordinate()} and {@link #testMultipleCoordinates()} pass.
    */
   @Test
-  public void testMissingSubsampleConfiguration() {
+  public void testMissingSubsampleConfiguration() throws ParseException {
 
-    when(attribute.getValues()).thenReturn(Arrays.asList("POINT(0 0)", "POINT(1 1)", "POINT(2 2)"));
+    when(klvHandler.asCoordinates())
+        .thenReturn(coordinates("POINT(0 0)", "POINT(1 1)", "POINT(2 2)"));
 
     Metacard metacard = mock(Metacard.class);
 
@@ -101,9 +100,10 @@ public class FrameCenterKlvProcessorTest {
    * #testMultipleCoordinates()} pass.
    */
   @Test
-  public void testMinSubsampleConfiguration() {
+  public void testMinSubsampleConfiguration() throws ParseException {
 
-    when(attribute.getValues()).thenReturn(Arrays.asList("POINT(0 0)", "POINT(1 1)", "POINT(2 2)"));
+    when(klvHandler.asCoordinates())
+        .thenReturn(coordinates("POINT(0 0)", "POINT(1 1)", "POINT(2 2)"));
 
     Metacard metacard = mock(Metacard.class);
 
@@ -128,9 +128,8 @@ public class FrameCenterKlvProcessorTest {
     verifyFrameCenter(Collections.singletonList("POINT(1 2)"), "POINT(1 2)");
   }
 
-  private void verifyFrameCenter(List<Serializable> coordinates, String frameCenterWkt)
-      throws ParseException {
-    when(attribute.getValues()).thenReturn(coordinates);
+  private void verifyFrameCenter(List<String> points, String frameCenterWkt) throws ParseException {
+    when(klvHandler.asCoordinates()).thenReturn(coordinates(points.toArray(new String[0])));
 
     Metacard metacard = new MetacardImpl();
 
@@ -142,6 +141,15 @@ public class FrameCenterKlvProcessorTest {
     assertThat(metacard.getAttribute(Media.FRAME_CENTER).getValue(), is(normalize(frameCenterWkt)));
   }
 
+  private Coordinate[] coordinates(String... points) throws ParseException {
+    WKTReader wktReader = new WKTReader();
+    Coordinate[] coordinates = new Coordinate[points.length];
+    for (int i = 0; i < points.length; i++) {
+      coordinates[i] = wktReader.read(points[i]).getCoordinate();
+    }
+    return coordinates;
+  }
+
   private String normalize(String wkt) throws ParseException {
     return new WKTWriter().write(new WKTReader().read(wkt).norm());
   }
@@ -25,6 +25,7 @@ import org.codice.ddf.libs.klv.KlvDecodingException;
 import org.codice.ddf.libs.klv.data.numerical.KlvInt;
 import org.junit.Before;
 import org.junit.Test;
+import org.locationtech.jts.geom.Geometry;
 
 public class GeoBoxHandlerTest {
 
@@ -269,4 +270,33 @@ public class GeoBoxHandlerTest {
   private void assertThatCount(Map<String, List<Double>> rawData, String name, int count) {
     assertThat(rawData.get(name), hasSize(count));
   }
+
+  @Test
+  public void testAsGeometries() throws KlvDecodingException {
+
+    geoBoxHandler.accept(KlvUtilities.createTestFloat(LAT1, 0));
+    geoBoxHandler.accept(KlvUtilities.createTestFloat(LON1, 0));
+    geoBoxHandler.accept(KlvUtilities.createTestFloat(LAT2, 0));
+    geoBoxHandler.accept(KlvUtilities.createTestFloat(LON2, 5));
+    geoBoxHandler.accept(KlvUtilities.createTestFloat(LAT3, 5));
+    geoBoxHandler.accept(KlvUtilities.createTestFloat(LON3, 5));
+    geoBoxHandler.accept(KlvUtilities.createTestFloat(LAT4, 5));
+    geoBoxHandler.accept(KlvUtilities.createTestFloat(LON4, 0));
+
+    List<Geometry> geometries = geoBoxHandler.asGeometries();
+
+    assertThat(geometries, hasSize(1));
+    assertThat(geometries.get(0).getGeometryType(), is("Polygon"));
+    assertThat(geometries.get(0).getArea(), is(closeTo(25, EPSILON)));
+  }
+
+  @Test
+  public void testAsGeometriesIncompleteCorners() throws KlvDecodingException {
+
+    geoBoxHandler.accept(KlvUtilities.createTestFloat(LAT1, 1));
+    geoBoxHandler.accept(KlvUtilities.createTestFloat(LON1, 2));
+
+    assertThat(geoBoxHandler.asGeometries(), hasSize(0));
+    assertThat(geoBoxHandler.asAttribute().isPresent(), is(false));
+  }
 }
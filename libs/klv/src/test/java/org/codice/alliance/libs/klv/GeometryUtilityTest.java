@@ -28,6 +28,7 @@ import java.util.Collections;
 import java.util.Optional;
 import org.junit.Before;
 import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
 import org.locationtech.jts.geom.Geometry;
 import org.locationtech.jts.io.ParseException;
 import org.locationtech.jts.io.WKTReader;
@@ -239,4 +240,36 @@ public class GeometryUtilityTest {
 
     assertThat(lineString, is((String) null));
   }
+
+  @Test
+  public void testUnionOfGeometries() throws ParseException {
+
+    Optional<String> optionalWkt =
+        GeometryUtility.createUnionOfGeometries(
+            Arrays.asList(
+                wktReader.read("POLYGON (( 0 0, 10 0, 10 10, 0 10, 0 0))"),
+                wktReader.read("POLYGON (( 5 5, 15 5, 15 15, 5 15, 5 5))")),
+            GeometryOperator.IDENTITY,
+            GeometryOperator.IDENTITY,
+            new GeometryOperator.Context());
+
+    Geometry actual = wktReader.read(optionalWkt.get()).norm();
+
+    Geometry expected =
+        wktReader.read("POLYGON (( 0 0, 10 0, 10 5, 15 5, 15 15, 5 15, 5 10, 0 10, 0 0 ))").norm();
+
+    assertThat(actual, is(expected));
+  }
+
+  @Test
+  public void testCoordinatesToLineString() {
+
+    String lineString =
+        GeometryUtility.coordinatesToLineString(
+            new Coordinate[] {new Coordinate(0, 0), new Coordinate(10, 10)},
+            GeometryOperator.IDENTITY,
+            new GeometryOperator.Context());
+
+    assertThat(lineString, is("LINESTRING (0 0, 10 10)"));
+  }
 }
@@ -27,6 +27,7 @@ import org.codice.ddf.libs.klv.KlvDecodingException;
 import org.codice.ddf.libs.klv.data.numerical.KlvInt;
 import org.junit.Before;
 import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
 
 public class LatitudeLongitudeHandlerTest {
 
@@ -176,4 +177,27 @@ public class LatitudeLongitudeHandlerTest {
   private void assertThatCount(Map<String, List<Double>> rawData, String name, int count) {
     assertThat(rawData.get(name), hasSize(count));
   }
+
+  @Test
+  public void testAsCoordinates() throws KlvDecodingException {
+
+    klvHandler.accept(KlvUtilities.createTestFloat(LAT, 33));
+    klvHandler.accept(KlvUtilities.createTestFloat(LON, -112));
+    klvHandler.accept(KlvUtilities.createTestFloat(LAT, 34));
+
+    Coordinate[] coordinates = klvHandler.asCoordinates();
+
+    assertThat(coordinates.length, is(1));
+    assertThat(coordinates[0].x, is(closeTo(-112, EPSILON)));
+    assertThat(coordinates[0].y, is(closeTo(33, EPSILON)));
+  }
+
+  @Test
+  public void testAsCoordinatesMissingLongitude() throws KlvDecodingException {
+
+    klvHandler.accept(KlvUtilities.createTestFloat(LAT, 33));
+
+    assertThat(klvHandler.asCoordinates().length, is(0));
+    assertThat(klvHandler.asAttribute().isPresent(), is(false));
+  }
 }
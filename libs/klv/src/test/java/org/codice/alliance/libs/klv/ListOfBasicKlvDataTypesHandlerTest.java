@@ -14,6 +14,7 @@
 package org.codice.alliance.libs.klv;
 
 import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.mock;
@@ -59,4 +60,16 @@ public class ListOfBasicKlvDataTypesHandlerTest {
 
     assertThat(((Double) handler.asAttribute().get().getValue()), is(closeTo(expected, 0.001)));
   }
+
+  @Test
+  public void testRepeatedValuesAreKeptOnce() throws KlvDecodingException {
+    handler.accept(KlvUtilities.createTestFloat("a", 10));
+    handler.accept(KlvUtilities.createTestFloat("a", 10));
+    handler.accept(KlvUtilities.createTestFloat("a", 20));
+    handler.accept(KlvUtilities.createTestFloat("a", 10));
+
+    assertThat(
+        handler.asAttribute().get().getValues(),
+        contains(closeTo(10, 0.001), closeTo(20, 0.001)));
+  }
 }
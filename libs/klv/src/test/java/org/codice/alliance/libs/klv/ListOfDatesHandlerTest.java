@@ -13,6 +13,7 @@
  */
 package org.codice.alliance.libs.klv;
 
+import static org.hamcrest.Matchers.contains;
 import static org.hamcrest.core.Is.is;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.mock;
@@ -53,6 +54,27 @@ public class ListOfDatesHandlerTest {
     assertThat(klvHandler.asAttribute().get().getValue(), is(testDate));
   }
 
+  @Test
+  public void testOnlyFirstAndLastDatesAreKept() {
+    Date first = new Date(1000);
+    Date last = new Date(3000);
+
+    klvHandler.accept(klvLong(first));
+    klvHandler.accept(klvLong(new Date(2000)));
+    klvHandler.accept(klvLong(last));
+
+    assertThat(klvHandler.asAttribute().get().getValues(), contains(first, last));
+  }
+
+  @Test
+  public void testReset() {
+    klvHandler.accept(klvLong(new Date()));
+
+    klvHandler.reset();
+
+    assertThat(klvHandler.asAttribute().isPresent(), is(false));
+  }
+
   @Test
   public void testAcceptWrongType() {
 
@@ -62,4 +84,10 @@ public class ListOfDatesHandlerTest {
 
     assertThat(klvHandler.asAttribute().isPresent(), is(false));
   }
+
+  private static KlvLong klvLong(Date date) {
+    KlvLong klvLong = mock(KlvLong.class);
+    when(klvLong.getValue()).thenReturn(TimeUnit.MILLISECONDS.toMicros(date.getTime()));
+    return klvLong;
+  }
 }
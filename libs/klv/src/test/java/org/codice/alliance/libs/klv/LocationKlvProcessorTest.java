@@ -22,16 +22,16 @@ import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
 
-import ddf.catalog.data.Attribute;
 import ddf.catalog.data.Metacard;
 import ddf.catalog.data.impl.MetacardImpl;
-import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
-import java.util.Optional;
 import org.junit.Before;
 import org.junit.Test;
+import org.locationtech.jts.geom.Coordinate;
+import org.locationtech.jts.io.ParseException;
+import org.locationtech.jts.io.WKTReader;
 import org.mockito.Mockito;
 
 public class LocationKlvProcessorTest {
@@ -55,7 +55,7 @@ public class LocationKlvProcessorTest {
   private GeometryOperator geometryFunction;
 
   @Before
-  public void setup() {
+  public void setup() throws ParseException {
     wkt = "POLYGON ((0 0, 5 0, 5 5, 0 5, 0 0))";
     wktLineString = "LINESTRING (0 0, 5 5, 10 10)";
     geometryFunction = GeometryOperator.IDENTITY;
@@ -63,16 +63,12 @@ public class LocationKlvProcessorTest {
     geoBoxHandler = mock(GeoBoxHandler.class);
     latLonHandler = mock(LatitudeLongitudeHandler.class);
 
-    Attribute attribute = mock(Attribute.class);
-
-    when(attribute.getValues()).thenReturn(Collections.singletonList(wkt));
-    when(geoBoxHandler.asAttribute()).thenReturn(Optional.of(attribute));
+    when(geoBoxHandler.asGeometries())
+        .thenReturn(Collections.singletonList(new WKTReader().read(wkt)));
     when(geoBoxHandler.getAttributeName()).thenReturn(AttributeNameConstants.CORNER);
     when(geoBoxHandler.asSubsampledHandler(Mockito.anyInt())).thenReturn(geoBoxHandler);
 
-    attribute = mock(Attribute.class);
-    when(attribute.getValues()).thenReturn(Collections.emptyList());
-    when(latLonHandler.asAttribute()).thenReturn(Optional.of(attribute));
+    when(latLonHandler.asCoordinates()).thenReturn(new Coordinate[0]);
     when(latLonHandler.getAttributeName()).thenReturn(AttributeNameConstants.FRAME_CENTER);
     when(latLonHandler.asSubsampledHandler(Mockito.anyInt())).thenReturn(latLonHandler);
 
@@ -97,17 +93,11 @@ public class LocationKlvProcessorTest {
 
     klvConfiguration.set(KlvProcessor.Configuration.SUBSAMPLE_COUNT, 50);
 
-    Attribute attribute = mock(Attribute.class);
-
-    when(attribute.getValues()).thenReturn(Collections.emptyList());
-    when(geoBoxHandler.asAttribute()).thenReturn(Optional.of(attribute));
-    when(geoBoxHandler.getAttributeName()).thenReturn(AttributeNameConstants.CORNER);
+    when(geoBoxHandler.asGeometries()).thenReturn(Collections.emptyList());
 
-    attribute = mock(Attribute.class);
-    when(attribute.getValues())
-        .thenReturn(Arrays.asList("POINT(0 0)", "POINT(5 5)", "POINT(10 10)"));
-    when(latLonHandler.asAttribute()).thenReturn(Optional.of(attribute));
-    when(latLonHandler.getAttributeName()).thenReturn(AttributeNameConstants.FRAME_CENTER);
+    when(latLonHandler.asCoordinates())
+        .thenReturn(
+            new Coordinate[] {new Coordinate(0, 0), new Coordinate(5, 5), new Coordinate(10, 10)});
 
     locationKlvProcessor.process(handlers, metacard, klvConfiguration);
 
@@ -152,17 +142,11 @@ public class LocationKlvProcessorTest {
   public void testProcessFrameCenter() {
     klvConfiguration.set(KlvProcessor.Configuration.SUBSAMPLE_COUNT, 50);
 
-    Attribute attribute = mock(Attribute.class);
+    when(geoBoxHandler.asGeometries()).thenReturn(Collections.emptyList());
 
-    when(attribute.getValues()).thenReturn(Collections.emptyList());
-    when(geoBoxHandler.asAttribute()).thenReturn(Optional.of(attribute));
-    when(geoBoxHandler.getAttributeName()).thenReturn(AttributeNameConstants.CORNER);
-
-    attribute = mock(Attribute.class);
-    when(attribute.getValues())
-        .thenReturn(Arrays.asList("POINT(0 0)", "POINT(5 5)", "POINT(10 10)"));
-    when(latLonHandler.asAttribute()).thenReturn(Optional.of(attribute));
-    when(latLonHandler.getAttributeName()).thenReturn(AttributeNameConstants.FRAME_CENTER);
+    when(latLonHandler.asCoordinates())
+        .thenReturn(
+            new Coordinate[] {new Coordinate(0, 0), new Coordinate(5, 5), new Coordinate(10, 10)});
 
     locationKlvProcessor.process(handlers, metacard, klvConfiguration);
 
@@ -13,6 +13,8 @@
  */
 package org.codice.alliance.libs.klv;
 
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.atLeastOnce;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.verify;
@@ -38,6 +40,8 @@ public class Stanag4609ProcessorImplTest {
 
   private Stanag4609Processor stanag4609Processor;
 
+  private PostProcessor postProcessor;
+
   private KlvHandler klvHandler;
 
   private KlvHandler defaultKlvHandler;
@@ -48,7 +52,8 @@ public class Stanag4609ProcessorImplTest {
 
   @Before
   public void setup() throws KlvDecodingException {
-    stanag4609Processor = new Stanag4609ProcessorImpl(mock(PostProcessor.class));
+    postProcessor = mock(PostProcessor.class);
+    stanag4609Processor = new Stanag4609ProcessorImpl(postProcessor);
     klvHandler = mock(KlvHandler.class);
     defaultKlvHandler = mock(KlvHandler.class);
     klvIntegerEncodedFloatingPoint = KlvUtilities.createTestFloat(FIELD_NAME, 100);
@@ -152,4 +157,23 @@ public class Stanag4609ProcessorImplTest {
 
     verify(klvHandler, atLeastOnce()).accept(klvIntegerEncodedFloatingPoint);
   }
+
+  @Test
+  public void testHandleWithDecodedPacket() throws KlvDecodingException {
+
+    DecodedKLVMetadataPacket packet = mock(DecodedKLVMetadataPacket.class);
+    when(packet.getDecodedKLV())
+        .thenReturn(
+            new KlvContext(
+                Klv.KeyLength.ONE_BYTE,
+                Klv.LengthEncoding.ONE_BYTE,
+                Collections.singleton(klvIntegerEncodedFloatingPoint)));
+
+    Map<String, KlvHandler> handlers = Collections.singletonMap(FIELD_NAME, klvHandler);
+
+    stanag4609Processor.handle(handlers, defaultKlvHandler, packet);
+
+    verify(klvHandler).accept(klvIntegerEncodedFloatingPoint);
+    verify(postProcessor).postProcess(anyMap(), eq(handlers));
+  }
 }
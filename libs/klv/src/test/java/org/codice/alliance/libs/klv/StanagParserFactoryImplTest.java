@@ -13,11 +13,16 @@
  */
 package org.codice.alliance.libs.klv;
 
+import static org.hamcrest.Matchers.is;
 import static org.hamcrest.Matchers.notNullValue;
 import static org.junit.Assert.assertThat;
 import static org.mockito.Mockito.mock;
 
 import com.google.common.io.ByteSource;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Optional;
+import org.codice.alliance.libs.stanag4609.Stanag4609TransportStreamParser;
 import org.junit.Test;
 
 public class StanagParserFactoryImplTest {
@@ -29,4 +34,39 @@ public class StanagParserFactoryImplTest {
 
     assertThat(stanagParserFactory.createParser(mock(ByteSource.class)), notNullValue());
   }
+
+  @Test
+  public void testPacketDecoderSkipsNonMetadataPackets() throws Stanag4609ParseException {
+
+    Stanag4609PacketDecoder packetDecoder = new StanagParserFactoryImpl().createPacketDecoder();
+
+    byte[] videoPesPacket =
+        new byte[] {0x00, 0x00, 0x01, (byte) 0xE0, 0x00, 0x00, (byte) 0x80, 0x00, 0x00};
+
+    assertThat(packetDecoder.decode(videoPesPacket), is(Optional.empty()));
+  }
+
+  @Test
+  public void testPacketDecoderSkipsMalformedPackets() throws Stanag4609ParseException {
+
+    Stanag4609PacketDecoder packetDecoder = new StanagParserFactoryImpl().createPacketDecoder();
+
+    assertThat(packetDecoder.decode(new byte[] {0x00}), is(Optional.empty()));
+  }
+
+  @Test
+  public void testSelectivePacketDecoderSkipsMalformedPackets() throws Stanag4609ParseException {
+
+    Stanag4609PacketDecoder packetDecoder =
+        new StanagParserFactoryImpl()
+            .createPacketDecoder(
+                Collections.singleton(Stanag4609TransportStreamParser.FRAME_CENTER_LATITUDE));
+
+    assertThat(packetDecoder.decode(new byte[] {0x00}), is(Optional.empty()));
+  }
+
+  @Test(expected = NullPointerException.class)
+  public void testSelectivePacketDecoderNullNames() {
+    new StanagParserFactoryImpl().createPacketDecoder((Collection<String>) null);
+  }
 }
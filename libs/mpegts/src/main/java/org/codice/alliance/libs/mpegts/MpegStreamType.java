@@ -49,6 +49,8 @@ public enum MpegStreamType {
   DSM_CC_SDP1(MTSUtils.StreamType.DSM_CC_SDP1.getTag()),
   IPMP(MTSUtils.StreamType.IPMP.getTag()),
   VIDEO_H264(MTSUtils.StreamType.VIDEO_H264.getTag()),
+  /** H.265/HEVC (ISO/IEC 13818-1 stream_type 0x24), which is not defined by MTSUtils. */
+  VIDEO_H265(0x24),
   AUDIO_AAC_RAW(MTSUtils.StreamType.AUDIO_AAC_RAW.getTag()),
   SUBS(MTSUtils.StreamType.SUBS.getTag()),
   AUX_3D(MTSUtils.StreamType.AUX_3D.getTag()),
@@ -27,4 +27,15 @@ public interface MpegTsDecoder {
    * @throws IOException
    */
   void read(MTSPacket mtsPacket, Consumer<PESPacket> callback) throws IOException;
+
+  /**
+   * Call {@code callback} with the PESPackets that are still being reassembled at the end of the
+   * stream. A PESPacket is normally only completed by the start of the next packet on the same
+   * stream, so without this the last packet of each stream would be lost. Only packets that hold
+   * all of the bytes declared by their header are passed to the callback. The default
+   * implementation does nothing.
+   *
+   * @param callback must be non-null
+   */
+  default void flush(Consumer<PESPacket> callback) {}
 }
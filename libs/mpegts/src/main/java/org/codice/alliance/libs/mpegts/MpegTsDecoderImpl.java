@@ -22,20 +22,32 @@ import java.util.HashSet;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Consumer;
-import org.apache.commons.lang3.ArrayUtils;
 import org.jcodec.containers.mps.psi.PMTSection;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.taktik.mpegts.MTSPacket;
 import org.taktik.mpegts.PATSection;
 
+/**
+ * Reassembles PESPackets from MPEG-TS packets. The payloads of the MPEG-TS packets are accumulated
+ * per packet identifier without being copied, so reassembly is linear in the size of the PESPacket.
+ * The decoder keeps a reference to each MPEG-TS packet's payload until the PESPacket that contains
+ * it is complete. Elementary streams with a stream type that is not a {@link MpegStreamType} are
+ * ignored.
+ */
 public class MpegTsDecoderImpl implements MpegTsDecoder {
 
+  private static final Logger LOGGER = LoggerFactory.getLogger(MpegTsDecoderImpl.class);
+
   private static final int BYTE_MASK = 0xFF;
 
   private final Set<Integer> programMapTablePacketIdDirectory = new HashSet<>();
 
   private final Map<Integer, PMTSection.PMTStream> programElementaryStreams = new HashMap<>();
 
-  private final Map<Integer, byte[]> currentPacketBytesByStream = new HashMap<>();
+  private final Map<Integer, PESPayloadAccumulator> currentPacketByStream = new HashMap<>();
+
+  private final Set<Integer> ignoredElementaryStreams = new HashSet<>();
 
   private PATSectionParser patSectionParser = PATSection::parse;
 
@@ -66,27 +78,44 @@ public class MpegTsDecoderImpl implements MpegTsDecoder {
     if (mtsPacket.isContainsPayload()) {
       final PMTSection.PMTStream stream = programElementaryStreams.get(pid);
 
-      final byte[] currentPacketBytes = currentPacketBytesByStream.get(pid);
+      final PESPayloadAccumulator currentPacket = currentPacketByStream.get(pid);
 
       final boolean startingNewPacket = mtsPacket.isPayloadUnitStartIndicator();
-      final boolean currentPacketToHandle = currentPacketBytes != null;
+      final boolean currentPacketToHandle = currentPacket != null;
       final boolean reachedEndOfCurrentPacket = startingNewPacket && currentPacketToHandle;
 
-      final byte[] payloadBytes = getByteBufferAsBytes(mtsPacket.getPayload());
-
       if (reachedEndOfCurrentPacket) {
         callback.accept(
-            new PESPacket(currentPacketBytes, MpegStreamType.lookup(stream.getStreamType()), pid));
-        currentPacketBytesByStream.put(pid, payloadBytes);
-      } else if (startingNewPacket) {
-        currentPacketBytesByStream.put(pid, payloadBytes);
+            currentPacket.toPESPacket(MpegStreamType.lookup(stream.getStreamTypeTag()), pid));
+      }
+
+      if (startingNewPacket) {
+        final PESPayloadAccumulator newPacket = new PESPayloadAccumulator();
+        newPacket.append(mtsPacket.getPayload());
+        currentPacketByStream.put(pid, newPacket);
       } else if (currentPacketToHandle) {
-        final byte[] concatenatedPacket = ArrayUtils.addAll(currentPacketBytes, payloadBytes);
-        currentPacketBytesByStream.put(pid, concatenatedPacket);
+        currentPacket.append(mtsPacket.getPayload());
       }
     }
   }
 
+  @Override
+  public void flush(Consumer<PESPacket> callback) {
+    notNull(callback, "callback must be non-null");
+
+    for (Map.Entry<Integer, PESPayloadAccumulator> entry : currentPacketByStream.entrySet()) {
+      PESPayloadAccumulator currentPacket = entry.getValue();
+      if (currentPacket.isComplete()) {
+        PMTSection.PMTStream stream = programElementaryStreams.get(entry.getKey());
+        callback.accept(
+            currentPacket.toPESPacket(
+                MpegStreamType.lookup(stream.getStreamTypeTag()), entry.getKey()));
+      }
+    }
+
+    currentPacketByStream.clear();
+  }
+
   private boolean isElementaryStream(int pid) {
     return pid != Constants.PROGRAM_ASSOCIATION_TABLE_PID
         && !programMapTablePacketIdDirectory.contains(pid)
@@ -112,7 +141,14 @@ public class MpegTsDecoderImpl implements MpegTsDecoder {
     final PMTSection pmt = pmtSectionParser.parse(payload);
 
     for (final PMTSection.PMTStream stream : pmt.getStreams()) {
-      programElementaryStreams.put(stream.getPid(), stream);
+      if (MpegStreamType.lookup(stream.getStreamTypeTag()) != null) {
+        programElementaryStreams.put(stream.getPid(), stream);
+      } else if (ignoredElementaryStreams.add(stream.getPid())) {
+        LOGGER.debug(
+            "ignoring elementary stream {} with unknown stream type {}",
+            stream.getPid(),
+            stream.getStreamTypeTag());
+      }
     }
   }
 
@@ -130,12 +166,6 @@ public class MpegTsDecoderImpl implements MpegTsDecoder {
     }
   }
 
-  private byte[] getByteBufferAsBytes(final ByteBuffer buffer) {
-    final byte[] bytes = new byte[buffer.remaining()];
-    buffer.get(bytes);
-    return bytes;
-  }
-
   public void setPatSectionParser(PATSectionParser patSectionParser) {
     this.patSectionParser = patSectionParser;
   }
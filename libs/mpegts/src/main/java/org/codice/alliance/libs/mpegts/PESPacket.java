@@ -15,13 +15,29 @@ package org.codice.alliance.libs.mpegts;
 
 import static org.apache.commons.lang3.Validate.notNull;
 
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A PESPacket's payload is kept as the list of MPEG-TS packet payloads that it was reassembled
+ * from. The chunks are only copied into a single array if {@link #getPayload()} is called.
+ * Consumers that can work with a sequence of buffers should use {@link #getPayloadBuffers()}
+ * instead.
+ */
 public class PESPacket {
-  private final byte[] payload;
+
+  private final List<ByteBuffer> payloadChunks;
+
+  private final int payloadLength;
 
   private final MpegStreamType streamType;
 
   private final int packetId;
 
+  private byte[] payload;
+
   /**
    * @param payload must be non-null
    * @param streamType must be non-null
@@ -30,19 +46,72 @@ public class PESPacket {
   public PESPacket(byte[] payload, MpegStreamType streamType, int packetId) {
     notNull(payload, "payload must be non-null");
     notNull(streamType, "streamType must be non-null");
+    this.payloadChunks = Collections.singletonList(ByteBuffer.wrap(payload));
+    this.payloadLength = payload.length;
     this.payload = payload;
     this.streamType = streamType;
     this.packetId = packetId;
   }
 
+  /**
+   * The buffers are not copied, so the caller must not modify their contents after calling this
+   * constructor.
+   *
+   * @param payloadChunks must be non-null, the remaining bytes of each buffer in order make up the
+   *     payload
+   * @param streamType must be non-null
+   * @param packetId the packet identifier
+   */
+  public PESPacket(List<ByteBuffer> payloadChunks, MpegStreamType streamType, int packetId) {
+    notNull(payloadChunks, "payloadChunks must be non-null");
+    notNull(streamType, "streamType must be non-null");
+    this.payloadChunks = new ArrayList<>(payloadChunks);
+    this.payloadLength = payloadChunks.stream().mapToInt(ByteBuffer::remaining).sum();
+    this.streamType = streamType;
+    this.packetId = packetId;
+  }
+
   public int getPacketId() {
     return packetId;
   }
 
+  /**
+   * Get the payload as a single array. The array is created the first time this method is called.
+   *
+   * @return non-null payload
+   */
   public byte[] getPayload() {
+    if (payload == null) {
+      byte[] bytes = new byte[payloadLength];
+      int offset = 0;
+      for (ByteBuffer chunk : payloadChunks) {
+        int length = chunk.remaining();
+        chunk.duplicate().get(bytes, offset, length);
+        offset += length;
+      }
+      payload = bytes;
+    }
     return payload;
   }
 
+  /**
+   * Get the payload as a sequence of read-only buffers without copying the payload bytes.
+   *
+   * @return non-null array of buffers
+   */
+  public ByteBuffer[] getPayloadBuffers() {
+    return payloadChunks.stream().map(ByteBuffer::asReadOnlyBuffer).toArray(ByteBuffer[]::new);
+  }
+
+  /**
+   * Get the number of bytes in the payload.
+   *
+   * @return payload length
+   */
+  public int getPayloadLength() {
+    return payloadLength;
+  }
+
   public MpegStreamType getStreamType() {
     return streamType;
   }
@@ -0,0 +1,78 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.libs.mpegts;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Accumulates the MPEG-TS packet payloads of a single PES packet. Payloads are kept as slices of
+ * the MPEG-TS packet buffers, so appending a payload never copies the bytes that were accumulated
+ * before it.
+ */
+class PESPayloadAccumulator {
+
+  /** Size of the start code prefix, stream id and PES packet length fields. */
+  private static final int PES_HEADER_SIZE = 6;
+
+  private static final int PES_PACKET_LENGTH_OFFSET = 4;
+
+  private final List<ByteBuffer> chunks = new ArrayList<>();
+
+  private int length;
+
+  /**
+   * Append the remaining bytes of {@code payload}. The position of {@code payload} is not changed.
+   *
+   * @param payload must be non-null
+   */
+  void append(ByteBuffer payload) {
+    ByteBuffer slice = payload.slice();
+    if (slice.hasRemaining()) {
+      chunks.add(slice);
+      length += slice.remaining();
+    }
+  }
+
+  /**
+   * Return <code>true</code> if the accumulated bytes hold the whole PES packet, according to the
+   * PES packet length field. A packet with a length of zero is unbounded and is always complete.
+   *
+   * @return complete status
+   */
+  boolean isComplete() {
+    if (length < PES_HEADER_SIZE) {
+      return false;
+    }
+    int packetLength =
+        (getByte(PES_PACKET_LENGTH_OFFSET) << 8) | getByte(PES_PACKET_LENGTH_OFFSET + 1);
+    return packetLength == 0 || length >= PES_HEADER_SIZE + packetLength;
+  }
+
+  private int getByte(int index) {
+    int offset = index;
+    for (ByteBuffer chunk : chunks) {
+      if (offset < chunk.remaining()) {
+        return chunk.get(chunk.position() + offset) & 0xFF;
+      }
+      offset -= chunk.remaining();
+    }
+    throw new IndexOutOfBoundsException();
+  }
+
+  PESPacket toPESPacket(MpegStreamType streamType, int packetId) {
+    return new PESPacket(chunks, streamType, packetId);
+  }
+}
@@ -0,0 +1,188 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.libs.mpegts;
+
+import static org.apache.commons.lang3.Validate.notNull;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.util.function.Consumer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.taktik.mpegts.MTSPacket;
+
+/**
+ * Demultiplex an MPEG-TS as it is written and pass each complete PESPacket to a callback. This is
+ * the push-based counterpart of {@link PESPacketIterator}: it lets the caller demultiplex a stream
+ * while it is being copied somewhere else, instead of reading the copy back. Only one transport
+ * stream packet and the PES packets that are still being reassembled are held in memory.
+ *
+ * <p>The PESPackets that are still being reassembled when the stream is closed are passed to the
+ * callback by {@link #close()}, if they are complete. A transport stream packet that cannot be
+ * decoded is logged and skipped, and demultiplexing continues with the next packet, so a damaged
+ * packet only loses the data it carried. Exceptions thrown by the callback are not caught and are
+ * thrown to the caller of the write method.
+ */
+public class TSDemuxOutputStream extends OutputStream {
+
+  private static final Logger LOGGER = LoggerFactory.getLogger(TSDemuxOutputStream.class);
+
+  private final Consumer<PESPacket> callback;
+
+  private final MpegTsDecoder mpegTsDecoder;
+
+  private byte[] currentPacket = new byte[Constants.TS_PACKET_SIZE];
+
+  private int currentPacketLength;
+
+  private long packetCount;
+
+  private long skippedPacketCount;
+
+  private boolean closed;
+
+  /** @param callback called with each complete PESPacket (must be non-null) */
+  public TSDemuxOutputStream(Consumer<PESPacket> callback) {
+    this(callback, new MpegTsDecoderImpl());
+  }
+
+  /**
+   * @param callback called with each complete PESPacket (must be non-null)
+   * @param mpegTsDecoder must be non-null
+   */
+  public TSDemuxOutputStream(Consumer<PESPacket> callback, MpegTsDecoder mpegTsDecoder) {
+    notNull(callback, "callback must be non-null");
+    notNull(mpegTsDecoder, "mpegTsDecoder must be non-null");
+    this.callback = callback;
+    this.mpegTsDecoder = mpegTsDecoder;
+  }
+
+  @Override
+  public void write(int b) {
+    write(new byte[] {(byte) b}, 0, 1);
+  }
+
+  @Override
+  public void write(byte[] bytes, int offset, int length) {
+    notNull(bytes, "bytes must be non-null");
+
+    int position = offset;
+    int end = offset + length;
+
+    while (!closed && position < end) {
+      int count = Math.min(end - position, Constants.TS_PACKET_SIZE - currentPacketLength);
+      System.arraycopy(bytes, position, currentPacket, currentPacketLength, count);
+      currentPacketLength += count;
+      position += count;
+
+      if (currentPacketLength == Constants.TS_PACKET_SIZE) {
+        decodeCurrentPacket();
+      }
+    }
+  }
+
+  /**
+   * The decoder keeps references to the payload of each packet until the PESPacket is complete, so
+   * every packet gets its own array.
+   */
+  private void decodeCurrentPacket() {
+    byte[] packet = currentPacket;
+    currentPacket = new byte[Constants.TS_PACKET_SIZE];
+    currentPacketLength = 0;
+
+    try {
+      mpegTsDecoder.read(new MTSPacket(ByteBuffer.wrap(packet)), this::accept);
+      packetCount++;
+    } catch (CallbackException e) {
+      throw e.getCause();
+    } catch (IOException | RuntimeException e) {
+      if (skippedPacketCount == 0) {
+        LOGGER.debug("unable to decode MPEG-TS packet {}, skipping it", position(), e);
+      }
+      skippedPacketCount++;
+    }
+  }
+
+  /** Wraps the exceptions of the callback so they are not mistaken for decoding failures. */
+  private void accept(PESPacket pesPacket) {
+    try {
+      callback.accept(pesPacket);
+    } catch (RuntimeException e) {
+      throw new CallbackException(e);
+    }
+  }
+
+  /** Pass the complete PESPackets that are still being reassembled to the callback. */
+  @Override
+  public void close() {
+    if (closed) {
+      return;
+    }
+    closed = true;
+
+    if (currentPacketLength > 0) {
+      LOGGER.debug(
+          "ignoring {} bytes of an incomplete MPEG-TS packet at the end of the stream",
+          currentPacketLength);
+    }
+
+    if (skippedPacketCount > 0) {
+      LOGGER.info(
+          "skipped {} of {} MPEG-TS packets that could not be decoded",
+          skippedPacketCount,
+          position());
+    }
+
+    try {
+      mpegTsDecoder.flush(this::accept);
+    } catch (CallbackException e) {
+      throw e.getCause();
+    }
+  }
+
+  /**
+   * Return the number of transport stream packets that were decoded.
+   *
+   * @return number of packets
+   */
+  public long getPacketCount() {
+    return packetCount;
+  }
+
+  /**
+   * Return the number of transport stream packets that could not be decoded and were skipped.
+   *
+   * @return number of skipped packets
+   */
+  public long getSkippedPacketCount() {
+    return skippedPacketCount;
+  }
+
+  private long position() {
+    return packetCount + skippedPacketCount;
+  }
+
+  private static class CallbackException extends RuntimeException {
+
+    private CallbackException(RuntimeException cause) {
+      super(cause);
+    }
+
+    @Override
+    public synchronized RuntimeException getCause() {
+      return (RuntimeException) super.getCause();
+    }
+  }
+}
@@ -24,6 +24,7 @@ import static org.mockito.Mockito.when;
 
 import java.io.IOException;
 import java.nio.ByteBuffer;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
@@ -66,7 +67,7 @@ public class MpegTsDecoderTest {
     when(programAssociationTablePacket.getPayload()).thenReturn(ByteBuffer.wrap(new byte[] {0x00}));
 
     PMTSection.PMTStream pmtStream = mock(PMTSection.PMTStream.class);
-    when(pmtStream.getStreamType()).thenReturn(streamType);
+    when(pmtStream.getStreamTypeTag()).thenReturn(streamType.getTag());
     when(pmtStream.getPid()).thenReturn(videoPacketId);
 
     PMTSection pmtSection = mock(PMTSection.class);
@@ -115,14 +116,137 @@ public class MpegTsDecoderTest {
     assertThat(
         pesPacket.getPayload(),
         is(new byte[] {expectedByte1, expectedByte2, expectedByte3, expectedByte4}));
+    assertThat(pesPacket.getPayloadLength(), is(4));
+    assertThat(pesPacket.getPayloadBuffers().length, is(4));
+  }
+
+  @Test
+  public void testFlushPassesCompletePackets() throws IOException {
+
+    int programMapTableId = 1;
+    int completePacketId = 2;
+    int incompletePacketId = 3;
+
+    MpegTsDecoderImpl decoder = new MpegTsDecoderImpl();
+
+    PATSection patSection = mock(PATSection.class);
+    when(patSection.getPrograms()).thenReturn(Collections.singletonMap(1, programMapTableId));
+    decoder.setPatSectionParser(payload -> patSection);
+
+    PMTSection pmtSection = mock(PMTSection.class);
+    when(pmtSection.getStreams())
+        .thenReturn(
+            new PMTSection.PMTStream[] {
+              createStream(completePacketId), createStream(incompletePacketId)
+            });
+    decoder.setPmtSectionParser(payload -> pmtSection);
+
+    List<PESPacket> outputList = new LinkedList<>();
+
+    decoder.read(createTable(Constants.PROGRAM_ASSOCIATION_TABLE_PID), outputList::add);
+    decoder.read(createTable(programMapTableId), outputList::add);
+    decoder.read(
+        createElementary(true, completePacketId, new byte[] {0x00, 0x00, 0x01, (byte) 0xFC, 0, 2}),
+        outputList::add);
+    decoder.read(
+        createElementary(false, completePacketId, new byte[] {0x0A, 0x0B}), outputList::add);
+    decoder.read(
+        createElementary(
+            true, incompletePacketId, new byte[] {0x00, 0x00, 0x01, (byte) 0xFC, 0, 3, 0x0A}),
+        outputList::add);
+
+    assertThat(outputList, hasSize(0));
+
+    decoder.flush(outputList::add);
+
+    assertThat(outputList, hasSize(1));
+    assertThat(outputList.get(0).getPacketId(), is(completePacketId));
+    assertThat(outputList.get(0).getPayloadLength(), is(8));
+
+    decoder.flush(outputList::add);
+
+    assertThat(outputList, hasSize(1));
+  }
+
+  @Test
+  public void testUnknownStreamTypeIsIgnored() throws IOException {
+
+    int programMapTableId = 1;
+    int knownPacketId = 2;
+    int unknownPacketId = 3;
+
+    MpegTsDecoderImpl decoder = new MpegTsDecoderImpl();
+
+    PATSection patSection = mock(PATSection.class);
+    when(patSection.getPrograms()).thenReturn(Collections.singletonMap(1, programMapTableId));
+    decoder.setPatSectionParser(payload -> patSection);
+
+    PMTSection.PMTStream unknownStream = mock(PMTSection.PMTStream.class);
+    when(unknownStream.getStreamTypeTag()).thenReturn(0xEE);
+    when(unknownStream.getPid()).thenReturn(unknownPacketId);
+
+    PMTSection pmtSection = mock(PMTSection.class);
+    when(pmtSection.getStreams())
+        .thenReturn(new PMTSection.PMTStream[] {createStream(knownPacketId), unknownStream});
+    decoder.setPmtSectionParser(payload -> pmtSection);
+
+    List<PESPacket> outputList = new LinkedList<>();
+
+    decoder.read(createTable(Constants.PROGRAM_ASSOCIATION_TABLE_PID), outputList::add);
+    decoder.read(createTable(programMapTableId), outputList::add);
+    decoder.read(createElementary(true, knownPacketId, (byte) 0x01), outputList::add);
+    decoder.read(createElementary(true, unknownPacketId, (byte) 0x02), outputList::add);
+    decoder.read(createElementary(true, knownPacketId, (byte) 0x03), outputList::add);
+    decoder.read(createElementary(true, unknownPacketId, (byte) 0x04), outputList::add);
+
+    assertThat(outputList, hasSize(1));
+    assertThat(outputList.get(0).getPacketId(), is(knownPacketId));
+  }
+
+  @Test
+  public void testPayloadBuffersDoNotCopyChunks() {
+    ByteBuffer first = ByteBuffer.wrap(new byte[] {0x01, 0x02});
+    ByteBuffer second = ByteBuffer.wrap(new byte[] {0x03});
+
+    PESPacket pesPacket =
+        new PESPacket(Arrays.asList(first, second), MpegStreamType.VIDEO_H264, 1);
+
+    ByteBuffer[] payloadBuffers = pesPacket.getPayloadBuffers();
+    assertThat(payloadBuffers.length, is(2));
+    assertThat(payloadBuffers[0].isReadOnly(), is(true));
+    assertThat(payloadBuffers[0].remaining(), is(2));
+
+    first.put(0, (byte) 0x07);
+    assertThat(payloadBuffers[0].get(0), is((byte) 0x07));
+    assertThat(pesPacket.getPayload(), is(new byte[] {0x07, 0x02, 0x03}));
+    assertThat(pesPacket.getPayloadLength(), is(3));
   }
 
   private MTSPacket createElementary(boolean isStart, int pid, byte data) {
+    return createElementary(isStart, pid, new byte[] {data});
+  }
+
+  private MTSPacket createElementary(boolean isStart, int pid, byte[] data) {
     MTSPacket elementaryStreamPacket = mock(MTSPacket.class);
     when(elementaryStreamPacket.getPid()).thenReturn(pid);
     when(elementaryStreamPacket.isPayloadUnitStartIndicator()).thenReturn(isStart);
-    when(elementaryStreamPacket.getPayload()).thenReturn(ByteBuffer.wrap(new byte[] {data}));
+    when(elementaryStreamPacket.getPayload()).thenReturn(ByteBuffer.wrap(data));
     when(elementaryStreamPacket.isContainsPayload()).thenReturn(true);
     return elementaryStreamPacket;
   }
+
+  private MTSPacket createTable(int pid) {
+    MTSPacket tablePacket = mock(MTSPacket.class);
+    when(tablePacket.getPid()).thenReturn(pid);
+    when(tablePacket.isPayloadUnitStartIndicator()).thenReturn(true);
+    when(tablePacket.getPayload()).thenReturn(ByteBuffer.wrap(new byte[] {0x00}));
+    return tablePacket;
+  }
+
+  private PMTSection.PMTStream createStream(int pid) {
+    PMTSection.PMTStream pmtStream = mock(PMTSection.PMTStream.class);
+    when(pmtStream.getStreamTypeTag()).thenReturn(MTSUtils.StreamType.PRIVATE_DATA.getTag());
+    when(pmtStream.getPid()).thenReturn(pid);
+    return pmtStream;
+  }
 }
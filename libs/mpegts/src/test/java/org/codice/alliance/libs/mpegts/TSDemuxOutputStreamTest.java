@@ -0,0 +1,145 @@
+/**
+ * Copyright (c) Codice Foundation
+ *
+ * <p>This is free software: you can redistribute it and/or modify it under the terms of the GNU
+ * Lesser General Public License as published by the Free Software Foundation, either version 3 of
+ * the License, or any later version.
+ *
+ * <p>This program is distributed in the hope that it will be useful, but WITHOUT ANY WARRANTY;
+ * without even the implied warranty of MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE. See the
+ * GNU Lesser General Public License for more details. A copy of the GNU Lesser General Public
+ * License is distributed along with this program and can be found at
+ * <http://www.gnu.org/licenses/lgpl.html>.
+ */
+package org.codice.alliance.libs.mpegts;
+
+import static org.hamcrest.Matchers.is;
+import static org.junit.Assert.assertThat;
+import static org.junit.Assert.fail;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+import org.junit.Before;
+import org.junit.Test;
+
+public class TSDemuxOutputStreamTest {
+
+  private MpegTsDecoder mpegTsDecoder;
+
+  private Consumer<PESPacket> callback;
+
+  private TSDemuxOutputStream outputStream;
+
+  @SuppressWarnings("unchecked")
+  @Before
+  public void setup() {
+    mpegTsDecoder = mock(MpegTsDecoder.class);
+    callback = mock(Consumer.class);
+    outputStream = new TSDemuxOutputStream(callback, mpegTsDecoder);
+  }
+
+  @Test
+  public void testPacketsSplitAcrossWrites() throws IOException {
+    byte[] bytes = packets(3);
+
+    outputStream.write(bytes, 0, 100);
+    outputStream.write(bytes, 100, 200);
+    outputStream.write(bytes, 300, bytes.length - 300);
+
+    verify(mpegTsDecoder, times(3)).read(any(), any());
+    assertThat(outputStream.getPacketCount(), is(3L));
+    assertThat(outputStream.getSkippedPacketCount(), is(0L));
+  }
+
+  @Test
+  public void testIncompletePacketIsNotDecoded() throws IOException {
+    byte[] bytes = packets(2);
+
+    outputStream.write(bytes, 0, bytes.length - 1);
+
+    verify(mpegTsDecoder, times(1)).read(any(), any());
+    assertThat(outputStream.getPacketCount(), is(1L));
+  }
+
+  @Test
+  public void testUndecodablePacketIsSkipped() throws IOException {
+    doThrow(new IOException()).doNothing().when(mpegTsDecoder).read(any(), any());
+
+    outputStream.write(packets(3));
+
+    verify(mpegTsDecoder, times(3)).read(any(), any());
+    assertThat(outputStream.getPacketCount(), is(2L));
+    assertThat(outputStream.getSkippedPacketCount(), is(1L));
+  }
+
+  @Test
+  public void testCloseFlushesDecoderAfterDecodeError() throws IOException {
+    doThrow(new IllegalArgumentException()).when(mpegTsDecoder).read(any(), any());
+
+    outputStream.write(packets(1));
+    outputStream.close();
+
+    verify(mpegTsDecoder).flush(any());
+    assertThat(outputStream.getSkippedPacketCount(), is(1L));
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testCloseFlushesDecoder() throws IOException {
+    PESPacket pesPacket = mock(PESPacket.class);
+    doAnswer(
+            invocation -> {
+              ((Consumer<PESPacket>) invocation.getArgument(0)).accept(pesPacket);
+              return null;
+            })
+        .when(mpegTsDecoder)
+        .flush(any());
+
+    outputStream.write(packets(1));
+    outputStream.close();
+    outputStream.close();
+
+    verify(mpegTsDecoder, times(1)).flush(any());
+    verify(callback).accept(pesPacket);
+  }
+
+  @SuppressWarnings("unchecked")
+  @Test
+  public void testCallbackExceptionIsNotADecodeError() throws IOException {
+    IllegalStateException callbackException = new IllegalStateException();
+    doThrow(callbackException).when(callback).accept(any());
+    doAnswer(
+            invocation -> {
+              ((Consumer<PESPacket>) invocation.getArgument(1)).accept(mock(PESPacket.class));
+              return null;
+            })
+        .when(mpegTsDecoder)
+        .read(any(), any());
+
+    try {
+      outputStream.write(packets(1));
+      fail();
+    } catch (IllegalStateException e) {
+      assertThat(e, is(callbackException));
+    }
+
+    assertThat(outputStream.getSkippedPacketCount(), is(0L));
+  }
+
+  private static byte[] packets(int count) {
+    byte[] bytes = new byte[count * Constants.TS_PACKET_SIZE];
+    for (int i = 0; i < count; i++) {
+      bytes[i * Constants.TS_PACKET_SIZE] = 0x47;
+      bytes[i * Constants.TS_PACKET_SIZE + 1] = 0x1F;
+      bytes[i * Constants.TS_PACKET_SIZE + 2] = (byte) 0xFF;
+      bytes[i * Constants.TS_PACKET_SIZE + 3] = 0x10;
+    }
+    return bytes;
+  }
+}
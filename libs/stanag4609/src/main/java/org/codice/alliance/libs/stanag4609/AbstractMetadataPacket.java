@@ -15,11 +15,8 @@ package org.codice.alliance.libs.stanag4609;
 
 import java.util.Arrays;
 import javax.xml.bind.DatatypeConverter;
-import org.codice.ddf.libs.klv.KlvContext;
 import org.codice.ddf.libs.klv.KlvDecoder;
 import org.codice.ddf.libs.klv.KlvDecodingException;
-import org.codice.ddf.libs.klv.data.numerical.KlvUnsignedShort;
-import org.codice.ddf.libs.klv.data.set.KlvLocalSet;
 import org.jcodec.containers.mps.MPSDemuxer.PESPacket;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -35,6 +32,13 @@ abstract class AbstractMetadataPacket {
 
   private static final int BASE_PES_PACKET_HEADER_LENGTH = 9;
 
+  private static final byte CHECKSUM_TAG = 1;
+
+  private static final byte CHECKSUM_LENGTH = 2;
+
+  /** The length of the tag, length and value of the checksum item. */
+  private static final int CHECKSUM_ITEM_LENGTH = 4;
+
   private final byte[] pesPacketBytes;
 
   private final PESPacket pesHeader;
@@ -48,36 +52,39 @@ abstract class AbstractMetadataPacket {
     this.decoder = decoder;
   }
 
-  private boolean validateChecksum(final KlvContext klvContext, final byte[] klvBytes)
-      throws KlvDecodingException {
-    if (!klvContext.hasDataElement(Stanag4609TransportStreamParser.UAS_DATALINK_LOCAL_SET)) {
+  /**
+   * Validate the checksum of the UAS Datalink Local Set before anything is decoded, so corrupt
+   * packets are rejected without paying for the decode. MISB ST 0601 requires the checksum to be
+   * the last item of the local set, so its tag, length and value are the last 4 bytes.
+   */
+  private boolean validateChecksum(final byte[] klvBytes) throws KlvDecodingException {
+    final byte[] localSetKey = Stanag4609TransportStreamParser.UAS_DATALINK_LOCAL_SET_KEY;
+
+    if (klvBytes.length < localSetKey.length
+        || !Arrays.equals(
+            klvBytes, 0, localSetKey.length, localSetKey, 0, localSetKey.length)) {
       throw new KlvDecodingException("KLV did not contain the UAS Datalink Local Set");
     }
 
-    final KlvContext localSetContext =
-        ((KlvLocalSet)
-                klvContext.getDataElementByName(
-                    Stanag4609TransportStreamParser.UAS_DATALINK_LOCAL_SET))
-            .getValue();
-
-    if (localSetContext.hasDataElement(Stanag4609TransportStreamParser.CHECKSUM)) {
-      final int packetChecksum =
-          ((KlvUnsignedShort)
-                  localSetContext.getDataElementByName(Stanag4609TransportStreamParser.CHECKSUM))
-              .getValue();
-
-      short calculatedChecksum = 0;
-      // Checksum is calculated by a 16-bit sum from the beginning of the KLV set to the 1-byte
-      // checksum length (the checksum value is 2 bytes, which is why we subtract 2).
-      for (int i = 0; i < klvBytes.length - 2; ++i) {
-        calculatedChecksum += (klvBytes[i] & 0xFF) << (8 * ((i + 1) % 2));
-      }
+    final int checksumIndex = klvBytes.length - CHECKSUM_ITEM_LENGTH;
 
-      return (calculatedChecksum & 0xFFFF) == packetChecksum;
+    if (checksumIndex <= localSetKey.length
+        || klvBytes[checksumIndex] != CHECKSUM_TAG
+        || klvBytes[checksumIndex + 1] != CHECKSUM_LENGTH) {
+      throw new KlvDecodingException("KLV packet didn't contain checksum (which is required).");
     }
 
-    throw new KlvDecodingException(
-        "Decoded KLV packet didn't contain checksum (which is required).");
+    final int packetChecksum =
+        ((klvBytes[klvBytes.length - 2] & 0xFF) << 8) | (klvBytes[klvBytes.length - 1] & 0xFF);
+
+    short calculatedChecksum = 0;
+    // Checksum is calculated by a 16-bit sum from the beginning of the KLV set to the 1-byte
+    // checksum length (the checksum value is 2 bytes, which is why we subtract 2).
+    for (int i = 0; i < klvBytes.length - 2; ++i) {
+      calculatedChecksum += (klvBytes[i] & 0xFF) << (8 * ((i + 1) % 2));
+    }
+
+    return (calculatedChecksum & 0xFFFF) == packetChecksum;
   }
 
   protected final byte[] getPESPacketPayload() {
@@ -106,10 +113,8 @@ abstract class AbstractMetadataPacket {
         LOGGER.trace("KLV bytes: {}", DatatypeConverter.printHexBinary(klvBytes));
       }
 
-      final KlvContext decodedKLV = decoder.decode(klvBytes);
-
-      if (validateChecksum(decodedKLV, klvBytes)) {
-        return new DecodedKLVMetadataPacket(pesHeader.pts, decodedKLV);
+      if (validateChecksum(klvBytes)) {
+        return new DecodedKLVMetadataPacket(pesHeader.pts, decoder.decode(klvBytes));
       } else {
         throw new KlvDecodingException("KLV packet checksum does not match.");
       }
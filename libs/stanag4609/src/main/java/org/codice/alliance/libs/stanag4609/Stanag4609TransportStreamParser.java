@@ -18,12 +18,17 @@ import static org.codice.ddf.libs.klv.data.Klv.LengthEncoding;
 
 import com.google.common.io.ByteSource;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.HashMap;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.Set;
 import java.util.function.BiConsumer;
+import java.util.function.Predicate;
 import org.codice.ddf.libs.klv.KlvContext;
+import org.codice.ddf.libs.klv.KlvDataElement;
 import org.codice.ddf.libs.klv.KlvDecoder;
 import org.codice.ddf.libs.klv.KlvDecodingException;
 import org.codice.ddf.libs.klv.data.Klv;
@@ -151,16 +156,36 @@ public class Stanag4609TransportStreamParser {
 
   private static final long MAX_UNSIGNED_INT = (1L << 32) - 1;
 
+  /** The universal key of the UAS Datalink Local Set. */
+  static final byte[] UAS_DATALINK_LOCAL_SET_KEY =
+      new byte[] {
+        0x06, 0x0E, 0x2B, 0x34, 0x02, 0x0B, 0x01, 0x01, 0x0E, 0x01, 0x03, 0x01, 0x01, 0x00, 0x00,
+        0x00
+      };
+
   static {
+    UAS_DATALINK_LOCAL_SET_CONTEXT.addDataElement(createUasDatalinkLocalSet(name -> true));
+  }
+
+  /**
+   * Create a context that decodes only some of the data elements of the UAS Datalink Local Set.
+   * The other data elements are skipped by the {@link KlvDecoder} without being decoded, which is
+   * cheaper when the caller only uses a few of them. Naming a data element of the security local
+   * set, such as {@link #CAVEATS}, decodes the security local set with only the named data
+   * elements, while naming {@link #SECURITY_LOCAL_METADATA_SET} decodes all of it.
+   *
+   * @param dataElementNames the names of the data elements to decode (must be non-null)
+   * @return a context that can be passed to {@link KlvDecoder}
+   */
+  public static KlvContext createUasDatalinkLocalSetContext(Collection<String> dataElementNames) {
+    final Set<String> names = new HashSet<>(dataElementNames);
+    final KlvContext klvContext = new KlvContext(KeyLength.SIXTEEN_BYTES, LengthEncoding.BER);
+    klvContext.addDataElement(createUasDatalinkLocalSet(names::contains));
+    return klvContext;
+  }
+
+  private static KlvLocalSet createUasDatalinkLocalSet(final Predicate<String> isIncluded) {
     final KlvContext localSetContext = new KlvContext(Klv.KeyLength.ONE_BYTE, LengthEncoding.BER);
-    final KlvLocalSet outerSet =
-        new KlvLocalSet(
-            new byte[] {
-              0x06, 0x0E, 0x2B, 0x34, 0x02, 0x0B, 0x01, 0x01, 0x0E, 0x01, 0x03, 0x01, 0x01, 0x00,
-              0x00, 0x00
-            },
-            UAS_DATALINK_LOCAL_SET,
-            localSetContext);
 
     localSetContext.addDataElement(new KlvUnsignedShort(new byte[] {1}, CHECKSUM));
     localSetContext.addDataElement(new KlvLong(new byte[] {2}, TIMESTAMP));
@@ -390,10 +415,34 @@ public class Stanag4609TransportStreamParser {
     securityLocalSetContext.addDataElement(
         new KlvEncodingDetectedString(new byte[] {13}, OBJECT_COUNTRY_CODES));
 
-    localSetContext.addDataElement(
-        new KlvLocalSet(new byte[] {48}, SECURITY_LOCAL_METADATA_SET, securityLocalSetContext));
+    final Predicate<String> isSecurityIncluded =
+        name -> isIncluded.test(SECURITY_LOCAL_METADATA_SET) || isIncluded.test(name);
+    final KlvContext filteredSecurityLocalSetContext =
+        filter(securityLocalSetContext, isSecurityIncluded);
+
+    if (!filteredSecurityLocalSetContext.getDataElements().isEmpty()) {
+      localSetContext.addDataElement(
+          new KlvLocalSet(
+              new byte[] {48}, SECURITY_LOCAL_METADATA_SET, filteredSecurityLocalSetContext));
+    }
+
+    return new KlvLocalSet(
+        UAS_DATALINK_LOCAL_SET_KEY,
+        UAS_DATALINK_LOCAL_SET,
+        filter(
+            localSetContext,
+            name -> isIncluded.test(name) || SECURITY_LOCAL_METADATA_SET.equals(name)));
+  }
 
-    UAS_DATALINK_LOCAL_SET_CONTEXT.addDataElement(outerSet);
+  private static KlvContext filter(
+      final KlvContext klvContext, final Predicate<String> isIncluded) {
+    final KlvContext filteredContext = new KlvContext(Klv.KeyLength.ONE_BYTE, LengthEncoding.BER);
+    for (final KlvDataElement dataElement : klvContext.getDataElements().values()) {
+      if (isIncluded.test(dataElement.getName())) {
+        filteredContext.addDataElement(dataElement);
+      }
+    }
+    return filteredContext;
   }
 
   private final MpegTransportStreamMetadataExtractor extractor;
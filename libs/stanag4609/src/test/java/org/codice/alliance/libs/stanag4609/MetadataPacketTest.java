@@ -20,6 +20,8 @@ import static org.hamcrest.Matchers.lessThan;
 import static org.junit.Assert.assertThat;
 
 import java.nio.ByteBuffer;
+import java.util.Collections;
+import javax.xml.bind.DatatypeConverter;
 import org.codice.ddf.libs.klv.KlvContext;
 import org.codice.ddf.libs.klv.KlvDataElement;
 import org.codice.ddf.libs.klv.KlvDecoder;
@@ -32,6 +34,15 @@ import org.junit.Test;
 
 public class MetadataPacketTest {
 
+  /** An asynchronous metadata packet containing a timestamp, a mission id and a checksum. */
+  private static final byte[] MISSION_ID_AND_TIMESTAMP_PACKET =
+      DatatypeConverter.parseHexBinary(
+          "000001bd0029850000"
+              + "060e2b34020b01010e0103010100000015"
+              + "02080004e4eaad53fb48"
+              + "03053030303031"
+              + "01025574");
+
   /**
    * The binary data in this test was captured from a data stream where the PES header contains an
    * optional timestamp.
@@ -550,6 +561,49 @@ public class MetadataPacketTest {
         is(19537));
   }
 
+  @Test
+  public void testSelectiveDecoding() throws Exception {
+    final AsynchronousMetadataPacket packet =
+        new AsynchronousMetadataPacket(
+            MISSION_ID_AND_TIMESTAMP_PACKET,
+            MPSUtils.readPESHeader(ByteBuffer.wrap(MISSION_ID_AND_TIMESTAMP_PACKET), 0),
+            new KlvDecoder(
+                Stanag4609TransportStreamParser.createUasDatalinkLocalSetContext(
+                    Collections.singleton(Stanag4609TransportStreamParser.MISSION_ID))));
+
+    final KlvContext localSetContext = getLocalSetContext(packet.decodeKLV());
+
+    assertThat(localSetContext.getDataElements().size(), is(1));
+    assertThat(
+        localSetContext.getDataElementByName(Stanag4609TransportStreamParser.MISSION_ID).getValue(),
+        is("00001"));
+  }
+
+  @Test
+  public void testFullDecoding() throws Exception {
+    final AsynchronousMetadataPacket packet =
+        new AsynchronousMetadataPacket(
+            MISSION_ID_AND_TIMESTAMP_PACKET,
+            MPSUtils.readPESHeader(ByteBuffer.wrap(MISSION_ID_AND_TIMESTAMP_PACKET), 0),
+            new KlvDecoder(Stanag4609TransportStreamParser.UAS_DATALINK_LOCAL_SET_CONTEXT));
+
+    final KlvContext localSetContext = getLocalSetContext(packet.decodeKLV());
+
+    assertThat(localSetContext.getDataElements().size(), is(3));
+    assertThat(
+        localSetContext.getDataElementByName(Stanag4609TransportStreamParser.TIMESTAMP).getValue(),
+        is(1377596488285000L));
+  }
+
+  private KlvContext getLocalSetContext(final DecodedKLVMetadataPacket decodedPacket) {
+    assertThat(decodedPacket, notNullValue());
+    return ((KlvLocalSet)
+            decodedPacket
+                .getDecodedKLV()
+                .getDataElementByName(Stanag4609TransportStreamParser.UAS_DATALINK_LOCAL_SET))
+        .getValue();
+  }
+
   @Test(expected = KlvDecodingException.class)
   public void testWrongChecksum() throws Exception {
     final byte[] pesPacketBytes =